@@ -0,0 +1,113 @@
+package com.daniel.practice.redis.policy;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// CIDR 대역 100만 개(IPv4 90만 + IPv6 10만) 트리 조회 벤치마크
+// 실행: ./gradlew :redis:jmh
+// 조회 주소는 절반은 등록된 대역 안, 절반은 무작위로 미리 만들어 두고 돌아가며 조회한다.
+// exactSet 은 같은 수의 단일 IP 를 HashSet<String> 으로 조회하는 기존 방식(정확히 일치) 비교용
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CidrTrieBenchmark {
+
+	private static final int PREFIXES = 1_000_000;
+	private static final int IPV6_PREFIXES = 100_000;
+	private static final int LOOKUPS = 4096;
+	private static final int MASK = LOOKUPS - 1;
+
+	private CidrTrie trie;
+	private Set<String> exactSet;
+	private String[] ipv4;
+	private long[] ipv4Parsed;
+	private String[] ipv6;
+	private int index;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		CidrTrie.Builder builder = CidrTrie.builder();
+		exactSet = new HashSet<>(PREFIXES * 2);
+
+		long[] v4Prefixes = new long[PREFIXES - IPV6_PREFIXES];
+		for (int i = 0; i < v4Prefixes.length; i++) {
+			v4Prefixes[i] = random.nextInt() & 0xFFFFFFFFL;
+			builder.addIpv4(v4Prefixes[i], 16 + random.nextInt(17));
+			exactSet.add(formatIpv4(v4Prefixes[i]));
+		}
+		long[] v6Prefixes = new long[IPV6_PREFIXES];
+		for (int i = 0; i < v6Prefixes.length; i++) {
+			// 2001:db8::/32 아래 /48 ~ /64
+			v6Prefixes[i] = 0x20010DB800000000L | random.nextInt() & 0xFFFFFFFFL;
+			builder.addIpv6(v6Prefixes[i], 0, 48 + random.nextInt(17));
+		}
+		trie = builder.build();
+
+		ipv4 = new String[LOOKUPS];
+		ipv4Parsed = new long[LOOKUPS];
+		ipv6 = new String[LOOKUPS];
+		for (int i = 0; i < LOOKUPS; i++) {
+			long v4 = i % 2 == 0
+				? v4Prefixes[random.nextInt(v4Prefixes.length)] ^ random.nextInt(256)
+				: random.nextInt() & 0xFFFFFFFFL;
+			ipv4[i] = formatIpv4(v4);
+			ipv4Parsed[i] = v4;
+
+			long high = i % 2 == 0
+				? v6Prefixes[random.nextInt(v6Prefixes.length)]
+				: 0x20010DB800000000L | random.nextInt() & 0xFFFFFFFFL;
+			ipv6[i] = formatIpv6(high, random.nextLong());
+		}
+	}
+
+	// 문자열 파싱 + 트리 조회 (IPv4)
+	@Benchmark
+	public boolean ipv4String() {
+		return trie.contains(ipv4[index++ & MASK]);
+	}
+
+	// 파싱된 주소 트리 조회만 (IPv4)
+	@Benchmark
+	public boolean ipv4Parsed() {
+		return trie.containsIpv4(ipv4Parsed[index++ & MASK]);
+	}
+
+	// 문자열 파싱(상위/하위 두 번) + 트리 조회 (IPv6)
+	@Benchmark
+	public boolean ipv6String() {
+		return trie.contains(ipv6[index++ & MASK]);
+	}
+
+	// 비교: 단일 IP HashSet 조회
+	@Benchmark
+	public boolean exactSet() {
+		return exactSet.contains(ipv4[index++ & MASK]);
+	}
+
+	private static String formatIpv4(long address) {
+		return (address >>> 24) + "." + (address >>> 16 & 0xFF) + "." + (address >>> 8 & 0xFF) + "." + (address & 0xFF);
+	}
+
+	private static String formatIpv6(long high, long low) {
+		StringBuilder sb = new StringBuilder(39);
+		for (int group = 0; group < 8; group++) {
+			long half = group < 4 ? high : low;
+			if (group > 0) {
+				sb.append(':');
+			}
+			sb.append(Long.toHexString(half >>> (48 - 16 * (group % 4)) & 0xFFFF));
+		}
+		return sb.toString();
+	}
+}
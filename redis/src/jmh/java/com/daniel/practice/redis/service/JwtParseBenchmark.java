@@ -0,0 +1,52 @@
+package com.daniel.practice.redis.service;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.daniel.practice.redis.config.JwtProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// 같은 토큰 반복 검증: 검증 결과 캐시 vs 매번 서명 검증 + 파싱
+// 실행: ./gradlew :redis:jmh
+// 요청 대부분이 이미 본 Bearer 토큰이라는 가정이므로 토큰 하나를 계속 검증한다.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JwtParseBenchmark {
+
+	private JwtService cached;
+	private JwtService uncached;
+	private String cachedToken;
+	private String uncachedToken;
+
+	@Setup
+	public void setUp() {
+		cached = new JwtService(new JwtProperties(), new SimpleMeterRegistry());
+		JwtProperties disabled = new JwtProperties();
+		disabled.getVerifiedCache().setEnabled(false);
+		uncached = new JwtService(disabled, new SimpleMeterRegistry());
+
+		cachedToken = cached.generateToken("bench-user", "USER", TimeUnit.HOURS.toMillis(1));
+		uncachedToken = uncached.generateToken("bench-user", "USER", TimeUnit.HOURS.toMillis(1));
+	}
+
+	// digest(SHA-256) + 캐시 조회
+	@Benchmark
+	public Object cached() {
+		return cached.parseToken(cachedToken);
+	}
+
+	// HMAC 서명 검증 + 헤더/클레임 JSON 파싱
+	@Benchmark
+	public Object uncached() {
+		return uncached.parseToken(uncachedToken);
+	}
+}
@@ -0,0 +1,35 @@
+package com.daniel.practice.redis.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import com.daniel.practice.redis.enums.RateLimitKeyType;
+import com.daniel.practice.redis.enums.RateLimitWindow;
+
+// 컨트롤러 메서드 Rate Limit
+// RateLimitInterceptor 가 컨트롤러 호출(요청 본문 역직렬화 포함) 전에 검사하고, 초과 시 429 로 응답한다.
+// 여러 개를 붙이면 모두 한 번의 스크립트 호출로 함께 검사
+// 예) @RateLimited(key = RateLimitKeyType.IP, window = RateLimitWindow.MINUTE, limit = 10)
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Repeatable(RateLimited.List.class)
+public @interface RateLimited {
+
+	RateLimitKeyType key() default RateLimitKeyType.IP;
+
+	RateLimitWindow window() default RateLimitWindow.MINUTE;
+
+	int limit();
+
+	@Documented
+	@Target(ElementType.METHOD)
+	@Retention(RetentionPolicy.RUNTIME)
+	@interface List {
+		RateLimited[] value();
+	}
+}
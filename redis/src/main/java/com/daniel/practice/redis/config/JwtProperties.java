@@ -0,0 +1,27 @@
+package com.daniel.practice.redis.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@ConfigurationProperties(prefix = "jwt")
+public class JwtProperties {
+
+	private final VerifiedCache verifiedCache = new VerifiedCache();
+
+	// 서명 검증을 통과한 토큰의 클레임 캐시 (노드 로컬)
+	@Getter
+	@Setter
+	public static class VerifiedCache {
+		private boolean enabled = true;
+		// 토큰 길이로 추정한 항목 크기 합계 상한 (넘으면 자주 쓰이지 않는 토큰부터 제거)
+		private DataSize maxMemory = DataSize.ofMegabytes(32);
+		// exp 가 없는 토큰을 캐시에 두는 최대 시간 (exp 가 있으면 exp 와 이 값 중 먼저 오는 시각에 제거)
+		private Duration maxTtl = Duration.ofMinutes(10);
+	}
+}
@@ -0,0 +1,238 @@
+package com.daniel.practice.redis.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import com.daniel.practice.redis.enums.RateLimitStrategy;
+import com.daniel.practice.redis.enums.RateLimitWindow;
+import com.daniel.practice.redis.enums.ShardSelection;
+import com.daniel.practice.redis.enums.UserRateLimitMode;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+
+	private final Ip ip = new Ip();
+	private final User user = new User();
+	private final Policy policy = new Policy();
+	private final Token token = new Token();
+	private final Degraded degraded = new Degraded();
+	private final Sharding sharding = new Sharding();
+	private final Stats stats = new Stats();
+
+	@Getter
+	@Setter
+	public static class Ip {
+		// 윈도우별 전략 (지정하지 않은 윈도우는 고정 윈도우)
+		private Map<RateLimitWindow, RateLimitStrategy> strategies = new EnumMap<>(RateLimitWindow.class);
+		// 슬라이딩 로그 키 하나에 보관할 최대 요청 기록 수
+		// 제한값이 이보다 큰 윈도우는 메모리 보호를 위해 고정 윈도우로 처리
+		private int maxLogEntries = 1000;
+		// WebFlux 필터(ReactiveRateLimitFilter)가 적용하는 IP당 분당 제한
+		private int filterLimitPerMinute = 100;
+		// X-Forwarded-For 를 믿을 프록시 대역 (ClientIpResolver)
+		// 접속 주소가 이 대역이 아니면 헤더를 무시하고 접속 주소를 클라이언트 IP 로 사용
+		private List<String> trustedProxies = new ArrayList<>(List.of("127.0.0.1/32", "::1/128"));
+		private final HeavyHitter heavyHitter = new HeavyHitter();
+		private final Restriction restriction = new Restriction();
+
+		public RateLimitStrategy strategyOf(RateLimitWindow window) {
+			return strategies.getOrDefault(window, RateLimitStrategy.FIXED_WINDOW);
+		}
+	}
+
+	@Getter
+	@Setter
+	public static class HeavyHitter {
+		// 모든 요청의 IP 를 Count-Min Sketch 로 집계해 기준을 넘은 IP 를 일시 차단 (HeavyHitterInterceptor)
+		private boolean enabled = false;
+		// 스케치 크기 = depth × width × 4바이트 (기본 1MB), 오차는 width 가 클수록, 확률은 depth 가 클수록 작아짐
+		private int depth = 4;
+		private int width = 65536;
+		// 윈도우마다 스케치를 새로 시작
+		private Duration window = Duration.ofMinutes(1);
+		// 윈도우당 이 값 이상 요청한 IP 를 헤비 히터로 판단
+		private long threshold = 1000;
+		// 추정 요청 수 상위 IP 보관 개수
+		private int topK = 100;
+		// 헤비 히터를 IpRestrictionService 로 일시 차단 (추정값 오차로 정상 IP 가 걸려도 banDuration 뒤 풀림)
+		private boolean autoBan = true;
+		private Duration banDuration = Duration.ofMinutes(10);
+
+		// 0 이하면 Top-K 가 비어 있어 최솟값 비교가 실패하므로 설정을 읽을 때 거부
+		public void setTopK(int topK) {
+			if (topK < 1) {
+				throw new IllegalArgumentException("top-k 는 1 이상이어야 합니다: " + topK);
+			}
+			this.topK = topK;
+		}
+	}
+
+	@Getter
+	@Setter
+	public static class Restriction {
+		// 화이트리스트/블랙리스트를 노드 메모리의 불변 스냅샷으로 조회 (변경은 ip:restriction:changed 알림으로 반영)
+		private boolean localSnapshot = true;
+		// 마지막으로 Redis 와 버전을 맞춘 뒤 이 시간이 지나면 스냅샷을 쓰지 않고 Redis 에서 직접 조회
+		private Duration maxStaleness = Duration.ofSeconds(5);
+		// 목록 조회·스냅샷 다시 읽기(SSCAN / ZSCAN COUNT)와 가져오기(SADD 한 번에 넣는 IP 수) 단위
+		private int batchSize = 1000;
+		// 기동 시 이전 버전의 JSON 문자열 멤버를 압축 표현으로 변환 (IpRestrictionService.migrate)
+		private boolean migrateOnStartup = true;
+	}
+
+	@Getter
+	@Setter
+	public static class User {
+		// counter: 시간당/일일 카운터, gcra: 시간당 제한을 GCRA 로 평가 (일일 제한은 카운터 유지)
+		private UserRateLimitMode mode = UserRateLimitMode.COUNTER;
+		private final Gcra gcra = new Gcra();
+		private final Lease lease = new Lease();
+	}
+
+	@Getter
+	@Setter
+	public static class Gcra {
+		// 지속 허용 속도 = 등급별 시간당 제한 / period
+		private Duration period = Duration.ofHours(1);
+		// 쉬지 않고 몰아서 보낼 수 있는 요청 수 = 시간당 제한 × burst-ratio (최소 1)
+		private double burstRatio = 0.1;
+	}
+
+	@Getter
+	@Setter
+	public static class Lease {
+		// 시간당 제한이 큰 사용자는 허용량을 묶음으로 빌려와 노드 로컬에서 차감 (counter 모드에서만 동작)
+		private boolean enabled = false;
+		// 이 값 이상의 시간당 제한을 가진 사용자만 lease 사용
+		private int minLimit = 1000;
+		// 한 번에 빌릴 개수 = 시간당 제한 × ratio
+		private double ratio = 0.05;
+		// lease 유지 시간, 지나면 남은 허용량을 반납하고 새로 빌림
+		private Duration ttl = Duration.ofSeconds(1);
+	}
+
+	@Getter
+	@Setter
+	public static class Token {
+		private final History history = new History();
+	}
+
+	@Getter
+	@Setter
+	public static class History {
+		// 토큰당 Stream 에 남길 대략적인 최대 항목 수 (XADD MAXLEN ~)
+		private long maxLen = 1000;
+		// 마지막 기록 이후 Stream 유지 시간
+		private Duration ttl = Duration.ofDays(1);
+		// 한 번의 파이프라인으로 기록할 최대 항목 수
+		private int batchSize = 500;
+		// 기록 대기열 크기, 가득 차면 새 기록은 버림 (요청 처리를 막지 않음)
+		private int queueCapacity = 10000;
+		// 기록 주기(100ms)마다 최대 묶음 수 (스케줄러 스레드를 오래 잡지 않도록)
+		private int maxBatchesPerFlush = 10;
+	}
+
+	@Getter
+	@Setter
+	public static class Degraded {
+		// Redis 장애/지연 시 노드 로컬 제한기로 전환 (RedisCircuitBreaker)
+		private boolean enabled = true;
+		// 연속 실패(예외 또는 slow-call-threshold 초과) 횟수가 이 값에 도달하면 차단
+		private int failureThreshold = 5;
+		private Duration slowCallThreshold = Duration.ofMillis(200);
+		// 리액티브 호출 제한 시간, 넘으면 실패로 세고 로컬 제한기 사용 (Redis 명령 timeout 보다 짧게)
+		private Duration timeout = Duration.ofMillis(500);
+		// 차단 유지 시간, 지나면 호출 1건으로 회복 여부 확인
+		private Duration openDuration = Duration.ofSeconds(5);
+		// 로컬 제한 = 전체 제한 / node-count (노드 수만큼 나눠 가짐)
+		private int nodeCount = 1;
+		// 로컬 카운터 테이블 크기 (2의 거듭제곱으로 올림)
+		private int stripes = 4096;
+	}
+
+	@Getter
+	@Setter
+	public static class Sharding {
+		// 요청이 몰리는 사용자/토큰 카운터를 하위 키 여러 개로 나눠 증가 (ShardedCounterService)
+		private boolean enabled = false;
+		// 카운터 하나를 나눌 하위 키 수
+		private int shards = 8;
+		private ShardSelection selection = ShardSelection.NODE;
+		// 노드에서 관측한 키별 초당 요청 수가 이 값 이상이면 샤딩 시작 (윈도우가 끝날 때까지 유지)
+		private int hotKeyQps = 500;
+		// 샤드 합계를 다시 읽는 주기, 그 사이 다른 노드의 증가분만큼 초과 허용될 수 있음
+		private Duration refreshInterval = Duration.ofMillis(100);
+	}
+
+	@Getter
+	@Setter
+	public static class Stats {
+		// Rate Limit 확인 때마다 IP/사용자/토큰을 분·시간·일 버킷 HyperLogLog 에 기록 (CardinalityStatsService)
+		private boolean enabled = true;
+		// 기록 대기열 크기 (가득 차면 버림) / 파이프라인 한 번에 기록하는 개수
+		private int queueCapacity = 100000;
+		private int batchSize = 1000;
+		// 기록 주기(100ms)마다 최대 묶음 수 (스케줄러 스레드를 오래 잡지 않도록)
+		private int maxBatchesPerFlush = 10;
+		// 버킷 보관 기간 (버킷당 최대 약 12KB)
+		private Duration minuteRetention = Duration.ofHours(2);
+		private Duration hourRetention = Duration.ofDays(2);
+		private Duration dayRetention = Duration.ofDays(35);
+
+		public Duration retentionOf(RateLimitWindow window) {
+			return switch (window) {
+				case MINUTE -> minuteRetention;
+				case HOUR -> hourRetention;
+				case DAY -> dayRetention;
+			};
+		}
+	}
+
+	// 등급별 제한 (TierPolicyRegistry 가 Redis Hash 에 저장하고 접두사 트라이로 조회)
+	// 접두사가 가장 길게 일치하는 등급을 적용하고, 빈 접두사("")는 기본값
+	@Getter
+	@Setter
+	public static class Policy {
+		private List<UserTier> users = new ArrayList<>(List.of(
+			new UserTier("", 100, 1000),
+			new UserTier("premium_", 1000, 10000),
+			new UserTier("enterprise_", 10000, 100000)
+		));
+		private List<TokenTier> tokens = new ArrayList<>(List.of(
+			new TokenTier("", 1000),
+			new TokenTier("pay_", 10),
+			new TokenTier("api_", 1000),
+			new TokenTier("temp_", 1)
+		));
+	}
+
+	@Getter
+	@Setter
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class UserTier {
+		private String prefix = "";
+		private int hourlyLimit;
+		private int dailyLimit;
+	}
+
+	@Getter
+	@Setter
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class TokenTier {
+		private String prefix = "";
+		private int limit;
+	}
+}
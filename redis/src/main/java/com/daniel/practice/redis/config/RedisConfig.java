@@ -2,16 +2,19 @@ package com.daniel.practice.redis.config;
 
 import static org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair.*;
 
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 @Configuration
+@EnableConfigurationProperties({RateLimitProperties.class, JwtProperties.class})
 public class RedisConfig {
 
 	@Bean
@@ -46,4 +49,12 @@ public class RedisConfig {
 			.cacheDefaults(config)
 			.build();
 	}
+
+	// Pub/Sub 구독용 컨테이너 (등급 정책 변경 알림 등)
+	@Bean
+	public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+		RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+		container.setConnectionFactory(connectionFactory);
+		return container;
+	}
 }
@@ -0,0 +1,71 @@
+package com.daniel.practice.redis.config;
+
+import java.util.List;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.script.RedisScript;
+
+// Lua 스크립트 모음
+// RedisTemplate.execute() 는 EVALSHA 로 먼저 호출하고, 서버에 캐시가 없을 때(NOSCRIPT)만 EVAL 로 본문을 전송한다.
+// SHA1 은 스크립트 객체에 한 번만 계산되므로 상수로 두고 재사용한다.
+@SuppressWarnings("rawtypes")
+public final class RedisScripts {
+
+	// 고정 윈도우 Rate Limit: {허용 여부, 카운트, TTL}
+	public static final RedisScript<List> FIXED_WINDOW = load("scripts/fixed-window.lua");
+	// 고정 윈도우 여러 개 동시 검사 (@RateLimited): {허용 여부, 초과된 제한 번호, TTL}
+	public static final RedisScript<List> MULTI_FIXED_WINDOW = load("scripts/multi-fixed-window.lua");
+	// 슬라이딩 윈도우 로그 Rate Limit: {허용 여부, 윈도우 내 요청 수, TTL}
+	public static final RedisScript<List> SLIDING_LOG = load("scripts/sliding-log.lua");
+	// 슬라이딩 윈도우 카운터 Rate Limit: {허용 여부, 추정 요청 수, TTL}
+	public static final RedisScript<List> SLIDING_COUNTER = load("scripts/sliding-counter.lua");
+	// GCRA Rate Limit: {허용 여부, 사용 중인 버스트 수, 재시도 대기(ms), 회복까지 남은 시간(ms)}
+	public static final RedisScript<List> GCRA = load("scripts/gcra.lua");
+	// 사용자 시간당/일일 + 토큰 통합 제한 (N개 예약, 샤드 합계 포함): {전체/시간당/일일/토큰 허용 여부, 각 카운트, 토큰 TTL, 허용된 개수, 재시도 대기}
+	public static final RedisScript<List> COMBINED_QUOTA = load("scripts/combined-quota.lua");
+	// Hash 필드 카운터 Rate Limit (사용자 시간당/일일, 리액티브 서비스용): {허용 여부, 카운트, TTL}
+	public static final RedisScript<List> HASH_COUNTER = load("scripts/hash-counter.lua");
+	// IP 헤비 히터 집계 (Count-Min Sketch + Top-K): {추정 요청 수, 기준을 처음 넘었는지}
+	public static final RedisScript<List> HEAVY_HITTER = load("scripts/heavy-hitter.lua");
+	// IP 화이트리스트/블랙리스트 변경 + 버전 증가 + 변경 알림: {바뀌었는지, 변경 후 버전}
+	public static final RedisScript<List> IP_RESTRICTION_UPDATE = load("scripts/ip-restriction-update.lua");
+	// IP 임시 차단 등록/해제 + 버전 증가 + 변경 알림: {바뀌었는지, 변경 후 버전, 만료 시각}
+	public static final RedisScript<List> IP_TEMP_BAN = load("scripts/ip-temp-ban.lua");
+	// Set 한 페이지 조회 (커서 이어받기): {다음 커서, 멤버 목록}
+	public static final RedisScript<List> SSCAN = load("scripts/sscan.lua");
+	// 토큰 사용 횟수 제한: {허용 여부, 현재 카운트, 제한, TTL}
+	public static final RedisScript<List> TOKEN_USAGE = load("scripts/token-usage.lua");
+	// 시간당 카운터에서 허용량 묶음 대여: {빌린 개수, 윈도우 식별자}
+	public static final RedisScript<List> LEASE_BORROW = load("scripts/lease-borrow.lua");
+	// 쓰지 못한 lease 반납 (빌린 윈도우가 그대로일 때만): 반납한 개수
+	public static final RedisScript<Long> LEASE_RETURN = RedisScript.of(
+		new ClassPathResource("scripts/lease-return.lua"), Long.class);
+	// IP 목록 일괄 변경 후 버전 증가 + 다시 읽기 알림: 변경 후 버전
+	public static final RedisScript<Long> IP_RESTRICTION_RELOAD = RedisScript.of(
+		new ClassPathResource("scripts/ip-restriction-reload.lua"), Long.class);
+	// 만료된 IP 임시 차단 정리 (최대 개수 제한): 지운 개수
+	public static final RedisScript<Long> IP_TEMP_BAN_SWEEP = RedisScript.of(
+		new ClassPathResource("scripts/ip-temp-ban-sweep.lua"), Long.class);
+	// IP Rate Limit 1건 되돌리기 (리액티브 필터에서 뒤 단계가 거부한 요청): 되돌린 개수
+	public static final RedisScript<Long> IP_RATE_REFUND = RedisScript.of(
+		new ClassPathResource("scripts/ip-rate-refund.lua"), Long.class);
+	// 토큰 폐기 등록 (빈 값 + 토큰 exp 에 PXAT 만료): 새로 등록했으면 1
+	public static final RedisScript<Long> TOKEN_REVOKE = RedisScript.of(
+		new ClassPathResource("scripts/token-revoke.lua"), Long.class);
+	// 로컬 제한기(Redis 차단 중)에서 허용한 개수를 카운터에 반영: 반영 후 카운트
+	public static final RedisScript<Long> RECONCILE = RedisScript.of(
+		new ClassPathResource("scripts/reconcile.lua"), Long.class);
+	// 핫 키 샤드 1개 증가 (기존 키와 같은 시각에 만료): 증가 후 샤드 카운트
+	public static final RedisScript<Long> SHARD_INCR = RedisScript.of(
+		new ClassPathResource("scripts/shard-incr.lua"), Long.class);
+	// 샤딩 중인 카운터의 윈도우 시작 (기존 키가 없으면 생성): 기존 키 남은 시간(ms)
+	public static final RedisScript<Long> SHARD_WINDOW = RedisScript.of(
+		new ClassPathResource("scripts/shard-window.lua"), Long.class);
+
+	private RedisScripts() {
+	}
+
+	private static RedisScript<List> load(String path) {
+		return RedisScript.of(new ClassPathResource(path), List.class);
+	}
+}
@@ -0,0 +1,26 @@
+package com.daniel.practice.redis.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.daniel.practice.redis.interceptor.HeavyHitterInterceptor;
+import com.daniel.practice.redis.interceptor.RateLimitInterceptor;
+
+import lombok.RequiredArgsConstructor;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+	private final RateLimitInterceptor rateLimitInterceptor;
+	private final HeavyHitterInterceptor heavyHitterInterceptor;
+
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		// 모든 요청 IP 를 헤비 히터 스케치에 집계 (비활성화 시 바로 통과)
+		registry.addInterceptor(heavyHitterInterceptor);
+		// @RateLimited 가 붙은 메서드만 검사 (나머지는 Map 조회 후 바로 통과)
+		registry.addInterceptor(rateLimitInterceptor);
+	}
+}
@@ -0,0 +1,41 @@
+package com.daniel.practice.redis.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.daniel.practice.redis.enums.RateLimitKeyType;
+import com.daniel.practice.redis.enums.RateLimitWindow;
+import com.daniel.practice.redis.service.CardinalityStatsService;
+
+import lombok.RequiredArgsConstructor;
+
+// 고유 IP/사용자/토큰 수 조회 (HyperLogLog, 키 스캔 없음)
+@RestController
+@RequestMapping("/rate-limit/stats")
+@RequiredArgsConstructor
+public class CardinalityStatsController {
+
+	private final CardinalityStatsService cardinalityStatsService;
+
+	// 현재 분/시간/일 버킷의 고유 수
+	@GetMapping
+	public ResponseEntity<?> getCurrentStats() {
+		return ResponseEntity.ok(cardinalityStatsService.current());
+	}
+
+	// 최근 N개 버킷의 고유 수 (예: /rate-limit/stats/ip?window=minute&buckets=60 → 최근 1시간)
+	@GetMapping("/{type}")
+	public ResponseEntity<?> getStats(@PathVariable String type,
+		@RequestParam(defaultValue = "minute") String window, @RequestParam(defaultValue = "1") int buckets) {
+		try {
+			return ResponseEntity.ok(cardinalityStatsService.count(
+				RateLimitKeyType.valueOf(type.toUpperCase()), RateLimitWindow.from(window), buckets));
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body("지원하지 않는 타입/윈도우: " + type + ", " + window);
+		}
+	}
+}
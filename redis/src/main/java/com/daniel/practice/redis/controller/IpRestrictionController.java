@@ -1,15 +1,22 @@
 package com.daniel.practice.redis.controller;
 
-import java.util.Set;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
 
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.daniel.practice.redis.policy.IpRestrictionSnapshot;
+import com.daniel.practice.redis.service.HeavyHitterService;
 import com.daniel.practice.redis.service.IpRestrictionService;
 
 import lombok.RequiredArgsConstructor;
@@ -20,6 +27,7 @@ import lombok.RequiredArgsConstructor;
 public class IpRestrictionController {
 
 	private final IpRestrictionService ipRestrictionService;
+	private final HeavyHitterService heavyHitterService;
 
 	// IP 접근 허용 여부 확인 (실습용 엔드포인트)
 	@GetMapping("/check/{ip}")
@@ -33,14 +41,22 @@ public class IpRestrictionController {
 	// 화이트리스트에 IP 추가
 	@PostMapping("/whitelist/{ip}")
 	public ResponseEntity<?> addToWhitelist(@PathVariable String ip) {
-		ipRestrictionService.addToWhiteList(ip);
+		try {
+			ipRestrictionService.addToWhiteList(ip);
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
 		return ResponseEntity.ok().body("화이트리스트에 추가됨: " + ip);
 	}
 
 	// 블랙리스트에 IP 추가
 	@PostMapping("/blacklist/{ip}")
 	public ResponseEntity<?> addToBlacklist(@PathVariable String ip) {
-		ipRestrictionService.addToBlackList(ip);
+		try {
+			ipRestrictionService.addToBlackList(ip);
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
 		return ResponseEntity.ok().body("블랙리스트에 추가됨: " + ip);
 	}
 
@@ -58,17 +74,136 @@ public class IpRestrictionController {
 		return ResponseEntity.ok().body("블랙리스트에서 제거됨: " + ip);
 	}
 
-	// 화이트리스트 전체 조회
+	// 화이트리스트에 CIDR 대역 추가 (경로에 "/" 를 쓸 수 없으므로 파라미터로 전달, 예: ?cidr=10.0.0.0/8)
+	@PostMapping("/whitelist")
+	public ResponseEntity<?> addRangeToWhitelist(@RequestParam String cidr) {
+		try {
+			ipRestrictionService.addToWhiteList(cidr);
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
+		return ResponseEntity.ok().body("화이트리스트에 추가됨: " + cidr);
+	}
+
+	// 블랙리스트에 CIDR 대역 추가
+	@PostMapping("/blacklist")
+	public ResponseEntity<?> addRangeToBlacklist(@RequestParam String cidr) {
+		try {
+			ipRestrictionService.addToBlackList(cidr);
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
+		return ResponseEntity.ok().body("블랙리스트에 추가됨: " + cidr);
+	}
+
+	// 화이트리스트에서 CIDR 대역 제거
+	@DeleteMapping("/whitelist")
+	public ResponseEntity<?> removeRangeFromWhitelist(@RequestParam String cidr) {
+		ipRestrictionService.removeFromWhitelist(cidr);
+		return ResponseEntity.ok().body("화이트리스트에서 제거됨: " + cidr);
+	}
+
+	// 블랙리스트에서 CIDR 대역 제거
+	@DeleteMapping("/blacklist")
+	public ResponseEntity<?> removeRangeFromBlacklist(@RequestParam String cidr) {
+		ipRestrictionService.removeFromBlacklist(cidr);
+		return ResponseEntity.ok().body("블랙리스트에서 제거됨: " + cidr);
+	}
+
+	// IP 임시 차단 (만료되면 자동 해제)
+	@PostMapping("/ban/{ip}")
+	public ResponseEntity<?> ban(@PathVariable String ip, @RequestParam long seconds) {
+		long expiresAt;
+		try {
+			expiresAt = ipRestrictionService.banTemporarily(ip, Duration.ofSeconds(seconds));
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
+		return ResponseEntity.ok().body("임시 차단됨: " + ip + " (" + expiresAt + " 까지)");
+	}
+
+	// IP 임시 차단 해제
+	@DeleteMapping("/ban/{ip}")
+	public ResponseEntity<?> unban(@PathVariable String ip) {
+		ipRestrictionService.unban(ip);
+		return ResponseEntity.ok().body("임시 차단 해제됨: " + ip);
+	}
+
+	// IP 임시 차단 만료 시각
+	@GetMapping("/ban/{ip}")
+	public ResponseEntity<?> getBan(@PathVariable String ip) {
+		Long expiresAt = ipRestrictionService.getTempBanExpiry(ip);
+		return ResponseEntity.ok().body(
+			expiresAt == null ? "임시 차단 아님: " + ip : "임시 차단 중: " + ip + " (" + expiresAt + " 까지)"
+		);
+	}
+
+	// 화이트리스트 전체 (NDJSON, 한 줄에 IP 하나, SSCAN 으로 나눠 읽으며 바로 응답에 씀)
 	@GetMapping("/whitelist")
-	public ResponseEntity<?> getWhitelist() {
-		Set<Object> whitelist = ipRestrictionService.getWhitelist();
-		return ResponseEntity.ok().body("화이트리스트: " + whitelist);
+	public ResponseEntity<StreamingResponseBody> getWhitelist() {
+		return export(IpRestrictionSnapshot.WHITELIST);
 	}
 
-	// 블랙리스트 전체 조회
+	// 블랙리스트 전체 (NDJSON)
 	@GetMapping("/blacklist")
-	public ResponseEntity<?> getBlacklist() {
-		Set<Object> blacklist = ipRestrictionService.getBlacklist();
-		return ResponseEntity.ok().body("블랙리스트: " + blacklist);
+	public ResponseEntity<StreamingResponseBody> getBlacklist() {
+		return export(IpRestrictionSnapshot.BLACKLIST);
+	}
+
+	// 화이트리스트 한 페이지 (cursor=0 부터, 응답의 cursor 가 "0" 이면 끝)
+	@GetMapping("/whitelist/page")
+	public ResponseEntity<?> getWhitelistPage(@RequestParam(defaultValue = "0") String cursor,
+		@RequestParam(defaultValue = "1000") int count) {
+		return page(IpRestrictionSnapshot.WHITELIST, cursor, count);
+	}
+
+	// 블랙리스트 한 페이지
+	@GetMapping("/blacklist/page")
+	public ResponseEntity<?> getBlacklistPage(@RequestParam(defaultValue = "0") String cursor,
+		@RequestParam(defaultValue = "1000") int count) {
+		return page(IpRestrictionSnapshot.BLACKLIST, cursor, count);
+	}
+
+	// 화이트리스트 가져오기 (요청 본문: 한 줄에 IP 또는 CIDR 대역 하나)
+	// 예: curl --data-binary @ips.txt -H 'Content-Type: text/plain' .../ip-restriction/whitelist/import
+	@PostMapping("/whitelist/import")
+	public ResponseEntity<?> importWhitelist(InputStream body) throws IOException {
+		return ResponseEntity.ok(ipRestrictionService.importList(IpRestrictionSnapshot.WHITELIST, body));
+	}
+
+	// 블랙리스트 가져오기
+	@PostMapping("/blacklist/import")
+	public ResponseEntity<?> importBlacklist(InputStream body) throws IOException {
+		return ResponseEntity.ok(ipRestrictionService.importList(IpRestrictionSnapshot.BLACKLIST, body));
+	}
+
+	// 이전 버전 JSON 문자열 멤버를 압축 표현으로 변환 (한 번만 실행하면 되고 다시 실행해도 결과는 같음)
+	@PostMapping("/migrate")
+	public ResponseEntity<?> migrate() {
+		return ResponseEntity.ok().body("변환된 멤버: " + ipRestrictionService.migrate());
+	}
+
+	// 현재 윈도우의 요청 수 상위 IP (Count-Min Sketch 추정값)
+	@GetMapping("/heavy-hitters")
+	public ResponseEntity<?> getHeavyHitters() {
+		return ResponseEntity.ok(heavyHitterService.getTopK());
+	}
+
+	private ResponseEntity<StreamingResponseBody> export(String list) {
+		StreamingResponseBody body = out -> ipRestrictionService.export(list, out);
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+	}
+
+	private ResponseEntity<?> page(String list, String cursor, int count) {
+		if (count < 1 || count > 10000) {
+			return ResponseEntity.badRequest().body("count 는 1 ~ 10000 이어야 합니다");
+		}
+		try {
+			// SSCAN 커서는 부호 없는 64비트 정수
+			Long.parseUnsignedLong(cursor);
+		} catch (NumberFormatException e) {
+			return ResponseEntity.badRequest().body("잘못된 커서: " + cursor);
+		}
+		return ResponseEntity.ok(ipRestrictionService.getPage(list, cursor, count));
 	}
 }
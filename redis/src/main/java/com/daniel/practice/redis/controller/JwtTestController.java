@@ -13,6 +13,9 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.daniel.practice.redis.annotation.RateLimited;
+import com.daniel.practice.redis.enums.RateLimitKeyType;
+import com.daniel.practice.redis.enums.RateLimitWindow;
 import com.daniel.practice.redis.service.JwtService;
 import com.daniel.practice.redis.service.RedisJwtService;
 
@@ -27,6 +30,8 @@ public class JwtTestController {
 	private final RedisJwtService redisJwtService;
 
 	// 로그인 (토큰 생성 + Redis 저장)
+	// IP당 분당 10회 (무차별 로그인 시도 차단)
+	@RateLimited(key = RateLimitKeyType.IP, window = RateLimitWindow.MINUTE, limit = 10)
 	@PostMapping("/login")
 	public ResponseEntity<?> login(@RequestBody LoginRequest request) {
 		System.out.println("=== 로그인 요청 ===");
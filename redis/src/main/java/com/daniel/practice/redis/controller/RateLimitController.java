@@ -8,9 +8,17 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.daniel.practice.redis.dto.QuotaDecision;
+import com.daniel.practice.redis.dto.RateLimitDecision;
+import com.daniel.practice.redis.dto.TokenUsageEvent;
 import com.daniel.practice.redis.dto.TokenUsageInfo;
+import com.daniel.practice.redis.policy.TierPolicyRegistry;
+import com.daniel.practice.redis.service.CombinedQuotaService;
+import com.daniel.practice.redis.service.TokenUsageHistoryService;
 import com.daniel.practice.redis.service.TokenUsageLimitService;
 import com.daniel.practice.redis.service.UserRateLimitService;
 
@@ -22,6 +30,9 @@ public class RateLimitController {
 
 	private final UserRateLimitService userRateLimitService;
 	private final TokenUsageLimitService tokenUsageLimitService;
+	private final CombinedQuotaService combinedQuotaService;
+	private final TierPolicyRegistry tierPolicyRegistry;
+	private final TokenUsageHistoryService tokenUsageHistoryService;
 
 	// == 사용자별 요청 횟수 제한 ==
 	// 사용자별 시간당 요청 제한 확인
@@ -97,16 +108,17 @@ public class RateLimitController {
 	// 토큰별 사용 횟수 제한 확인
 	@GetMapping("/token/{token}")
 	public ResponseEntity<?> checkTokenUsage(@PathVariable String token) {
-		boolean isAllowed = tokenUsageLimitService.isAllowed(token);
-		TokenUsageInfo info = tokenUsageLimitService.getTokenUsageInfo(token);
+		// 스크립트 응답에 카운트/제한/TTL 이 모두 있으므로 별도 조회 없이 응답 구성
+		RateLimitDecision decision = tokenUsageLimitService.check(token);
+		boolean isAllowed = decision.isAllowed();
 
 		Map<String, Object> response = new HashMap<>();
 		response.put("token", token);
 		response.put("isAllowed", isAllowed);
-		response.put("currentCount", info.getCount());
-		response.put("limit", info.getLimit());
-		response.put("ttl", info.getTtl());
-		response.put("remaining", Math.max(0, info.getLimit() - info.getCount()));
+		response.put("currentCount", decision.getCount());
+		response.put("limit", decision.getLimit());
+		response.put("ttl", decision.getTtl());
+		response.put("remaining", Math.max(0, decision.getLimit() - decision.getCount()));
 		response.put("message", isAllowed ?
 			"✅ 토큰 사용 허용" :
 			"❌ 토큰 사용 제한 초과");
@@ -121,13 +133,26 @@ public class RateLimitController {
 		return ResponseEntity.ok(info);
 	}
 
-	// 토큰 사용 이력 조회
+	// 여러 토큰 사용 정보 일괄 조회 (파이프라인 1회)
+	@PostMapping("/token/info")
+	public ResponseEntity<?> getTokenInfos(@RequestBody List<String> tokens) {
+		List<TokenUsageInfo> infos = tokenUsageLimitService.getTokenUsageInfos(tokens);
+		return ResponseEntity.ok(infos);
+	}
+
+	// 토큰 사용 이력 조회 (기간: from~to ms, 기본 최근 1시간)
 	@GetMapping("/token/history/{token}")
-	public ResponseEntity<?> getTokenHistory(@PathVariable String token) {
-		List<Long> history = tokenUsageLimitService.getUsageHistory(token);
+	public ResponseEntity<?> getTokenHistory(@PathVariable String token,
+		@RequestParam(required = false) Long from, @RequestParam(required = false) Long to,
+		@RequestParam(defaultValue = "100") int count) {
+		long toMillis = to == null ? System.currentTimeMillis() : to;
+		long fromMillis = from == null ? toMillis - 3_600_000 : from;
+		List<TokenUsageEvent> history = tokenUsageHistoryService.getHistory(token, fromMillis, toMillis, count);
 
 		Map<String, Object> response = new HashMap<>();
 		response.put("token", token);
+		response.put("from", fromMillis);
+		response.put("to", toMillis);
 		response.put("usageHistory", history);
 		response.put("historyCount", history.size());
 
@@ -138,23 +163,21 @@ public class RateLimitController {
 	// 사용자 + 토큰 통합 제한 확인
 	@GetMapping("/combined/{userId}/{token}")
 	public ResponseEntity<?> checkCombinedLimit(@PathVariable String userId, @PathVariable String token) {
-		boolean userHourlyAllowed = userRateLimitService.isAllowedPerHour(userId);
-		boolean userDailyAllowed = userRateLimitService.isAllowedPerDay(userId);
-		boolean tokenAllowed = tokenUsageLimitService.isAllowed(token);
+		QuotaDecision decision = combinedQuotaService.check(userId, token);
 
 		Map<String, Object> response = new HashMap<>();
 		response.put("userId", userId);
 		response.put("token", token);
-		response.put("userHourlyAllowed", userHourlyAllowed);
-		response.put("userDailyAllowed", userDailyAllowed);
-		response.put("tokenAllowed", tokenAllowed);
-		response.put("overallAllowed", userHourlyAllowed && userDailyAllowed && tokenAllowed);
+		response.put("userHourlyAllowed", decision.isUserHourlyAllowed());
+		response.put("userDailyAllowed", decision.isUserDailyAllowed());
+		response.put("tokenAllowed", decision.isTokenAllowed());
+		response.put("overallAllowed", decision.isAllowed());
 
-		// 상세 정보
+		// 상세 정보 (판정과 같은 스크립트 응답에서 꺼냄)
 		Map<String, Object> details = new HashMap<>();
-		details.put("userHourlyCount", userRateLimitService.getCurrentHourlyCount(userId));
-		details.put("userDailyCount", userRateLimitService.getCurrentDailyCount(userId));
-		details.put("tokenCount", tokenUsageLimitService.getCurrentUsage(token));
+		details.put("userHourlyCount", decision.getUserHourlyCount());
+		details.put("userDailyCount", decision.getUserDailyCount());
+		details.put("tokenCount", decision.getTokenCount());
 		response.put("details", details);
 
 		return ResponseEntity.ok(response);
@@ -164,24 +187,22 @@ public class RateLimitController {
 	// API 호출 시뮬레이션
 	@PostMapping("/simulate/api-call/{userId}/{token}")
 	public ResponseEntity<?> simulateApiCall(@PathVariable String userId, @PathVariable String token) {
-		boolean userHourlyAllowed = userRateLimitService.isAllowedPerHour(userId);
-		boolean userDailyAllowed = userRateLimitService.isAllowedPerDay(userId);
-		boolean tokenAllowed = tokenUsageLimitService.isAllowed(token);
+		QuotaDecision decision = combinedQuotaService.check(userId, token);
 
 		Map<String, Object> response = new HashMap<>();
 		response.put("simulation", "API Call");
 		response.put("userId", userId);
 		response.put("token", token);
-		response.put("success", userHourlyAllowed && userDailyAllowed && tokenAllowed);
+		response.put("success", decision.isAllowed());
 
-		if (userHourlyAllowed && userDailyAllowed && tokenAllowed) {
+		if (decision.isAllowed()) {
 			response.put("message", "✅ API 호출 성공");
 		} else {
 			response.put("message", "❌ API 호출 실패 - 제한 초과");
 			response.put("reasons", new String[]{
-				!userHourlyAllowed ? "시간당 사용자 제한" : null,
-				!userDailyAllowed ? "일일 사용자 제한" : null,
-				!tokenAllowed ? "토큰 사용 제한" : null
+				!decision.isUserHourlyAllowed() ? "시간당 사용자 제한" : null,
+				!decision.isUserDailyAllowed() ? "일일 사용자 제한" : null,
+				!decision.isTokenAllowed() ? "토큰 사용 제한" : null
 			});
 		}
 
@@ -195,26 +216,20 @@ public class RateLimitController {
 		@PathVariable String token,
 		@PathVariable int count) {
 
+		if (count < 1) {
+			return ResponseEntity.badRequest().body("요청 개수는 1 이상이어야 합니다");
+		}
+
 		Map<String, Object> response = new HashMap<>();
 		response.put("simulation", "Bulk Requests");
 		response.put("userId", userId);
 		response.put("token", token);
 		response.put("requestCount", count);
 
-		int successCount = 0;
-		int failureCount = 0;
-
-		for (int i = 0; i < count; i++) {
-			boolean userHourlyAllowed = userRateLimitService.isAllowedPerHour(userId);
-			boolean userDailyAllowed = userRateLimitService.isAllowedPerDay(userId);
-			boolean tokenAllowed = tokenUsageLimitService.isAllowed(token);
-
-			if (userHourlyAllowed && userDailyAllowed && tokenAllowed) {
-				successCount++;
-			} else {
-				failureCount++;
-			}
-		}
+		// 요청 수만큼 반복 호출하지 않고, 허용량을 한 번에 예약
+		QuotaDecision decision = combinedQuotaService.tryAcquire(userId, token, count);
+		long successCount = decision.getGranted();
+		long failureCount = count - successCount;
 
 		response.put("successCount", successCount);
 		response.put("failureCount", failureCount);
@@ -225,22 +240,10 @@ public class RateLimitController {
 
 	// == 헬퍼 메서드 ==
 	private int getUserIdHourlyLimit(String userId) {
-		if (userId.startsWith("premium_")) {
-			return 1000;
-		} else if (userId.startsWith("enterprise_")) {
-			return 10000;
-		} else {
-			return 100;
-		}
+		return tierPolicyRegistry.getUserPolicy(userId).getHourlyLimit();
 	}
 
 	private int getUserIdDailyLimit(String userId) {
-		if (userId.startsWith("premium_")) {
-			return 10000;
-		} else if (userId.startsWith("enterprise_")) {
-			return 100000;
-		} else {
-			return 1000;
-		}
+		return tierPolicyRegistry.getUserPolicy(userId).getDailyLimit();
 	}
 }
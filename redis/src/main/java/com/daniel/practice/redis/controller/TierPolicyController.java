@@ -0,0 +1,71 @@
+package com.daniel.practice.redis.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.daniel.practice.redis.policy.TierPolicyRegistry;
+
+import lombok.RequiredArgsConstructor;
+
+// 등급별 제한 정책 조회/변경 (변경 즉시 모든 노드에 반영)
+@RestController
+@RequestMapping("/rate-limit/policy")
+@RequiredArgsConstructor
+public class TierPolicyController {
+
+	private final TierPolicyRegistry tierPolicyRegistry;
+
+	// 저장된 정책 전체 조회
+	@GetMapping
+	public ResponseEntity<?> getPolicies() {
+		return ResponseEntity.ok(tierPolicyRegistry.getStoredPolicies());
+	}
+
+	// 사용자 등급 추가/변경 (prefix 를 비우면 기본 등급)
+	@PutMapping("/user")
+	public ResponseEntity<?> putUserPolicy(@RequestParam(defaultValue = "") String prefix,
+		@RequestParam int hourlyLimit, @RequestParam int dailyLimit) {
+		if (hourlyLimit < 1 || dailyLimit < 1) {
+			return ResponseEntity.badRequest().body("제한값은 1 이상이어야 합니다");
+		}
+		tierPolicyRegistry.putUserPolicy(prefix, hourlyLimit, dailyLimit);
+		return ResponseEntity.ok().body("사용자 등급 변경됨: '" + prefix + "' → " + hourlyLimit + "/시간, " + dailyLimit + "/일");
+	}
+
+	// 토큰 등급 추가/변경 (prefix 를 비우면 기본 등급)
+	@PutMapping("/token")
+	public ResponseEntity<?> putTokenPolicy(@RequestParam(defaultValue = "") String prefix, @RequestParam int limit) {
+		if (limit < 1) {
+			return ResponseEntity.badRequest().body("제한값은 1 이상이어야 합니다");
+		}
+		tierPolicyRegistry.putTokenPolicy(prefix, limit);
+		return ResponseEntity.ok().body("토큰 등급 변경됨: '" + prefix + "' → " + limit);
+	}
+
+	// 사용자 등급 삭제
+	@DeleteMapping("/user")
+	public ResponseEntity<?> removeUserPolicy(@RequestParam String prefix) {
+		tierPolicyRegistry.removeUserPolicy(prefix);
+		return ResponseEntity.ok().body("사용자 등급 삭제됨: '" + prefix + "'");
+	}
+
+	// 토큰 등급 삭제
+	@DeleteMapping("/token")
+	public ResponseEntity<?> removeTokenPolicy(@RequestParam String prefix) {
+		tierPolicyRegistry.removeTokenPolicy(prefix);
+		return ResponseEntity.ok().body("토큰 등급 삭제됨: '" + prefix + "'");
+	}
+
+	// 설정 파일 값으로 초기화
+	@PostMapping("/reset")
+	public ResponseEntity<?> reset() {
+		tierPolicyRegistry.resetToConfig();
+		return ResponseEntity.ok().body("등급 정책이 설정값으로 초기화됨");
+	}
+}
@@ -0,0 +1,18 @@
+package com.daniel.practice.redis.dto;
+
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Data;
+
+// 기간 내 고유 IP/사용자/토큰 수 (HyperLogLog 추정값, 표준 오차 약 0.81%)
+@Data
+@Builder
+public class CardinalityStats {
+	private String type; // ip / user / token
+	private String window; // 버킷 단위 (minute / hour / day)
+	private int buckets; // 조회한 버킷 수 (현재 버킷 포함)
+	private long from; // 첫 버킷 시작 시각 (ms)
+	private long unique; // 전체 기간 고유 수 (버킷 합집합)
+	private List<Long> series; // 버킷별 고유 수 (오래된 순)
+}
@@ -0,0 +1,12 @@
+package com.daniel.practice.redis.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+// 현재 윈도우의 요청 수 상위 IP (Count-Min Sketch 추정값, 실제보다 크거나 같음)
+@Data
+@Builder
+public class HeavyHitter {
+	private String ip;
+	private long estimate;
+}
@@ -0,0 +1,15 @@
+package com.daniel.practice.redis.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+// IP 목록 가져오기 결과
+@Data
+@Builder
+public class IpImportResult {
+	private String list; // whitelist / blacklist
+	private long read; // 읽은 항목 수 (빈 줄, # 주석 제외)
+	private long added; // 새로 추가된 수 (이미 있던 IP 제외)
+	private long invalid; // 형식이 틀려 건너뛴 수
+	private long version; // 가져온 뒤 목록 버전
+}
@@ -0,0 +1,15 @@
+package com.daniel.practice.redis.dto;
+
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Data;
+
+// IP 목록 한 페이지 (SSCAN), 같은 IP 가 다른 페이지에 다시 나올 수 있음
+@Data
+@Builder
+public class IpListPage {
+	private String list; // whitelist / blacklist
+	private String cursor; // 다음 페이지 커서 ("0" 이면 마지막 페이지)
+	private List<String> ips;
+}
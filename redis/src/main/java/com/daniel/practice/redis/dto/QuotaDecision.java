@@ -0,0 +1,22 @@
+package com.daniel.practice.redis.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class QuotaDecision {
+	private String userId;
+	private String token;
+	private long requested;
+	private long granted;
+	private boolean allowed;
+	private boolean userHourlyAllowed;
+	private boolean userDailyAllowed;
+	private boolean tokenAllowed;
+	private long userHourlyCount;
+	private long userDailyCount;
+	private long tokenCount;
+	private long tokenTtl; // 초
+	private long retryAfter; // 초, 거부 시 다시 시도할 수 있을 때까지 남은 시간
+}
@@ -0,0 +1,14 @@
+package com.daniel.practice.redis.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class RateLimitDecision {
+	private boolean allowed;
+	private long count;
+	private long limit;
+	private long ttl; // 초
+	private long retryAfterMillis; // 거부 시 다시 시도할 수 있을 때까지 남은 시간
+}
@@ -0,0 +1,15 @@
+package com.daniel.practice.redis.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+// 토큰 사용 이력 1건 (Stream 항목)
+@Data
+@Builder
+public class TokenUsageEvent {
+	private String id; // Stream 항목 ID (기록 시각 ms-순번)
+	private long timestamp; // 요청 시각 (ms)
+	private boolean allowed;
+	private long count;
+	private long limit;
+}
@@ -0,0 +1,11 @@
+package com.daniel.practice.redis.enums;
+
+public enum CircuitState {
+
+	// 정상: 모든 호출을 Redis 로 보냄
+	CLOSED,
+	// 차단: Redis 를 호출하지 않고 바로 로컬 제한기로 처리
+	OPEN,
+	// 시험: 호출 1건만 Redis 로 보내 회복 여부 확인
+	HALF_OPEN
+}
@@ -0,0 +1,11 @@
+package com.daniel.practice.redis.enums;
+
+public enum RateLimitKeyType {
+
+	// 클라이언트 IP (접속 주소, 신뢰 프록시를 거쳤으면 X-Forwarded-For 의 프록시가 아닌 가장 가까운 주소)
+	IP,
+	// 경로 변수 {userId}, 없으면 X-User-Id 헤더 (둘 다 없으면 클라이언트 IP)
+	USER,
+	// 경로 변수 {token}, 없으면 Authorization: Bearer 헤더의 digest (둘 다 없으면 클라이언트 IP)
+	TOKEN
+}
@@ -0,0 +1,11 @@
+package com.daniel.practice.redis.enums;
+
+public enum RateLimitStrategy {
+
+	// 첫 요청 시점부터 윈도우 시작, 카운터 1개 (경계에서 최대 2배 버스트 가능)
+	FIXED_WINDOW,
+	// 요청 시각을 ZSET 에 기록, 정확하지만 키당 메모리가 제한값에 비례
+	SLIDING_LOG,
+	// 이전/현재 윈도우 카운터 2개의 가중 합으로 추정, 키당 메모리 O(1)
+	SLIDING_COUNTER
+}
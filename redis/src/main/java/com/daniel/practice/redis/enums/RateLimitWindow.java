@@ -0,0 +1,28 @@
+package com.daniel.practice.redis.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum RateLimitWindow {
+
+	MINUTE("minute", 60),
+	HOUR("hour", 3600),
+	DAY("day", 86400);
+
+	// Redis 키에 들어가는 윈도우 이름 (ip:rate:{key}:{ip})
+	private final String key;
+	// 윈도우 길이 (초)
+	private final long seconds;
+
+	// 윈도우 이름으로 조회 ("minute" / "hour" / "day")
+	public static RateLimitWindow from(String key) {
+		for (RateLimitWindow window : values()) {
+			if (window.key.equalsIgnoreCase(key)) {
+				return window;
+			}
+		}
+		throw new IllegalArgumentException("지원하지 않는 윈도우: " + key);
+	}
+}
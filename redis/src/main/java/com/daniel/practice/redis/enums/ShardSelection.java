@@ -0,0 +1,9 @@
+package com.daniel.practice.redis.enums;
+
+public enum ShardSelection {
+
+	// 노드마다 기동 시 정한 샤드 1개에만 증가 (노드 수가 많을 때)
+	NODE,
+	// 요청 스레드별로 샤드 선택 (노드가 적고 스레드가 많을 때)
+	THREAD
+}
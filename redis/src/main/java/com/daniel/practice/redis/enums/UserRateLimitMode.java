@@ -0,0 +1,9 @@
+package com.daniel.practice.redis.enums;
+
+public enum UserRateLimitMode {
+
+	// 시간당/일일 카운터 (user:rate:{userId}:hour / :day Hash)
+	COUNTER,
+	// 시간당 제한을 GCRA 로 평가 (user:gcra:{userId} 에 이론적 도착 시각 1개만 저장)
+	GCRA
+}
@@ -0,0 +1,110 @@
+package com.daniel.practice.redis.filter;
+
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import com.daniel.practice.redis.config.RateLimitProperties;
+import com.daniel.practice.redis.dto.QuotaDecision;
+import com.daniel.practice.redis.dto.RateLimitDecision;
+import com.daniel.practice.redis.enums.RateLimitWindow;
+import com.daniel.practice.redis.policy.ClientIpResolver;
+import com.daniel.practice.redis.service.ReactiveCombinedQuotaService;
+import com.daniel.practice.redis.service.ReactiveIpRateLimitService;
+import com.daniel.practice.redis.service.ReactiveTokenUsageLimitService;
+import com.daniel.practice.redis.service.ReactiveUserRateLimitService;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+// WebFlux 요청 제한 필터 (spring.main.web-application-type=reactive 로 실행할 때만 등록)
+// IP 분당 제한 → 사용자 제한(X-User-Id) / 토큰 사용 제한(Bearer) 순서로 검사한다.
+// 사용자와 토큰이 모두 있으면 사용자 시간당 + 일일 + 토큰 제한을 통합 스크립트 한 번으로 평가하므로
+// 토큰에서 거부된 요청이 사용자 카운터만 올려놓지 않는다. (CombinedQuotaService 와 같은 방식)
+// IP 단계에서 거부되면 뒤 단계 카운터는 올리지 않고, 뒤 단계에서 거부되면 IP 카운터에 올린 1건을 되돌린다.
+// Redis 응답을 기다리는 동안 이벤트 루프를 점유하지 않음
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+public class ReactiveRateLimitFilter implements WebFilter {
+
+	private final ReactiveIpRateLimitService reactiveIpRateLimitService;
+	private final ReactiveUserRateLimitService reactiveUserRateLimitService;
+	private final ReactiveTokenUsageLimitService reactiveTokenUsageLimitService;
+	private final ReactiveCombinedQuotaService reactiveCombinedQuotaService;
+	private final RateLimitProperties rateLimitProperties;
+	private final ClientIpResolver clientIpResolver;
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+		ServerHttpRequest request = exchange.getRequest();
+		String userId = request.getHeaders().getFirst("X-User-Id");
+		String token = bearerToken(request);
+
+		return reactiveIpRateLimitService
+			.check(resolveIp(request), RateLimitWindow.MINUTE, rateLimitProperties.getIp().getFilterLimitPerMinute(),
+				ipDecision -> checkUserAndToken(ipDecision, userId, token))
+			.flatMap(decision -> decision.isAllowed() ? chain.filter(exchange) : reject(exchange, decision));
+	}
+
+	// IP 다음 단계: 사용자와 토큰이 모두 있으면 통합 스크립트, 하나만 있으면 그 제한만
+	private Mono<RateLimitDecision> checkUserAndToken(RateLimitDecision ipDecision, String userId, String token) {
+		if (userId != null && token != null) {
+			return reactiveCombinedQuotaService.check(userId, token).map(ReactiveRateLimitFilter::toDecision);
+		}
+		if (userId != null) {
+			return reactiveUserRateLimitService.checkHourly(userId);
+		}
+		if (token != null) {
+			return reactiveTokenUsageLimitService.check(token);
+		}
+		return Mono.just(ipDecision);
+	}
+
+	// 거부 응답에는 허용 여부와 재시도 대기만 쓰임
+	private static RateLimitDecision toDecision(QuotaDecision quota) {
+		return RateLimitDecision.builder()
+			.allowed(quota.isAllowed())
+			.count(quota.getUserHourlyCount())
+			.ttl(quota.getRetryAfter())
+			.build();
+	}
+
+	private static Mono<Void> reject(ServerWebExchange exchange, RateLimitDecision decision) {
+		long retryAfter = Math.max(1, decision.getRetryAfterMillis() > 0
+			? (decision.getRetryAfterMillis() + 999) / 1000 : decision.getTtl());
+
+		ServerHttpResponse response = exchange.getResponse();
+		response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+		response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+		response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+		DataBuffer body = response.bufferFactory().wrap(
+			("{\"message\":\"요청 제한 초과\",\"retryAfter\":" + retryAfter + "}").getBytes(StandardCharsets.UTF_8));
+		return response.writeWith(Mono.just(body));
+	}
+
+	// 접속 주소, 신뢰 프록시를 거친 요청이면 X-Forwarded-For 에서 프록시가 아닌 가장 가까운 주소
+	private String resolveIp(ServerHttpRequest request) {
+		String remoteAddr = request.getRemoteAddress() == null || request.getRemoteAddress().getAddress() == null
+			? "unknown" : request.getRemoteAddress().getAddress().getHostAddress();
+		return clientIpResolver.resolve(remoteAddr, request.getHeaders().getFirst("X-Forwarded-For"));
+	}
+
+	private static String bearerToken(ServerHttpRequest request) {
+		String authHeader = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+		if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+			return null;
+		}
+		return authHeader.substring(7);
+	}
+}
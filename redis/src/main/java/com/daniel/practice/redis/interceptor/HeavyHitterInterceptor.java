@@ -0,0 +1,45 @@
+package com.daniel.practice.redis.interceptor;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import com.daniel.practice.redis.dto.RateLimitDecision;
+import com.daniel.practice.redis.policy.ClientIpResolver;
+import com.daniel.practice.redis.service.HeavyHitterService;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+
+// 모든 요청의 IP 를 헤비 히터 스케치에 집계 (rate-limit.ip.heavy-hitter.enabled)
+// IP 별 키를 만들지 않으므로 출발지 IP 가 아무리 많아도 Redis 메모리는 스케치 크기로 고정
+@Component
+@RequiredArgsConstructor
+public class HeavyHitterInterceptor implements HandlerInterceptor {
+
+	private final HeavyHitterService heavyHitterService;
+	private final ClientIpResolver clientIpResolver;
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+		throws Exception {
+		if (!heavyHitterService.isEnabled()) {
+			return true;
+		}
+
+		RateLimitDecision decision = heavyHitterService.record(RateLimitInterceptor.resolveIp(request, clientIpResolver));
+		if (decision.isAllowed()) {
+			return true;
+		}
+
+		response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+		response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(decision.getTtl()));
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		response.setCharacterEncoding("UTF-8");
+		response.getWriter().write("{\"message\":\"요청 과다 IP\",\"retryAfter\":" + decision.getTtl() + "}");
+		return false;
+	}
+}
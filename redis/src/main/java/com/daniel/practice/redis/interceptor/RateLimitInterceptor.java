@@ -0,0 +1,131 @@
+package com.daniel.practice.redis.interceptor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.daniel.practice.redis.config.RedisScripts;
+import com.daniel.practice.redis.dto.RateLimitDecision;
+import com.daniel.practice.redis.policy.ClientIpResolver;
+import com.daniel.practice.redis.resilience.LocalRateLimiter;
+import com.daniel.practice.redis.resilience.RedisCircuitBreaker;
+import com.daniel.practice.redis.service.TokenDigest;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+
+// @RateLimited 검사
+// preHandle 은 컨트롤러 인자 바인딩(요청 본문 JSON 역직렬화)보다 먼저 실행되므로,
+// 초과 요청은 본문을 읽지도 않고 429 로 끝낸다.
+// 사용자/토큰을 알 수 없는 요청도 규칙을 건너뛰지 않고 클라이언트 IP 로 제한한다 (헤더를 빼서 우회할 수 없도록).
+@Component
+@RequiredArgsConstructor
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+	private final StringRedisTemplate stringRedisTemplate;
+	private final RateLimitRuleRegistry rateLimitRuleRegistry;
+	private final ClientIpResolver clientIpResolver;
+	private final RedisCircuitBreaker redisCircuitBreaker;
+	private final LocalRateLimiter localRateLimiter;
+
+	// 사용자/토큰을 알 수 없는 요청의 키 값 접두사 (뒤에 클라이언트 IP)
+	static final String ANONYMOUS_PREFIX = "anonymous:";
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+		throws Exception {
+		if (!(handler instanceof HandlerMethod handlerMethod)) {
+			return true;
+		}
+		List<RateLimitRule> rules = rateLimitRuleRegistry.getRules(handlerMethod);
+		if (rules.isEmpty()) {
+			return true;
+		}
+
+		// 메서드에 붙은 모든 규칙을 스크립트 한 번으로 검사
+		List<String> keys = new ArrayList<>(rules.size());
+		List<String> args = new ArrayList<>(rules.size() * 2);
+		for (RateLimitRule rule : rules) {
+			keys.add(rule.getKeyPrefix() + resolveKey(rule, request));
+			args.add(rule.getLimit());
+			args.add(rule.getWindowSeconds());
+		}
+
+		List<?> result = redisCircuitBreaker.execute(
+			() -> stringRedisTemplate.execute(RedisScripts.MULTI_FIXED_WINDOW, keys, args.toArray()),
+			() -> checkLocal(keys, args));
+		if (((Number) result.get(0)).longValue() == 1) {
+			return true;
+		}
+
+		long retryAfter = Math.max(1, ((Number) result.get(2)).longValue());
+		response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+		response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		response.setCharacterEncoding("UTF-8");
+		response.getWriter().write("{\"message\":\"요청 제한 초과\",\"retryAfter\":" + retryAfter + "}");
+		return false;
+	}
+
+	// Redis 차단 중: 규칙마다 로컬 제한기로 고정 윈도우 근사 (스크립트와 같은 {허용 여부, 초과된 제한 번호, TTL} 형태)
+	private List<Long> checkLocal(List<String> keys, List<String> args) {
+		for (int i = 0; i < keys.size(); i++) {
+			long windowSeconds = Long.parseLong(args.get(2 * i + 1));
+			RateLimitDecision decision = localRateLimiter.tryAcquire(keys.get(i), null,
+				Long.parseLong(args.get(2 * i)), windowSeconds, windowSeconds);
+			if (!decision.isAllowed()) {
+				return List.of(0L, (long) i + 1, decision.getTtl());
+			}
+		}
+		return List.of(1L, 0L, 0L);
+	}
+
+	// 규칙 키 접두사 뒤에 붙일 값
+	// 사용자/토큰을 알 수 없으면 클라이언트 IP (사용자 ID 와 겹치지 않도록 ANONYMOUS_PREFIX 를 붙임)
+	// 토큰은 검증 전 문자열이라 길이 제한이 없으므로 digest(base64url 22자)로 키 길이를 고정
+	String resolveKey(RateLimitRule rule, HttpServletRequest request) {
+		String value = switch (rule.getKeyType()) {
+			case IP -> resolveIp(request, clientIpResolver);
+			case USER -> firstNonNull(pathVariable(request, "userId"), request.getHeader("X-User-Id"));
+			case TOKEN -> {
+				String token = firstNonNull(pathVariable(request, "token"), bearerToken(request));
+				yield token == null ? null : TokenDigest.of(token).toBase64Url();
+			}
+		};
+		return value != null ? value : ANONYMOUS_PREFIX + resolveIp(request, clientIpResolver);
+	}
+
+	// 접속 주소, 신뢰 프록시를 거친 요청이면 X-Forwarded-For 에서 프록시가 아닌 가장 가까운 주소 (HeavyHitterInterceptor 도 사용)
+	static String resolveIp(HttpServletRequest request, ClientIpResolver clientIpResolver) {
+		return clientIpResolver.resolve(request.getRemoteAddr(), request.getHeader("X-Forwarded-For"));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static String pathVariable(HttpServletRequest request, String name) {
+		Map<String, String> variables =
+			(Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+		return variables == null ? null : variables.get(name);
+	}
+
+	private static String bearerToken(HttpServletRequest request) {
+		String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
+		if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+			return null;
+		}
+		return authHeader.substring(7);
+	}
+
+	private static String firstNonNull(String first, String second) {
+		return first != null ? first : second;
+	}
+}
@@ -0,0 +1,17 @@
+package com.daniel.practice.redis.interceptor;
+
+import com.daniel.practice.redis.enums.RateLimitKeyType;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// @RateLimited 한 개를 기동 시점에 미리 풀어둔 규칙
+// 요청마다는 keyPrefix 뒤에 IP/사용자/토큰 값만 붙이면 됨
+@Getter
+@RequiredArgsConstructor
+public class RateLimitRule {
+	private final RateLimitKeyType keyType;
+	private final String keyPrefix; // api:rate:{Controller#method}:{window}:{keyType}:
+	private final String limit;
+	private final String windowSeconds;
+}
@@ -0,0 +1,65 @@
+package com.daniel.practice.redis.interceptor;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import com.daniel.practice.redis.annotation.RateLimited;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+// 컨트롤러 메서드별 @RateLimited 규칙 저장소
+// 모든 싱글톤 생성 직후(웹 서버가 요청을 받기 전) 핸들러 메서드를 한 번 훑어 규칙과 키 접두사를 만들어 둔다.
+// 요청 처리 중에는 리플렉션/어노테이션 조회/템플릿 해석 없이 Map 조회만 함
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RateLimitRuleRegistry implements SmartInitializingSingleton {
+
+	private final ApplicationContext applicationContext;
+	private volatile Map<Method, List<RateLimitRule>> rules = Map.of();
+
+	@Override
+	public void afterSingletonsInstantiated() {
+		Map<Method, List<RateLimitRule>> compiled = new HashMap<>();
+		for (RequestMappingHandlerMapping mapping
+			: applicationContext.getBeansOfType(RequestMappingHandlerMapping.class).values()) {
+			for (HandlerMethod handlerMethod : mapping.getHandlerMethods().values()) {
+				Method method = handlerMethod.getMethod();
+				RateLimited[] annotations = method.getAnnotationsByType(RateLimited.class);
+				if (annotations.length == 0 || compiled.containsKey(method)) {
+					continue;
+				}
+
+				String handlerName = handlerMethod.getBeanType().getSimpleName() + "#" + method.getName();
+				List<RateLimitRule> methodRules = new ArrayList<>(annotations.length);
+				for (RateLimited annotation : annotations) {
+					methodRules.add(new RateLimitRule(
+						annotation.key(),
+						"api:rate:" + handlerName + ":" + annotation.window().getKey() + ":"
+							+ annotation.key().name().toLowerCase() + ":",
+						String.valueOf(annotation.limit()),
+						String.valueOf(annotation.window().getSeconds())
+					));
+				}
+				compiled.put(method, List.copyOf(methodRules));
+			}
+		}
+		rules = Map.copyOf(compiled);
+		log.info("@RateLimited 규칙 등록: {}개 메서드", compiled.size());
+	}
+
+	// 규칙이 없으면 빈 리스트
+	public List<RateLimitRule> getRules(HandlerMethod handlerMethod) {
+		return rules.getOrDefault(handlerMethod.getMethod(), List.of());
+	}
+}
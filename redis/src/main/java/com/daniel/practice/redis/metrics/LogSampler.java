@@ -0,0 +1,18 @@
+package com.daniel.practice.redis.metrics;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+// 요청마다 실행되는 경로의 로그 샘플링
+// log.isDebugEnabled() 로 먼저 거른 뒤 100건 중 1건만 기록해서, 로그 문자열 생성/출력 비용을 요청 수와 분리한다.
+// 사용: if (log.isDebugEnabled() && LogSampler.sample()) { log.debug(...); }
+public final class LogSampler {
+
+	private static final int RATE = 100;
+
+	private LogSampler() {
+	}
+
+	public static boolean sample() {
+		return ThreadLocalRandom.current().nextInt(RATE) == 0;
+	}
+}
@@ -0,0 +1,84 @@
+package com.daniel.practice.redis.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+// Redis 를 사용하는 서비스 공통 메트릭
+// - redis.operation          : 작업별 지연 시간 (Timer, 히스토그램)       태그 service, operation
+// - redis.operation.round_trips : 작업 1회당 Redis 왕복 수 (DistributionSummary) 태그 service, operation
+// - rate_limit.decisions     : 허용/거부 결과 (Counter)                     태그 service, operation, outcome
+// 미터는 태그 조합별로 한 번만 만들고 캐시하므로 호출마다 레지스트리를 조회하지 않음
+@Component
+@RequiredArgsConstructor
+public class RedisOperationMetrics {
+
+	private final MeterRegistry meterRegistry;
+
+	private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+	private final Map<String, DistributionSummary> roundTrips = new ConcurrentHashMap<>();
+	private final Map<String, Counter> decisions = new ConcurrentHashMap<>();
+
+	// 작업 실행 + 지연 시간/왕복 수 기록 (왕복 수가 고정인 작업)
+	public <T> T record(String service, String operation, int roundTripCount, Supplier<T> call) {
+		Timer.Sample sample = Timer.start(meterRegistry);
+		try {
+			return call.get();
+		} finally {
+			stop(sample, service, operation, roundTripCount);
+		}
+	}
+
+	public void record(String service, String operation, int roundTripCount, Runnable call) {
+		record(service, operation, roundTripCount, () -> {
+			call.run();
+			return null;
+		});
+	}
+
+	// 리액티브 작업: 구독부터 완료/오류/취소까지 기록
+	public <T> Mono<T> record(String service, String operation, int roundTripCount, Mono<T> call) {
+		return Mono.defer(() -> {
+			Timer.Sample sample = start();
+			return call.doFinally(signal -> stop(sample, service, operation, roundTripCount));
+		});
+	}
+
+	// 분기에 따라 왕복 수가 달라지는 작업은 start/stop 으로 직접 기록
+	public Timer.Sample start() {
+		return Timer.start(meterRegistry);
+	}
+
+	public void stop(Timer.Sample sample, String service, String operation, int roundTripCount) {
+		String name = service + "." + operation;
+		sample.stop(timers.computeIfAbsent(name, k -> Timer.builder("redis.operation")
+			.tag("service", service)
+			.tag("operation", operation)
+			.publishPercentileHistogram()
+			.register(meterRegistry)));
+		roundTrips.computeIfAbsent(name, k -> DistributionSummary.builder("redis.operation.round_trips")
+			.tag("service", service)
+			.tag("operation", operation)
+			.register(meterRegistry)).record(roundTripCount);
+	}
+
+	// 허용/거부 결과
+	public void decision(String service, String operation, boolean allowed) {
+		String outcome = allowed ? "allowed" : "denied";
+		decisions.computeIfAbsent(service + "." + operation + "." + outcome,
+			k -> Counter.builder("rate_limit.decisions")
+				.tag("service", service)
+				.tag("operation", operation)
+				.tag("outcome", outcome)
+				.register(meterRegistry)).increment();
+	}
+}
@@ -0,0 +1,227 @@
+package com.daniel.practice.redis.policy;
+
+// CIDR 대역 포함 여부 조회용 불변 Patricia 트리 (경로 압축 이진 radix 트리)
+// 자식이 하나뿐인 구간은 노드 하나로 합쳐 두므로 깊이는 비트 수(IPv4 32, IPv6 128)가 아니라 갈림길 수만큼이고,
+// 대역 N 개에 노드는 최대 2N - 1 개다.
+// 주소는 문자열에서 바로 long 으로 읽고(IpAddress) 비트 비교만 하므로 조회 중 객체를 만들지 않는다.
+// IPv4 주소는 상위 64비트의 앞 32비트에 두고 IPv6 와 트리를 따로 쓴다. IPv4 매핑 IPv6 주소(::ffff:a.b.c.d)는 IPv4 로 조회.
+public final class CidrTrie {
+
+	private static final CidrTrie EMPTY = new CidrTrie(null, null, 0);
+
+	private final Node ipv4;
+	private final Node ipv6;
+	private final int size;
+
+	private CidrTrie(Node ipv4, Node ipv6, int size) {
+		this.ipv4 = ipv4;
+		this.ipv6 = ipv6;
+		this.size = size;
+	}
+
+	public static CidrTrie empty() {
+		return EMPTY;
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	// 등록된 대역 수
+	public int size() {
+		return size;
+	}
+
+	// 주소가 등록된 대역 중 하나에 속하는지 (주소 형식이 틀리면 false)
+	public boolean contains(String ip) {
+		if (ipv4 == null && ipv6 == null) {
+			return false;
+		}
+		if (!IpAddress.isIpv6(ip)) {
+			long address = IpAddress.parseIpv4(ip);
+			return address != IpAddress.INVALID && containsIpv4(address);
+		}
+		long high;
+		long low;
+		try {
+			high = IpAddress.parseIpv6(ip, true);
+			low = IpAddress.parseIpv6(ip, false);
+		} catch (IllegalArgumentException e) {
+			return false;
+		}
+		if (IpAddress.isIpv4Mapped(high, low)) {
+			return containsIpv4(low & 0xFFFFFFFFL);
+		}
+		return containsIpv6(high, low);
+	}
+
+	public boolean containsIpv4(long address) {
+		return contains(ipv4, address << 32, 0);
+	}
+
+	public boolean containsIpv6(long high, long low) {
+		return contains(ipv6, high, low);
+	}
+
+	// 노드의 접두사가 주소와 다르면 실패, 같고 등록된 대역이면 성공, 아니면 다음 비트로 갈림
+	// 포함 여부만 보므로 가장 긴 일치까지 내려가지 않고 처음 만난 대역에서 멈춘다
+	private static boolean contains(Node node, long high, long low) {
+		while (node != null) {
+			if (commonPrefixLength(node.high, node.low, high, low) < node.length) {
+				return false;
+			}
+			if (node.terminal) {
+				return true;
+			}
+			node = bit(high, low, node.length) == 0 ? node.zero : node.one;
+		}
+		return false;
+	}
+
+	private static int commonPrefixLength(long high1, long low1, long high2, long low2) {
+		long high = high1 ^ high2;
+		if (high != 0) {
+			return Long.numberOfLeadingZeros(high);
+		}
+		return 64 + Long.numberOfLeadingZeros(low1 ^ low2);
+	}
+
+	private static int bit(long high, long low, int index) {
+		return (int) (index < 64 ? high >>> (63 - index) : low >>> (127 - index)) & 1;
+	}
+
+	private static long maskHigh(long high, int length) {
+		return length >= 64 ? high : length == 0 ? 0 : high & (-1L << (64 - length));
+	}
+
+	private static long maskLow(long low, int length) {
+		return length <= 64 ? 0 : length == 128 ? low : low & (-1L << (128 - length));
+	}
+
+	// 빌더에서만 바꾸고 build() 이후에는 읽기만 함
+	private static final class Node {
+		private final long high;
+		private final long low;
+		private final int length;
+		private boolean terminal;
+		private Node zero;
+		private Node one;
+
+		private Node(long high, long low, int length, boolean terminal) {
+			this.high = maskHigh(high, length);
+			this.low = maskLow(low, length);
+			this.length = length;
+			this.terminal = terminal;
+		}
+
+		private void attach(Node child) {
+			if (bit(child.high, child.low, length) == 0) {
+				zero = child;
+			} else {
+				one = child;
+			}
+		}
+	}
+
+	public static final class Builder {
+		private Node ipv4;
+		private Node ipv6;
+		private int size;
+
+		private Builder() {
+		}
+
+		// "a.b.c.d/n", "x:x::x/n", 접두사 길이가 없으면 단일 주소 (/32, /128)
+		public Builder add(String cidr) {
+			int slash = cidr.indexOf('/');
+			int end = slash < 0 ? cidr.length() : slash;
+			boolean v6 = cidr.lastIndexOf(':', end) >= 0;
+			int length = slash < 0 ? (v6 ? 128 : 32) : parseLength(cidr, slash + 1, v6 ? 128 : 32);
+			if (!v6) {
+				long address = IpAddress.parseIpv4(cidr, 0, end);
+				if (address == IpAddress.INVALID) {
+					throw new IllegalArgumentException("잘못된 IPv4 대역: " + cidr);
+				}
+				return addIpv4(address, length);
+			}
+			long high = IpAddress.parseIpv6(cidr, 0, end, true);
+			long low = IpAddress.parseIpv6(cidr, 0, end, false);
+			if (IpAddress.isIpv4Mapped(high, low) && length >= 96) {
+				return addIpv4(low & 0xFFFFFFFFL, length - 96);
+			}
+			return addIpv6(high, low, length);
+		}
+
+		public Builder addIpv4(long address, int length) {
+			checkLength(length, 32);
+			ipv4 = insert(ipv4, address << 32, 0, length);
+			size++;
+			return this;
+		}
+
+		public Builder addIpv6(long high, long low, int length) {
+			checkLength(length, 128);
+			ipv6 = insert(ipv6, high, low, length);
+			size++;
+			return this;
+		}
+
+		public CidrTrie build() {
+			CidrTrie trie = new CidrTrie(ipv4, ipv6, size);
+			// build() 뒤에 add() 해도 만든 트리는 바뀌지 않도록 새로 시작
+			ipv4 = null;
+			ipv6 = null;
+			size = 0;
+			return trie;
+		}
+
+		// 1. 노드 접두사 전체가 일치하면 같은 길이는 대역 표시, 더 길면 다음 비트 쪽 자식으로 내려감
+		// 2. 중간에서 갈라지면 공통 접두사 길이의 노드를 새로 만들어 기존 노드와 새 대역을 양쪽에 붙임
+		private static Node insert(Node node, long high, long low, int length) {
+			if (node == null) {
+				return new Node(high, low, length, true);
+			}
+			int common = Math.min(Math.min(length, node.length),
+				commonPrefixLength(node.high, node.low, high, low));
+			if (common == node.length) {
+				if (length == node.length) {
+					node.terminal = true;
+				} else if (bit(high, low, node.length) == 0) {
+					node.zero = insert(node.zero, high, low, length);
+				} else {
+					node.one = insert(node.one, high, low, length);
+				}
+				return node;
+			}
+
+			Node parent = new Node(high, low, common, common == length);
+			parent.attach(node);
+			if (common < length) {
+				parent.attach(new Node(high, low, length, true));
+			}
+			return parent;
+		}
+
+		private static int parseLength(String cidr, int from, int max) {
+			int length = 0;
+			if (from == cidr.length() || cidr.length() - from > 3) {
+				throw new IllegalArgumentException("잘못된 접두사 길이: " + cidr);
+			}
+			for (int i = from; i < cidr.length(); i++) {
+				char c = cidr.charAt(i);
+				if (c < '0' || c > '9') {
+					throw new IllegalArgumentException("잘못된 접두사 길이: " + cidr);
+				}
+				length = length * 10 + (c - '0');
+			}
+			checkLength(length, max);
+			return length;
+		}
+
+		private static void checkLength(int length, int max) {
+			if (length < 0 || length > max) {
+				throw new IllegalArgumentException("접두사 길이는 0 ~ " + max + " 이어야 합니다: " + length);
+			}
+		}
+	}
+}
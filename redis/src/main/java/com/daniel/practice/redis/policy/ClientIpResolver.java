@@ -0,0 +1,54 @@
+package com.daniel.practice.redis.policy;
+
+import org.springframework.stereotype.Component;
+
+import com.daniel.practice.redis.config.RateLimitProperties;
+
+// 클라이언트 IP 결정 (IP Rate Limit, 헤비 히터 집계에 사용)
+// X-Forwarded-For 는 클라이언트가 마음대로 채울 수 있으므로 접속 주소가 신뢰 프록시(rate-limit.ip.trusted-proxies)일 때만 읽는다.
+// 헤더를 오른쪽(가장 가까운 프록시가 붙인 값)부터 거슬러 올라가 신뢰 프록시가 아닌 첫 주소를 클라이언트로 본다.
+// 왼쪽 값은 클라이언트가 보낸 그대로라서, 첫 번째 값을 쓰면 요청마다 다른 IP 를 대거나 남의 IP 로 위장할 수 있다.
+// 서블릿(Tomcat RemoteIpValve)과 WebFlux(Reactor Netty) 가 같은 규칙을 쓰도록 server.forward-headers-strategy 대신 여기서 처리
+@Component
+public class ClientIpResolver {
+
+	private final CidrTrie trustedProxies;
+
+	public ClientIpResolver(RateLimitProperties rateLimitProperties) {
+		CidrTrie.Builder builder = CidrTrie.builder();
+		rateLimitProperties.getIp().getTrustedProxies().forEach(builder::add);
+		this.trustedProxies = builder.build();
+	}
+
+	// remoteAddr: 접속 주소, forwardedFor: X-Forwarded-For 헤더 (없으면 null)
+	public String resolve(String remoteAddr, String forwardedFor) {
+		if (forwardedFor == null || forwardedFor.isBlank() || !isTrusted(remoteAddr)) {
+			return remoteAddr;
+		}
+
+		String client = remoteAddr;
+		int end = forwardedFor.length();
+		while (end > 0) {
+			int comma = forwardedFor.lastIndexOf(',', end - 1);
+			String hop = forwardedFor.substring(comma + 1, end).trim();
+			end = comma < 0 ? 0 : comma;
+			if (hop.isEmpty()) {
+				continue;
+			}
+			// 형식이 틀린 값은 프록시가 붙인 주소가 아니므로 마지막으로 확인한 신뢰 프록시에서 멈춤
+			if (!IpAddress.isValid(hop)) {
+				return client;
+			}
+			if (!isTrusted(hop)) {
+				return hop;
+			}
+			client = hop;
+		}
+		// 모두 신뢰 프록시면 가장 먼 프록시
+		return client;
+	}
+
+	public boolean isTrusted(String ip) {
+		return ip != null && trustedProxies.contains(ip);
+	}
+}
@@ -0,0 +1,174 @@
+package com.daniel.practice.redis.policy;
+
+// IP 문자열 → 정수 변환
+// InetAddress(DNS 조회 가능성, 객체 생성)나 split 으로 만든 중간 문자열 없이 문자를 직접 읽는다.
+// IPv4 는 long 하위 32비트, IPv6 는 상위/하위 64비트 long 두 개로 나타낸다.
+public final class IpAddress {
+
+	// IPv4 형식이 틀림
+	public static final long INVALID = -1;
+
+	private IpAddress() {
+	}
+
+	public static boolean isIpv6(String ip) {
+		return ip.indexOf(':') >= 0;
+	}
+
+	// "a.b.c.d" → 0 ~ 2^32-1, 형식이 틀리면 INVALID
+	public static long parseIpv4(String ip) {
+		return parseIpv4(ip, 0, ip.length());
+	}
+
+	// IPv6 상위(high = true) 또는 하위 64비트, 형식이 틀리면 IllegalArgumentException
+	// "::" 생략과 IPv4 꼬리(::ffff:1.2.3.4)를 지원하고, 두 절반을 얻으려면 두 번 호출한다 (배열을 만들지 않기 위해)
+	public static long parseIpv6(String ip, boolean high) {
+		return parseIpv6(ip, 0, ip.length(), high);
+	}
+
+	// IPv4 또는 IPv6 주소 형식인지
+	public static boolean isValid(String ip) {
+		if (!isIpv6(ip)) {
+			return parseIpv4(ip) != INVALID;
+		}
+		try {
+			parseIpv6(ip, true);
+			return true;
+		} catch (IllegalArgumentException e) {
+			return false;
+		}
+	}
+
+	// ::ffff:a.b.c.d (IPv4 매핑 주소)
+	public static boolean isIpv4Mapped(long high, long low) {
+		return high == 0 && (low >>> 32) == 0xFFFFL;
+	}
+
+	static long parseIpv4(String s, int from, int to) {
+		long value = 0;
+		int octets = 0;
+		int octet = 0;
+		int digits = 0;
+		for (int i = from; i <= to; i++) {
+			if (i == to || s.charAt(i) == '.') {
+				if (digits == 0 || octet > 255) {
+					return INVALID;
+				}
+				value = value << 8 | octet;
+				octets++;
+				octet = 0;
+				digits = 0;
+			} else {
+				char c = s.charAt(i);
+				if (c < '0' || c > '9' || digits == 3) {
+					return INVALID;
+				}
+				octet = octet * 10 + (c - '0');
+				digits++;
+			}
+		}
+		return octets == 4 ? value : INVALID;
+	}
+
+	// "::" 앞 그룹(head)과 뒤 그룹(tail)을 각각 128비트로 모은 뒤, head 를 생략된 그룹 수만큼 밀어서 합친다
+	static long parseIpv6(String s, int from, int to, boolean high) {
+		long headHi = 0;
+		long headLo = 0;
+		long tailHi = 0;
+		long tailLo = 0;
+		int headGroups = 0;
+		int tailGroups = 0;
+		boolean gap = false;
+
+		int i = from;
+		if (i + 1 < to && s.charAt(i) == ':' && s.charAt(i + 1) == ':') {
+			gap = true;
+			i += 2;
+		}
+		while (i < to) {
+			int end = i;
+			boolean dotted = false;
+			while (end < to && s.charAt(end) != ':') {
+				dotted |= s.charAt(end) == '.';
+				end++;
+			}
+
+			long value;
+			int bits;
+			if (dotted) {
+				// IPv4 꼬리는 마지막에만 올 수 있고 그룹 2개를 차지
+				value = end == to ? parseIpv4(s, i, end) : INVALID;
+				if (value == INVALID) {
+					throw invalid(s, from, to);
+				}
+				bits = 32;
+			} else {
+				value = parseHex(s, i, end, from, to);
+				bits = 16;
+			}
+			if (gap) {
+				tailHi = tailHi << bits | tailLo >>> (64 - bits);
+				tailLo = tailLo << bits | value;
+				tailGroups += bits / 16;
+			} else {
+				headHi = headHi << bits | headLo >>> (64 - bits);
+				headLo = headLo << bits | value;
+				headGroups += bits / 16;
+			}
+			if (end == to) {
+				break;
+			}
+
+			i = end + 1;
+			if (i < to && s.charAt(i) == ':') {
+				if (gap) {
+					throw invalid(s, from, to);
+				}
+				gap = true;
+				i++;
+			} else if (i == to) {
+				// ':' 하나로 끝남
+				throw invalid(s, from, to);
+			}
+		}
+
+		int groups = headGroups + tailGroups;
+		if (gap ? groups > 7 : groups != 8) {
+			throw invalid(s, from, to);
+		}
+
+		int shift = 16 * (8 - headGroups);
+		long hi;
+		long lo;
+		if (shift >= 64) {
+			hi = shift == 128 ? 0 : headLo << (shift - 64);
+			lo = 0;
+		} else if (shift > 0) {
+			hi = headHi << shift | headLo >>> (64 - shift);
+			lo = headLo << shift;
+		} else {
+			hi = headHi;
+			lo = headLo;
+		}
+		return high ? hi | tailHi : lo | tailLo;
+	}
+
+	private static long parseHex(String s, int from, int to, int addressFrom, int addressTo) {
+		if (from == to || to - from > 4) {
+			throw invalid(s, addressFrom, addressTo);
+		}
+		long value = 0;
+		for (int i = from; i < to; i++) {
+			int digit = Character.digit(s.charAt(i), 16);
+			if (digit < 0) {
+				throw invalid(s, addressFrom, addressTo);
+			}
+			value = value << 4 | digit;
+		}
+		return value;
+	}
+
+	private static IllegalArgumentException invalid(String s, int from, int to) {
+		return new IllegalArgumentException("잘못된 IPv6 주소: " + s.substring(from, to));
+	}
+}
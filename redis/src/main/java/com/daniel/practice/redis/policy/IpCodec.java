@@ -0,0 +1,180 @@
+package com.daniel.practice.redis.policy;
+
+import java.util.Base64;
+
+// IP 주소 → Redis 저장용 압축 표현
+// 1. Set/Sorted Set 멤버 (encode / decode)
+//    - IPv4: 부호 있는 32비트 정수 10진수 ("1.2.3.4" → "16909060", 128.0.0.0 이상은 음수)
+//      정수 멤버만 있는 Set 은 Redis 가 intset(멤버당 4바이트)으로 저장한다 (set-max-intset-entries 이하일 때).
+//      부호 없는 값으로 두면 절반이 int32 범위를 넘어 intset 이 8바이트 정수로 바뀜
+//    - IPv6: 16바이트를 base64url 22자로
+//    - CIDR 대역: 문자열 그대로 (대역 수는 적고 CidrTrie 가 문자열로 읽음)
+//    - IPv4 매핑 IPv6(::ffff:a.b.c.d)는 IPv4 로 저장하므로 같은 주소의 다른 표기가 같은 멤버가 된다.
+// 2. 키 접미사 (keySuffix): IPv4 4바이트 / IPv6 16바이트를 base64url 6자 / 22자로
+// 바이트를 그대로 넣지 않고 base64url 로 쓰는 이유: 키와 멤버는 StringRedisTemplate(UTF-8), 로컬 제한기 보정,
+// 알림 메시지를 모두 거치는데, 0x80 이상 바이트는 UTF-8 에서 2바이트가 되어 경로마다 다른 키가 될 수 있음
+// decode 는 이전 버전의 JSON 문자열 멤버("\"1.2.3.4\"")도 읽는다 (IpRestrictionService.migrate 로 변환 전까지)
+public final class IpCodec {
+
+	private static final char[] BASE64URL =
+		"ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".toCharArray();
+	// IPv6 base64url 길이 (128비트 / 6, 올림)
+	private static final int IPV6_ENCODED_LENGTH = 22;
+	// int32 10진수 최대 길이 ("-2147483648")
+	private static final int MAX_INT_LENGTH = 11;
+
+	private IpCodec() {
+	}
+
+	// Set 멤버 표현 (주소 형식이 아니면 그대로)
+	public static String encode(String ip) {
+		if (IpRestrictionSnapshot.isCidr(ip)) {
+			return ip;
+		}
+		if (!IpAddress.isIpv6(ip)) {
+			long address = IpAddress.parseIpv4(ip);
+			return address == IpAddress.INVALID ? ip : Integer.toString((int) address);
+		}
+		long high;
+		long low;
+		try {
+			high = IpAddress.parseIpv6(ip, true);
+			low = IpAddress.parseIpv6(ip, false);
+		} catch (IllegalArgumentException e) {
+			return ip;
+		}
+		if (IpAddress.isIpv4Mapped(high, low)) {
+			return Integer.toString((int) low);
+		}
+		return base64(high, low, 128);
+	}
+
+	// Set 멤버 → IP 문자열 (IPv6 는 RFC 5952 축약 표기)
+	public static String decode(String member) {
+		if (member.length() >= 2 && member.charAt(0) == '"' && member.charAt(member.length() - 1) == '"') {
+			// 이전 버전 JSON 문자열 (IP/CIDR 에는 이스케이프할 문자가 없음)
+			return member.substring(1, member.length() - 1);
+		}
+		if (IpRestrictionSnapshot.isCidr(member)) {
+			return member;
+		}
+		if (member.length() <= MAX_INT_LENGTH) {
+			try {
+				return formatIpv4(Integer.parseInt(member) & 0xFFFFFFFFL);
+			} catch (NumberFormatException e) {
+				return member;
+			}
+		}
+		if (member.length() == IPV6_ENCODED_LENGTH) {
+			try {
+				byte[] bytes = Base64.getUrlDecoder().decode(member);
+				return formatIpv6(toLong(bytes, 0), toLong(bytes, 8));
+			} catch (IllegalArgumentException e) {
+				return member;
+			}
+		}
+		return member;
+	}
+
+	// 이전 버전 JSON 문자열 멤버인지 (변환 대상)
+	public static boolean isLegacy(String member) {
+		return !member.isEmpty() && member.charAt(0) == '"';
+	}
+
+	// 키 접미사 표현 (주소 형식이 아니면 그대로)
+	public static String keySuffix(String ip) {
+		if (!IpAddress.isIpv6(ip)) {
+			long address = IpAddress.parseIpv4(ip);
+			return address == IpAddress.INVALID ? ip : base64(address << 32, 0, 32);
+		}
+		long high;
+		long low;
+		try {
+			high = IpAddress.parseIpv6(ip, true);
+			low = IpAddress.parseIpv6(ip, false);
+		} catch (IllegalArgumentException e) {
+			return ip;
+		}
+		if (IpAddress.isIpv4Mapped(high, low)) {
+			return base64((low & 0xFFFFFFFFL) << 32, 0, 32);
+		}
+		return base64(high, low, 128);
+	}
+
+	public static String formatIpv4(long address) {
+		return (address >>> 24) + "." + (address >>> 16 & 0xFF) + "." + (address >>> 8 & 0xFF) + "." + (address & 0xFF);
+	}
+
+	// 가장 긴(같으면 앞쪽) 2개 이상 연속 0 그룹을 "::" 로 줄이고 16진수는 소문자, 앞자리 0 생략
+	public static String formatIpv6(long high, long low) {
+		int[] groups = new int[8];
+		for (int i = 0; i < 8; i++) {
+			long half = i < 4 ? high : low;
+			groups[i] = (int) (half >>> (48 - 16 * (i % 4)) & 0xFFFF);
+		}
+		int gapStart = -1;
+		int gapLength = 0;
+		for (int i = 0; i < 8; ) {
+			if (groups[i] != 0) {
+				i++;
+				continue;
+			}
+			int end = i;
+			while (end < 8 && groups[end] == 0) {
+				end++;
+			}
+			if (end - i > gapLength && end - i >= 2) {
+				gapStart = i;
+				gapLength = end - i;
+			}
+			i = end;
+		}
+
+		StringBuilder sb = new StringBuilder(39);
+		for (int i = 0; i < 8; i++) {
+			if (i == gapStart) {
+				sb.append("::");
+				i += gapLength - 1;
+				continue;
+			}
+			if (sb.length() > 0 && sb.charAt(sb.length() - 1) != ':') {
+				sb.append(':');
+			}
+			sb.append(Integer.toHexString(groups[i]));
+		}
+		return sb.toString();
+	}
+
+	// 상위 bits 비트를 6비트씩 base64url 문자로 (마지막 조각은 뒤를 0으로 채움, 패딩 문자 없음)
+	// 요청마다 불리므로 byte[] 를 만들지 않고 long 에서 바로 읽는다
+	private static String base64(long high, long low, int bits) {
+		char[] chars = new char[(bits + 5) / 6];
+		for (int i = 0; i < chars.length; i++) {
+			chars[i] = BASE64URL[sixBits(high, low, i * 6)];
+		}
+		return new String(chars);
+	}
+
+	// 128비트(high, low)의 offset 번째 비트부터 6비트
+	private static int sixBits(long high, long low, int offset) {
+		if (offset + 6 <= 64) {
+			return (int) (high >>> (58 - offset)) & 63;
+		}
+		if (offset < 64) {
+			return (int) (high << (offset - 58) | low >>> (122 - offset)) & 63;
+		}
+		int lowOffset = offset - 64;
+		if (lowOffset + 6 <= 64) {
+			return (int) (low >>> (58 - lowOffset)) & 63;
+		}
+		return (int) (low << (lowOffset - 58)) & 63;
+	}
+
+	private static long toLong(byte[] bytes, int from) {
+		long value = 0;
+		for (int i = from; i < from + 8; i++) {
+			value = value << 8 | bytes[i] & 0xFF;
+		}
+		return value;
+	}
+}
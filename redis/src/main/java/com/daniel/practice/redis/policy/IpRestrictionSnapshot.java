@@ -0,0 +1,167 @@
+package com.daniel.practice.redis.policy;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+// IP 화이트리스트/블랙리스트 불변 스냅샷
+// 변경 1건마다 새 스냅샷을 만들어 통째로 교체하므로(copy-on-write) 조회 중에는 잠금이 필요 없다.
+// 목록 변경은 하루 몇 번, 조회는 요청마다라서 변경 시 전체 복사 비용은 문제되지 않음
+// "/" 가 들어간 항목(10.0.0.0/8, 2001:db8::/32)은 CIDR 대역으로 보고 CidrTrie 로 조회하고, 나머지는 정확히 일치하는 IP
+// 단일 IPv6 도 /128 대역으로 트리에 넣어 표기가 달라도(::1, 0:0:0:0:0:0:0:1) 같은 주소면 일치
+// 임시 차단은 IP → 만료 시각(ms)으로 들고 조회할 때마다 현재 시각과 비교하므로, 만료된 차단은 다시 읽지 않아도 바로 풀린다.
+public final class IpRestrictionSnapshot {
+
+	public static final String WHITELIST = "whitelist";
+	public static final String BLACKLIST = "blacklist";
+	public static final String ADD = "add";
+	public static final String REMOVE = "remove";
+
+	private final long version;
+	private final Set<String> whitelist;
+	private final Set<String> blacklist;
+	private final CidrTrie whitelistRanges;
+	private final CidrTrie blacklistRanges;
+	private final Map<String, Long> tempBans;
+
+	public IpRestrictionSnapshot(long version, Collection<String> whitelist, Collection<String> blacklist,
+		Map<String, Long> tempBans) {
+		this.version = version;
+		this.whitelist = Set.copyOf(whitelist);
+		this.blacklist = Set.copyOf(blacklist);
+		this.whitelistRanges = ranges(this.whitelist);
+		this.blacklistRanges = ranges(this.blacklist);
+		this.tempBans = Map.copyOf(tempBans);
+	}
+
+	// 목록은 그대로 두고 임시 차단만 바꿀 때 (대역 트리를 다시 만들지 않음)
+	private IpRestrictionSnapshot(IpRestrictionSnapshot source, long version, Map<String, Long> tempBans) {
+		this(version, source.whitelist, source.blacklist, source.whitelistRanges, source.blacklistRanges,
+			Map.copyOf(tempBans));
+	}
+
+	// 이미 불변인 필드를 그대로 이어받을 때 (변경 1건 반영)
+	private IpRestrictionSnapshot(long version, Set<String> whitelist, Set<String> blacklist,
+		CidrTrie whitelistRanges, CidrTrie blacklistRanges, Map<String, Long> tempBans) {
+		this.version = version;
+		this.whitelist = whitelist;
+		this.blacklist = blacklist;
+		this.whitelistRanges = whitelistRanges;
+		this.blacklistRanges = blacklistRanges;
+		this.tempBans = tempBans;
+	}
+
+	public static boolean isCidr(String entry) {
+		return entry.indexOf('/') >= 0;
+	}
+
+	// 저장 전 CIDR 형식 확인 (틀리면 IllegalArgumentException)
+	public static void validateCidr(String entry) {
+		CidrTrie.builder().add(entry);
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	public boolean isWhitelisted(String ip) {
+		return whitelist.contains(ip) || whitelistRanges.contains(ip);
+	}
+
+	public boolean isBlacklisted(String ip) {
+		return blacklist.contains(ip) || blacklistRanges.contains(ip) || isTempBanned(ip);
+	}
+
+	public boolean isTempBanned(String ip) {
+		if (tempBans.isEmpty()) {
+			return false;
+		}
+		Long expiresAt = tempBans.get(ip);
+		return expiresAt != null && expiresAt > System.currentTimeMillis();
+	}
+
+	public int getRangeCount() {
+		return whitelistRanges.size() + blacklistRanges.size();
+	}
+
+	// 블랙리스트 → 화이트리스트 없음(모두 허용) → 화이트리스트 순서 (IpRestrictionService 와 같은 규칙)
+	public boolean isAllowed(String ip) {
+		if (isBlacklisted(ip)) {
+			return false;
+		}
+		return whitelist.isEmpty() || isWhitelisted(ip);
+	}
+
+	// 변경 1건을 반영한 다음 버전 스냅샷
+	// 대역 트리는 바뀐 목록 것만, 그리고 트리에 들어가는 항목(CIDR, IPv6)이 바뀐 경우에만 다시 만든다.
+	// 단일 IPv4 변경은 Set 복사만 하고 트리는 이전 스냅샷 것을 그대로 쓴다.
+	public IpRestrictionSnapshot apply(long version, String op, String list, String ip) {
+		boolean ranged = isRange(ip);
+		if (WHITELIST.equals(list)) {
+			Set<String> whitelist = changed(this.whitelist, op, ip);
+			return new IpRestrictionSnapshot(version, whitelist, blacklist,
+				ranged ? ranges(whitelist) : whitelistRanges, blacklistRanges, tempBans);
+		}
+		if (BLACKLIST.equals(list)) {
+			Set<String> blacklist = changed(this.blacklist, op, ip);
+			return new IpRestrictionSnapshot(version, whitelist, blacklist,
+				whitelistRanges, ranged ? ranges(blacklist) : blacklistRanges, tempBans);
+		}
+		throw new IllegalArgumentException("알 수 없는 목록: " + list);
+	}
+
+	// 임시 차단 1건을 반영한 다음 버전 스냅샷 (expiresAt 이 0 이면 해제)
+	public IpRestrictionSnapshot ban(long version, String ip, long expiresAt) {
+		Map<String, Long> copy = new HashMap<>(tempBans);
+		if (expiresAt > 0) {
+			copy.put(ip, expiresAt);
+		} else {
+			copy.remove(ip);
+		}
+		return new IpRestrictionSnapshot(this, version, copy);
+	}
+
+	// 만료된 임시 차단을 뺀 같은 버전 스냅샷 (메모리 정리용, 없으면 그대로)
+	public IpRestrictionSnapshot withoutExpired(long now) {
+		if (tempBans.values().stream().noneMatch(expiresAt -> expiresAt <= now)) {
+			return this;
+		}
+		Map<String, Long> copy = new HashMap<>(tempBans);
+		copy.values().removeIf(expiresAt -> expiresAt <= now);
+		return new IpRestrictionSnapshot(this, version, copy);
+	}
+
+	// 이전 버전에서 저장된 잘못된 대역은 건너뜀 (새 대역은 저장 전에 확인)
+	private static CidrTrie ranges(Set<String> entries) {
+		CidrTrie.Builder builder = CidrTrie.builder();
+		for (String entry : entries) {
+			if (isRange(entry)) {
+				try {
+					builder.add(entry);
+				} catch (IllegalArgumentException ignored) {
+				}
+			}
+		}
+		return builder.build();
+	}
+
+	// 대역 트리에 들어가는 항목 (CIDR 대역, 표기가 여러 가지인 단일 IPv6)
+	private static boolean isRange(String entry) {
+		return isCidr(entry) || IpAddress.isIpv6(entry);
+	}
+
+	private static Set<String> changed(Set<String> members, String op, String ip) {
+		Set<String> copy = new HashSet<>(members);
+		if (ADD.equals(op)) {
+			copy.add(ip);
+		} else if (REMOVE.equals(op)) {
+			copy.remove(ip);
+		} else {
+			throw new IllegalArgumentException("알 수 없는 변경: " + op);
+		}
+		return Collections.unmodifiableSet(copy);
+	}
+}
@@ -0,0 +1,89 @@
+package com.daniel.practice.redis.policy;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+// 접두사 → 값 조회용 불변 트라이
+// 가장 길게 일치하는 접두사의 값을 돌려준다. 조회는 키 길이만큼 문자를 따라 내려가기만 하므로 O(키 길이)이고,
+// 자식 노드는 정렬된 char 배열 + 이진 탐색이라 조회 중 객체를 만들지 않는다.
+public final class PrefixTrie<V> {
+
+	private final Node<V> root;
+
+	private PrefixTrie(Node<V> root) {
+		this.root = root;
+	}
+
+	public static <V> Builder<V> builder() {
+		return new Builder<>();
+	}
+
+	// 가장 긴 접두사 일치 (빈 접두사 "" 로 등록한 값이 기본값 역할), 없으면 null
+	public V longestPrefixMatch(String key) {
+		Node<V> node = root;
+		V matched = node.value;
+		for (int i = 0; i < key.length(); i++) {
+			node = node.child(key.charAt(i));
+			if (node == null) {
+				break;
+			}
+			if (node.value != null) {
+				matched = node.value;
+			}
+		}
+		return matched;
+	}
+
+	private static final class Node<V> {
+		private final char[] labels;
+		private final Node<V>[] children;
+		private final V value;
+
+		private Node(char[] labels, Node<V>[] children, V value) {
+			this.labels = labels;
+			this.children = children;
+			this.value = value;
+		}
+
+		private Node<V> child(char label) {
+			int index = Arrays.binarySearch(labels, label);
+			return index < 0 ? null : children[index];
+		}
+	}
+
+	public static final class Builder<V> {
+		private final MutableNode<V> root = new MutableNode<>();
+
+		public Builder<V> put(String prefix, V value) {
+			MutableNode<V> node = root;
+			for (int i = 0; i < prefix.length(); i++) {
+				node = node.children.computeIfAbsent(prefix.charAt(i), c -> new MutableNode<>());
+			}
+			node.value = value;
+			return this;
+		}
+
+		public PrefixTrie<V> build() {
+			return new PrefixTrie<>(root.freeze());
+		}
+	}
+
+	private static final class MutableNode<V> {
+		private final TreeMap<Character, MutableNode<V>> children = new TreeMap<>();
+		private V value;
+
+		@SuppressWarnings("unchecked")
+		private Node<V> freeze() {
+			char[] labels = new char[children.size()];
+			Node<V>[] frozen = new Node[children.size()];
+			int i = 0;
+			for (Map.Entry<Character, MutableNode<V>> entry : children.entrySet()) {
+				labels[i] = entry.getKey();
+				frozen[i] = entry.getValue().freeze();
+				i++;
+			}
+			return new Node<>(labels, frozen, value);
+		}
+	}
+}
@@ -0,0 +1,224 @@
+package com.daniel.practice.redis.policy;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.daniel.practice.redis.config.RateLimitProperties;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+// 사용자/토큰 등급별 제한 저장소
+// 1. 기동 시 설정(rate-limit.policy)을 Redis Hash(rate-limit:policy)에 없는 항목만 채워 넣고
+// 2. Hash 전체를 읽어 접두사 트라이로 컴파일해 두며
+// 3. 변경 시 버전(rate-limit:policy:version)을 올리고 rate-limit:policy:changed 채널로 알려 모든 노드가 Hash 를 다시 읽는다.
+// 4. 알림을 놓친 노드는 1초마다 버전을 비교해 다시 읽는다. (IP 목록 스냅샷과 같은 방식)
+// 요청 처리 중에는 트라이 조회만 하므로 Redis 호출이 추가되지 않음
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TierPolicyRegistry implements InitializingBean, MessageListener {
+
+	private static final String POLICY_KEY = "rate-limit:policy";
+	private static final String POLICY_CHANNEL = "rate-limit:policy:changed";
+	private static final String VERSION_KEY = "rate-limit:policy:version";
+	// Hash 필드: user:{접두사} → "시간당:일일", token:{접두사} → "제한"
+	private static final String USER_FIELD = "user:";
+	private static final String TOKEN_FIELD = "token:";
+
+	private final StringRedisTemplate stringRedisTemplate;
+	private final RedisMessageListenerContainer redisMessageListenerContainer;
+	private final RateLimitProperties rateLimitProperties;
+
+	private volatile PrefixTrie<UserTierPolicy> userPolicies;
+	private volatile PrefixTrie<Integer> tokenLimits;
+	// 지금 트라이를 만든 Hash 의 버전 (-1: 아직 Redis 에서 읽지 못함)
+	private volatile long version = -1;
+
+	@Override
+	public void afterPropertiesSet() {
+		// Redis 가 없어도 설정값으로는 동작하도록 먼저 컴파일
+		compile(Map.of());
+		// 구독을 먼저 걸고 읽어야 그 사이에 온 변경 알림을 놓치지 않음
+		redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(POLICY_CHANNEL));
+		try {
+			if (seed()) {
+				publish();
+			}
+			reload();
+		} catch (DataAccessException e) {
+			log.warn("등급 정책을 Redis 에서 읽지 못해 설정값을 사용합니다: {}", e.getMessage());
+		}
+	}
+
+	// 사용자 등급 조회 (O(userId 길이), 할당 없음)
+	public UserTierPolicy getUserPolicy(String userId) {
+		UserTierPolicy policy = userPolicies.longestPrefixMatch(userId);
+		if (policy == null) {
+			throw new IllegalStateException("기본 사용자 등급(빈 접두사)이 없습니다");
+		}
+		return policy;
+	}
+
+	// 토큰 제한 조회 (O(token 길이), 할당 없음)
+	public int getTokenLimit(String token) {
+		Integer limit = tokenLimits.longestPrefixMatch(token);
+		if (limit == null) {
+			throw new IllegalStateException("기본 토큰 등급(빈 접두사)이 없습니다");
+		}
+		return limit;
+	}
+
+	// Redis 에 저장된 정책 전체
+	public Map<String, String> getStoredPolicies() {
+		return hash().entries(POLICY_KEY);
+	}
+
+	// 사용자 등급 추가/변경
+	public void putUserPolicy(String prefix, int hourlyLimit, int dailyLimit) {
+		validate(hourlyLimit);
+		validate(dailyLimit);
+		hash().put(POLICY_KEY, USER_FIELD + prefix, hourlyLimit + ":" + dailyLimit);
+		publish();
+	}
+
+	// 토큰 등급 추가/변경
+	public void putTokenPolicy(String prefix, int limit) {
+		validate(limit);
+		hash().put(POLICY_KEY, TOKEN_FIELD + prefix, String.valueOf(limit));
+		publish();
+	}
+
+	// 등급 삭제 (설정 파일에 있는 접두사는 설정값으로 돌아감)
+	public void removeUserPolicy(String prefix) {
+		hash().delete(POLICY_KEY, USER_FIELD + prefix);
+		publish();
+	}
+
+	public void removeTokenPolicy(String prefix) {
+		hash().delete(POLICY_KEY, TOKEN_FIELD + prefix);
+		publish();
+	}
+
+	// Redis 에 저장된 변경 사항을 버리고 설정값으로 초기화
+	public void resetToConfig() {
+		stringRedisTemplate.delete(POLICY_KEY);
+		seed();
+		publish();
+	}
+
+	// 지금 적용 중인 정책 버전
+	public long getVersion() {
+		return version;
+	}
+
+	// 변경 알림 수신 → Hash 다시 읽기
+	@Override
+	public void onMessage(Message message, byte[] pattern) {
+		try {
+			reload();
+			log.info("등급 정책 다시 읽음");
+		} catch (DataAccessException e) {
+			log.warn("등급 정책 다시 읽기 실패, 기존 정책 유지: {}", e.getMessage());
+		}
+	}
+
+	// 1초마다 Redis 버전과 비교 (알림을 놓쳤으면 다시 읽음)
+	@Scheduled(fixedRate = 1000)
+	public void verify() {
+		try {
+			long stored = readVersion();
+			if (stored != version) {
+				log.info("등급 정책 버전 불일치 {} → {}, 다시 읽음", version, stored);
+				reload();
+			}
+		} catch (DataAccessException e) {
+			log.warn("등급 정책 버전 확인 실패: {}", e.getMessage());
+		}
+	}
+
+	// 버전을 먼저 읽고 Hash 를 읽음
+	// 변경은 Hash 수정 → 버전 증가 순서라서, 읽은 버전까지의 변경은 Hash 에 모두 들어 있다.
+	// (그 사이 들어온 변경은 다음 알림이나 verify 에서 다시 읽음)
+	// 알림 스레드와 스케줄러가 동시에 읽어도 오래된 결과가 나중에 덮어쓰지 않도록 synchronized
+	private synchronized void reload() {
+		long stored = readVersion();
+		compile(getStoredPolicies());
+		version = stored;
+	}
+
+	private long readVersion() {
+		String stored = stringRedisTemplate.opsForValue().get(VERSION_KEY);
+		return stored == null ? 0 : Long.parseLong(stored);
+	}
+
+	// 설정값을 바탕으로 Redis 값을 덮어써서 트라이 2개를 새로 만들고 교체
+	private void compile(Map<String, String> stored) {
+		PrefixTrie.Builder<UserTierPolicy> users = PrefixTrie.builder();
+		PrefixTrie.Builder<Integer> tokens = PrefixTrie.builder();
+
+		RateLimitProperties.Policy properties = rateLimitProperties.getPolicy();
+		properties.getUsers().forEach(tier ->
+			users.put(tier.getPrefix(), new UserTierPolicy(tier.getHourlyLimit(), tier.getDailyLimit())));
+		properties.getTokens().forEach(tier -> tokens.put(tier.getPrefix(), tier.getLimit()));
+
+		stored.forEach((field, value) -> {
+			try {
+				if (field.startsWith(USER_FIELD)) {
+					int separator = value.indexOf(':');
+					users.put(field.substring(USER_FIELD.length()), new UserTierPolicy(
+						Integer.parseInt(value.substring(0, separator)),
+						Integer.parseInt(value.substring(separator + 1))));
+				} else if (field.startsWith(TOKEN_FIELD)) {
+					tokens.put(field.substring(TOKEN_FIELD.length()), Integer.parseInt(value));
+				}
+			} catch (RuntimeException e) {
+				log.warn("잘못된 등급 정책 무시: {}={}", field, value);
+			}
+		});
+
+		userPolicies = users.build();
+		tokenLimits = tokens.build();
+	}
+
+	// 설정값 중 Redis 에 없는 항목만 기록 (운영 중 변경한 값은 재기동해도 유지), 새로 기록했으면 true
+	private boolean seed() {
+		boolean added = false;
+		RateLimitProperties.Policy properties = rateLimitProperties.getPolicy();
+		for (RateLimitProperties.UserTier tier : properties.getUsers()) {
+			added |= Boolean.TRUE.equals(hash().putIfAbsent(POLICY_KEY, USER_FIELD + tier.getPrefix(),
+				tier.getHourlyLimit() + ":" + tier.getDailyLimit()));
+		}
+		for (RateLimitProperties.TokenTier tier : properties.getTokens()) {
+			added |= Boolean.TRUE.equals(hash().putIfAbsent(POLICY_KEY, TOKEN_FIELD + tier.getPrefix(),
+				String.valueOf(tier.getLimit())));
+		}
+		return added;
+	}
+
+	// Hash 를 바꾼 뒤 호출: 버전 증가 후 알림 (알림을 놓친 노드는 verify 에서 버전 차이로 알아챔)
+	private void publish() {
+		Long changed = stringRedisTemplate.opsForValue().increment(VERSION_KEY);
+		stringRedisTemplate.convertAndSend(POLICY_CHANNEL, String.valueOf(changed));
+	}
+
+	private HashOperations<String, String, String> hash() {
+		return stringRedisTemplate.opsForHash();
+	}
+
+	private static void validate(int limit) {
+		if (limit < 1) {
+			throw new IllegalArgumentException("제한값은 1 이상이어야 합니다: " + limit);
+		}
+	}
+}
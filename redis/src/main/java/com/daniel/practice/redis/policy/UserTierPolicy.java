@@ -0,0 +1,14 @@
+package com.daniel.practice.redis.policy;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+// 사용자 등급별 제한
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class UserTierPolicy {
+	private final int hourlyLimit;
+	private final int dailyLimit;
+}
@@ -0,0 +1,145 @@
+package com.daniel.practice.redis.resilience;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.daniel.practice.redis.config.RateLimitProperties;
+import com.daniel.practice.redis.config.RedisScripts;
+import com.daniel.practice.redis.dto.RateLimitDecision;
+import com.daniel.practice.redis.enums.CircuitState;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+// Redis 차단 중에 사용하는 노드 로컬 근사 제한기
+// 키를 해시해서 고정 크기 카운터 테이블(stripes)의 칸 하나에 대응시키고, 칸마다 윈도우 번호 + 카운트를 CAS 로 갱신한다 (lock-free).
+// 서로 다른 키가 같은 칸을 쓰면 카운트가 합쳐지므로 더 엄격해지는 쪽으로만 틀린다.
+// 제한값은 노드 몫(전체 제한 / node-count)이고, 차단 전 Redis 에 쌓인 카운트는 모르므로 윈도우당 최대 노드 몫만큼 초과 허용될 수 있다.
+// 허용한 개수는 키별로 모아 두었다가 차단이 풀리면 Redis 카운터에 더해준다.
+@Slf4j
+@Component
+public class LocalRateLimiter {
+
+	private final StringRedisTemplate stringRedisTemplate;
+	private final RedisCircuitBreaker redisCircuitBreaker;
+	private final RateLimitProperties.Degraded properties;
+
+	private final int mask;
+	private final AtomicLongArray epochs;
+	private final AtomicLongArray counts;
+	// Redis 에 반영할 개수 (키 + 필드 → 허용 개수)
+	private final Map<PendingKey, LongAdder> pending = new ConcurrentHashMap<>();
+
+	private final Counter allowedCounter;
+	private final Counter deniedCounter;
+
+	public LocalRateLimiter(StringRedisTemplate stringRedisTemplate, RedisCircuitBreaker redisCircuitBreaker,
+		RateLimitProperties rateLimitProperties, MeterRegistry meterRegistry) {
+		this.stringRedisTemplate = stringRedisTemplate;
+		this.redisCircuitBreaker = redisCircuitBreaker;
+		this.properties = rateLimitProperties.getDegraded();
+
+		int size = Integer.highestOneBit(Math.max(1, properties.getStripes() - 1)) << 1;
+		this.mask = size - 1;
+		this.epochs = new AtomicLongArray(size);
+		this.counts = new AtomicLongArray(size);
+
+		this.allowedCounter = Counter.builder("rate_limit.degraded.requests").tag("result", "allowed").register(meterRegistry);
+		this.deniedCounter = Counter.builder("rate_limit.degraded.requests").tag("result", "denied").register(meterRegistry);
+		Gauge.builder("rate_limit.degraded.pending", pending, Map::size)
+			.register(meterRegistry);
+	}
+
+	// 고정 윈도우 방식으로 1개 차감
+	// field 가 null 이면 문자열 카운터, 아니면 Hash 필드 카운터로 나중에 반영
+	// reconcileTtlSeconds: 반영할 때 키에 TTL 이 없으면 설정할 값 (슬라이딩 카운터 버킷은 윈도우 2개), 0 이면 반영하지 않음
+	public RateLimitDecision tryAcquire(String key, String field, long limit, long windowSeconds,
+		long reconcileTtlSeconds) {
+		long windowMillis = windowSeconds * 1000;
+		long now = System.currentTimeMillis();
+		long epoch = now / windowMillis;
+		long localLimit = Math.max(1, (limit + properties.getNodeCount() - 1) / properties.getNodeCount());
+		long ttl = (windowMillis - now % windowMillis + 999) / 1000;
+
+		int slot = slot(key, field);
+		long slotEpoch = epochs.get(slot);
+		if (slotEpoch != epoch && epochs.compareAndSet(slot, slotEpoch, epoch)) {
+			counts.set(slot, 0);
+		}
+
+		long count = counts.incrementAndGet(slot);
+		if (count > localLimit) {
+			counts.decrementAndGet(slot);
+			deniedCounter.increment();
+			return RateLimitDecision.builder()
+				.allowed(false).count(localLimit).limit(localLimit).ttl(ttl).retryAfterMillis(ttl * 1000)
+				.build();
+		}
+
+		allowedCounter.increment();
+		if (reconcileTtlSeconds > 0) {
+			// 맵 잠금 안에서 증가시켜, reconcile() 이 빈 항목을 지우는 것과 겹쳐도 증가분이 사라지지 않도록
+			pending.compute(new PendingKey(key, field == null ? "" : field, reconcileTtlSeconds), (k, adder) -> {
+				LongAdder counter = adder == null ? new LongAdder() : adder;
+				counter.increment();
+				return counter;
+			});
+		}
+		return RateLimitDecision.builder()
+			.allowed(true).count(count).limit(localLimit).ttl(ttl)
+			.build();
+	}
+
+	// 차단이 풀리면 모아둔 개수를 Redis 에 반영 (요청 스레드가 아닌 스케줄러에서 실행)
+	@Scheduled(fixedDelay = 1000)
+	public void reconcile() {
+		if (pending.isEmpty() || redisCircuitBreaker.getState() != CircuitState.CLOSED) {
+			return;
+		}
+
+		int reconciled = 0;
+		for (Map.Entry<PendingKey, LongAdder> entry : pending.entrySet()) {
+			PendingKey key = entry.getKey();
+			// 항목을 지우지 않고 비우기만 함 (sumThenReset 과 동시에 들어온 증가분은 합계에 들어가거나 adder 에 남음)
+			long delta = entry.getValue().sumThenReset();
+			// 이번 주기 동안 증가가 없던 항목만 잠금 안에서 제거
+			pending.computeIfPresent(key, (k, adder) -> adder.sum() == 0 ? null : adder);
+			if (delta == 0) {
+				continue;
+			}
+			try {
+				stringRedisTemplate.execute(RedisScripts.RECONCILE, List.of(key.key()),
+					key.field(), String.valueOf(delta), String.valueOf(key.ttlSeconds()));
+				reconciled++;
+			} catch (DataAccessException e) {
+				// 다시 실패하면 남은 개수를 돌려놓고 다음 주기에 재시도
+				pending.compute(key, (k, adder) -> {
+					LongAdder counter = adder == null ? new LongAdder() : adder;
+					counter.add(delta);
+					return counter;
+				});
+				log.warn("로컬 카운트 반영 실패, 다음 주기에 재시도: {}", e.getMessage());
+				return;
+			}
+		}
+		log.info("로컬 카운트 {}개 키를 Redis 에 반영", reconciled);
+	}
+
+	private int slot(String key, String field) {
+		int hash = key.hashCode() * 31 + (field == null ? 0 : field.hashCode());
+		return (hash ^ (hash >>> 16)) & mask;
+	}
+
+	private record PendingKey(String key, String field, long ttlSeconds) {
+	}
+}
@@ -0,0 +1,166 @@
+package com.daniel.practice.redis.resilience;
+
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import com.daniel.practice.redis.config.RateLimitProperties;
+import com.daniel.practice.redis.enums.CircuitState;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+// Rate Limit 용 Redis 호출 차단기
+// 연속 실패(예외 또는 느린 응답)가 failure-threshold 에 도달하면 open-duration 동안 Redis 를 호출하지 않고 fallback 을 사용한다.
+// 시간이 지나면 호출 1건만 Redis 로 보내(HALF_OPEN) 성공하면 닫고, 실패하면 다시 연다.
+// Redis 가 timeout(2초)까지 응답하지 않을 때 모든 요청이 2초씩 묶이는 것을 차단 이후로는 막아준다.
+@Slf4j
+@Component
+public class RedisCircuitBreaker {
+
+	private final RateLimitProperties.Degraded properties;
+	private final AtomicReference<CircuitState> state = new AtomicReference<>(CircuitState.CLOSED);
+	private final AtomicInteger consecutiveFailures = new AtomicInteger();
+	private final AtomicLong openUntil = new AtomicLong();
+
+	private final Counter successCounter;
+	private final Counter failureCounter;
+	private final Counter slowCounter;
+	private final Counter rejectedCounter;
+
+	public RedisCircuitBreaker(RateLimitProperties rateLimitProperties, MeterRegistry meterRegistry) {
+		this.properties = rateLimitProperties.getDegraded();
+
+		// 성공 / 예외 / 느린 응답 / 차단 중이라 호출하지 않음
+		this.successCounter = Counter.builder("rate_limit.circuit.calls").tag("result", "success").register(meterRegistry);
+		this.failureCounter = Counter.builder("rate_limit.circuit.calls").tag("result", "failure").register(meterRegistry);
+		this.slowCounter = Counter.builder("rate_limit.circuit.calls").tag("result", "slow").register(meterRegistry);
+		this.rejectedCounter = Counter.builder("rate_limit.circuit.calls").tag("result", "rejected").register(meterRegistry);
+		// 0: CLOSED, 1: HALF_OPEN, 2: OPEN
+		Gauge.builder("rate_limit.circuit.state", state, s -> switch (s.get()) {
+				case CLOSED -> 0;
+				case HALF_OPEN -> 1;
+				case OPEN -> 2;
+			})
+			.register(meterRegistry);
+	}
+
+	// Redis 호출을 차단기로 감싸서 실행, 차단 중이거나 실패하면 fallback 결과 반환
+	public <T> T execute(Supplier<T> call, Supplier<T> fallback) {
+		if (!properties.isEnabled()) {
+			return call.get();
+		}
+		if (!tryEnter()) {
+			rejectedCounter.increment();
+			return fallback.get();
+		}
+
+		long start = System.nanoTime();
+		T result;
+		try {
+			result = call.get();
+		} catch (DataAccessException e) {
+			failureCounter.increment();
+			onFailure();
+			log.warn("Redis 호출 실패, 로컬 제한기 사용: {}", e.getMessage());
+			return fallback.get();
+		} catch (RuntimeException e) {
+			// 그 밖의 예외도 실패로 세어 시험 호출(HALF_OPEN)이 끝나지 않은 채 남지 않도록 하고, 예외는 그대로 전달
+			failureCounter.increment();
+			onFailure();
+			throw e;
+		}
+
+		onResult(start);
+		return result;
+	}
+
+	// 리액티브 버전: 구독할 때 차단 여부를 확인하고, timeout 안에 응답이 없으면 실패로 세어 fallback 사용
+	// (timeout 이 없으면 Redis 가 응답하지 않을 때 요청마다 명령 timeout(2초)까지 기다린 뒤 오류로 끝남)
+	// fallback 은 이벤트 루프에서 실행되므로 블로킹 없는 노드 로컬 계산이어야 함 (LocalRateLimiter)
+	public <T> Mono<T> executeReactive(Supplier<Mono<T>> call, Supplier<T> fallback) {
+		if (!properties.isEnabled()) {
+			return Mono.defer(call);
+		}
+		return Mono.defer(() -> {
+			if (!tryEnter()) {
+				rejectedCounter.increment();
+				return Mono.fromSupplier(fallback);
+			}
+
+			long start = System.nanoTime();
+			return call.get()
+				.timeout(properties.getTimeout())
+				.doOnNext(result -> onResult(start))
+				.onErrorResume(e -> e instanceof DataAccessException || e instanceof TimeoutException, e -> {
+					failureCounter.increment();
+					onFailure();
+					log.warn("Redis 호출 실패, 로컬 제한기 사용: {}", e.getMessage());
+					return Mono.fromSupplier(fallback);
+				})
+				// 그 밖의 예외는 동기 버전과 같이 실패로 세고 그대로 전달
+				.doOnError(e -> {
+					failureCounter.increment();
+					onFailure();
+				})
+				// 시험 호출(HALF_OPEN)이 취소되면(클라이언트 연결 끊김) 다음 호출이 다시 시험하도록 OPEN 으로 되돌림
+				.doOnCancel(() -> state.compareAndSet(CircuitState.HALF_OPEN, CircuitState.OPEN));
+		});
+	}
+
+	public CircuitState getState() {
+		return state.get();
+	}
+
+	// 느린 응답도 실패로 세지만, 이미 받은 결과는 정확하므로 그대로 사용
+	private void onResult(long start) {
+		if (System.nanoTime() - start > properties.getSlowCallThreshold().toNanos()) {
+			slowCounter.increment();
+			onFailure();
+		} else {
+			successCounter.increment();
+			onSuccess();
+		}
+	}
+
+	// 호출 가능 여부 (OPEN 이 끝났으면 HALF_OPEN 으로 바꾼 스레드 1개만 통과)
+	private boolean tryEnter() {
+		return switch (state.get()) {
+			case CLOSED -> true;
+			case HALF_OPEN -> false;
+			case OPEN -> System.currentTimeMillis() >= openUntil.get()
+				&& state.compareAndSet(CircuitState.OPEN, CircuitState.HALF_OPEN);
+		};
+	}
+
+	private void onSuccess() {
+		consecutiveFailures.set(0);
+		if (state.compareAndSet(CircuitState.HALF_OPEN, CircuitState.CLOSED)) {
+			log.info("Redis 회복, 차단 해제");
+		}
+	}
+
+	private void onFailure() {
+		if (state.get() == CircuitState.HALF_OPEN) {
+			open(CircuitState.HALF_OPEN);
+		} else if (consecutiveFailures.incrementAndGet() >= properties.getFailureThreshold()) {
+			open(CircuitState.CLOSED);
+		}
+	}
+
+	private void open(CircuitState from) {
+		openUntil.set(System.currentTimeMillis() + properties.getOpenDuration().toMillis());
+		if (state.compareAndSet(from, CircuitState.OPEN)) {
+			consecutiveFailures.set(0);
+			log.warn("Redis 호출 차단 ({}ms 동안 로컬 제한기 사용)", properties.getOpenDuration().toMillis());
+		}
+	}
+}
@@ -0,0 +1,56 @@
+package com.daniel.practice.redis.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.springframework.dao.DataAccessException;
+
+import lombok.extern.slf4j.Slf4j;
+
+// 요청 스레드 → 백그라운드 기록 대기열 (CardinalityStatsService, TokenUsageHistoryService 가 사용)
+// 요청 스레드는 offer 만 하고(가득 차면 버림), @Scheduled 작업이 drain 으로 batch-size 씩 꺼내 기록한다.
+// drain 한 번은 최대 maxBatches 묶음까지만 처리하고 기록에 실패하면(Redis 지연/장애) 멈추므로,
+// 요청이 계속 들어와도 같은 스케줄러를 쓰는 다른 작업(IP 목록 버전 확인 등)을 오래 막지 않는다.
+@Slf4j
+final class BatchQueue<T> {
+
+	private final String name;
+	private final BlockingQueue<T> queue;
+	private final AtomicLong dropped = new AtomicLong();
+
+	BatchQueue(String name, int capacity) {
+		this.name = name;
+		this.queue = new ArrayBlockingQueue<>(capacity);
+	}
+
+	// 대기열에 추가 (가득 차면 버리고 바로 반환)
+	void offer(T item) {
+		if (!queue.offer(item)) {
+			dropped.incrementAndGet();
+		}
+	}
+
+	// batchSize 씩 최대 maxBatches 묶음 기록, 실패한 묶음은 버리고 남은 묶음은 다음 실행으로 넘김
+	void drain(int batchSize, int maxBatches, Consumer<List<T>> writer) {
+		List<T> batch = new ArrayList<>(batchSize);
+		for (int i = 0; i < maxBatches && queue.drainTo(batch, batchSize) > 0; i++) {
+			try {
+				writer.accept(batch);
+			} catch (DataAccessException e) {
+				log.warn("{} {}건 기록 실패: {}", name, batch.size(), e.getMessage());
+				break;
+			} finally {
+				batch.clear();
+			}
+		}
+
+		long droppedCount = dropped.getAndSet(0);
+		if (droppedCount > 0) {
+			log.warn("{} 대기열이 가득 차 {}건을 버렸습니다", name, droppedCount);
+		}
+	}
+}
@@ -1,39 +1,82 @@
 package com.daniel.practice.redis.service;
 
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 
+import com.daniel.practice.redis.config.RedisScripts;
+import com.daniel.practice.redis.metrics.LogSampler;
+import com.daniel.practice.redis.metrics.RedisOperationMetrics;
+
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jws;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
+// JWT 블랙리스트 (로그아웃/강제 만료된 토큰)
+// 키는 토큰 문자열 전체가 아니라 jti(있으면) 또는 토큰 digest(SHA-256 앞 16바이트, base64url 22자)라서
+// 토큰 길이와 관계없이 수십 바이트이고, 조회는 EXISTS 만 하므로 값은 비워 둔다.
+// 토큰이 원래 만료되는 시점(exp)까지만 막으면 충분하므로 키는 exp 시각에 PXAT 으로 만료시킨다.
+// jti 를 읽기 위한 파싱은 JwtService 검증 캐시에서 처리되므로 조회 경로에 서명 검증이 추가되지 않는다.
+// 이전 형식(blacklist:<토큰 전체>) 키도 같은 EXISTS 로 함께 확인한다.
+// 이전 키는 토큰 exp 에 만료되므로, 배포 후 토큰 최대 수명이 지나면 legacyKey 확인을 지워도 된다.
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class BlackListService {
 
+	private static final String METRIC_SERVICE = "blacklist";
+
 	private final JwtService jwtService;
-	private final RedisTemplate<String, Object> redisTemplate;
+	private final StringRedisTemplate stringRedisTemplate;
+	private final RedisOperationMetrics redisOperationMetrics;
 
-	// 블랙리스트 등록
-	public void addToBlackList(String token) {
-		System.out.println("=== 블랙리스트 등록 ===");
+	// 키 생성 헬퍼 메서드 (검증에 실패한 토큰은 jti 를 믿을 수 없으므로 digest)
+	static String createKey(String token, Optional<Jws<Claims>> claims) {
+		String jti = claims.map(jws -> jws.getPayload().getId()).orElse(null);
+		if (jti != null) {
+			return "blacklist:jti:" + jti;
+		}
+		return "blacklist:" + TokenDigest.of(token).toBase64Url();
+	}
 
+	// 이전 형식 키 (토큰 문자열 전체)
+	static String legacyKey(String token) {
+		return "blacklist:" + token;
+	}
+
+	// 블랙리스트 등록 (검증에 실패했거나 이미 만료된 토큰은 어차피 통과하지 못하므로 등록하지 않음)
+	public void addToBlackList(String token) {
 		Optional<Jws<Claims>> claimsJws = jwtService.parseToken(token);
-		long exp;
-		if (claimsJws.isPresent()) {
-			exp = claimsJws.get().getPayload().getExpiration().getTime();
-			// 블랙리스트의 TTL을 "남은 만료 시간"으로 설정
-			// 토큰이 원래 만료되는 시점까지만 블랙리스트에 남겨두면 충분
-			redisTemplate.opsForValue().set("blacklist:" + token, token, (exp - System.currentTimeMillis()) / 1000);
+		if (claimsJws.isEmpty()) {
+			log.info("블랙리스트 등록 생략 - 유효하지 않은 토큰");
+			return;
 		}
-	}
+		String key = createKey(token, claimsJws);
+		Date expiration = claimsJws.get().getPayload().getExpiration();
+		long expiresAt = expiration == null ? 0 : expiration.getTime();
+		Long added = redisOperationMetrics.record(METRIC_SERVICE, "addToBlackList", 1,
+			() -> stringRedisTemplate.execute(RedisScripts.TOKEN_REVOKE, List.of(key), String.valueOf(expiresAt)));
 
+		long ttlSeconds = expiresAt == 0 ? -1 : (expiresAt - System.currentTimeMillis()) / 1000;
+		log.info("블랙리스트 {} - 남은 만료 시간: {}초", added != null && added == 1 ? "등록" : "이미 등록됨", ttlSeconds);
+	}
 
-	// 블랙리스트 조회
+	// 블랙리스트 조회 (새 키 + 이전 형식 키를 EXISTS 1회로)
 	public boolean isBlackListed(String token) {
-		System.out.println("=== 블랙리스트 조회 ===");
-		return redisTemplate.hasKey("blacklist:" + token);
+		List<String> keys = List.of(createKey(token, jwtService.parseToken(token)), legacyKey(token));
+		boolean blackListed = redisOperationMetrics.record(METRIC_SERVICE, "isBlackListed", 1, () -> {
+			Long count = stringRedisTemplate.countExistingKeys(keys);
+			return count != null && count > 0;
+		});
+		// 블랙리스트에 없으면 허용
+		redisOperationMetrics.decision(METRIC_SERVICE, "isBlackListed", !blackListed);
+		if (log.isDebugEnabled() && LogSampler.sample()) {
+			log.debug("블랙리스트 조회: {}", blackListed ? "차단" : "통과");
+		}
+		return blackListed;
 	}
 }
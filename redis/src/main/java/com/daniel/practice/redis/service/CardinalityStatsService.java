@@ -0,0 +1,206 @@
+package com.daniel.practice.redis.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.daniel.practice.redis.config.RateLimitProperties;
+import com.daniel.practice.redis.dto.CardinalityStats;
+import com.daniel.practice.redis.enums.RateLimitKeyType;
+import com.daniel.practice.redis.enums.RateLimitWindow;
+import com.daniel.practice.redis.metrics.RedisOperationMetrics;
+
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+// 분/시간/일 단위 고유 IP·사용자·토큰 수 (버킷 HyperLogLog: stats:hll:{type}:{window}:{epoch})
+// 버킷 키는 Rate Limit 키와 해시 슬롯이 달라 클러스터에서는 같은 스크립트에 넣을 수 없으므로,
+// 요청 스레드는 메모리 대기열에 넣기만 하고 백그라운드에서 모아서 버킷별 PFADD(여러 값) + EXPIRE 를 파이프라인 한 번으로 기록한다.
+// 버킷은 요청 시각으로 고르므로 기록이 늦어져도 경계가 밀리지 않고, 조회에는 최대 기록 주기(100ms)만큼 늦게 반영된다.
+// 조회는 버킷 키를 이름으로 바로 찾아 PFCOUNT / PFMERGE 하므로 ip:rate:* 같은 키 스캔이 필요 없다.
+// 버킷 하나는 원소 수와 관계없이 최대 약 12KB
+@Service
+public class CardinalityStatsService {
+
+	private static final String METRIC_SERVICE = "cardinality_stats";
+
+	private final StringRedisTemplate stringRedisTemplate;
+	private final RateLimitProperties rateLimitProperties;
+	private final RedisOperationMetrics redisOperationMetrics;
+	private final BatchQueue<PendingMember> queue;
+
+	public CardinalityStatsService(StringRedisTemplate stringRedisTemplate, RateLimitProperties rateLimitProperties,
+		RedisOperationMetrics redisOperationMetrics) {
+		this.stringRedisTemplate = stringRedisTemplate;
+		this.rateLimitProperties = rateLimitProperties;
+		this.redisOperationMetrics = redisOperationMetrics;
+		this.queue = new BatchQueue<>("고유 수 집계", rateLimitProperties.getStats().getQueueCapacity());
+	}
+
+	static String createBucketKey(RateLimitKeyType type, RateLimitWindow window, long epoch) {
+		return "stats:hll:" + type.name().toLowerCase() + ":" + window.getKey() + ":" + epoch;
+	}
+
+	// 완료된 버킷 합집합 (범위가 같으면 다음 버킷이 시작될 때까지 재사용)
+	static String createUnionKey(RateLimitKeyType type, RateLimitWindow window, long fromEpoch, long toEpoch) {
+		return "stats:hll:" + type.name().toLowerCase() + ":" + window.getKey() + ":union:" + fromEpoch + "-" + toEpoch;
+	}
+
+	// 고유 수 집계 요청 (허용/거부와 관계없이 기록, 대기열이 가득 차면 버리고 바로 반환)
+	public void record(RateLimitKeyType type, String member) {
+		if (!rateLimitProperties.getStats().isEnabled()) {
+			return;
+		}
+		queue.offer(new PendingMember(type, member, System.currentTimeMillis()));
+	}
+
+	// 대기열을 batch-size 만큼씩 꺼내 기록 (한 번에 최대 max-batches-per-flush 묶음, BatchQueue 참고)
+	@Scheduled(fixedDelay = 100)
+	public void flush() {
+		RateLimitProperties.Stats properties = rateLimitProperties.getStats();
+		queue.drain(properties.getBatchSize(), properties.getMaxBatchesPerFlush(), this::write);
+	}
+
+	// 종료 시 남은 집계 기록 (실패하면 중단)
+	@PreDestroy
+	public void flushAll() {
+		queue.drain(rateLimitProperties.getStats().getBatchSize(), Integer.MAX_VALUE, this::write);
+	}
+
+	// 버킷별로 값을 모아 PFADD 한 번 + 보관 기간 EXPIRE (마지막 기록 시점부터 보관)
+	private void write(List<PendingMember> batch) {
+		RateLimitProperties.Stats properties = rateLimitProperties.getStats();
+		Map<String, Set<String>> members = new LinkedHashMap<>();
+		Map<String, Long> ttls = new HashMap<>();
+		for (PendingMember pending : batch) {
+			for (RateLimitWindow window : RateLimitWindow.values()) {
+				String bucketKey = createBucketKey(pending.type(), window, epochOf(window, pending.timestamp()));
+				members.computeIfAbsent(bucketKey, k -> new HashSet<>()).add(pending.member());
+				ttls.putIfAbsent(bucketKey, properties.retentionOf(window).toSeconds());
+			}
+		}
+
+		redisOperationMetrics.record(METRIC_SERVICE, "record", 1,
+			() -> stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+				for (Map.Entry<String, Set<String>> entry : members.entrySet()) {
+					byte[] rawKey = raw(entry.getKey());
+					connection.hyperLogLogCommands().pfAdd(rawKey, raw(new ArrayList<>(entry.getValue())));
+					connection.keyCommands().expire(rawKey, ttls.get(entry.getKey()));
+				}
+				return null;
+			}));
+	}
+
+	// 최근 N개 버킷(현재 포함)의 고유 수
+	// 완료된 버킷은 PFMERGE 로 합쳐 두고 현재 버킷과 함께 PFCOUNT
+	public CardinalityStats count(RateLimitKeyType type, RateLimitWindow window, int buckets) {
+		long nowMillis = System.currentTimeMillis();
+		long maxBuckets = Math.max(1, rateLimitProperties.getStats().retentionOf(window).toSeconds() / window.getSeconds());
+		int size = (int) Math.min(Math.max(1, buckets), maxBuckets);
+		long toEpoch = epochOf(window, nowMillis);
+		long fromEpoch = toEpoch - size + 1;
+
+		List<String> bucketKeys = new ArrayList<>(size);
+		for (long epoch = fromEpoch; epoch <= toEpoch; epoch++) {
+			bucketKeys.add(createBucketKey(type, window, epoch));
+		}
+		String currentKey = bucketKeys.get(size - 1);
+
+		Timer.Sample sample = redisOperationMetrics.start();
+		List<String> countKeys = List.of(currentKey);
+		int roundTrips = 1;
+		if (size > 1) {
+			String unionKey = createUnionKey(type, window, fromEpoch, toEpoch - 1);
+			if (!Boolean.TRUE.equals(stringRedisTemplate.hasKey(unionKey))) {
+				stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+					byte[] rawUnionKey = raw(unionKey);
+					connection.hyperLogLogCommands().pfMerge(rawUnionKey, raw(bucketKeys.subList(0, size - 1)));
+					connection.keyCommands().expire(rawUnionKey, window.getSeconds());
+					return null;
+				});
+				roundTrips++;
+			}
+			roundTrips++;
+			countKeys = List.of(unionKey, currentKey);
+		}
+
+		List<String> unionCountKeys = countKeys;
+		List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+			connection.hyperLogLogCommands().pfCount(raw(unionCountKeys));
+			for (String bucketKey : bucketKeys) {
+				connection.hyperLogLogCommands().pfCount(raw(bucketKey));
+			}
+			return null;
+		});
+		redisOperationMetrics.stop(sample, METRIC_SERVICE, "count", roundTrips);
+
+		List<Long> series = new ArrayList<>(size);
+		for (int i = 1; i < results.size(); i++) {
+			series.add((Long) results.get(i));
+		}
+		return CardinalityStats.builder()
+			.type(type.name().toLowerCase())
+			.window(window.getKey())
+			.buckets(size)
+			.from(TimeUnit.SECONDS.toMillis(fromEpoch * window.getSeconds()))
+			.unique((Long) results.get(0))
+			.series(series)
+			.build();
+	}
+
+	// 현재 분/시간/일 버킷의 고유 수 (타입별, 파이프라인 왕복 1회)
+	public Map<String, Map<String, Long>> current() {
+		long nowMillis = System.currentTimeMillis();
+		List<Object> results = redisOperationMetrics.record(METRIC_SERVICE, "current", 1,
+			() -> stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+				for (RateLimitKeyType type : RateLimitKeyType.values()) {
+					for (RateLimitWindow window : RateLimitWindow.values()) {
+						connection.hyperLogLogCommands().pfCount(
+							raw(createBucketKey(type, window, epochOf(window, nowMillis))));
+					}
+				}
+				return null;
+			}));
+
+		Map<String, Map<String, Long>> stats = new LinkedHashMap<>();
+		int index = 0;
+		for (RateLimitKeyType type : RateLimitKeyType.values()) {
+			Map<String, Long> counts = new LinkedHashMap<>();
+			for (RateLimitWindow window : RateLimitWindow.values()) {
+				counts.put(window.getKey(), (Long) results.get(index++));
+			}
+			stats.put(type.name().toLowerCase(), counts);
+		}
+		return stats;
+	}
+
+	private static long epochOf(RateLimitWindow window, long nowMillis) {
+		return nowMillis / TimeUnit.SECONDS.toMillis(window.getSeconds());
+	}
+
+	private static byte[] raw(String key) {
+		return key.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static byte[][] raw(List<String> keys) {
+		byte[][] rawKeys = new byte[keys.size()][];
+		for (int i = 0; i < rawKeys.length; i++) {
+			rawKeys[i] = raw(keys.get(i));
+		}
+		return rawKeys;
+	}
+
+	private record PendingMember(RateLimitKeyType type, String member, long timestamp) {
+	}
+}
@@ -0,0 +1,157 @@
+package com.daniel.practice.redis.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import com.daniel.practice.redis.config.RedisScripts;
+import com.daniel.practice.redis.dto.QuotaDecision;
+import com.daniel.practice.redis.dto.RateLimitDecision;
+import com.daniel.practice.redis.resilience.LocalRateLimiter;
+import com.daniel.practice.redis.resilience.RedisCircuitBreaker;
+
+import lombok.RequiredArgsConstructor;
+
+@Service
+@RequiredArgsConstructor
+public class CombinedQuotaService {
+
+	private final StringRedisTemplate stringRedisTemplate;
+	private final UserRateLimitService userRateLimitService;
+	private final TokenUsageLimitService tokenUsageLimitService;
+	private final RedisCircuitBreaker redisCircuitBreaker;
+	private final LocalRateLimiter localRateLimiter;
+	private final ShardedCounterService shardedCounterService;
+
+	// 사용자 시간당 + 일일 + 토큰 제한 통합 확인
+	// 세 제한을 스크립트 한 번(EVALSHA)으로 평가하고, 모두 통과할 때만 카운터를 증가시킨다.
+	// 응답에 필요한 카운트도 같은 응답으로 돌려받으므로 추가 조회가 필요 없음
+	public QuotaDecision check(String userId, String token) {
+		return tryAcquire(userId, token, 1);
+	}
+
+	// 최대 permits 개의 허용량을 한 번에 예약하고, 실제로 예약된 개수(granted)를 반환
+	// 대량 요청도 요청 수와 관계없이 스크립트 1회로 처리 (O(1) 왕복)
+	public QuotaDecision tryAcquire(String userId, String token, int permits) {
+		if (permits < 1) {
+			throw new IllegalArgumentException("예약할 개수는 1 이상이어야 합니다: " + permits);
+		}
+
+		int hourlyLimit = userRateLimitService.getUserHourlyLimit(userId);
+		int dailyLimit = userRateLimitService.getUserDailyLimit(userId);
+		int tokenLimit = tokenUsageLimitService.getTokenLimit(token);
+		// Redis 차단 중에는 각 제한을 개별 서비스와 같은 키로 로컬 제한기에서 근사
+		return redisCircuitBreaker.execute(
+			() -> acquire(userId, token, permits, hourlyLimit, dailyLimit, tokenLimit),
+			() -> acquireLocal(userId, token, permits, hourlyLimit, dailyLimit, tokenLimit));
+	}
+
+	private QuotaDecision acquire(String userId, String token, int permits, int hourlyLimit, int dailyLimit,
+		int tokenLimit) {
+		List<?> result = stringRedisTemplate.execute(RedisScripts.COMBINED_QUOTA, keys(userId, token),
+			args(hourlyLimit, dailyLimit, tokenLimit, permits).toArray());
+		return toDecision(userId, token, permits, result);
+	}
+
+	// 통합 스크립트 KEYS / ARGV / 응답 변환 (ReactiveCombinedQuotaService 와 공유)
+	// 샤딩 중인 카운터는 증가분이 샤드 키에 나뉘어 있으므로, 시간당/일일/토큰 샤드 키를 뒤에 붙여 스크립트가 합계로 판단
+	List<String> keys(String userId, String token) {
+		String hourlyKey = UserRateLimitService.createHourlyKey(userId);
+		String dailyKey = UserRateLimitService.createDailyKey(userId);
+		String tokenKey = TokenUsageLimitService.createTokenUsageKey(token);
+		List<String> keys = new ArrayList<>(4 + shardedCounterService.getShardCount() * 3);
+		keys.add(hourlyKey);
+		keys.add(dailyKey);
+		keys.add(tokenKey);
+		keys.add(UserRateLimitService.createGcraKey(userId));
+		keys.addAll(shardedCounterService.shardKeys(hourlyKey, "hourly"));
+		keys.addAll(shardedCounterService.shardKeys(dailyKey, "daily"));
+		keys.addAll(shardedCounterService.shardKeys(tokenKey, "count"));
+		return keys;
+	}
+
+	List<String> args(int hourlyLimit, int dailyLimit, int tokenLimit, int permits) {
+		boolean gcra = userRateLimitService.isGcraMode();
+		return List.of(
+			String.valueOf(hourlyLimit),
+			String.valueOf(dailyLimit),
+			String.valueOf(tokenLimit),
+			gcra ? "gcra" : "counter",
+			String.valueOf(gcra ? userRateLimitService.getEmissionIntervalMicros(hourlyLimit) : 0),
+			String.valueOf(gcra ? userRateLimitService.getUserBurst(hourlyLimit) : 0),
+			String.valueOf(permits),
+			String.valueOf(shardedCounterService.getShardCount())
+		);
+	}
+
+	static QuotaDecision toDecision(String userId, String token, int permits, List<?> result) {
+		return QuotaDecision.builder()
+			.userId(userId)
+			.token(token)
+			.requested(permits)
+			.granted(((Number) result.get(8)).longValue())
+			.allowed(flag(result.get(0)))
+			.userHourlyAllowed(flag(result.get(1)))
+			.userDailyAllowed(flag(result.get(2)))
+			.tokenAllowed(flag(result.get(3)))
+			.userHourlyCount(((Number) result.get(4)).longValue())
+			.userDailyCount(((Number) result.get(5)).longValue())
+			.tokenCount(((Number) result.get(6)).longValue())
+			.tokenTtl(((Number) result.get(7)).longValue())
+			.retryAfter(((Number) result.get(9)).longValue())
+			.build();
+	}
+
+	// 1개씩 시간당 → 일일 → 토큰 순서로 차감하고, 하나라도 거부되면 멈춤
+	// 로컬 제한기는 근사이므로 앞 단계에서 차감한 1개는 되돌리지 않음 (더 엄격해지는 쪽)
+	QuotaDecision acquireLocal(String userId, String token, int permits, int hourlyLimit, int dailyLimit,
+		int tokenLimit) {
+		String tokenKey = TokenUsageLimitService.createTokenUsageKey(token);
+		long ttl = TokenUsageLimitService.TOKEN_USAGE_TTL_SECONDS;
+		RateLimitDecision hourly = null;
+		RateLimitDecision daily = null;
+		RateLimitDecision tokenUsage = null;
+		long granted = 0;
+		while (granted < permits) {
+			hourly = userRateLimitService.isGcraMode()
+				? localRateLimiter.tryAcquire(UserRateLimitService.createGcraKey(userId), null, hourlyLimit, 3600, 0)
+				: localRateLimiter.tryAcquire(UserRateLimitService.createHourlyKey(userId), "hourly", hourlyLimit, 3600, 3600);
+			daily = !hourly.isAllowed() ? null
+				: localRateLimiter.tryAcquire(UserRateLimitService.createDailyKey(userId), "daily", dailyLimit, 86400, 86400);
+			tokenUsage = daily == null || !daily.isAllowed() ? null
+				: localRateLimiter.tryAcquire(tokenKey, "count", tokenLimit, ttl, ttl);
+			if (tokenUsage == null || !tokenUsage.isAllowed()) {
+				break;
+			}
+			granted++;
+		}
+
+		return QuotaDecision.builder()
+			.userId(userId)
+			.token(token)
+			.requested(permits)
+			.granted(granted)
+			.allowed(granted == permits)
+			.userHourlyAllowed(hourly.isAllowed())
+			.userDailyAllowed(daily == null || daily.isAllowed())
+			.tokenAllowed(tokenUsage == null || tokenUsage.isAllowed())
+			.userHourlyCount(hourly.getCount())
+			.userDailyCount(daily == null ? 0 : daily.getCount())
+			.tokenCount(tokenUsage == null ? 0 : tokenUsage.getCount())
+			.tokenTtl(tokenUsage == null ? 0 : tokenUsage.getTtl())
+			.retryAfter(granted == permits ? 0 : retryAfter(hourly, daily, tokenUsage))
+			.build();
+	}
+
+	// 로컬 제한기에서 거부한 단계의 남은 윈도우 (앞 단계가 허용했을 때만 뒤 단계 결과가 있음)
+	private static long retryAfter(RateLimitDecision hourly, RateLimitDecision daily, RateLimitDecision tokenUsage) {
+		RateLimitDecision denied = !hourly.isAllowed() ? hourly : !daily.isAllowed() ? daily : tokenUsage;
+		return denied.getTtl();
+	}
+
+	private static boolean flag(Object value) {
+		return ((Number) value).longValue() == 1;
+	}
+}
@@ -0,0 +1,152 @@
+package com.daniel.practice.redis.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Service;
+
+import com.daniel.practice.redis.config.RateLimitProperties;
+import com.daniel.practice.redis.config.RedisScripts;
+import com.daniel.practice.redis.dto.HeavyHitter;
+import com.daniel.practice.redis.dto.RateLimitDecision;
+import com.daniel.practice.redis.metrics.RedisOperationMetrics;
+import com.daniel.practice.redis.policy.IpAddress;
+import com.daniel.practice.redis.resilience.RedisCircuitBreaker;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+// IP 헤비 히터 탐지
+// IP 마다 ip:rate: 키를 만들면 출발지 IP 를 바꿔가며 보내는 공격에서 키 수(메모리)가 끝없이 늘어나므로,
+// 모든 IP 를 고정 크기 Count-Min Sketch(ip:cms) 하나에 세고 상위 K 개 IP 만 ZSET(ip:cms:top)에 남긴다.
+// 추정값은 실제 요청 수보다 작아지지 않고, 다른 IP 와 카운터가 겹친 만큼만 커진다.
+// 갱신은 요청마다 스크립트 1회 (BITFIELD 로 depth 개 카운터 증가 + Top-K 갱신)
+@Slf4j
+@Service
+public class HeavyHitterService {
+
+	static final String SKETCH_KEY = "ip:cms";
+	static final String TOP_KEY = "ip:cms:top";
+	static final String FLAGGED_KEY = "ip:cms:flagged";
+	private static final String METRIC_SERVICE = "heavy_hitter";
+
+	private final StringRedisTemplate stringRedisTemplate;
+	private final IpRestrictionService ipRestrictionService;
+	private final RedisCircuitBreaker redisCircuitBreaker;
+	private final RedisOperationMetrics redisOperationMetrics;
+	private final RateLimitProperties.HeavyHitter properties;
+
+	private final Counter flaggedCounter;
+
+	public HeavyHitterService(StringRedisTemplate stringRedisTemplate, IpRestrictionService ipRestrictionService,
+		RedisCircuitBreaker redisCircuitBreaker, RedisOperationMetrics redisOperationMetrics,
+		RateLimitProperties rateLimitProperties, MeterRegistry meterRegistry) {
+		this.stringRedisTemplate = stringRedisTemplate;
+		this.ipRestrictionService = ipRestrictionService;
+		this.redisCircuitBreaker = redisCircuitBreaker;
+		this.redisOperationMetrics = redisOperationMetrics;
+		this.properties = rateLimitProperties.getIp().getHeavyHitter();
+
+		this.flaggedCounter = Counter.builder("rate_limit.heavy_hitter.flagged").register(meterRegistry);
+	}
+
+	public boolean isEnabled() {
+		return properties.isEnabled();
+	}
+
+	// 요청 1건 집계, 추정 요청 수가 기준 이상이면 거부
+	// 윈도우마다 기준을 처음 넘은 요청에서만 일시 차단 (Redis 차단 중에는 집계 없이 허용)
+	public RateLimitDecision record(String ip) {
+		RateLimitDecision decision = redisCircuitBreaker.execute(() -> {
+			List<?> result = redisOperationMetrics.record(METRIC_SERVICE, "record", 1,
+				() -> stringRedisTemplate.execute(RedisScripts.HEAVY_HITTER, keys(), args(ip)));
+			long estimate = ((Number) result.get(0)).longValue();
+			if (((Number) result.get(1)).longValue() == 1) {
+				onFlagged(ip, estimate);
+			}
+			return toDecision(estimate);
+		}, () -> toDecision(0));
+
+		redisOperationMetrics.decision(METRIC_SERVICE, "record", decision.isAllowed());
+		return decision;
+	}
+
+	// 현재 윈도우의 요청 수 상위 IP (많은 순)
+	public List<HeavyHitter> getTopK() {
+		Set<ZSetOperations.TypedTuple<String>> tuples = redisOperationMetrics.record(METRIC_SERVICE, "getTopK", 1,
+			() -> stringRedisTemplate.opsForZSet().reverseRangeWithScores(TOP_KEY, 0, -1));
+		List<HeavyHitter> heavyHitters = new ArrayList<>();
+		if (tuples != null) {
+			for (ZSetOperations.TypedTuple<String> tuple : tuples) {
+				heavyHitters.add(HeavyHitter.builder()
+					.ip(tuple.getValue())
+					.estimate(tuple.getScore() == null ? 0 : tuple.getScore().longValue())
+					.build());
+			}
+		}
+		return heavyHitters;
+	}
+
+	private void onFlagged(String ip, long estimate) {
+		flaggedCounter.increment();
+		log.warn("헤비 히터 IP 탐지: {} (윈도우 내 약 {}회)", ip, estimate);
+		// 스케치 추정값은 충돌만큼 커질 수 있으므로 영구 블랙리스트가 아니라 기간이 정해진 일시 차단
+		// 일시 차단은 IP 형식만 받으므로 주소가 아닌 값은 건너뜀
+		if (properties.isAutoBan() && IpAddress.isValid(ip)) {
+			ipRestrictionService.banTemporarily(ip, properties.getBanDuration());
+		}
+	}
+
+	private RateLimitDecision toDecision(long estimate) {
+		return RateLimitDecision.builder()
+			.allowed(estimate < properties.getThreshold())
+			.count(estimate)
+			.limit(properties.getThreshold())
+			.ttl(properties.getWindow().toSeconds())
+			.build();
+	}
+
+	List<String> keys() {
+		return List.of(SKETCH_KEY, TOP_KEY, FLAGGED_KEY);
+	}
+
+	// 스크립트 인자: IP, 기준, K, 윈도우, 행별 카운터 번호
+	String[] args(String ip) {
+		int depth = properties.getDepth();
+		int width = properties.getWidth();
+		String[] args = new String[4 + depth];
+		args[0] = ip;
+		args[1] = String.valueOf(properties.getThreshold());
+		args[2] = String.valueOf(properties.getTopK());
+		args[3] = String.valueOf(properties.getWindow().toSeconds());
+
+		// 64비트 해시 하나를 둘로 나눠 행마다 h1 + i × h2 로 열 선택 (Kirsch-Mitzenmacher)
+		long hash = hash64(ip);
+		int h1 = (int) hash;
+		int h2 = (int) (hash >>> 32) | 1;
+		for (int i = 0; i < depth; i++) {
+			args[4 + i] = String.valueOf((long) i * width + Math.floorMod(h1 + i * h2, width));
+		}
+		return args;
+	}
+
+	// FNV-1a 64 + murmur3 fmix64 (IP 문자열처럼 짧고 비슷한 입력도 고르게 분산)
+	private static long hash64(String value) {
+		long hash = 0xcbf29ce484222325L;
+		for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+			hash ^= b;
+			hash *= 0x100000001b3L;
+		}
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+}
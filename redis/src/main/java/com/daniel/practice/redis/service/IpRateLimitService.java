@@ -1,94 +1,259 @@
 package com.daniel.practice.redis.service;
 
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 
+import com.daniel.practice.redis.config.RateLimitProperties;
+import com.daniel.practice.redis.config.RedisScripts;
+import com.daniel.practice.redis.dto.RateLimitDecision;
+import com.daniel.practice.redis.enums.RateLimitKeyType;
+import com.daniel.practice.redis.enums.RateLimitStrategy;
+import com.daniel.practice.redis.enums.RateLimitWindow;
+import com.daniel.practice.redis.metrics.LogSampler;
+import com.daniel.practice.redis.metrics.RedisOperationMetrics;
+import com.daniel.practice.redis.policy.IpCodec;
+import com.daniel.practice.redis.resilience.LocalRateLimiter;
+import com.daniel.practice.redis.resilience.RedisCircuitBreaker;
+
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class IpRateLimitService {
 
 	private final RedisTemplate<String, Object> redisTemplate;
+	// 스크립트 인자/결과는 JSON 직렬화 없이 문자열 그대로 전달
+	private final StringRedisTemplate stringRedisTemplate;
+	private final RateLimitProperties rateLimitProperties;
+	private final RedisCircuitBreaker redisCircuitBreaker;
+	private final LocalRateLimiter localRateLimiter;
+	private final RedisOperationMetrics redisOperationMetrics;
+	private final CardinalityStatsService cardinalityStatsService;
+
+	static final String METRIC_SERVICE = "ip_rate_limit";
 
 	// 키 생성 헬퍼 메서드
-	private static String createRateLimitKey(String ip, String window) {
-		return "ip:rate:" + window + ":" + ip;
+	// IP 는 IpCodec 압축 표현(IPv4 6자, IPv6 22자)으로 붙여 키 길이를 IP 문자열(최대 15자 / 39자)보다 줄임
+	static String createRateLimitKey(String ip, String window) {
+		return "ip:rate:" + window + ":" + IpCodec.keySuffix(ip);
+	}
+
+	// 슬라이딩 로그 키 (고정 윈도우 카운터와 타입이 달라 별도 키 사용)
+	static String createLogKey(String rateLimitKey) {
+		return rateLimitKey + ":log";
+	}
+
+	// 슬라이딩 카운터 버킷 키 (윈도우 번호 = epoch ms / 윈도우 길이)
+	static String createBucketKey(String rateLimitKey, long epoch) {
+		return rateLimitKey + ":" + epoch;
 	}
 
 	// IP별 요청 횟수 제한 확인 (분 단위)
 	public boolean isAllowedPerMinute(String ip, int maxRequests) {
-		String key = createRateLimitKey(ip, "minute");
-		return checkRateLimit(key, maxRequests, 60); // 60초 TTL
+		return check(ip, RateLimitWindow.MINUTE, maxRequests).isAllowed();
 	}
 
 	// IP별 요청 횟수 제한 확인 (시간 단위)
 	public boolean isAllowedPerHour(String ip, int maxRequests) {
-		String key = createRateLimitKey(ip, "hour");
-		return checkRateLimit(key, maxRequests, 3600); // 3600초 TTL
+		return check(ip, RateLimitWindow.HOUR, maxRequests).isAllowed();
 	}
 
 	// IP별 요청 횟수 제한 확인 (일 단위)
 	public boolean isAllowedPerDay(String ip, int maxRequests) {
-		String key = createRateLimitKey(ip, "day");
-		return checkRateLimit(key, maxRequests, 86400); // 86400초 TTL
+		return check(ip, RateLimitWindow.DAY, maxRequests).isAllowed();
+	}
+
+	// IP별 요청 횟수 제한 확인 (허용 여부 + 카운트 + TTL)
+	// 윈도우별로 설정된 전략(rate-limit.ip.strategies)을 사용
+	public RateLimitDecision check(String ip, RateLimitWindow window, int maxRequests) {
+		return check(ip, window, maxRequests, strategyOf(window, maxRequests));
 	}
 
-	// Rate Limiting 로직
-	private boolean checkRateLimit(String key, int maxRequests, long ttlSeconds) {
-		// 현재 요청 횟수 조회
-		Object currentCount = redisTemplate.opsForValue().get(key);
-		int count = currentCount == null ? 0 : Integer.parseInt(currentCount.toString());
+	// 전략을 직접 지정해서 확인 (전략 비교/벤치마크용)
+	public RateLimitDecision check(String ip, RateLimitWindow window, int maxRequests, RateLimitStrategy strategy) {
+		return check(ip, window, maxRequests, strategy, System.currentTimeMillis());
+	}
 
-		System.out.println("IP 요청 횟수 확인 - Key: " + key + ", 현재: " + count + "/" + maxRequests);
+	// 현재 시각을 외부에서 받는 버전 (시간 흐름을 시뮬레이션하는 테스트용)
+	RateLimitDecision check(String ip, RateLimitWindow window, int maxRequests, RateLimitStrategy strategy,
+		long nowMillis) {
+		String key = createRateLimitKey(ip, window.getKey());
+		// 고유 IP 집계는 Redis/로컬 경로와 관계없이 진입 시점에 대기열에 넣음
+		cardinalityStatsService.record(RateLimitKeyType.IP, ip);
+		RateLimitDecision decision = redisCircuitBreaker.execute(
+			() -> redisOperationMetrics.record(METRIC_SERVICE, "check", 1, () -> switch (strategy) {
+				case FIXED_WINDOW -> checkFixedWindow(key, maxRequests, window.getSeconds());
+				case SLIDING_LOG -> checkSlidingLog(createLogKey(key), maxRequests, window.getSeconds(), nowMillis);
+				case SLIDING_COUNTER -> checkSlidingCounter(key, maxRequests, window.getSeconds(), nowMillis);
+			}),
+			() -> checkLocal(key, maxRequests, window.getSeconds(), strategy, nowMillis));
 
-		// 제한 초과 시 차단
-		if (count >= maxRequests) {
-			System.out.println("❌ Rate Limit 초과: " + key);
-			return false;
+		redisOperationMetrics.decision(METRIC_SERVICE, "check", decision.isAllowed());
+		if (log.isDebugEnabled() && LogSampler.sample()) {
+			log.debug("{} {} {}/{}", decision.isAllowed() ? "요청 허용" : "Rate Limit 초과", key,
+				decision.getCount(), maxRequests);
 		}
+		return decision;
+	}
 
-		// 요청 횟수 증가
-		redisTemplate.opsForValue().increment(key);
+	// 고정 윈도우
+	// 조회/증가/TTL 설정을 Lua 스크립트 한 번(EVALSHA)으로 처리
+	// → 왕복 1회, 동시 요청이 같은 카운트를 읽고 모두 통과하는 경쟁 조건 제거
+	private RateLimitDecision checkFixedWindow(String key, int maxRequests, long ttlSeconds) {
+		List<?> result = stringRedisTemplate.execute(
+			RedisScripts.FIXED_WINDOW,
+			List.of(key),
+			String.valueOf(maxRequests), String.valueOf(ttlSeconds)
+		);
+		return toDecision(result, maxRequests);
+	}
 
-		// 첫 번째 요청이면 TTL 설정
-		if (count == 0) {
-			redisTemplate.expire(key, ttlSeconds, TimeUnit.SECONDS);
-			System.out.println("✅ 첫 번째 요청, TTL 설정: " + ttlSeconds + "초");
-		}
+	// 슬라이딩 윈도우 로그
+	// 요청 시각을 ZSET 에 기록하고 정리/카운트/추가를 스크립트 한 번으로 처리
+	// 거부된 요청은 기록하지 않으므로 키당 원소 수는 제한값을 넘지 않음
+	private RateLimitDecision checkSlidingLog(String key, int maxRequests, long windowSeconds, long nowMillis) {
+		List<?> result = stringRedisTemplate.execute(
+			RedisScripts.SLIDING_LOG,
+			List.of(key),
+			String.valueOf(maxRequests),
+			String.valueOf(windowSeconds * 1000),
+			String.valueOf(nowMillis),
+			Integer.toString(ThreadLocalRandom.current().nextInt() & Integer.MAX_VALUE, 36)
+		);
+		return toDecision(result, maxRequests);
+	}
+
+	// 슬라이딩 윈도우 카운터
+	// 이전/현재 버킷을 읽고 현재 버킷만 증가 (EVALSHA 1회, 키당 카운터 2개)
+	// 버킷 키는 스크립트에 KEYS 로 넘겨야 하므로(클러스터 슬롯 계산) 윈도우 번호는 애플리케이션 시각으로 계산
+	private RateLimitDecision checkSlidingCounter(String key, int maxRequests, long windowSeconds, long nowMillis) {
+		long windowMillis = windowSeconds * 1000;
+		long epoch = nowMillis / windowMillis;
+		List<?> result = stringRedisTemplate.execute(
+			RedisScripts.SLIDING_COUNTER,
+			List.of(createBucketKey(key, epoch - 1), createBucketKey(key, epoch)),
+			String.valueOf(maxRequests),
+			String.valueOf(windowMillis),
+			String.valueOf(nowMillis % windowMillis)
+		);
+		return toDecision(result, maxRequests);
+	}
+
+	// Redis 차단 중: 로컬 제한기로 고정 윈도우 근사
+	// 카운터 키(고정 윈도우 / 현재 버킷)는 회복 후 반영하고, 슬라이딩 로그는 요청 시각을 알 수 없으므로 반영하지 않음
+	RateLimitDecision checkLocal(String key, int maxRequests, long windowSeconds, RateLimitStrategy strategy,
+		long nowMillis) {
+		return switch (strategy) {
+			case FIXED_WINDOW -> localRateLimiter.tryAcquire(key, null, maxRequests, windowSeconds, windowSeconds);
+			case SLIDING_LOG -> localRateLimiter.tryAcquire(createLogKey(key), null, maxRequests, windowSeconds, 0);
+			// 버킷은 다음 윈도우에서 이전 버킷으로 한 번 더 읽히므로 윈도우 2개 길이만큼 유지 (sliding-counter.lua 와 동일)
+			case SLIDING_COUNTER -> localRateLimiter.tryAcquire(
+				createBucketKey(key, nowMillis / (windowSeconds * 1000)), null, maxRequests, windowSeconds, windowSeconds * 2);
+		};
+	}
 
-		System.out.println("✅ 요청 허용: " + (count + 1) + "/" + maxRequests);
-		return true;
+	static RateLimitDecision toDecision(List<?> result, int maxRequests) {
+		return RateLimitDecision.builder()
+			.allowed(((Number) result.get(0)).longValue() == 1)
+			.count(((Number) result.get(1)).longValue())
+			.limit(maxRequests)
+			.ttl(((Number) result.get(2)).longValue())
+			.build();
 	}
 
-	// 현재 요청 횟수 조회
+	// 윈도우 전략 결정
+	// 슬라이딩 로그는 제한값만큼 원소를 보관하므로 max-log-entries 를 넘는 제한은 고정 윈도우로 처리
+	RateLimitStrategy strategyOf(RateLimitWindow window, int maxRequests) {
+		RateLimitProperties.Ip properties = rateLimitProperties.getIp();
+		RateLimitStrategy strategy = properties.strategyOf(window);
+		if (strategy == RateLimitStrategy.SLIDING_LOG && maxRequests > properties.getMaxLogEntries()) {
+			return RateLimitStrategy.FIXED_WINDOW;
+		}
+		return strategy;
+	}
+
+	// 현재 요청 횟수 조회 (전략별로 저장 구조가 다름)
 	public int getCurrentCount(String ip, String window) {
 		String key = createRateLimitKey(ip, window);
+		RateLimitWindow rateLimitWindow = RateLimitWindow.from(window);
+		long nowMillis = System.currentTimeMillis();
+		long windowMillis = rateLimitWindow.getSeconds() * 1000;
+		Timer.Sample sample = redisOperationMetrics.start();
+		int roundTrips = 0;
+
+		switch (rateLimitProperties.getIp().strategyOf(rateLimitWindow)) {
+			case SLIDING_LOG -> {
+				// 기록이 없으면(제한값이 커서 고정 윈도우로 처리된 경우 포함) 아래에서 카운터 키를 조회
+				Long count = redisTemplate.opsForZSet()
+					.count(createLogKey(key), nowMillis - windowMillis + 1, Double.POSITIVE_INFINITY);
+				roundTrips++;
+				if (count != null && count > 0) {
+					redisOperationMetrics.stop(sample, METRIC_SERVICE, "getCurrentCount", roundTrips);
+					return count.intValue();
+				}
+			}
+			case SLIDING_COUNTER -> {
+				long epoch = nowMillis / windowMillis;
+				List<String> buckets = stringRedisTemplate.opsForValue()
+					.multiGet(List.of(createBucketKey(key, epoch - 1), createBucketKey(key, epoch)));
+				redisOperationMetrics.stop(sample, METRIC_SERVICE, "getCurrentCount", 1);
+				long previous = buckets.get(0) == null ? 0 : Long.parseLong(buckets.get(0));
+				long current = buckets.get(1) == null ? 0 : Long.parseLong(buckets.get(1));
+				double weight = (double) (windowMillis - nowMillis % windowMillis) / windowMillis;
+				return (int) (previous * weight + current);
+			}
+			default -> {
+			}
+		}
 		Object count = redisTemplate.opsForValue().get(key);
+		redisOperationMetrics.stop(sample, METRIC_SERVICE, "getCurrentCount", roundTrips + 1);
 		return count == null ? 0 : Integer.parseInt(count.toString());
 	}
 
 	// TTL 조회
 	public long getTTL(String ip, String window) {
 		String key = createRateLimitKey(ip, window);
-		return redisTemplate.getExpire(key, TimeUnit.SECONDS);
+		RateLimitWindow rateLimitWindow = RateLimitWindow.from(window);
+		RateLimitStrategy strategy = rateLimitProperties.getIp().strategyOf(rateLimitWindow);
+		if (strategy == RateLimitStrategy.SLIDING_COUNTER) {
+			// 현재 버킷이 끝날 때까지 남은 시간 (Redis 조회 없음)
+			long windowMillis = rateLimitWindow.getSeconds() * 1000;
+			return (windowMillis - System.currentTimeMillis() % windowMillis + 999) / 1000;
+		}
+
+		Timer.Sample sample = redisOperationMetrics.start();
+		if (strategy == RateLimitStrategy.SLIDING_LOG && Boolean.TRUE.equals(redisTemplate.hasKey(createLogKey(key)))) {
+			Long ttl = redisTemplate.getExpire(createLogKey(key), TimeUnit.SECONDS);
+			redisOperationMetrics.stop(sample, METRIC_SERVICE, "getTTL", 2);
+			return ttl;
+		}
+		Long ttl = redisTemplate.getExpire(key, TimeUnit.SECONDS);
+		redisOperationMetrics.stop(sample, METRIC_SERVICE, "getTTL",
+			strategy == RateLimitStrategy.SLIDING_LOG ? 2 : 1);
+		return ttl;
 	}
 
 	// Rate Limit 초기화 (테스트용)
 	public void resetRateLimit(String ip, String window) {
 		String key = createRateLimitKey(ip, window);
-		redisTemplate.delete(key);
-		System.out.println("Rate Limit 초기화: " + key);
+		long epoch = System.currentTimeMillis() / (RateLimitWindow.from(window).getSeconds() * 1000);
+		redisOperationMetrics.record(METRIC_SERVICE, "resetRateLimit", 1, () -> redisTemplate.delete(
+			List.of(key, createLogKey(key), createBucketKey(key, epoch - 1), createBucketKey(key, epoch))));
+		log.info("Rate Limit 초기화: {}", key);
 	}
 
 	// 모든 Rate Limit 초기화 (테스트용)
 	public void resetAllRateLimits(String ip) {
-		resetRateLimit(ip, "minute");
-		resetRateLimit(ip, "hour");
-		resetRateLimit(ip, "day");
+		for (RateLimitWindow window : RateLimitWindow.values()) {
+			resetRateLimit(ip, window.getKey());
+		}
 	}
-
-
 }
@@ -1,98 +1,763 @@
 package com.daniel.practice.redis.service;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.UnaryOperator;
 
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisZSetCommands;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import com.daniel.practice.redis.config.RateLimitProperties;
+import com.daniel.practice.redis.config.RedisScripts;
+import com.daniel.practice.redis.dto.IpImportResult;
+import com.daniel.practice.redis.dto.IpListPage;
+import com.daniel.practice.redis.metrics.LogSampler;
+import com.daniel.practice.redis.metrics.RedisOperationMetrics;
+import com.daniel.practice.redis.policy.IpAddress;
+import com.daniel.practice.redis.policy.IpCodec;
+import com.daniel.practice.redis.policy.IpRestrictionSnapshot;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
+// IP 화이트리스트/블랙리스트
+// 목록은 Redis Set 에 두고, 각 노드는 두 Set 의 불변 스냅샷을 메모리에 들고 조회한다 (요청당 Redis 호출 0회).
+// 1. 변경은 스크립트 한 번으로 Set 변경 + 버전(ip:restriction:version) 증가 + ip:restriction:changed 알림
+// 2. 알림의 버전이 로컬 버전 + 1 이면 그 변경만 반영한 새 스냅샷으로 교체, 건너뛴 버전이 있으면 전체를 다시 읽음
+// 3. 1초마다 Redis 버전과 비교해 알림을 놓친 노드도 다시 읽음
+// 4. max-staleness 동안 버전을 확인하지 못한(Redis 연결 끊김 등) 스냅샷은 쓰지 않고 Redis 에서 직접 조회
+// 목록에는 단일 IP 와 CIDR 대역(10.0.0.0/8, 2001:db8::/32)을 함께 넣을 수 있고, 대역은 스냅샷의 CidrTrie 로만 조회한다.
+// (Redis 직접 조회는 SISMEMBER 라 단일 IP 만 일치)
+// 임시 차단은 Sorted Set(ip:blacklist:temp, score = 만료 시각 ms)에 두고 스냅샷도 만료 시각으로 판단하므로 만료 즉시 풀리며,
+// 만료된 항목은 10초마다 ZREMRANGEBYSCORE 로 batch-size 개씩 정리한다 (cron 정리 불필요).
+// 목록 조회/내보내기는 SSCAN 으로 batch-size 씩, 가져오기는 SADD batch-size 개씩 파이프라인으로 보내 목록 크기와 관계없이 메모리 고정
+// 멤버는 IpCodec 압축 표현(IPv4 는 int32 10진수라 IPv4 만 있는 Set 은 intset, IPv6 는 16바이트 base64url)으로 저장하고,
+// 이전 버전의 JSON 문자열 멤버는 읽을 때 그대로 해석하며 기동 시(migrate-on-startup) 또는 migrate() 로 한 번에 변환한다.
+@Slf4j
 @Service
 @RequiredArgsConstructor
-public class IpRestrictionService {
+public class IpRestrictionService implements InitializingBean, MessageListener {
 
 	private static final String WHITELIST_KEY = "ip:whitelist";
 	private static final String BLACKLIST_KEY = "ip:blacklist";
-	private final RedisTemplate<String, Object> redisTemplate;
+	private static final String TEMP_BAN_KEY = "ip:blacklist:temp";
+	private static final String VERSION_KEY = "ip:restriction:version";
+	private static final String CHANNEL = "ip:restriction:changed";
+	private static final String METRIC_SERVICE = "ip_restriction";
+	private static final String RELOAD = "reload";
+	private static final String BAN = "ban";
+	private static final String UNBAN = "unban";
+	private static final String MIGRATE = "migrate";
+	// 정리 한 번에 실행하는 최대 스크립트 수 (batch-size × 이 값 이상 쌓였으면 다음 정리에서 이어서)
+	private static final int MAX_SWEEP_BATCHES = 100;
+	// 가져오기 파이프라인 한 번에 보내는 SADD 수
+	private static final int IMPORT_PIPELINE_BATCHES = 10;
+	// 다시 읽는 도중 목록이 바뀌었을 때 연달아 다시 읽는 최대 횟수
+	private static final int MAX_RESYNC_ATTEMPTS = 3;
+	private final StringRedisTemplate stringRedisTemplate;
+	private final RedisOperationMetrics redisOperationMetrics;
+	private final RedisMessageListenerContainer redisMessageListenerContainer;
+	private final RateLimitProperties rateLimitProperties;
+	private final MeterRegistry meterRegistry;
+
+	private volatile IpRestrictionSnapshot snapshot;
+	// 스냅샷이 Redis 버전과 같다고 마지막으로 확인한 시각
+	private volatile long verifiedAt;
+	private Counter resyncCounter;
 
+	@Override
+	public void afterPropertiesSet() {
+		resyncCounter = Counter.builder("ip_restriction.snapshot.resync").register(meterRegistry);
+		Gauge.builder("ip_restriction.snapshot.version", this, IpRestrictionService::getSnapshotVersion)
+			.register(meterRegistry);
+		Gauge.builder("ip_restriction.snapshot.age", this, service -> System.currentTimeMillis() - service.verifiedAt)
+			.baseUnit("milliseconds")
+			.register(meterRegistry);
 
-	// 키 생성 메서드
+		RateLimitProperties.Restriction properties = rateLimitProperties.getIp().getRestriction();
+		if (properties.isLocalSnapshot()) {
+			// 먼저 구독하고 읽어야 그 사이 변경을 놓치지 않음 (놓쳐도 버전 확인에서 다시 읽음)
+			redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+			resync("기동");
+		}
+		if (properties.isMigrateOnStartup()) {
+			migrateOnStartup();
+		}
+	}
 
 	// 화이트리스트 IP에 추가
 	public void addToWhiteList(String ip) {
-		redisTemplate.opsForSet().add(WHITELIST_KEY, ip);
-		System.out.println("화이트 리스트에 IP 추가: " + ip);
+		update("addToWhiteList", IpRestrictionSnapshot.ADD, IpRestrictionSnapshot.WHITELIST, ip);
+		log.info("화이트 리스트에 IP 추가: {}", ip);
 	}
 
 	// 블랙리스트 IP에 추가
 	public void addToBlackList(String ip) {
-		redisTemplate.opsForSet().add(BLACKLIST_KEY, ip);
-		System.out.println("블랙 리스트에 IP 추가: " + ip);
+		update("addToBlackList", IpRestrictionSnapshot.ADD, IpRestrictionSnapshot.BLACKLIST, ip);
+		log.info("블랙 리스트에 IP 추가: {}", ip);
 	}
 
 	// 화이트리스트에서 IP 제거
 	public void removeFromWhitelist(String ip) {
-		redisTemplate.opsForSet().remove(WHITELIST_KEY, ip);
-		System.out.println("화이트리스트에서 IP 제거: " + ip);
+		update("removeFromWhitelist", IpRestrictionSnapshot.REMOVE, IpRestrictionSnapshot.WHITELIST, ip);
+		log.info("화이트리스트에서 IP 제거: {}", ip);
 	}
 
 	// 블랙리스트에서 IP 제거
 	public void removeFromBlacklist(String ip) {
-		redisTemplate.opsForSet().remove(BLACKLIST_KEY, ip);
-		System.out.println("블랙리스트에서 IP 제거: " + ip);
+		update("removeFromBlacklist", IpRestrictionSnapshot.REMOVE, IpRestrictionSnapshot.BLACKLIST, ip);
+		log.info("블랙리스트에서 IP 제거: {}", ip);
 	}
 
-	// IP 접근 허용 여부 확인
-	public boolean isAllowed(String ip) {
-		// 블랙리스트에 있으면 차단
-		if (isBlacklisted(ip)) {
-			System.out.println("❌ IP가 블랙리스트에 있음: " + ip);
-			return false;
+	// IP 임시 차단 (이미 더 늦게 만료되는 차단이 있으면 유지), 적용된 만료 시각(ms) 반환
+	public long banTemporarily(String ip, Duration duration) {
+		if (!IpAddress.isValid(ip)) {
+			throw new IllegalArgumentException("잘못된 IP: " + ip);
 		}
+		if (duration.isNegative() || duration.isZero()) {
+			throw new IllegalArgumentException("차단 시간은 0 보다 커야 합니다: " + duration);
+		}
+		long expiresAt = System.currentTimeMillis() + duration.toMillis();
+		long applied = updateTempBan("banTemporarily", BAN, ip, expiresAt);
+		log.info("IP 임시 차단: {} ({}ms 까지)", ip, applied);
+		return applied;
+	}
 
-		// 화이트리스트가 비어있으면 모든 IP 허용
-		if (getWhitelistSize() == 0) {
-			System.out.println("✅ 화이트리스트가 비어있어 모든 IP 허용: " + ip);
-			return true;
+	// 임시 차단 해제
+	public void unban(String ip) {
+		updateTempBan("unban", UNBAN, ip, 0);
+		log.info("IP 임시 차단 해제: {}", ip);
+	}
+
+	// 임시 차단 만료 시각 (ms), 차단 중이 아니면 null (ZSCORE 1회)
+	public Long getTempBanExpiry(String ip) {
+		Double expiresAt = redisOperationMetrics.record(METRIC_SERVICE, "getTempBanExpiry", 1,
+			() -> stringRedisTemplate.opsForZSet().score(TEMP_BAN_KEY, encode(ip)));
+		if (expiresAt == null || expiresAt <= System.currentTimeMillis()) {
+			return null;
 		}
+		return expiresAt.longValue();
+	}
 
-		// 화이트리스트에 있으면 허용
-		boolean isWhitelisted = isWhitelisted(ip);
-		if (isWhitelisted) {
-			System.out.println("✅ IP가 화이트리스트에 있음: " + ip);
+	// IP 접근 허용 여부 확인
+	// 스냅샷이 최신이면 Redis 호출 없이 판단하고,
+	// 아니면 블랙리스트 조회 → 화이트리스트 크기 → 화이트리스트 조회 순서라 왕복은 1~3회
+	public boolean isAllowed(String ip) {
+		Timer.Sample sample = redisOperationMetrics.start();
+		IpRestrictionSnapshot local = freshSnapshot();
+		int roundTrips;
+		String reason;
+		boolean allowed;
+
+		if (local != null) {
+			roundTrips = 0;
+			allowed = local.isAllowed(ip);
+			reason = "스냅샷 v" + local.getVersion();
+		} else if (isBlacklistedInRedis(ip)) {
+			// 블랙리스트에 있거나 임시 차단 중이면 차단
+			roundTrips = 1;
+			reason = "블랙리스트";
+			allowed = false;
+		} else if (size(WHITELIST_KEY) == 0) {
+			// 화이트리스트가 비어있으면 모든 IP 허용
+			roundTrips = 2;
+			reason = "화이트리스트 없음";
+			allowed = true;
 		} else {
-			System.out.println("❌ IP가 화이트리스트에 없음: " + ip);
+			// 화이트리스트에 있으면 허용
+			roundTrips = 3;
+			allowed = isMember(WHITELIST_KEY, ip);
+			reason = allowed ? "화이트리스트" : "화이트리스트 외";
+		}
+
+		redisOperationMetrics.stop(sample, METRIC_SERVICE, "isAllowed", roundTrips);
+		redisOperationMetrics.decision(METRIC_SERVICE, "isAllowed", allowed);
+		if (log.isDebugEnabled() && LogSampler.sample()) {
+			log.debug("IP {} ({}): {}", allowed ? "허용" : "차단", reason, ip);
 		}
-		return isWhitelisted;
+		return allowed;
 	}
 
 	// 화이트리스트에 있는지 확인
 	public boolean isWhitelisted(String ip) {
-		return Boolean.TRUE.equals(redisTemplate.opsForSet().isMember(WHITELIST_KEY, ip));
+		IpRestrictionSnapshot local = freshSnapshot();
+		if (local != null) {
+			return local.isWhitelisted(ip);
+		}
+		return redisOperationMetrics.record(METRIC_SERVICE, "isWhitelisted", 1, () -> isMember(WHITELIST_KEY, ip));
 	}
 
 	// 블랙리스트에 있는지 확인
 	public boolean isBlacklisted(String ip) {
-		return Boolean.TRUE.equals(redisTemplate.opsForSet().isMember(BLACKLIST_KEY, ip));
+		IpRestrictionSnapshot local = freshSnapshot();
+		if (local != null) {
+			return local.isBlacklisted(ip);
+		}
+		return redisOperationMetrics.record(METRIC_SERVICE, "isBlacklisted", 1, () -> isBlacklistedInRedis(ip));
+	}
+
+	// 목록 한 페이지 (SSCAN, 커서 "0" 부터 시작해 응답의 커서를 다음 요청에 전달)
+	@SuppressWarnings("unchecked")
+	public IpListPage getPage(String list, String cursor, int count) {
+		List<Object> result = scan(keyOf(list), cursor, count);
+		return IpListPage.builder()
+			.list(list)
+			.cursor((String) result.get(0))
+			.ips(decodeAll((List<String>) result.get(1)))
+			.build();
+	}
+
+	// 목록 전체를 한 줄에 하나씩 JSON 문자열로 출력 (NDJSON)
+	// 멤버를 IP 문자열로 풀어 따옴표만 붙여 쓰고(IP/CIDR 에는 이스케이프할 문자가 없음), 페이지마다 flush 해서 한 페이지만 메모리에 둔다
+	@SuppressWarnings("unchecked")
+	public long export(String list, OutputStream out) throws IOException {
+		String key = keyOf(list);
+		int batchSize = rateLimitProperties.getIp().getRestriction().getBatchSize();
+		long exported = 0;
+		String cursor = "0";
+		do {
+			List<Object> result = scan(key, cursor, batchSize);
+			for (String member : (List<String>) result.get(1)) {
+				out.write('"');
+				out.write(decode(member).getBytes(StandardCharsets.UTF_8));
+				out.write('"');
+				out.write('\n');
+				exported++;
+			}
+			out.flush();
+			cursor = (String) result.get(0);
+		} while (!"0".equals(cursor));
+		return exported;
+	}
+
+	// 한 줄에 IP 또는 CIDR 대역 하나 (빈 줄, # 주석 무시)를 읽으며 SADD batch-size 개씩 파이프라인으로 추가
+	// 다 넣은 뒤 버전을 한 번만 올리고 모든 노드가 스냅샷을 다시 읽도록 알림
+	public IpImportResult importList(String list, InputStream in) throws IOException {
+		String key = keyOf(list);
+		int batchSize = rateLimitProperties.getIp().getRestriction().getBatchSize();
+		List<byte[][]> batches = new ArrayList<>(IMPORT_PIPELINE_BATCHES);
+		List<byte[]> batch = new ArrayList<>(batchSize);
+		long read = 0;
+		long added = 0;
+		long invalid = 0;
+
+		BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+		String line;
+		while ((line = reader.readLine()) != null) {
+			String entry = line.trim();
+			if (entry.isEmpty() || entry.startsWith("#")) {
+				continue;
+			}
+			read++;
+			if (!isValidEntry(entry)) {
+				invalid++;
+				continue;
+			}
+			batch.add(encode(entry).getBytes(StandardCharsets.UTF_8));
+			if (batch.size() == batchSize) {
+				batches.add(batch.toArray(new byte[0][]));
+				batch.clear();
+				if (batches.size() == IMPORT_PIPELINE_BATCHES) {
+					added += addAll(key, batches);
+					batches.clear();
+				}
+			}
+		}
+		if (!batch.isEmpty()) {
+			batches.add(batch.toArray(new byte[0][]));
+		}
+		added += addAll(key, batches);
+
+		long version = added == 0 ? getSnapshotVersion() : reload(list);
+		log.info("IP 목록 가져오기: {} 읽음 {}, 추가 {}, 형식 오류 {}", list, read, added, invalid);
+		return IpImportResult.builder()
+			.list(list).read(read).added(added).invalid(invalid).version(version)
+			.build();
 	}
 
-	// 화이트리스트 전체 조회
-	public Set<Object> getWhitelist() {
-		return redisTemplate.opsForSet().members(WHITELIST_KEY);
+	// 이전 버전 JSON 문자열 멤버를 압축 표현으로 변환 (화이트리스트, 블랙리스트, 임시 차단), 변환한 멤버 수 반환
+	// SSCAN / ZSCAN 으로 batch-size 씩 읽으며 변환 대상만 새 멤버 추가 → 이전 멤버 삭제 순서로 파이프라인에 보내므로
+	// 도중에 다시 읽는 노드도 같은 IP 를 놓치지 않고, 여러 번 실행해도 결과는 같다.
+	// 바뀐 것이 있으면 버전을 한 번 올려 모든 노드가 스냅샷을 다시 읽도록 알림
+	public long migrate() {
+		long migrated = migrateSet(WHITELIST_KEY) + migrateSet(BLACKLIST_KEY) + migrateTempBans();
+		if (migrated > 0) {
+			reload(MIGRATE);
+		}
+		log.info("IP 목록 멤버 변환: {}개", migrated);
+		return migrated;
+	}
+
+	// 기동 시 이전 JSON 멤버 변환 (Redis 직접 조회와 제거는 압축 표현만 보므로 남아 있으면 일치하지 않음)
+	// 변환된 게 없으면 SSCAN / ZSCAN 만 하고 끝나며, 여러 노드가 동시에 실행해도 결과는 같다.
+	// Redis 에 연결하지 못해도 기동은 계속하고 POST /ip-restriction/migrate 로 다시 실행할 수 있음
+	private void migrateOnStartup() {
+		try {
+			migrate();
+		} catch (DataAccessException e) {
+			log.warn("기동 시 IP 목록 멤버 변환 실패: {}", e.getMessage());
+		}
 	}
 
-	// 블랙리스트 전체 조회
-	public Set<Object> getBlacklist() {
-		return redisTemplate.opsForSet().members(BLACKLIST_KEY);
+	// 화이트리스트 전체 조회 (작은 목록, 큰 목록은 getPage / export)
+	public Set<String> getWhitelist() {
+		Set<String> members = redisOperationMetrics.record(METRIC_SERVICE, "getWhitelist", 1,
+			() -> stringRedisTemplate.opsForSet().members(WHITELIST_KEY));
+		return new LinkedHashSet<>(decodeAll(members));
+	}
+
+	// 블랙리스트 전체 조회 (작은 목록 전용, 큰 목록은 getPage / export)
+	public Set<String> getBlacklist() {
+		Set<String> members = redisOperationMetrics.record(METRIC_SERVICE, "getBlacklist", 1,
+			() -> stringRedisTemplate.opsForSet().members(BLACKLIST_KEY));
+		return new LinkedHashSet<>(decodeAll(members));
 	}
 
 	// 화이트리스트 크기
 	public long getWhitelistSize() {
-		return redisTemplate.opsForSet().size(WHITELIST_KEY);
+		return redisOperationMetrics.record(METRIC_SERVICE, "getWhitelistSize", 1, () -> size(WHITELIST_KEY));
 	}
 
 	// 블랙리스트 크기
 	public long getBlacklistSize() {
-		return redisTemplate.opsForSet().size(BLACKLIST_KEY);
+		return redisOperationMetrics.record(METRIC_SERVICE, "getBlacklistSize", 1, () -> size(BLACKLIST_KEY));
+	}
+
+	// 노드 스냅샷 버전 (스냅샷이 없으면 -1)
+	public long getSnapshotVersion() {
+		IpRestrictionSnapshot local = snapshot;
+		return local == null ? -1 : local.getVersion();
+	}
+
+	// 변경 알림 수신
+	// "버전 add|remove whitelist|blacklist 멤버", "버전 ban|unban 만료시각 멤버", 일괄 변경 후 "버전 reload 목록"
+	@Override
+	public void onMessage(Message message, byte[] pattern) {
+		String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split(" ", 4);
+		try {
+			long version = Long.parseLong(parts[0]);
+			if (RELOAD.equals(parts[1])) {
+				reloaded(version, parts[2]);
+				return;
+			}
+			String ip = decode(parts[3]);
+			if (BAN.equals(parts[1]) || UNBAN.equals(parts[1])) {
+				long expiresAt = Long.parseLong(parts[2]);
+				apply(version, local -> local.ban(version, ip, expiresAt));
+			} else {
+				apply(version, local -> local.apply(version, parts[1], parts[2], ip));
+			}
+		} catch (RuntimeException e) {
+			log.warn("잘못된 IP 목록 변경 알림, 다시 읽음: {}", e.getMessage());
+			resync("잘못된 알림");
+		}
+	}
+
+	// 1초마다 Redis 버전과 비교 (알림을 놓쳤으면 다시 읽음)
+	@Scheduled(fixedRate = 1000)
+	public void verify() {
+		if (!rateLimitProperties.getIp().getRestriction().isLocalSnapshot()) {
+			return;
+		}
+		try {
+			long checkedAt = System.currentTimeMillis();
+			long version = readVersion();
+			if (version == getSnapshotVersion()) {
+				verifiedAt = checkedAt;
+			} else {
+				resync("버전 불일치 " + getSnapshotVersion() + " → " + version);
+			}
+		} catch (DataAccessException e) {
+			log.warn("IP 목록 버전 확인 실패: {}", e.getMessage());
+		}
+	}
+
+	// 10초마다 만료된 임시 차단 정리 (여러 노드가 동시에 실행해도 결과는 같음)
+	// 조회는 만료 시각으로 판단하므로 정리가 늦어도 만료된 차단이 적용되지는 않음
+	@Scheduled(fixedRate = 10_000)
+	public void sweep() {
+		int batchSize = rateLimitProperties.getIp().getRestriction().getBatchSize();
+		long now = System.currentTimeMillis();
+		try {
+			long removed = 0;
+			for (int i = 0; i < MAX_SWEEP_BATCHES; i++) {
+				Long count = redisOperationMetrics.record(METRIC_SERVICE, "sweep", 1,
+					() -> stringRedisTemplate.execute(RedisScripts.IP_TEMP_BAN_SWEEP, List.of(TEMP_BAN_KEY),
+						String.valueOf(now), String.valueOf(batchSize)));
+				removed += count;
+				if (count < batchSize) {
+					break;
+				}
+			}
+			if (removed > 0) {
+				log.info("만료된 IP 임시 차단 정리: {}개", removed);
+			}
+		} catch (DataAccessException e) {
+			log.warn("IP 임시 차단 정리 실패: {}", e.getMessage());
+		}
+		pruneExpired(now);
+	}
+
+	// 변경 스크립트 실행 후 이 노드에는 알림을 기다리지 않고 바로 반영 (방금 바꾼 값을 바로 읽을 수 있도록)
+	// 추가는 저장 전에 IP / CIDR 형식 확인 (틀리면 IllegalArgumentException)
+	// 스냅샷에는 다른 노드가 알림에서 읽는 것과 같은 표기(멤버를 다시 푼 값)로 반영
+	// 바뀐 게 없으면 돌려받은 버전은 다른 변경의 버전이므로 이 변경을 그 버전으로 반영하지 않고 버전만 확인
+	private void update(String op, String change, String list, String ip) {
+		if (IpRestrictionSnapshot.ADD.equals(change)) {
+			if (IpRestrictionSnapshot.isCidr(ip)) {
+				IpRestrictionSnapshot.validateCidr(ip);
+			} else if (!IpAddress.isValid(ip)) {
+				throw new IllegalArgumentException("잘못된 IP: " + ip);
+			}
+		}
+		String member = encode(ip);
+		List<Object> result = redisOperationMetrics.record(METRIC_SERVICE, op, 1,
+			() -> stringRedisTemplate.execute(
+				RedisScripts.IP_RESTRICTION_UPDATE,
+				List.of(keyOf(list), VERSION_KEY),
+				change, list, member, CHANNEL
+			));
+		if (!rateLimitProperties.getIp().getRestriction().isLocalSnapshot()) {
+			return;
+		}
+		if (((Number) result.get(0)).longValue() == 0) {
+			verify();
+			return;
+		}
+		long version = ((Number) result.get(1)).longValue();
+		String entry = decode(member);
+		apply(version, local -> local.apply(version, change, list, entry));
+	}
+
+	// 임시 차단 등록/해제 스크립트 실행 후 이 노드에 바로 반영, 적용된 만료 시각 반환
+	// 바뀐 게 없으면(이미 더 늦게 만료되는 차단, 없는 차단 해제) update 와 같이 버전만 확인
+	private long updateTempBan(String op, String change, String ip, long expiresAt) {
+		String member = encode(ip);
+		List<Object> result = redisOperationMetrics.record(METRIC_SERVICE, op, 1,
+			() -> stringRedisTemplate.execute(
+				RedisScripts.IP_TEMP_BAN,
+				List.of(TEMP_BAN_KEY, VERSION_KEY),
+				change, String.valueOf(expiresAt), member, CHANNEL
+			));
+		boolean changed = ((Number) result.get(0)).longValue() == 1;
+		long version = ((Number) result.get(1)).longValue();
+		long applied = ((Number) result.get(2)).longValue();
+		if (!rateLimitProperties.getIp().getRestriction().isLocalSnapshot()) {
+			return applied;
+		}
+		if (!changed) {
+			verify();
+			return applied;
+		}
+		String entry = decode(member);
+		apply(version, local -> local.ban(version, entry, applied));
+		return applied;
+	}
+
+	// 일괄 변경 알림: 아직 반영하지 않은 버전이면 전체 다시 읽기
+	private synchronized void reloaded(long version, String list) {
+		if (getSnapshotVersion() < version) {
+			resync(list + " 일괄 변경 v" + version);
+		}
+	}
+
+	// 바로 다음 버전이면 그 변경만 반영, 건너뛴 버전이 있으면 전체 다시 읽기, 이미 반영한 버전은 무시
+	private synchronized void apply(long version, UnaryOperator<IpRestrictionSnapshot> change) {
+		IpRestrictionSnapshot local = snapshot;
+		if (local == null) {
+			resync("스냅샷 없음");
+			return;
+		}
+		if (version <= local.getVersion()) {
+			return;
+		}
+		if (version == local.getVersion() + 1) {
+			snapshot = change.apply(local);
+			verifiedAt = System.currentTimeMillis();
+			return;
+		}
+		resync("버전 누락 " + local.getVersion() + " → " + version);
+	}
+
+	// 버전 → 두 Set(SSCAN) → 만료되지 않은 임시 차단(ZSCAN)을 batch-size 씩 읽고 버전을 다시 확인해 스냅샷 교체
+	// 한 번에 SMEMBERS 로 읽으면 목록이 클 때 Redis 를 그만큼 오래 막으므로 페이지로 나눠 읽는다.
+	// 읽는 도중 변경이 있었으면(앞뒤 버전이 다름) 섞인 상태일 수 있으므로 버리고 다시 읽는다.
+	// 가져오기/변환은 멤버를 다 바꾼 뒤에 버전을 올리므로, 그 도중에 읽은 스냅샷은 그 알림에서 다시 읽힌다.
+	private synchronized void resync(String reason) {
+		Timer.Sample sample = redisOperationMetrics.start();
+		int roundTrips = 0;
+		try {
+			for (int attempt = 1; attempt <= MAX_RESYNC_ATTEMPTS; attempt++) {
+				long readAt = System.currentTimeMillis();
+				long version = readVersion();
+				List<String> whitelist = new ArrayList<>();
+				List<String> blacklist = new ArrayList<>();
+				Map<String, Long> tempBans = new HashMap<>();
+				roundTrips += 1 + scanAll(WHITELIST_KEY, whitelist) + scanAll(BLACKLIST_KEY, blacklist)
+					+ scanTempBans(readAt, tempBans) + 1;
+				if (readVersion() != version) {
+					log.info("IP 목록을 읽는 중 변경됨, 다시 읽음 ({}/{})", attempt, MAX_RESYNC_ATTEMPTS);
+					continue;
+				}
+				snapshot = new IpRestrictionSnapshot(version, whitelist, blacklist, tempBans);
+				verifiedAt = readAt;
+				resyncCounter.increment();
+				log.info("IP 목록 스냅샷 다시 읽음 ({}): v{}, 대역 {}개", reason, version, snapshot.getRangeCount());
+				return;
+			}
+			log.warn("IP 목록이 계속 바뀌어 스냅샷 다시 읽기 실패, 기존 스냅샷 유지 (다음 버전 확인에서 재시도)");
+		} catch (DataAccessException e) {
+			log.warn("IP 목록 스냅샷 다시 읽기 실패, 기존 스냅샷 유지: {}", e.getMessage());
+		} finally {
+			redisOperationMetrics.stop(sample, METRIC_SERVICE, "resync", roundTrips);
+		}
+	}
+
+	private long readVersion() {
+		String stored = stringRedisTemplate.opsForValue().get(VERSION_KEY);
+		return stored == null ? 0 : Long.parseLong(stored);
+	}
+
+	// Set 전체를 SSCAN batch-size 씩 읽어 IP 로 풀어 담음, 왕복 수 반환
+	@SuppressWarnings("unchecked")
+	private int scanAll(String key, List<String> ips) {
+		int batchSize = rateLimitProperties.getIp().getRestriction().getBatchSize();
+		int roundTrips = 0;
+		String cursor = "0";
+		do {
+			List<Object> result = stringRedisTemplate.execute(RedisScripts.SSCAN, List.of(key), cursor,
+				String.valueOf(batchSize));
+			roundTrips++;
+			for (String member : (List<String>) result.get(1)) {
+				ips.add(decode(member));
+			}
+			cursor = (String) result.get(0);
+		} while (!"0".equals(cursor));
+		return roundTrips;
+	}
+
+	// 만료되지 않은 임시 차단을 ZSCAN batch-size 씩 읽어 IP → 만료 시각으로 담음, 대략의 왕복 수 반환
+	// (같은 멤버가 두 번 나올 수 있는 SCAN 특성상 Map 에 덮어씀)
+	private int scanTempBans(long now, Map<String, Long> tempBans) {
+		int batchSize = rateLimitProperties.getIp().getRestriction().getBatchSize();
+		int scanned = 0;
+		try (Cursor<ZSetOperations.TypedTuple<String>> cursor = stringRedisTemplate.opsForZSet()
+			.scan(TEMP_BAN_KEY, ScanOptions.scanOptions().count(batchSize).build())) {
+			while (cursor.hasNext()) {
+				ZSetOperations.TypedTuple<String> tuple = cursor.next();
+				scanned++;
+				if (tuple.getScore() != null && tuple.getScore() > now) {
+					tempBans.put(decode(tuple.getValue()), tuple.getScore().longValue());
+				}
+			}
+		}
+		return scanned / batchSize + 1;
+	}
+
+	// 만료된 임시 차단을 스냅샷 메모리에서도 정리 (버전은 그대로)
+	private synchronized void pruneExpired(long now) {
+		IpRestrictionSnapshot local = snapshot;
+		if (local != null) {
+			snapshot = local.withoutExpired(now);
+		}
+	}
+
+	// 일괄 변경 후 버전 증가 + 알림, 이 노드는 바로 다시 읽음
+	private long reload(String list) {
+		Long version = redisOperationMetrics.record(METRIC_SERVICE, "reload", 1,
+			() -> stringRedisTemplate.execute(RedisScripts.IP_RESTRICTION_RELOAD, List.of(VERSION_KEY), CHANNEL, list));
+		if (rateLimitProperties.getIp().getRestriction().isLocalSnapshot()) {
+			reloaded(version, list);
+		}
+		return version;
+	}
+
+	private List<Object> scan(String key, String cursor, int count) {
+		return redisOperationMetrics.record(METRIC_SERVICE, "scan", 1,
+			() -> stringRedisTemplate.execute(RedisScripts.SSCAN, List.of(key), cursor, String.valueOf(count)));
+	}
+
+	// SADD 여러 개를 파이프라인 한 번으로 보내고 새로 추가된 수 합계
+	private long addAll(String key, List<byte[][]> batches) {
+		if (batches.isEmpty()) {
+			return 0;
+		}
+		byte[] rawKey = key.getBytes(StandardCharsets.UTF_8);
+		List<Object> results = redisOperationMetrics.record(METRIC_SERVICE, "import", 1,
+			() -> stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+				for (byte[][] members : batches) {
+					connection.setCommands().sAdd(rawKey, members);
+				}
+				return null;
+			}));
+		long added = 0;
+		for (Object result : results) {
+			added += ((Number) result).longValue();
+		}
+		return added;
+	}
+
+	@SuppressWarnings("unchecked")
+	private long migrateSet(String key) {
+		int batchSize = rateLimitProperties.getIp().getRestriction().getBatchSize();
+		byte[] rawKey = key.getBytes(StandardCharsets.UTF_8);
+		long migrated = 0;
+		String cursor = "0";
+		do {
+			List<Object> result = scan(key, cursor, batchSize);
+			List<String> legacy = ((List<String>) result.get(1)).stream().filter(IpCodec::isLegacy).toList();
+			if (!legacy.isEmpty()) {
+				redisOperationMetrics.record(METRIC_SERVICE, "migrate", 1,
+					() -> stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+						for (String member : legacy) {
+							connection.setCommands().sAdd(rawKey, migrated(member));
+							connection.setCommands().sRem(rawKey, member.getBytes(StandardCharsets.UTF_8));
+						}
+						return null;
+					}));
+				migrated += legacy.size();
+			}
+			cursor = (String) result.get(0);
+		} while (!"0".equals(cursor));
+		return migrated;
+	}
+
+	// 같은 IP 의 새 멤버가 이미 있으면 더 늦은 만료 시각 유지 (ZADD GT)
+	private long migrateTempBans() {
+		int batchSize = rateLimitProperties.getIp().getRestriction().getBatchSize();
+		long migrated = 0;
+		List<ZSetOperations.TypedTuple<String>> legacy = new ArrayList<>(batchSize);
+		try (Cursor<ZSetOperations.TypedTuple<String>> cursor = stringRedisTemplate.opsForZSet()
+			.scan(TEMP_BAN_KEY, ScanOptions.scanOptions().count(batchSize).build())) {
+			while (cursor.hasNext()) {
+				ZSetOperations.TypedTuple<String> tuple = cursor.next();
+				if (IpCodec.isLegacy(tuple.getValue())) {
+					legacy.add(tuple);
+				}
+				if (legacy.size() == batchSize || !cursor.hasNext() && !legacy.isEmpty()) {
+					replaceTempBans(legacy);
+					migrated += legacy.size();
+					legacy.clear();
+				}
+			}
+		}
+		return migrated;
+	}
+
+	private void replaceTempBans(List<ZSetOperations.TypedTuple<String>> legacy) {
+		byte[] rawKey = TEMP_BAN_KEY.getBytes(StandardCharsets.UTF_8);
+		redisOperationMetrics.record(METRIC_SERVICE, "migrate", 1,
+			() -> stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+				for (ZSetOperations.TypedTuple<String> tuple : legacy) {
+					connection.zSetCommands().zAdd(rawKey, tuple.getScore(), migrated(tuple.getValue()),
+						RedisZSetCommands.ZAddArgs.empty().gt());
+					connection.zSetCommands().zRem(rawKey, tuple.getValue().getBytes(StandardCharsets.UTF_8));
+				}
+				return null;
+			}));
+	}
+
+	private static byte[] migrated(String legacyMember) {
+		return encode(decode(legacyMember)).getBytes(StandardCharsets.UTF_8);
+	}
+
+	// 블랙리스트 SISMEMBER + 임시 차단 ZSCORE(만료 시각과 비교)를 파이프라인 한 번으로
+	private boolean isBlacklistedInRedis(String ip) {
+		byte[] member = encode(ip).getBytes(StandardCharsets.UTF_8);
+		List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+			connection.setCommands().sIsMember(BLACKLIST_KEY.getBytes(StandardCharsets.UTF_8), member);
+			connection.zSetCommands().zScore(TEMP_BAN_KEY.getBytes(StandardCharsets.UTF_8), member);
+			return null;
+		});
+		Double expiresAt = (Double) results.get(1);
+		return Boolean.TRUE.equals(results.get(0)) || expiresAt != null && expiresAt > System.currentTimeMillis();
+	}
+
+	private static String keyOf(String list) {
+		if (IpRestrictionSnapshot.WHITELIST.equals(list)) {
+			return WHITELIST_KEY;
+		}
+		if (IpRestrictionSnapshot.BLACKLIST.equals(list)) {
+			return BLACKLIST_KEY;
+		}
+		throw new IllegalArgumentException("알 수 없는 목록: " + list);
+	}
+
+	private static boolean isValidEntry(String entry) {
+		if (!IpRestrictionSnapshot.isCidr(entry)) {
+			return IpAddress.isValid(entry);
+		}
+		try {
+			IpRestrictionSnapshot.validateCidr(entry);
+			return true;
+		} catch (IllegalArgumentException e) {
+			return false;
+		}
+	}
+
+	// max-staleness 안에 버전을 확인한 스냅샷만 사용
+	private IpRestrictionSnapshot freshSnapshot() {
+		RateLimitProperties.Restriction properties = rateLimitProperties.getIp().getRestriction();
+		if (!properties.isLocalSnapshot()) {
+			return null;
+		}
+		IpRestrictionSnapshot local = snapshot;
+		if (local == null || System.currentTimeMillis() - verifiedAt > properties.getMaxStaleness().toMillis()) {
+			return null;
+		}
+		return local;
+	}
+
+	// Set / Sorted Set 멤버 표현 (IpCodec)
+	private static String encode(String ip) {
+		return IpCodec.encode(ip);
+	}
+
+	private static String decode(String member) {
+		return IpCodec.decode(member);
+	}
+
+	private static List<String> decodeAll(Collection<String> members) {
+		List<String> ips = new ArrayList<>(members.size());
+		for (String member : members) {
+			ips.add(decode(member));
+		}
+		return ips;
+	}
+
+	private boolean isMember(String key, String ip) {
+		return Boolean.TRUE.equals(stringRedisTemplate.opsForSet().isMember(key, encode(ip)));
+	}
+
+	private long size(String key) {
+		return stringRedisTemplate.opsForSet().size(key);
 	}
 }
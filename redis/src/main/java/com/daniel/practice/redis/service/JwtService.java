@@ -1,35 +1,78 @@
 package com.daniel.practice.redis.service;
 
+import java.time.Duration;
 import java.util.Date;
 import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 
 import javax.crypto.SecretKey;
 
 import org.springframework.stereotype.Service;
 
+import com.daniel.practice.redis.config.JwtProperties;
+import com.daniel.practice.redis.metrics.LogSampler;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jws;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
 
+// JWT 생성/검증
+// 같은 Bearer 토큰이 요청마다 반복해서 들어오므로, 서명 검증(HMAC)과 클레임 JSON 파싱을 통과한 결과를
+// 토큰 digest(SHA-256 앞 16바이트) → 클레임으로 노드 메모리에 캐시한다.
+// 1. 항목은 토큰 exp 시각에 제거되므로 만료된 토큰이 캐시에서 통과하는 일은 없음 (exp 가 없으면 max-ttl)
+// 2. 크기는 항목 수가 아니라 토큰 길이로 추정한 바이트 합계(max-memory)로 제한
+// 3. 검증에 실패한 토큰은 캐시하지 않음 (임의 토큰으로 캐시를 채울 수 없도록)
+@Slf4j
 @Service
 public class JwtService {
 
+	// 캐시 항목 크기 추정: 토큰 길이 × 2 (헤더/클레임 맵으로 풀린 크기) + 객체 고정 비용
+	private static final int ENTRY_OVERHEAD = 512;
+
 	// SecretKey: 실제 운영 환경에서는 환경변수나 설정 파일에서 관리
 	private final SecretKey key;
+	// 검증기는 키마다 한 번만 만들어 재사용 (불변이라 여러 스레드가 같이 써도 됨)
+	private final JwtParser parser;
+	// 토큰 digest → 검증된 클레임 (verified-cache.enabled: false 이면 null)
+	private final Cache<TokenDigest, Verified> verified;
+
+	public JwtService(JwtProperties jwtProperties, MeterRegistry meterRegistry) {
+		this.key = Jwts.SIG.HS256.key().build();
+		this.parser = Jwts.parser().verifyWith(key).build();
 
-	public JwtService() {
-		this.key = Jwts.SIG.HS256.key().build();;
+		JwtProperties.VerifiedCache properties = jwtProperties.getVerifiedCache();
+		if (properties.isEnabled()) {
+			Duration maxTtl = properties.getMaxTtl();
+			this.verified = Caffeine.newBuilder()
+				.maximumWeight(properties.getMaxMemory().toBytes())
+				.weigher((TokenDigest digest, Verified entry) -> entry.weight())
+				.expireAfter(Expiry.creating((TokenDigest digest, Verified entry) -> entry.timeToLive(maxTtl)))
+				.recordStats()
+				.build();
+			CaffeineCacheMetrics.monitor(meterRegistry, verified, "jwt.verified");
+		} else {
+			this.verified = null;
+		}
 	}
 
 	// JWT 생성 메서드
+	// jti 를 넣어 블랙리스트가 토큰 digest 대신 jti 로 키를 만들 수 있게 함
 	public String generateToken(String userId, String role, long expirationMs) {
 		String token = Jwts.builder()
 			.header()
 				.type("JWT")
 				.keyId("test-token")
 				.and()
+			.id(UUID.randomUUID().toString())
 			.issuer("admin")
 			.issuedAt(new Date())
 			.expiration(new Date(System.currentTimeMillis() + expirationMs))
@@ -41,17 +84,12 @@ public class JwtService {
 	}
 
 	// JWT 검증 메서드
+	// 캐시에 있으면 서명 검증/파싱 없이 반환, 같은 토큰을 동시에 처음 검증하는 요청들은 한 번만 검증
 	public Optional<Jws<Claims>> parseToken(String token) {
-		try {
-			Jws<Claims> claims = Jwts.parser()
-				.verifyWith(key)
-				.build()
-				.parseSignedClaims(token);
-			return Optional.of(claims);
-		} catch (JwtException | IllegalArgumentException e) {
-			System.out.println("토큰 파싱 실패: " + e.getMessage());
-			return Optional.empty();
-		}
+		Verified entry = verified == null
+			? verify(token)
+			: verified.get(TokenDigest.of(token), digest -> verify(token));
+		return Optional.ofNullable(entry).map(Verified::claims);
 	}
 
 	// JWT 에서 사용자 ID 추출 메서드
@@ -65,14 +103,19 @@ public class JwtService {
 		return parseToken(token)
 			.map(claims -> {
 				boolean expired = claims.getPayload().getExpiration().before(new Date());
-				if (expired) {
-					System.out.println("토큰이 만료되었습니다: " + claims.getPayload().getExpiration());
+				if (expired && log.isDebugEnabled() && LogSampler.sample()) {
+					log.debug("토큰이 만료되었습니다: {}", claims.getPayload().getExpiration());
 				}
 				return expired;
 			})
 			.orElse(true); // 파싱 실패 시 만료된 것으로 처리
 	}
 
+	// 캐시된 검증 결과 수 (근사값)
+	public long getVerifiedCacheSize() {
+		return verified == null ? 0 : verified.estimatedSize();
+	}
+
 	// 토큰 정보 출력 메서드 (디버깅용)
 	public void printTokenInfo(String token) {
 		parseToken(token).ifPresentOrElse(
@@ -90,4 +133,30 @@ public class JwtService {
 		);
 	}
 
+	// 서명 검증 + 파싱, 실패하면 null (캐시에 넣지 않음)
+	private Verified verify(String token) {
+		try {
+			return new Verified(parser.parseSignedClaims(token), token.length() * 2 + ENTRY_OVERHEAD);
+		} catch (JwtException | IllegalArgumentException e) {
+			// 잘못된 토큰이 몰려 들어올 수 있는 경로라 표준 출력 대신 샘플링된 debug 로그
+			if (log.isDebugEnabled() && LogSampler.sample()) {
+				log.debug("토큰 파싱 실패: {}", e.getMessage());
+			}
+			return null;
+		}
+	}
+
+	private record Verified(Jws<Claims> claims, int weight) {
+
+		// exp 까지 남은 시간 (exp 가 없으면 maxTtl, 있어도 maxTtl 을 넘지 않음)
+		Duration timeToLive(Duration maxTtl) {
+			Date expiration = claims.getPayload().getExpiration();
+			if (expiration == null) {
+				return maxTtl;
+			}
+			long remaining = Math.max(0, expiration.getTime() - System.currentTimeMillis());
+			return remaining < maxTtl.toMillis() ? Duration.ofMillis(remaining) : maxTtl;
+		}
+	}
+
 }
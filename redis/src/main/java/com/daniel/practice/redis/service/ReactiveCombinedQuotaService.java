@@ -0,0 +1,50 @@
+package com.daniel.practice.redis.service;
+
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import com.daniel.practice.redis.config.RedisScripts;
+import com.daniel.practice.redis.dto.QuotaDecision;
+import com.daniel.practice.redis.dto.RateLimitDecision;
+import com.daniel.practice.redis.enums.RateLimitKeyType;
+import com.daniel.practice.redis.resilience.RedisCircuitBreaker;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+// CombinedQuotaService 의 논블로킹 버전 (같은 키 / 스크립트 사용)
+// 사용자 시간당 + 일일 + 토큰 제한을 스크립트 한 번으로 평가하므로, 토큰 제한에 걸린 요청이 사용자 카운터만 올려놓는 일이 없다.
+// Redis 장애/지연 시에는 블로킹 버전과 같은 차단기 상태를 보고 같은 로컬 제한기로 근사한다.
+@Service
+@RequiredArgsConstructor
+public class ReactiveCombinedQuotaService {
+
+	private final ReactiveStringRedisTemplate reactiveStringRedisTemplate;
+	private final CombinedQuotaService combinedQuotaService;
+	private final UserRateLimitService userRateLimitService;
+	private final TokenUsageLimitService tokenUsageLimitService;
+	private final TokenUsageHistoryService tokenUsageHistoryService;
+	private final CardinalityStatsService cardinalityStatsService;
+	private final RedisCircuitBreaker redisCircuitBreaker;
+
+	// 사용자 + 토큰 통합 제한 확인 (1건)
+	public Mono<QuotaDecision> check(String userId, String token) {
+		int hourlyLimit = userRateLimitService.getUserHourlyLimit(userId);
+		int dailyLimit = userRateLimitService.getUserDailyLimit(userId);
+		int tokenLimit = tokenUsageLimitService.getTokenLimit(token);
+		cardinalityStatsService.record(RateLimitKeyType.USER, userId);
+		cardinalityStatsService.record(RateLimitKeyType.TOKEN, token);
+		return redisCircuitBreaker.executeReactive(
+				() -> ReactiveScripts.execute(reactiveStringRedisTemplate, RedisScripts.COMBINED_QUOTA,
+						combinedQuotaService.keys(userId, token),
+						combinedQuotaService.args(hourlyLimit, dailyLimit, tokenLimit, 1))
+					.map(result -> CombinedQuotaService.toDecision(userId, token, 1, result)),
+				() -> combinedQuotaService.acquireLocal(userId, token, 1, hourlyLimit, dailyLimit, tokenLimit))
+			// 토큰 사용 이력은 대기열에 넣기만 하므로 이벤트 루프를 막지 않음
+			.doOnNext(decision -> tokenUsageHistoryService.record(token, RateLimitDecision.builder()
+				.allowed(decision.isAllowed())
+				.count(decision.getTokenCount())
+				.limit(tokenLimit)
+				.build()));
+	}
+}
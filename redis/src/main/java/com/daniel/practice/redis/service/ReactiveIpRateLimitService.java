@@ -0,0 +1,120 @@
+package com.daniel.practice.redis.service;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import com.daniel.practice.redis.config.RedisScripts;
+import com.daniel.practice.redis.dto.RateLimitDecision;
+import com.daniel.practice.redis.enums.RateLimitKeyType;
+import com.daniel.practice.redis.enums.RateLimitStrategy;
+import com.daniel.practice.redis.enums.RateLimitWindow;
+import com.daniel.practice.redis.metrics.RedisOperationMetrics;
+import com.daniel.practice.redis.resilience.RedisCircuitBreaker;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+// IpRateLimitService 의 논블로킹 버전
+// 같은 키/스크립트를 사용하므로 블로킹 버전과 카운터를 공유한다.
+// 응답을 기다리는 동안 스레드를 점유하지 않으므로, 동시 요청 수가 스레드 수에 묶이지 않음
+// Redis 장애/지연 시에는 블로킹 버전과 같은 차단기 상태를 보고 같은 로컬 제한기로 근사한다.
+@Service
+@RequiredArgsConstructor
+@SuppressWarnings("rawtypes")
+public class ReactiveIpRateLimitService {
+
+	private final ReactiveStringRedisTemplate reactiveStringRedisTemplate;
+	private final IpRateLimitService ipRateLimitService;
+	private final CardinalityStatsService cardinalityStatsService;
+	private final RedisCircuitBreaker redisCircuitBreaker;
+	private final RedisOperationMetrics redisOperationMetrics;
+
+	// IP별 요청 횟수 제한 확인 (윈도우별 설정 전략 사용)
+	public Mono<RateLimitDecision> check(String ip, RateLimitWindow window, int maxRequests) {
+		return check(ip, window, maxRequests, ipRateLimitService.strategyOf(window, maxRequests));
+	}
+
+	public Mono<RateLimitDecision> check(String ip, RateLimitWindow window, int maxRequests,
+		RateLimitStrategy strategy) {
+		return check(ip, window, maxRequests, strategy, System.currentTimeMillis(), uniqueId());
+	}
+
+	// IP 제한을 통과한 요청만 next(사용자/토큰 제한 등)로 넘기고, next 가 거부하면 IP 카운터에 올린 1건을 되돌림
+	// 다른 제한에 걸린 요청 때문에 같은 IP(NAT 뒤의 다른 사용자 포함)의 허용량이 줄지 않도록
+	public Mono<RateLimitDecision> check(String ip, RateLimitWindow window, int maxRequests,
+		Function<RateLimitDecision, Mono<RateLimitDecision>> next) {
+		RateLimitStrategy strategy = ipRateLimitService.strategyOf(window, maxRequests);
+		long nowMillis = System.currentTimeMillis();
+		String requestId = uniqueId();
+		return check(ip, window, maxRequests, strategy, nowMillis, requestId)
+			.flatMap(decision -> !decision.isAllowed() ? Mono.just(decision) : next.apply(decision)
+				.flatMap(result -> result.isAllowed() ? Mono.just(result)
+					: refund(ip, window, strategy, nowMillis, requestId).thenReturn(result)));
+	}
+
+	private Mono<RateLimitDecision> check(String ip, RateLimitWindow window, int maxRequests,
+		RateLimitStrategy strategy, long nowMillis, String requestId) {
+		String key = IpRateLimitService.createRateLimitKey(ip, window.getKey());
+		long windowMillis = window.getSeconds() * 1000;
+		cardinalityStatsService.record(RateLimitKeyType.IP, ip);
+
+		Mono<List<Object>> result = switch (strategy) {
+			case FIXED_WINDOW -> execute(RedisScripts.FIXED_WINDOW, List.of(key),
+				List.of(String.valueOf(maxRequests), String.valueOf(window.getSeconds())));
+			case SLIDING_LOG -> execute(RedisScripts.SLIDING_LOG, List.of(IpRateLimitService.createLogKey(key)),
+				List.of(String.valueOf(maxRequests), String.valueOf(windowMillis), String.valueOf(nowMillis),
+					requestId));
+			case SLIDING_COUNTER -> {
+				long epoch = nowMillis / windowMillis;
+				yield execute(RedisScripts.SLIDING_COUNTER,
+					List.of(IpRateLimitService.createBucketKey(key, epoch - 1),
+						IpRateLimitService.createBucketKey(key, epoch)),
+					List.of(String.valueOf(maxRequests), String.valueOf(windowMillis),
+						String.valueOf(nowMillis % windowMillis)));
+			}
+		};
+		return redisCircuitBreaker.executeReactive(
+				() -> redisOperationMetrics.record(IpRateLimitService.METRIC_SERVICE, "check", 1,
+					result.map(values -> IpRateLimitService.toDecision(values, maxRequests))),
+				() -> ipRateLimitService.checkLocal(key, maxRequests, window.getSeconds(), strategy, nowMillis))
+			.doOnNext(decision -> redisOperationMetrics.decision(IpRateLimitService.METRIC_SERVICE, "check",
+				decision.isAllowed()));
+	}
+
+	// 검사 때 올린 키(슬라이딩 로그는 추가한 기록)를 그대로 되돌림
+	private Mono<Long> refund(String ip, RateLimitWindow window, RateLimitStrategy strategy, long nowMillis,
+		String requestId) {
+		String key = IpRateLimitService.createRateLimitKey(ip, window.getKey());
+		String member = "";
+		switch (strategy) {
+			case SLIDING_LOG -> {
+				key = IpRateLimitService.createLogKey(key);
+				member = nowMillis + ":" + requestId;
+			}
+			case SLIDING_COUNTER -> key = IpRateLimitService.createBucketKey(key, nowMillis / (window.getSeconds() * 1000));
+			case FIXED_WINDOW -> {
+			}
+		}
+		String refundKey = key;
+		String refundMember = member;
+		// 차단 중에는 되돌리지 않음 (로컬 제한기로 처리된 요청이라 Redis 카운터에 올린 것이 없음)
+		return redisCircuitBreaker.executeReactive(() -> redisOperationMetrics.record(IpRateLimitService.METRIC_SERVICE,
+				"refund", 1, reactiveStringRedisTemplate.execute(RedisScripts.IP_RATE_REFUND, List.of(refundKey),
+					List.of(refundMember)).next()),
+			() -> 0L);
+	}
+
+	// 슬라이딩 로그에서 같은 ms 에 들어온 요청 구분용
+	private static String uniqueId() {
+		return Integer.toString(ThreadLocalRandom.current().nextInt() & Integer.MAX_VALUE, 36);
+	}
+
+	private Mono<List<Object>> execute(RedisScript<List> script, List<String> keys, List<String> args) {
+		return ReactiveScripts.execute(reactiveStringRedisTemplate, script, keys, args);
+	}
+}
@@ -0,0 +1,23 @@
+package com.daniel.practice.redis.service;
+
+import java.util.List;
+
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import reactor.core.publisher.Mono;
+
+// 리액티브 서비스 공통 스크립트 실행
+final class ReactiveScripts {
+
+	private ReactiveScripts() {
+	}
+
+	// EVALSHA 로 실행하고 캐시에 없으면(NOSCRIPT) EVAL
+	// Lettuce 는 배열 응답을 원소 단위로 내보내므로 블로킹 버전과 같은 List 형태로 다시 모음
+	@SuppressWarnings({"rawtypes", "unchecked"})
+	static Mono<List<Object>> execute(ReactiveStringRedisTemplate template, RedisScript<List> script,
+		List<String> keys, List<String> args) {
+		return template.execute(script, keys, args).cast(Object.class).collectList();
+	}
+}
@@ -0,0 +1,53 @@
+package com.daniel.practice.redis.service;
+
+import java.util.List;
+
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import com.daniel.practice.redis.config.RedisScripts;
+import com.daniel.practice.redis.dto.RateLimitDecision;
+import com.daniel.practice.redis.enums.RateLimitKeyType;
+import com.daniel.practice.redis.metrics.RedisOperationMetrics;
+import com.daniel.practice.redis.resilience.RedisCircuitBreaker;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+// TokenUsageLimitService 의 논블로킹 버전 (같은 Hash / 스크립트 / 이력 대기열 사용)
+// Redis 장애/지연 시에는 블로킹 버전과 같은 차단기 상태를 보고 같은 로컬 제한기로 근사한다.
+@Service
+@RequiredArgsConstructor
+public class ReactiveTokenUsageLimitService {
+
+	private final ReactiveStringRedisTemplate reactiveStringRedisTemplate;
+	private final TokenUsageLimitService tokenUsageLimitService;
+	private final TokenUsageHistoryService tokenUsageHistoryService;
+	private final CardinalityStatsService cardinalityStatsService;
+	private final RedisCircuitBreaker redisCircuitBreaker;
+	private final LocalRateLimiter localRateLimiter;
+	private final RedisOperationMetrics redisOperationMetrics;
+
+	// 토큰별 사용 횟수 제한 확인
+	public Mono<RateLimitDecision> check(String token) {
+		String key = TokenUsageLimitService.createTokenUsageKey(token);
+		int tokenLimit = tokenUsageLimitService.getTokenLimit(token);
+		long ttl = TokenUsageLimitService.TOKEN_USAGE_TTL_SECONDS;
+		cardinalityStatsService.record(RateLimitKeyType.TOKEN, token);
+		return redisCircuitBreaker.executeReactive(
+				() -> redisOperationMetrics.record(TokenUsageLimitService.METRIC_SERVICE, "check", 1,
+					ReactiveScripts.execute(reactiveStringRedisTemplate, RedisScripts.TOKEN_USAGE, List.of(key),
+							List.of(String.valueOf(tokenLimit), String.valueOf(ttl)))
+						.map(result -> RateLimitDecision.builder()
+							.allowed(((Number) result.get(0)).longValue() == 1)
+							.count(((Number) result.get(1)).longValue())
+							.limit(((Number) result.get(2)).longValue())
+							.ttl(((Number) result.get(3)).longValue())
+							.build())),
+				() -> localRateLimiter.tryAcquire(key, "count", tokenLimit, ttl, ttl))
+			.doOnNext(decision -> redisOperationMetrics.decision(TokenUsageLimitService.METRIC_SERVICE, "check",
+				decision.isAllowed()))
+			// 이력은 대기열에 넣기만 하므로 이벤트 루프를 막지 않음
+			.doOnNext(decision -> tokenUsageHistoryService.record(token, decision));
+	}
+}
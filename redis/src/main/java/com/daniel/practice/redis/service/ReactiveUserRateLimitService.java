@@ -0,0 +1,94 @@
+package com.daniel.practice.redis.service;
+
+import java.util.List;
+
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import com.daniel.practice.redis.config.RedisScripts;
+import com.daniel.practice.redis.dto.RateLimitDecision;
+import com.daniel.practice.redis.enums.RateLimitKeyType;
+import com.daniel.practice.redis.metrics.RedisOperationMetrics;
+import com.daniel.practice.redis.resilience.RedisCircuitBreaker;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+// UserRateLimitService 의 논블로킹 버전 (같은 키를 사용하므로 카운터 공유)
+// 시간당 제한은 gcra 모드면 GCRA, 아니면 Hash 카운터 스크립트로 평가한다.
+// lease 는 노드 로컬 상태를 블로킹 스크립트 호출로 채우는 구조라 여기서는 사용하지 않음
+// Redis 장애/지연 시에는 블로킹 버전과 같은 차단기 상태를 보고 같은 로컬 제한기로 근사한다.
+@Service
+@RequiredArgsConstructor
+public class ReactiveUserRateLimitService {
+
+	private static final long HOUR_SECONDS = 3600;
+	private static final long DAY_SECONDS = 86400;
+
+	private final ReactiveStringRedisTemplate reactiveStringRedisTemplate;
+	private final UserRateLimitService userRateLimitService;
+	private final CardinalityStatsService cardinalityStatsService;
+	private final RedisCircuitBreaker redisCircuitBreaker;
+	private final LocalRateLimiter localRateLimiter;
+	private final RedisOperationMetrics redisOperationMetrics;
+
+	// 사용자별 시간당 요청 제한 확인
+	public Mono<RateLimitDecision> checkHourly(String userId) {
+		int hourlyLimit = userRateLimitService.getUserHourlyLimit(userId);
+		if (userRateLimitService.isGcraMode()) {
+			return checkGcra(userId, hourlyLimit);
+		}
+		return checkCounter(userId, "hourly", hourlyLimit, HOUR_SECONDS, true);
+	}
+
+	// 사용자별 일일 요청 제한 확인
+	public Mono<RateLimitDecision> checkDaily(String userId) {
+		return checkCounter(userId, "daily", userRateLimitService.getUserDailyLimit(userId), DAY_SECONDS, false);
+	}
+
+	// 고유 사용자 집계는 시간당 검사에서만 (일일 검사와 같은 요청에서 두 번 기록하지 않도록)
+	private Mono<RateLimitDecision> checkCounter(String userId, String field, int limit, long ttlSeconds,
+		boolean recordStats) {
+		String key = "hourly".equals(field)
+			? UserRateLimitService.createHourlyKey(userId)
+			: UserRateLimitService.createDailyKey(userId);
+		String operation = "hourly".equals(field) ? "isAllowedPerHour" : "isAllowedPerDay";
+		if (recordStats) {
+			cardinalityStatsService.record(RateLimitKeyType.USER, userId);
+		}
+		return redisCircuitBreaker.executeReactive(
+				() -> redisOperationMetrics.record(UserRateLimitService.METRIC_SERVICE, operation, 1,
+					ReactiveScripts.execute(reactiveStringRedisTemplate, RedisScripts.HASH_COUNTER, List.of(key),
+							List.of(field, String.valueOf(limit), String.valueOf(ttlSeconds)))
+						.map(result -> RateLimitDecision.builder()
+							.allowed(((Number) result.get(0)).longValue() == 1)
+							.count(((Number) result.get(1)).longValue())
+							.limit(limit)
+							.ttl(((Number) result.get(2)).longValue())
+							.build())),
+				() -> localRateLimiter.tryAcquire(key, field, limit, ttlSeconds, ttlSeconds))
+			.doOnNext(decision -> redisOperationMetrics.decision(UserRateLimitService.METRIC_SERVICE, operation,
+				decision.isAllowed()));
+	}
+
+	private Mono<RateLimitDecision> checkGcra(String userId, int hourlyLimit) {
+		long burst = userRateLimitService.getUserBurst(hourlyLimit);
+		String key = UserRateLimitService.createGcraKey(userId);
+		cardinalityStatsService.record(RateLimitKeyType.USER, userId);
+		return redisCircuitBreaker.executeReactive(
+				() -> redisOperationMetrics.record(UserRateLimitService.METRIC_SERVICE, "checkGcra", 1,
+					ReactiveScripts.execute(reactiveStringRedisTemplate, RedisScripts.GCRA, List.of(key),
+							List.of(String.valueOf(userRateLimitService.getEmissionIntervalMicros(hourlyLimit)),
+								String.valueOf(burst)))
+						.map(result -> RateLimitDecision.builder()
+							.allowed(((Number) result.get(0)).longValue() == 1)
+							.count(((Number) result.get(1)).longValue())
+							.limit(burst)
+							.retryAfterMillis(((Number) result.get(2)).longValue())
+							.ttl((((Number) result.get(3)).longValue() + 999) / 1000)
+							.build())),
+				() -> localRateLimiter.tryAcquire(key, null, hourlyLimit, HOUR_SECONDS, 0))
+			.doOnNext(decision -> redisOperationMetrics.decision(UserRateLimitService.METRIC_SERVICE, "checkGcra",
+				decision.isAllowed()));
+	}
+}
@@ -6,14 +6,23 @@ import java.util.concurrent.TimeUnit;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
+import com.daniel.practice.redis.metrics.LogSampler;
+import com.daniel.practice.redis.metrics.RedisOperationMetrics;
+
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class RedisJwtService {
 
+	private static final String METRIC_SERVICE = "jwt";
+
 	private final RedisTemplate<String, Object> redisTemplate;
 	private final JwtService jwtService;
+	private final RedisOperationMetrics redisOperationMetrics;
 
 	// 키 생성 헬퍼 메서드
 	private static String createKey(String userId) {
@@ -23,18 +32,17 @@ public class RedisJwtService {
 	// JWT를 Redis에 저장하는 메서드 (TTL 설정)
 	public void storeToken(String userId, String token, long ttlSeconds) {
 		String key = createKey(userId);
-		redisTemplate.opsForValue().set(key, token, ttlSeconds, TimeUnit.SECONDS);
-		System.out.println("토큰이 Redis에 저장되었습니다 - 사용자: " + userId + ", TTL: " + ttlSeconds + "초");
+		redisOperationMetrics.record(METRIC_SERVICE, "storeToken", 1,
+			() -> redisTemplate.opsForValue().set(key, token, ttlSeconds, TimeUnit.SECONDS));
+		log.info("토큰이 Redis에 저장되었습니다 - 사용자: {}, TTL: {}초", userId, ttlSeconds);
 	}
 
 	// Redis 에서 JWT 조회하는 메서드
 	public Optional<String> getToken(String userId) {
-		String key = createKey(userId);
-		Object value = redisTemplate.opsForValue().get(key);
-		if (value == null) {
-			System.out.println("Redis에서 토큰을 찾을 수 없습니다 - 사용자: " + userId);
-		} else {
-			System.out.println("Redis에서 토큰을 조회했습니다 - 사용자: " + userId);
+		Object value = redisOperationMetrics.record(METRIC_SERVICE, "getToken", 1,
+			() -> redisTemplate.opsForValue().get(createKey(userId)));
+		if (log.isDebugEnabled() && LogSampler.sample()) {
+			log.debug("Redis 토큰 조회 {} - 사용자: {}", value == null ? "실패" : "성공", userId);
 		}
 		return Optional.ofNullable(value).map(Object::toString);
 	}
@@ -42,11 +50,12 @@ public class RedisJwtService {
 	// JWT 삭제 메서드 (로그아웃)
 	public void removeToken(String userId) {
 		String key = createKey(userId);
-		Boolean deleted = redisTemplate.delete(key);
+		Boolean deleted = redisOperationMetrics.record(METRIC_SERVICE, "removeToken", 1,
+			() -> redisTemplate.delete(key));
 		if (deleted) {
-			System.out.println("토큰이 Redis에서 삭제되었습니다 - 사용자: " + userId);
+			log.info("토큰이 Redis에서 삭제되었습니다 - 사용자: {}", userId);
 		} else {
-			System.out.println("삭제할 토큰이 Redis에 없습니다 - 사용자: " + userId);
+			log.info("삭제할 토큰이 Redis에 없습니다 - 사용자: {}", userId);
 		}
 	}
 
@@ -65,60 +74,52 @@ public class RedisJwtService {
 		Optional<String> userIdOpt = jwtService.getUserIdFromToken(token);
 		if (userIdOpt.isPresent()) {
 			String key = "jwt:" + userIdOpt.get();
+			Timer.Sample sample = redisOperationMetrics.start();
 			Object value = redisTemplate.opsForValue().get(key);
 			if (value != null && value.toString().equals(token)) {
 				redisTemplate.delete(key);
-				System.out.println("토큰 기반 삭제 완료: " + key);
+				redisOperationMetrics.stop(sample, METRIC_SERVICE, "removeTokenByToken", 2);
+				log.info("토큰 기반 삭제 완료: {}", key);
 			} else {
-				System.out.println("해당 토큰이 Redis에 존재하지 않음");
+				redisOperationMetrics.stop(sample, METRIC_SERVICE, "removeTokenByToken", 1);
+				log.info("해당 토큰이 Redis에 존재하지 않음");
 			}
 		} else {
-			System.out.println("토큰에서 userId 추출 실패");
+			log.info("토큰에서 userId 추출 실패");
 		}
 	}
 
 	// JWT 유효성 검증 메서드 (Redis + JWT 검증)
 	public boolean validateToken(String userId, String token) {
-		System.out.println("=== 토큰 유효성 검증 시작 ===");
-		System.out.println("사용자 ID: " + userId);
-
-		boolean isValid = getToken(userId) // Redis에서 토큰 조회
-			.filter(storedToken -> {
-				boolean matches = storedToken.equals(token);
-				if (!matches) {
-					System.out.println("❌ 토큰이 일치하지 않습니다");
-					System.out.println("저장된 토큰: " + storedToken.substring(0, Math.min(20, storedToken.length())) + "...");
-					System.out.println("전달된 토큰: " + token.substring(0, Math.min(20, token.length())) + "...");
-				}
-				return matches;
-			})
-			.map(storedToken -> {
-				boolean jwtValid = jwtService.parseToken(token).isPresent();
-				if (jwtValid) {
-					System.out.println("✅ 토큰 검증 성공");
-				} else {
-					System.out.println("❌ JWT 토큰 검증 실패");
-				}
-				return jwtValid;
-			})
-			.orElse(false);
-
-		if (!isValid) {
-			System.out.println("❌ Redis에 토큰이 없습니다 (로그아웃됨)");
+		String reason;
+		Object storedToken = redisOperationMetrics.record(METRIC_SERVICE, "validateToken", 1,
+			() -> redisTemplate.opsForValue().get(createKey(userId)));
+
+		if (storedToken == null) {
+			reason = "Redis에 토큰 없음 (로그아웃됨)";
+		} else if (!storedToken.toString().equals(token)) {
+			reason = "토큰 불일치";
+		} else if (jwtService.parseToken(token).isEmpty()) {
+			reason = "JWT 검증 실패";
+		} else {
+			reason = null;
 		}
 
-		System.out.println("=== 토큰 유효성 검증 완료 ===");
+		boolean isValid = reason == null;
+		redisOperationMetrics.decision(METRIC_SERVICE, "validateToken", isValid);
+		if (log.isDebugEnabled() && LogSampler.sample()) {
+			log.debug("토큰 검증 {} - 사용자: {}", isValid ? "성공" : "실패: " + reason, userId);
+		}
 		return isValid;
 	}
 
 	// TTL 조회 메서드
 	public Optional<Long> getTokenTTL(String userId) {
 		String key = createKey(userId);
-		Long ttl = redisTemplate.getExpire(key, TimeUnit.SECONDS);
-		if (ttl > 0) {
-			System.out.println("토큰 TTL: " + ttl + "초 남음 - 사용자: " + userId);
-		} else {
-			System.out.println("토큰이 만료되었거나 존재하지 않습니다 - 사용자: " + userId);
+		Long ttl = redisOperationMetrics.record(METRIC_SERVICE, "getTokenTTL", 1,
+			() -> redisTemplate.getExpire(key, TimeUnit.SECONDS));
+		if (log.isDebugEnabled() && LogSampler.sample()) {
+			log.debug("토큰 TTL: {}초 - 사용자: {}", ttl, userId);
 		}
 		return Optional.of(ttl);
 	}
@@ -128,14 +129,14 @@ public class RedisJwtService {
 		// Redis TTL 확인
 		Optional<Long> ttl = getTokenTTL(userId);
 		if (ttl.isEmpty() || ttl.get() <= 0) {
-			System.out.println("❌ Redis TTL 만료");
+			log.debug("Redis TTL 만료 - 사용자: {}", userId);
 			return true;
 		}
 
 		// JWT 자체 만료 확인
 		boolean jwtExpired = jwtService.isTokenExpired(token);
 		if (jwtExpired) {
-			System.out.println("❌ JWT 토큰 만료");
+			log.debug("JWT 토큰 만료 - 사용자: {}", userId);
 		}
 
 		return jwtExpired;
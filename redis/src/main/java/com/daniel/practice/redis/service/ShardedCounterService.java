@@ -0,0 +1,323 @@
+package com.daniel.practice.redis.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.daniel.practice.redis.config.RateLimitProperties;
+import com.daniel.practice.redis.config.RedisScripts;
+import com.daniel.practice.redis.dto.RateLimitDecision;
+import com.daniel.practice.redis.enums.ShardSelection;
+import com.daniel.practice.redis.metrics.RedisOperationMetrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+// 핫 키 카운터 샤딩
+// 요청이 몰리는 user:rate / token:usage 카운터 하나가 Redis 샤드 하나에 부하를 모으지 않도록
+// 증가는 하위 키 {키}:{필드}:shard:{n} 중 하나(노드 또는 스레드별)에 나눠서 하고,
+// 합계(기존 Hash 필드 + 샤드 MGET)는 refresh-interval 마다 한 번만 읽어 노드 로컬에서 제한을 판단한다.
+// 1. 요청마다 키별 요청 수를 노드 로컬에서 세고, 초당 hot-key-qps 이상이면 그 키를 샤딩 모드로 전환
+// 2. 샤딩 모드는 마지막으로 만든 샤드가 만료될 때까지 유지 (중간에 돌아가면 샤드에 쌓인 카운트를 놓침)
+// 합계를 다시 읽는 사이 다른 노드가 증가시킨 만큼 초과 허용될 수 있다.
+// 윈도우 경계는 기존 키의 만료 시각이고(없으면 샤딩 중에도 만들어 둠), 샤드는 새로 생길 때 기존 키의 남은 시간만큼 PEXPIRE 해서
+// 기존 키와 함께 만료된다. 샤드가 자기 TTL 로 다음 윈도우까지 남아 새 윈도우를 과하게 거부하는 일이 없도록
+@Slf4j
+@Service
+public class ShardedCounterService {
+
+	private static final String METRIC_SERVICE = "sharded_counter";
+
+	private final StringRedisTemplate stringRedisTemplate;
+	private final RateLimitProperties.Sharding properties;
+	private final RedisOperationMetrics redisOperationMetrics;
+
+	// NODE 선택일 때 이 노드가 증가시킬 샤드
+	private final int nodeShard;
+	// 이번 1초 동안 관측한 키별 요청 수
+	private final Map<CounterKey, LongAdder> hits = new ConcurrentHashMap<>();
+	// 샤딩 중인 카운터
+	private final Map<CounterKey, ShardedState> sharded = new ConcurrentHashMap<>();
+
+	public ShardedCounterService(StringRedisTemplate stringRedisTemplate, RateLimitProperties rateLimitProperties,
+		RedisOperationMetrics redisOperationMetrics, MeterRegistry meterRegistry) {
+		this.stringRedisTemplate = stringRedisTemplate;
+		this.properties = rateLimitProperties.getSharding();
+		this.redisOperationMetrics = redisOperationMetrics;
+		this.nodeShard = ThreadLocalRandom.current().nextInt(Math.max(1, properties.getShards()));
+
+		Gauge.builder("rate_limit.sharding.hot_keys", sharded, Map::size)
+			.register(meterRegistry);
+	}
+
+	static String createShardKey(String key, String field, int shard) {
+		return key + ":" + field + ":shard:" + shard;
+	}
+
+	public boolean isEnabled() {
+		return properties.isEnabled();
+	}
+
+	// 이번 요청을 관측하고, 샤딩 모드로 처리해야 하면 true
+	public boolean isSharded(String key, String field, long windowSeconds) {
+		if (!properties.isEnabled()) {
+			return false;
+		}
+		CounterKey counterKey = new CounterKey(key, field, windowSeconds);
+		if (sharded.containsKey(counterKey)) {
+			return true;
+		}
+		hits.computeIfAbsent(counterKey, k -> new LongAdder()).increment();
+		return false;
+	}
+
+	// 샤드 1개 증가 (노드 로컬 추정치가 이미 제한 이상이면 Redis 호출 없이 거부)
+	public RateLimitDecision tryAcquire(String key, String field, long limit, long windowSeconds) {
+		CounterKey counterKey = new CounterKey(key, field, windowSeconds);
+		ShardedState state = sharded.computeIfAbsent(counterKey, k -> new ShardedState(windowSeconds));
+
+		Timer.Sample sample = redisOperationMetrics.start();
+		int roundTrips = 0;
+		long now = System.currentTimeMillis();
+		if (!state.hasWindow(now)) {
+			// 윈도우가 끝났으면 샤드 TTL 을 정할 수 없으므로 이 스레드가 직접 다시 읽음 (윈도우 경계에서만)
+			roundTrips += refresh(counterKey, state, now);
+		} else if (state.isStale(now, properties.getRefreshInterval().toMillis()) && state.startRefresh()) {
+			try {
+				roundTrips += refresh(counterKey, state, now);
+			} finally {
+				state.endRefresh();
+			}
+		}
+
+		if (!state.tryReserve(limit)) {
+			redisOperationMetrics.stop(sample, METRIC_SERVICE, "tryAcquire", roundTrips);
+			long ttl = state.getTtlSeconds(now);
+			return RateLimitDecision.builder()
+				.allowed(false).count(state.getEstimate()).limit(limit).ttl(ttl).retryAfterMillis(ttl * 1000)
+				.build();
+		}
+
+		long baseExpiresAt = state.getBaseExpiresAt();
+		Long shardCount;
+		try {
+			shardCount = stringRedisTemplate.execute(
+				RedisScripts.SHARD_INCR,
+				List.of(createShardKey(key, field, selectShard())),
+				String.valueOf(Math.max(1, baseExpiresAt - System.currentTimeMillis()))
+			);
+		} catch (RuntimeException e) {
+			// 증가하지 못한 예약은 되돌림 (남겨 두면 다음 합계를 읽을 때까지 그만큼 더 거부)
+			state.cancelReserve();
+			redisOperationMetrics.stop(sample, METRIC_SERVICE, "tryAcquire", roundTrips + 1);
+			throw e;
+		}
+		// 새 샤드가 생겼으면 그 샤드가 만료될 때(기존 키 만료 시각)까지 샤딩 모드 유지
+		if (shardCount != null && shardCount == 1) {
+			state.extend(baseExpiresAt);
+		}
+		redisOperationMetrics.stop(sample, METRIC_SERVICE, "tryAcquire", roundTrips + 1);
+
+		return RateLimitDecision.builder()
+			.allowed(true).count(state.getEstimate()).limit(limit).ttl(state.getTtlSeconds(now))
+			.build();
+	}
+
+	// 카운터 합계 (기존 Hash 필드 + 샤드 전체, 파이프라인 왕복 1회)
+	public long count(String key, String field) {
+		List<Object> results = redisOperationMetrics.record(METRIC_SERVICE, "count", 1,
+			() -> stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+				byte[] rawKey = key.getBytes(StandardCharsets.UTF_8);
+				connection.hashCommands().hGet(rawKey, field.getBytes(StandardCharsets.UTF_8));
+				connection.stringCommands().mGet(rawShardKeys(key, field));
+				return null;
+			}));
+		return parse(results.get(0)) + sum(results.get(1));
+	}
+
+	// 다른 파이프라인에 샤드 MGET 을 함께 실을 때 사용
+	public byte[][] rawShardKeys(String key, String field) {
+		byte[][] keys = new byte[properties.getShards()][];
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = createShardKey(key, field, i).getBytes(StandardCharsets.UTF_8);
+		}
+		return keys;
+	}
+
+	// 샤드 개수 (샤딩을 쓰지 않으면 0)
+	public int getShardCount() {
+		return properties.isEnabled() ? properties.getShards() : 0;
+	}
+
+	// 스크립트 KEYS 로 샤드를 함께 넘길 때 사용 (다른 노드가 샤딩 중일 수 있으므로 샤딩 여부와 관계없이 전체)
+	public List<String> shardKeys(String key, String field) {
+		List<String> keys = new ArrayList<>(getShardCount());
+		for (int i = 0; i < getShardCount(); i++) {
+			keys.add(createShardKey(key, field, i));
+		}
+		return keys;
+	}
+
+	// MGET 결과 합계 (없는 샤드는 0)
+	public static long sum(Object mgetResult) {
+		long total = 0;
+		if (mgetResult instanceof List<?> values) {
+			for (Object value : values) {
+				total += parse(value);
+			}
+		}
+		return total;
+	}
+
+	// 1초마다 관측한 요청 수로 샤딩 시작, 만료된 샤딩 모드 정리
+	@Scheduled(fixedRate = 1000)
+	public void detect() {
+		long now = System.currentTimeMillis();
+		for (CounterKey counterKey : new ArrayList<>(hits.keySet())) {
+			LongAdder adder = hits.remove(counterKey);
+			if (adder != null && adder.sum() >= properties.getHotKeyQps()) {
+				sharded.computeIfAbsent(counterKey, k -> new ShardedState(k.windowSeconds()))
+					.extend(now + counterKey.windowSeconds() * 1000);
+				log.info("핫 키 샤딩 시작: {} {} ({}/s)", counterKey.key(), counterKey.field(), adder.sum());
+			}
+		}
+		sharded.forEach((counterKey, state) -> {
+			if (state.isExpired(now) && sharded.remove(counterKey, state)) {
+				log.info("핫 키 샤딩 종료: {} {}", counterKey.key(), counterKey.field());
+			}
+		});
+	}
+
+	// 기존 Hash 필드 + 샤드 합계와 기존 키 TTL 을 한 번에 읽어 로컬 추정치 갱신, Redis 왕복 수 반환
+	// 기존 키가 없으면(윈도우가 끝남) 새 윈도우를 시작하고 그 만료 시각을 사용
+	private int refresh(CounterKey counterKey, ShardedState state, long now) {
+		// 읽기 전에 이 노드가 더해 둔 개수 (읽은 합계에 들어 있으므로 읽은 뒤 빼야 함)
+		long before = state.getLocal();
+		List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+			byte[] rawKey = counterKey.key().getBytes(StandardCharsets.UTF_8);
+			connection.hashCommands().hGet(rawKey, counterKey.field().getBytes(StandardCharsets.UTF_8));
+			connection.keyCommands().pTtl(rawKey);
+			connection.stringCommands().mGet(rawShardKeys(counterKey.key(), counterKey.field()));
+			return null;
+		});
+		long total = parse(results.get(0)) + sum(results.get(2));
+		Long pttl = (Long) results.get(1);
+		if (pttl != null && pttl >= 0) {
+			state.refreshed(total, before, pttl, now);
+			return 1;
+		}
+		pttl = stringRedisTemplate.execute(RedisScripts.SHARD_WINDOW, List.of(counterKey.key()),
+			counterKey.field(), String.valueOf(counterKey.windowSeconds() * 1000));
+		state.refreshed(total, before, pttl, now);
+		return 2;
+	}
+
+	private int selectShard() {
+		if (properties.getSelection() == ShardSelection.THREAD) {
+			return (int) (Thread.currentThread().getId() % properties.getShards());
+		}
+		return nodeShard;
+	}
+
+	private static long parse(Object value) {
+		return value == null ? 0 : Long.parseLong(value.toString());
+	}
+
+	private record CounterKey(String key, String field, long windowSeconds) {
+	}
+
+	private static class ShardedState {
+		private final long windowSeconds;
+		// 마지막으로 읽은 합계 + 그 이후 이 노드가 허용한 개수
+		private volatile long refreshedTotal;
+		private final AtomicLong local = new AtomicLong();
+		private volatile long refreshedAt;
+		private volatile long baseExpiresAt;
+		private volatile long expiresAt;
+		private final AtomicBoolean refreshing = new AtomicBoolean();
+
+		ShardedState(long windowSeconds) {
+			this.windowSeconds = windowSeconds;
+		}
+
+		boolean isStale(long now, long refreshMillis) {
+			return now - refreshedAt >= refreshMillis;
+		}
+
+		// 합계는 한 스레드만 다시 읽고 나머지는 이전 추정치로 판단
+		boolean startRefresh() {
+			return refreshing.compareAndSet(false, true);
+		}
+
+		void endRefresh() {
+			refreshing.set(false);
+		}
+
+		long getLocal() {
+			return local.get();
+		}
+
+		// 읽기 전에 이미 더한 개수(before)만 빼서, 읽는 도중 허용한 개수는 다음 합계에 들어갈 때까지 유지
+		void refreshed(long total, long before, Long pttl, long now) {
+			refreshedTotal = total;
+			local.addAndGet(-before);
+			baseExpiresAt = pttl == null || pttl < 0 ? 0 : now + pttl;
+			refreshedAt = now;
+		}
+
+		boolean hasWindow(long now) {
+			return baseExpiresAt > now;
+		}
+
+		long getBaseExpiresAt() {
+			return baseExpiresAt;
+		}
+
+		// CAS 로 1개 예약 (추정치가 제한 이상이면 실패)
+		boolean tryReserve(long limit) {
+			long current;
+			do {
+				current = local.get();
+				if (refreshedTotal + current >= limit) {
+					return false;
+				}
+			} while (!local.compareAndSet(current, current + 1));
+			return true;
+		}
+
+		void cancelReserve() {
+			local.decrementAndGet();
+		}
+
+		long getEstimate() {
+			return refreshedTotal + local.get();
+		}
+
+		long getTtlSeconds(long now) {
+			return baseExpiresAt > now ? (baseExpiresAt - now + 999) / 1000 : windowSeconds;
+		}
+
+		void extend(long until) {
+			if (until > expiresAt) {
+				expiresAt = until;
+			}
+		}
+
+		boolean isExpired(long now) {
+			return now >= expiresAt;
+		}
+	}
+}
@@ -0,0 +1,48 @@
+package com.daniel.practice.redis.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+// 토큰 문자열의 SHA-256 앞 16바이트
+// 수백 바이트짜리 JWT 대신 캐시/Redis 키로 쓴다. 128비트라 서로 다른 토큰이 겹칠 가능성은 무시할 수 있고,
+// 다른 토큰이 같은 값을 갖도록 만드는 것은 SHA-256 두 번째 역상을 찾는 것만큼 어렵다.
+public record TokenDigest(long high, long low) {
+
+	public static TokenDigest of(String token) {
+		byte[] hash = sha256().digest(token.getBytes(StandardCharsets.UTF_8));
+		return new TokenDigest(toLong(hash, 0), toLong(hash, 8));
+	}
+
+	public byte[] toBytes() {
+		byte[] bytes = new byte[16];
+		for (int i = 0; i < 8; i++) {
+			bytes[i] = (byte) (high >>> (56 - 8 * i));
+			bytes[8 + i] = (byte) (low >>> (56 - 8 * i));
+		}
+		return bytes;
+	}
+
+	// base64url 22자 (패딩 없음)
+	public String toBase64Url() {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(toBytes());
+	}
+
+	private static MessageDigest sha256() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			// 모든 JVM 이 지원해야 하는 알고리즘
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static long toLong(byte[] bytes, int from) {
+		long value = 0;
+		for (int i = from; i < from + 8; i++) {
+			value = value << 8 | bytes[i] & 0xFF;
+		}
+		return value;
+	}
+}
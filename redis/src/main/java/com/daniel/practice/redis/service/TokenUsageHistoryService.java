@@ -0,0 +1,125 @@
+package com.daniel.practice.redis.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.daniel.practice.redis.config.RateLimitProperties;
+import com.daniel.practice.redis.dto.RateLimitDecision;
+import com.daniel.practice.redis.dto.TokenUsageEvent;
+
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// 토큰 사용 이력 (Redis Stream)
+// 요청 스레드는 메모리 대기열에 넣기만 하고, 백그라운드에서 모아서 XADD(MAXLEN ~) + EXPIRE 를 파이프라인 한 번으로 기록한다.
+// 항목 ID 는 Redis 가 기록 시점에 부여하므로 요청 시각과 최대 기록 주기(100ms)만큼 차이날 수 있고,
+// 정확한 요청 시각은 ts 필드(ms)에 남긴다.
+@Service
+public class TokenUsageHistoryService {
+
+	private final StringRedisTemplate stringRedisTemplate;
+	private final RateLimitProperties.History properties;
+	private final BatchQueue<PendingEvent> queue;
+
+	public TokenUsageHistoryService(StringRedisTemplate stringRedisTemplate, RateLimitProperties rateLimitProperties) {
+		this.stringRedisTemplate = stringRedisTemplate;
+		this.properties = rateLimitProperties.getToken().getHistory();
+		this.queue = new BatchQueue<>("토큰 사용 이력", properties.getQueueCapacity());
+	}
+
+	static String createHistoryKey(String token) {
+		return "token:history:" + token;
+	}
+
+	// 이력 기록 요청 (대기열이 가득 차면 버리고 바로 반환)
+	public void record(String token, RateLimitDecision decision) {
+		PendingEvent event = new PendingEvent(token, System.currentTimeMillis(),
+			decision.isAllowed(), decision.getCount(), decision.getLimit());
+		queue.offer(event);
+	}
+
+	// 대기열을 batch-size 만큼씩 꺼내 기록 (한 번에 최대 max-batches-per-flush 묶음, BatchQueue 참고)
+	@Scheduled(fixedDelay = 100)
+	public void flush() {
+		queue.drain(properties.getBatchSize(), properties.getMaxBatchesPerFlush(), this::write);
+	}
+
+	// 종료 시 남은 이력 기록 (실패하면 중단)
+	@PreDestroy
+	public void flushAll() {
+		queue.drain(properties.getBatchSize(), Integer.MAX_VALUE, this::write);
+	}
+
+	private void write(List<PendingEvent> batch) {
+		XAddOptions options = XAddOptions.maxlen(properties.getMaxLen()).approximateTrimming(true);
+		long ttlMillis = properties.getTtl().toMillis();
+
+		stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+			for (PendingEvent event : batch) {
+				byte[] key = bytes(createHistoryKey(event.getToken()));
+				Map<byte[], byte[]> fields = new LinkedHashMap<>();
+				fields.put(bytes("ts"), bytes(String.valueOf(event.getTimestamp())));
+				fields.put(bytes("allowed"), bytes(event.isAllowed() ? "1" : "0"));
+				fields.put(bytes("count"), bytes(String.valueOf(event.getCount())));
+				fields.put(bytes("limit"), bytes(String.valueOf(event.getLimit())));
+
+				connection.streamCommands().xAdd(StreamRecords.rawBytes(fields).withStreamKey(key), options);
+				connection.keyCommands().pExpire(key, ttlMillis);
+			}
+			return null;
+		});
+	}
+
+	// 기간별 이력 조회 (XRANGE, 양 끝 포함, ms 단위), 오래된 순
+	public List<TokenUsageEvent> getHistory(String token, long fromMillis, long toMillis, int count) {
+		List<MapRecord<String, Object, Object>> records = stringRedisTemplate.opsForStream().range(
+			createHistoryKey(token),
+			Range.closed(String.valueOf(fromMillis), String.valueOf(toMillis)),
+			Limit.limit().count(count)
+		);
+		if (records == null) {
+			return List.of();
+		}
+
+		List<TokenUsageEvent> events = new ArrayList<>(records.size());
+		for (MapRecord<String, Object, Object> record : records) {
+			Map<Object, Object> fields = record.getValue();
+			events.add(TokenUsageEvent.builder()
+				.id(record.getId().getValue())
+				.timestamp(Long.parseLong((String) fields.get("ts")))
+				.allowed("1".equals(fields.get("allowed")))
+				.count(Long.parseLong((String) fields.get("count")))
+				.limit(Long.parseLong((String) fields.get("limit")))
+				.build());
+		}
+		return events;
+	}
+
+	private static byte[] bytes(String value) {
+		return value.getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Getter
+	@RequiredArgsConstructor
+	private static class PendingEvent {
+		private final String token;
+		private final long timestamp;
+		private final boolean allowed;
+		private final long count;
+		private final long limit;
+	}
+}
@@ -1,93 +1,120 @@
 package com.daniel.practice.redis.service;
 
-import java.time.Instant;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
 
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 
+import com.daniel.practice.redis.config.RedisScripts;
+import com.daniel.practice.redis.dto.RateLimitDecision;
 import com.daniel.practice.redis.dto.TokenUsageInfo;
+import com.daniel.practice.redis.enums.RateLimitKeyType;
+import com.daniel.practice.redis.metrics.LogSampler;
+import com.daniel.practice.redis.metrics.RedisOperationMetrics;
+import com.daniel.practice.redis.policy.TierPolicyRegistry;
+import com.daniel.practice.redis.resilience.LocalRateLimiter;
+import com.daniel.practice.redis.resilience.RedisCircuitBreaker;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class TokenUsageLimitService {
 
 	private final RedisTemplate<String, Object> redisTemplate;
+	private final StringRedisTemplate stringRedisTemplate;
+	private final TierPolicyRegistry tierPolicyRegistry;
+	private final TokenUsageHistoryService tokenUsageHistoryService;
+	private final RedisCircuitBreaker redisCircuitBreaker;
+	private final LocalRateLimiter localRateLimiter;
+	private final ShardedCounterService shardedCounterService;
+	private final CardinalityStatsService cardinalityStatsService;
+	private final RedisOperationMetrics redisOperationMetrics;
 
-	// 토큰 타입별 제한값
-	private static final int PAYMENT_TOKEN_LIMIT = 10;
-	private static final int API_TOKEN_LIMIT = 1000;
-	private static final int TEMP_TOKEN_LIMIT = 1;
+	static final String METRIC_SERVICE = "token_usage";
+
+	// 토큰 사용 정보 유지 시간 (첫 사용부터 1시간)
+	static final long TOKEN_USAGE_TTL_SECONDS = 3600;
 
 	// 키 생성 메서드
-	private static String createTokenUsageKey(String token) {
+	static String createTokenUsageKey(String token) {
 		return "token:usage:" + token;
 	}
 
 	// 토큰별 사용 횟수 제한 확인
 	public boolean isAllowed(String token) {
+		return check(token).isAllowed();
+	}
+
+	// 검사 + 증가 + 첫 사용/마지막 사용 시간 기록 + TTL 설정을 스크립트 한 번(EVALSHA)으로 처리
+	// 카운트/제한/TTL 도 같은 응답으로 돌려받으므로 추가 조회가 필요 없음
+	public RateLimitDecision check(String token) {
 		String key = createTokenUsageKey(token);
 		int tokenLimit = getTokenLimit(token);
-
-		Object currCnt = redisTemplate.opsForHash().get(key, "count");
-		int count = currCnt == null ? 0 : Integer.parseInt(currCnt.toString());
-
-		System.out.println("토큰 사용 횟수 확인 - Token: " + token + ", 현재: " + count);
-
-		if (count >= tokenLimit) {
-			System.out.println("토큰 사용 횟수 초과");
-			return false;
+		// 고유 토큰 집계는 샤드/로컬 경로와 관계없이 진입 시점에 대기열에 넣음
+		cardinalityStatsService.record(RateLimitKeyType.TOKEN, token);
+
+		// 요청이 몰리는 토큰은 샤드 키로 나눠 증가 (첫 사용/마지막 사용 시간은 갱신하지 않음)
+		boolean sharded = shardedCounterService.isSharded(key, "count", TOKEN_USAGE_TTL_SECONDS);
+		RateLimitDecision decision = redisCircuitBreaker.execute(() -> sharded
+				? shardedCounterService.tryAcquire(key, "count", tokenLimit, TOKEN_USAGE_TTL_SECONDS)
+				: redisOperationMetrics.record(METRIC_SERVICE, "check", 1, () -> checkUsage(key, tokenLimit)),
+			() -> localRateLimiter.tryAcquire(key, "count", tokenLimit, TOKEN_USAGE_TTL_SECONDS,
+				TOKEN_USAGE_TTL_SECONDS));
+
+		redisOperationMetrics.decision(METRIC_SERVICE, "check", decision.isAllowed());
+		if (log.isDebugEnabled() && LogSampler.sample()) {
+			log.debug("토큰 사용 {}: {}/{}", decision.isAllowed() ? "허용" : "횟수 초과",
+				decision.getCount(), decision.getLimit());
 		}
+		// 이력은 백그라운드에서 기록 (응답을 기다리지 않음)
+		tokenUsageHistoryService.record(token, decision);
+		return decision;
+	}
 
-		Long newCount = redisTemplate.opsForHash().increment(key, "count", 1);
-
-		// 첫 번째 사용이면 추가 정보 설정
-		if (newCount == 1) {
-			// 제한값 설정
-			redisTemplate.opsForHash().put(key, "limit", tokenLimit);
-			// 첫 사용 시간 설정
-			redisTemplate.opsForHash().put(key, "firstUsed", Instant.now().getEpochSecond());
-			// TTL 설정 (1시간)
-			redisTemplate.expire(key, 3600, TimeUnit.SECONDS);
-			System.out.println("✅ 첫 번째 토큰 사용, Hash 정보 설정 및 TTL 설정");
-		}
-
-		// 마지막 사용 시간 업데이트
-		redisTemplate.opsForHash().put(key, "lastUsed", Instant.now().getEpochSecond());
-
-		System.out.println("✅ 토큰 사용 허용: " + newCount + "/" + tokenLimit);
-		return true;
+	private RateLimitDecision checkUsage(String key, int tokenLimit) {
+		List<?> result = stringRedisTemplate.execute(
+			RedisScripts.TOKEN_USAGE,
+			List.of(key),
+			String.valueOf(tokenLimit), String.valueOf(TOKEN_USAGE_TTL_SECONDS)
+		);
+		return RateLimitDecision.builder()
+			.allowed(((Number) result.get(0)).longValue() == 1)
+			.count(((Number) result.get(1)).longValue())
+			.limit(((Number) result.get(2)).longValue())
+			.ttl(((Number) result.get(3)).longValue())
+			.build();
 	}
 
 	// 토큰 타입별 제한값 조회
-	private int getTokenLimit(String token) {
-		if (token.startsWith("pay_")) {
-			return PAYMENT_TOKEN_LIMIT;
-		} else if (token.startsWith("api_")) {
-			return API_TOKEN_LIMIT;
-		} else if (token.startsWith("temp_")) {
-			return TEMP_TOKEN_LIMIT;
-		} else {
-			return API_TOKEN_LIMIT; // 기본값
-		}
+	int getTokenLimit(String token) {
+		return tierPolicyRegistry.getTokenLimit(token);
 	}
 
 	// 현재 사용 횟수 조회
 	public int getCurrentUsage(String token) {
 		String key = createTokenUsageKey(token);
-		Object count = redisTemplate.opsForHash().get(key, "count");
+		if (shardedCounterService.isEnabled()) {
+			return (int) shardedCounterService.count(key, "count");
+		}
+		Object count = redisOperationMetrics.record(METRIC_SERVICE, "getCurrentUsage", 1,
+			() -> redisTemplate.opsForHash().get(key, "count"));
 		return count == null ? 0 : Integer.parseInt(count.toString());
 	}
 
 	// 토큰 제한값 조회
 	public int getTokenLimitValue(String token) {
 		String key = createTokenUsageKey(token);
-		Object limit = redisTemplate.opsForHash().get(key, "limit");
+		Object limit = redisOperationMetrics.record(METRIC_SERVICE, "getTokenLimitValue", 1,
+			() -> redisTemplate.opsForHash().get(key, "limit"));
 		if (limit != null) {
 			return Integer.parseInt(limit.toString());
 		}
@@ -97,62 +124,71 @@ public class TokenUsageLimitService {
 	// TTL 조회
 	public long getTokenTTL(String token) {
 		String key = createTokenUsageKey(token);
-		return redisTemplate.getExpire(key, TimeUnit.SECONDS);
+		return redisOperationMetrics.record(METRIC_SERVICE, "getTokenTTL", 1,
+			() -> redisTemplate.getExpire(key, TimeUnit.SECONDS));
 	}
 
 	// 첫 사용 시간 조회
 	public long getFirstUsedTime(String token) {
 		String key = createTokenUsageKey(token);
-		Object firstUsed = redisTemplate.opsForHash().get(key, "firstUsed");
+		Object firstUsed = redisOperationMetrics.record(METRIC_SERVICE, "getFirstUsedTime", 1,
+			() -> redisTemplate.opsForHash().get(key, "firstUsed"));
 		return firstUsed == null ? 0 : Long.parseLong(firstUsed.toString());
 	}
 
 	// 마지막 사용 시간 조회
 	public long getLastUsedTime(String token) {
 		String key = createTokenUsageKey(token);
-		Object lastUsed = redisTemplate.opsForHash().get(key, "lastUsed");
+		Object lastUsed = redisOperationMetrics.record(METRIC_SERVICE, "getLastUsedTime", 1,
+			() -> redisTemplate.opsForHash().get(key, "lastUsed"));
 		return lastUsed == null ? 0 : Long.parseLong(lastUsed.toString());
 	}
 
 	// 토큰 사용 정보 전체 조회
 	public TokenUsageInfo getTokenUsageInfo(String token) {
-		String key = createTokenUsageKey(token);
+		return getTokenUsageInfos(List.of(token)).get(0);
+	}
 
-		Object count = redisTemplate.opsForHash().get(key, "count");
-		Object limit = redisTemplate.opsForHash().get(key, "limit");
-		Object firstUsed = redisTemplate.opsForHash().get(key, "firstUsed");
-		Object lastUsed = redisTemplate.opsForHash().get(key, "lastUsed");
+	// 여러 토큰의 사용 정보 일괄 조회 (관리 화면용)
+	// 토큰마다 HGETALL + PTTL (+ 샤딩 사용 시 샤드 MGET) 을 파이프라인 한 번에 실어 보내므로 토큰 수와 관계없이 왕복 1회
+	public List<TokenUsageInfo> getTokenUsageInfos(List<String> tokens) {
+		boolean sharding = shardedCounterService.isEnabled();
+		int stride = sharding ? 3 : 2;
+		List<Object> results = redisOperationMetrics.record(METRIC_SERVICE, "getTokenUsageInfos", 1,
+			() -> stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+				for (String token : tokens) {
+					byte[] key = createTokenUsageKey(token).getBytes(StandardCharsets.UTF_8);
+					connection.hashCommands().hGetAll(key);
+					connection.keyCommands().pTtl(key);
+					if (sharding) {
+						connection.stringCommands().mGet(shardedCounterService.rawShardKeys(createTokenUsageKey(token), "count"));
+					}
+				}
+				return null;
+			}));
+
+		List<TokenUsageInfo> infos = new ArrayList<>(tokens.size());
+		for (int i = 0; i < tokens.size(); i++) {
+			@SuppressWarnings("unchecked")
+			Map<String, String> fields = (Map<String, String>) results.get(i * stride);
+			long pttl = (Long) results.get(i * stride + 1);
+			long shardCount = sharding ? ShardedCounterService.sum(results.get(i * stride + 2)) : 0;
+			infos.add(toTokenUsageInfo(tokens.get(i), fields, pttl, shardCount));
+		}
+		return infos;
+	}
 
+	// Hash 필드 → TokenUsageInfo (사용 전이면 제한만 등급 기본값으로 채움)
+	private TokenUsageInfo toTokenUsageInfo(String token, Map<String, String> fields, long pttl, long shardCount) {
+		String limit = fields.get("limit");
 		return TokenUsageInfo.builder()
 			.token(token)
-			.count(count == null ? 0 : Integer.parseInt(count.toString()))
-			.limit(limit == null ? getTokenLimit(token) : Integer.parseInt(limit.toString()))
-			.firstUsed(firstUsed == null ? 0 : Long.parseLong(firstUsed.toString()))
-			.lastUsed(lastUsed == null ? 0 : Long.parseLong(lastUsed.toString()))
-			.ttl(getTokenTTL(token))
+			.count((int) (Integer.parseInt(fields.getOrDefault("count", "0")) + shardCount))
+			.limit(limit == null ? getTokenLimit(token) : Integer.parseInt(limit))
+			.firstUsed(Long.parseLong(fields.getOrDefault("firstUsed", "0")))
+			.lastUsed(Long.parseLong(fields.getOrDefault("lastUsed", "0")))
+			// getTokenTTL 과 같은 단위(초), 키 없음(-2)/만료 없음(-1)은 그대로
+			.ttl(pttl < 0 ? pttl : TimeUnit.MILLISECONDS.toSeconds(pttl))
 			.build();
 	}
-
-	// 토큰 사용 이력 추가 (선택사항)
-	public void addUsageHistory(String token) {
-		String key = createTokenUsageKey(token);
-		String historyKey = "history";
-
-		// List 구조로 사용 이력 저장
-		redisTemplate.opsForList().rightPush(key + ":" + historyKey, Instant.now().getEpochSecond());
-
-		// 이력은 최대 10개까지만 유지
-		redisTemplate.opsForList().trim(key + ":" + historyKey, -10, -1);
-	}
-
-	// 토큰 사용 이력 조회
-	public List<Long> getUsageHistory(String token) {
-		String key = createTokenUsageKey(token);
-		String historyKey = "history";
-
-		List<Object> history = redisTemplate.opsForList().range(key + ":" + historyKey, 0, -1);
-		return history.stream()
-			.map(obj -> Long.parseLong(obj.toString()))
-			.collect(Collectors.toList());
-	}
 }
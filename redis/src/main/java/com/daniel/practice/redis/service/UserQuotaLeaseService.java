@@ -0,0 +1,217 @@
+package com.daniel.practice.redis.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.daniel.practice.redis.config.RateLimitProperties;
+import com.daniel.practice.redis.config.RedisScripts;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+// 사용자 시간당 허용량 lease
+// 시간당 제한이 큰 사용자는 Redis 카운터에서 허용량을 묶음(limit × ratio)으로 빌려와
+// 노드 로컬에서 lock-free 로 차감하고, lease 가 만료되면 남은 허용량을 반납한다.
+// 빌린 만큼 Redis 카운터가 먼저 올라가므로 윈도우 안에서는 초과 허용이 없고,
+// 윈도우가 바뀌는 순간 남아있는 lease 만큼(노드당 최대 1묶음)만 초과 허용될 수 있다.
+// lease 는 빌린 윈도우 식별자를 갖고 있어서, 윈도우가 바뀐 뒤의 반납은 새 윈도우 카운터에서 빼지 않는다.
+@Slf4j
+@Service
+public class UserQuotaLeaseService {
+
+	private final StringRedisTemplate stringRedisTemplate;
+	private final RateLimitProperties rateLimitProperties;
+	private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+	// 사용자별로 진행 중인 대여 (lease 가 동시에 비면 한 스레드만 Redis 에서 빌리고 나머지는 그 결과를 기다림)
+	private final Map<String, CompletableFuture<Lease>> borrowing = new ConcurrentHashMap<>();
+
+	private final Counter hitCounter;
+	private final Counter missCounter;
+	private final Counter deniedCounter;
+
+	public UserQuotaLeaseService(StringRedisTemplate stringRedisTemplate, RateLimitProperties rateLimitProperties,
+		MeterRegistry meterRegistry) {
+		this.stringRedisTemplate = stringRedisTemplate;
+		this.rateLimitProperties = rateLimitProperties;
+
+		// 로컬 lease 에서 처리(hit) / Redis 에서 새로 빌림(miss) / 허용량 소진(denied)
+		this.hitCounter = Counter.builder("rate_limit.lease.requests").tag("result", "hit").register(meterRegistry);
+		this.missCounter = Counter.builder("rate_limit.lease.requests").tag("result", "miss").register(meterRegistry);
+		this.deniedCounter = Counter.builder("rate_limit.lease.requests").tag("result", "denied").register(meterRegistry);
+		Gauge.builder("rate_limit.lease.hit_ratio", this, UserQuotaLeaseService::getHitRatio)
+			.register(meterRegistry);
+		Gauge.builder("rate_limit.lease.active", leases, Map::size)
+			.register(meterRegistry);
+	}
+
+	// lease 대상 사용자인지 (설정 활성화 + 시간당 제한이 min-limit 이상)
+	public boolean isEligible(int hourlyLimit) {
+		RateLimitProperties.Lease properties = rateLimitProperties.getUser().getLease();
+		return properties.isEnabled() && hourlyLimit >= properties.getMinLimit();
+	}
+
+	// 허용량 1개 차감 (로컬 lease 우선, 없거나 만료/소진됐으면 Redis 에서 새로 빌림)
+	public boolean tryAcquire(String userId, int hourlyLimit) {
+		while (true) {
+			long now = System.currentTimeMillis();
+			Lease lease = leases.get(userId);
+			if (lease != null && !lease.isExpired(now) && lease.tryTake()) {
+				hitCounter.increment();
+				return true;
+			}
+
+			CompletableFuture<Lease> mine = new CompletableFuture<>();
+			CompletableFuture<Lease> inFlight = borrowing.putIfAbsent(userId, mine);
+			if (inFlight != null) {
+				// 다른 스레드가 빌리는 중: 끝나면 새 lease 에서 다시 차감 시도
+				if (await(inFlight) == null) {
+					deniedCounter.increment();
+					return false;
+				}
+				continue;
+			}
+
+			missCounter.increment();
+			try {
+				Lease borrowed = borrow(userId, hourlyLimit, now);
+				mine.complete(borrowed);
+				if (borrowed == null) {
+					deniedCounter.increment();
+					return false;
+				}
+				// 빌린 스레드 몫 1개 (그 사이 대기하던 스레드가 다 가져갔으면 다시 빌림)
+				if (borrowed.tryTake()) {
+					return true;
+				}
+			} catch (RuntimeException e) {
+				mine.completeExceptionally(e);
+				throw e;
+			} finally {
+				borrowing.remove(userId, mine);
+			}
+		}
+	}
+
+	// Redis 카운터에서 묶음을 빌려 새 lease 로 교체 (남은 허용량이 없으면 null)
+	private Lease borrow(String userId, int hourlyLimit, long now) {
+		RateLimitProperties.Lease properties = rateLimitProperties.getUser().getLease();
+		long chunk = Math.max(1, (long) (hourlyLimit * properties.getRatio()));
+
+		List<?> result = stringRedisTemplate.execute(
+			RedisScripts.LEASE_BORROW,
+			List.of(UserRateLimitService.createHourlyKey(userId)),
+			String.valueOf(hourlyLimit), String.valueOf(chunk)
+		);
+		long granted = ((Number) result.get(0)).longValue();
+		if (granted <= 0) {
+			return null;
+		}
+
+		Lease lease = new Lease(granted, result.get(1).toString(), now + properties.getTtl().toMillis());
+		Lease previous = leases.put(userId, lease);
+		if (previous != null) {
+			release(userId, previous);
+		}
+		return lease;
+	}
+
+	// 진행 중인 대여 결과 대기 (Redis 오류는 원래 예외 그대로 전달해 서킷 브레이커가 판단하도록)
+	private static Lease await(CompletableFuture<Lease> inFlight) {
+		try {
+			return inFlight.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw e;
+		}
+	}
+
+	// lease 를 비우고 남은 허용량 반납
+	// drain 이후에는 다른 스레드가 같은 lease 에서 차감할 수 없으므로 반납량이 정확함
+	private void release(String userId, Lease lease) {
+		long unused = lease.drain();
+		if (unused <= 0) {
+			return;
+		}
+		stringRedisTemplate.execute(
+			RedisScripts.LEASE_RETURN,
+			List.of(UserRateLimitService.createHourlyKey(userId)),
+			String.valueOf(unused),
+			lease.window
+		);
+	}
+
+	// 만료된 lease 정리 (요청이 끊긴 사용자의 남은 허용량 반납)
+	@Scheduled(fixedDelay = 1000)
+	public void releaseExpired() {
+		long now = System.currentTimeMillis();
+		leases.forEach((userId, lease) -> {
+			if (lease.isExpired(now) && leases.remove(userId, lease)) {
+				release(userId, lease);
+			}
+		});
+	}
+
+	// 종료 시 남은 lease 전부 반납
+	@PreDestroy
+	public void releaseAll() {
+		leases.forEach((userId, lease) -> {
+			if (leases.remove(userId, lease)) {
+				release(userId, lease);
+			}
+		});
+		log.info("lease 반납 완료");
+	}
+
+	public double getHitRatio() {
+		double hits = hitCounter.count();
+		double total = hits + missCounter.count();
+		return total == 0 ? 0 : hits / total;
+	}
+
+	private static class Lease {
+		private final AtomicLong remaining;
+		// 빌린 윈도우 식별자 (반납 시 같은 윈도우인지 확인)
+		private final String window;
+		private final long expiresAt;
+
+		Lease(long remaining, String window, long expiresAt) {
+			this.remaining = new AtomicLong(remaining);
+			this.window = window;
+			this.expiresAt = expiresAt;
+		}
+
+		boolean isExpired(long now) {
+			return now >= expiresAt;
+		}
+
+		// CAS 로 1개 차감 (0 이하로 내려가지 않음)
+		boolean tryTake() {
+			long current;
+			do {
+				current = remaining.get();
+				if (current <= 0) {
+					return false;
+				}
+			} while (!remaining.compareAndSet(current, current - 1));
+			return true;
+		}
+
+		// 남은 개수를 꺼내고 0 으로 만듦
+		long drain() {
+			return remaining.getAndSet(0);
+		}
+	}
+}
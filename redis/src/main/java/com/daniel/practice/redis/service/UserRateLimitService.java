@@ -1,107 +1,221 @@
 package com.daniel.practice.redis.service;
 
-import java.util.Map;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 
+import com.daniel.practice.redis.config.RateLimitProperties;
+import com.daniel.practice.redis.config.RedisScripts;
+import com.daniel.practice.redis.dto.RateLimitDecision;
+import com.daniel.practice.redis.enums.RateLimitKeyType;
+import com.daniel.practice.redis.enums.UserRateLimitMode;
+import com.daniel.practice.redis.metrics.LogSampler;
+import com.daniel.practice.redis.metrics.RedisOperationMetrics;
+import com.daniel.practice.redis.policy.TierPolicyRegistry;
+import com.daniel.practice.redis.resilience.LocalRateLimiter;
+import com.daniel.practice.redis.resilience.RedisCircuitBreaker;
+
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class UserRateLimitService {
 
 	private final RedisTemplate<String, Object> redisTemplate;
-
+	private final StringRedisTemplate stringRedisTemplate;
+	private final RateLimitProperties rateLimitProperties;
+	private final UserQuotaLeaseService userQuotaLeaseService;
+	private final TierPolicyRegistry tierPolicyRegistry;
+	private final RedisCircuitBreaker redisCircuitBreaker;
+	private final LocalRateLimiter localRateLimiter;
+	private final ShardedCounterService shardedCounterService;
+	private final CardinalityStatsService cardinalityStatsService;
+	private final RedisOperationMetrics redisOperationMetrics;
+
+	static final String METRIC_SERVICE = "user_rate_limit";
 
 	// 키 생성 헬퍼 메서드
-	private static String createUserRateKey(String userId) {
-		return "user:rate:" + userId;
+	// 시간당/일일 카운터는 TTL 이 서로 달라 키를 나눈다 (한 Hash 에 두면 나중에 건 EXPIRE 가 앞의 TTL 을 덮어씀)
+	static String createHourlyKey(String userId) {
+		return "user:rate:" + userId + ":hour";
+	}
+
+	static String createDailyKey(String userId) {
+		return "user:rate:" + userId + ":day";
+	}
+
+	static String createGcraKey(String userId) {
+		return "user:gcra:" + userId;
 	}
 
 	// 사용자별 시간당 요청 제한 확인
 	public boolean isAllowedPerHour(String userId) {
-		String key = createUserRateKey(userId);
-		int hourlyLimit = getUserHourlyLimit(userId);
+		if (isGcraMode()) {
+			return checkGcra(userId).isAllowed();
+		}
 
-		// Hash에서 hourly 카운터 조회
-		Object currentCount = redisTemplate.opsForHash().get(key, "hourly");
-		int count = currentCount == null ? 0 : Integer.parseInt(currentCount.toString());
+		String key = createHourlyKey(userId);
+		int hourlyLimit = getUserHourlyLimit(userId);
+		// 고유 사용자 집계는 lease/샤드/로컬 경로와 관계없이 진입 시점에 대기열에 넣음
+		cardinalityStatsService.record(RateLimitKeyType.USER, userId);
+		boolean allowed = redisCircuitBreaker.execute(
+			() -> countHourly(userId, key, hourlyLimit),
+			() -> localRateLimiter.tryAcquire(key, "hourly", hourlyLimit, 3600, 3600).isAllowed());
+
+		redisOperationMetrics.decision(METRIC_SERVICE, "isAllowedPerHour", allowed);
+		if (log.isDebugEnabled() && LogSampler.sample()) {
+			log.debug("사용자 시간당 요청 {}: {} (제한 {})", allowed ? "허용" : "차단", userId, hourlyLimit);
+		}
+		return allowed;
+	}
 
-		System.out.println("사용자 시간당 요청 횟수: " + count + "/" + hourlyLimit);
+	private boolean countHourly(String userId, String key, int hourlyLimit) {
+		// 시간당 제한이 큰 사용자는 노드 로컬 lease 에서 차감 (Redis 호출은 묶음을 빌릴 때만)
+		// lease 의 Redis 호출 수는 rate_limit.lease.requests{result=miss} 로 따로 집계
+		if (userQuotaLeaseService.isEligible(hourlyLimit)) {
+			return redisOperationMetrics.record(METRIC_SERVICE, "isAllowedPerHour.lease", 0,
+				() -> userQuotaLeaseService.tryAcquire(userId, hourlyLimit));
+		}
 
-		if (count >= hourlyLimit) {
-			return false;
+		// 요청이 몰리는 사용자는 샤드 키로 나눠 증가
+		if (shardedCounterService.isSharded(key, "hourly", 3600)) {
+			return shardedCounterService.tryAcquire(key, "hourly", hourlyLimit, 3600).isAllowed();
 		}
 
-		// Hash에서 hourly 카운터 증가
-		Long newCount = redisTemplate.opsForHash().increment(key, "hourly", 1);
+		// 조회/증가/TTL 설정을 스크립트 한 번으로 처리
+		List<?> result = redisOperationMetrics.record(METRIC_SERVICE, "isAllowedPerHour", 1,
+			() -> stringRedisTemplate.execute(
+				RedisScripts.HASH_COUNTER,
+				List.of(key),
+				"hourly", String.valueOf(hourlyLimit), "3600"
+			));
+		return ((Number) result.get(0)).longValue() == 1;
+	}
 
-		// 첫 번째 요청이면 TTL 설정
-		if (newCount == 1) {
-			redisTemplate.expire(key, 3600, TimeUnit.SECONDS); // 1시간
+	// GCRA 로 시간당 제한 확인 (지속 속도 + 버스트)
+	// 키 1개(TAT) + 스크립트 1회, 시각은 Redis TIME 기준
+	public RateLimitDecision checkGcra(String userId) {
+		int hourlyLimit = getUserHourlyLimit(userId);
+		cardinalityStatsService.record(RateLimitKeyType.USER, userId);
+		// Redis 차단 중에는 시간당 제한을 로컬 고정 윈도우로 근사 (TAT 는 회복 후 반영하지 않음)
+		RateLimitDecision decision = redisCircuitBreaker.execute(
+			() -> redisOperationMetrics.record(METRIC_SERVICE, "checkGcra", 1, () -> checkGcra(userId, hourlyLimit)),
+			() -> localRateLimiter.tryAcquire(createGcraKey(userId), null, hourlyLimit, 3600, 0));
+
+		redisOperationMetrics.decision(METRIC_SERVICE, "checkGcra", decision.isAllowed());
+		if (log.isDebugEnabled() && LogSampler.sample()) {
+			log.debug("GCRA {}: {} (버스트 {}/{})", decision.isAllowed() ? "허용" : "차단", userId,
+				decision.getCount(), decision.getLimit());
 		}
+		return decision;
+	}
 
-		return true;
+	private RateLimitDecision checkGcra(String userId, int hourlyLimit) {
+		long burst = getUserBurst(hourlyLimit);
+		List<?> result = stringRedisTemplate.execute(
+			RedisScripts.GCRA,
+			List.of(createGcraKey(userId)),
+			String.valueOf(getEmissionIntervalMicros(hourlyLimit)),
+			String.valueOf(burst)
+		);
+
+		return RateLimitDecision.builder()
+			.allowed(((Number) result.get(0)).longValue() == 1)
+			.count(((Number) result.get(1)).longValue())
+			.limit(burst)
+			.retryAfterMillis(((Number) result.get(2)).longValue())
+			.ttl((((Number) result.get(3)).longValue() + 999) / 1000)
+			.build();
 	}
 
 	// 사용자별 일일 요청 제한 확인
 	public boolean isAllowedPerDay(String userId) {
-		String key = createUserRateKey(userId);
+		String key = createDailyKey(userId);
 		int dailyLimit = getUserDailyLimit(userId);
+		boolean allowed = redisCircuitBreaker.execute(
+			() -> countDaily(key, dailyLimit),
+			() -> localRateLimiter.tryAcquire(key, "daily", dailyLimit, 86400, 86400).isAllowed());
 
-		// Hash에서 daily 카운터 조회
-		Object currentCount = redisTemplate.opsForHash().get(key, "daily");
-		int count = currentCount == null ? 0 : Integer.parseInt(currentCount.toString());
-
-		if (count >= dailyLimit) {
-			return false;
-		}
-
-		// Hash에서 daily 카운터 증가
-		Long newCount = redisTemplate.opsForHash().increment(key, "daily", 1);
+		redisOperationMetrics.decision(METRIC_SERVICE, "isAllowedPerDay", allowed);
+		return allowed;
+	}
 
-		// 첫 번째 요청이면 TTL 설정
-		if (newCount == 1) {
-			redisTemplate.expire(key, 86400, TimeUnit.SECONDS); // 24시간
+	private boolean countDaily(String key, int dailyLimit) {
+		if (shardedCounterService.isSharded(key, "daily", 86400)) {
+			return shardedCounterService.tryAcquire(key, "daily", dailyLimit, 86400).isAllowed();
 		}
 
-		return true;
+		// 시간당과 같은 스크립트로 조회/증가/TTL 설정을 한 번에 처리
+		// (동시 요청이 같은 카운트를 읽고 모두 통과하거나, 증가 후 EXPIRE 전에 끊겨 TTL 없는 키가 남는 일 없음)
+		List<?> result = redisOperationMetrics.record(METRIC_SERVICE, "isAllowedPerDay", 1,
+			() -> stringRedisTemplate.execute(
+				RedisScripts.HASH_COUNTER,
+				List.of(key),
+				"daily", String.valueOf(dailyLimit), "86400"
+			));
+		return ((Number) result.get(0)).longValue() == 1;
 	}
 
 	// 시간당 요청 횟수 조회
+	// GCRA 모드에서는 TAT 로부터 아직 회복되지 않은 요청 수를 계산
 	public int getCurrentHourlyCount(String userId) {
-		String key = createUserRateKey(userId);
-		Object count = redisTemplate.opsForHash().get(key, "hourly");
+		if (isGcraMode()) {
+			String tat = redisOperationMetrics.record(METRIC_SERVICE, "getCurrentHourlyCount", 1,
+				() -> stringRedisTemplate.opsForValue().get(createGcraKey(userId)));
+			if (tat == null) {
+				return 0;
+			}
+			long nowMicros = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+			long interval = getEmissionIntervalMicros(getUserHourlyLimit(userId));
+			return (int) Math.max(0, (Long.parseLong(tat) - nowMicros + interval - 1) / interval);
+		}
+
+		String key = createHourlyKey(userId);
+		if (shardedCounterService.isEnabled()) {
+			return (int) shardedCounterService.count(key, "hourly");
+		}
+		Object count = redisOperationMetrics.record(METRIC_SERVICE, "getCurrentHourlyCount", 1,
+			() -> redisTemplate.opsForHash().get(key, "hourly"));
 		return count == null ? 0 : Integer.parseInt(count.toString());
 	}
 
 	// 일별 요청 횟수 조회
 	public int getCurrentDailyCount(String userId) {
-		String key = createUserRateKey(userId);
-		Object count = redisTemplate.opsForHash().get(key, "daily");
+		String key = createDailyKey(userId);
+		if (shardedCounterService.isEnabled()) {
+			return (int) shardedCounterService.count(key, "daily");
+		}
+		Object count = redisOperationMetrics.record(METRIC_SERVICE, "getCurrentDailyCount", 1,
+			() -> redisTemplate.opsForHash().get(key, "daily"));
 		return count == null ? 0 : Integer.parseInt(count.toString());
 	}
 
+	boolean isGcraMode() {
+		return rateLimitProperties.getUser().getMode() == UserRateLimitMode.GCRA;
+	}
+
+	// 방출 간격 (요청 1건이 회복되는 데 걸리는 시간, µs)
+	long getEmissionIntervalMicros(int hourlyLimit) {
+		long periodMicros = TimeUnit.MILLISECONDS.toMicros(rateLimitProperties.getUser().getGcra().getPeriod().toMillis());
+		return Math.max(1, periodMicros / hourlyLimit);
+	}
+
+	// 버스트 용량 (시간당 제한 × burst-ratio, 최소 1)
+	long getUserBurst(int hourlyLimit) {
+		return Math.max(1, (long) (hourlyLimit * rateLimitProperties.getUser().getGcra().getBurstRatio()));
+	}
+
 	// 사용자 등급별 제한값 조회
-	private int getUserHourlyLimit(String userId) {
-		if (userId.startsWith("premium_")) {
-			return 1000;
-		} else if (userId.startsWith("enterprise_")) {
-			return 10000;
-		} else {
-			return 100;
-		}
+	int getUserHourlyLimit(String userId) {
+		return tierPolicyRegistry.getUserPolicy(userId).getHourlyLimit();
 	}
 
-	private int getUserDailyLimit(String userId) {
-		if (userId.startsWith("premium_")) {
-			return 10000;
-		} else if (userId.startsWith("enterprise_")) {
-			return 100000;
-		} else {
-			return 1000;
-		}
+	int getUserDailyLimit(String userId) {
+		return tierPolicyRegistry.getUserPolicy(userId).getDailyLimit();
 	}
 }
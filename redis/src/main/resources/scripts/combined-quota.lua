@@ -0,0 +1,135 @@
+-- 사용자 시간당 + 사용자 일일 + 토큰 사용 횟수 제한을 한 번에 평가하고 요청한 개수만큼 허용량을 예약
+-- 세 제한이 모두 허용하는 개수만큼만 카운터를 증가시키므로, 거부된 요청이 일부 카운터만 올려놓는 일이 없다.
+-- KEYS[1] : 사용자 시간당 카운터 Hash (user:rate:{userId}:hour, 필드 hourly)
+-- KEYS[2] : 사용자 일일 카운터 Hash (user:rate:{userId}:day, 필드 daily)
+-- KEYS[3] : 토큰 사용 Hash (token:usage:{token}, 필드 count/limit/firstUsed/lastUsed)
+-- KEYS[4] : 사용자 GCRA TAT 키 (user:gcra:{userId}, gcra 모드에서만 사용)
+-- KEYS[5..] : 샤드 키 (ARGV[8] 개씩 시간당 → 일일 → 토큰 순서, {키}:{필드}:shard:{n})
+-- ARGV[1] : 사용자 시간당 제한
+-- ARGV[2] : 사용자 일일 제한
+-- ARGV[3] : 토큰 사용 제한
+-- ARGV[4] : 시간당 제한 방식 (counter / gcra)
+-- ARGV[5] : GCRA 방출 간격 (µs)
+-- ARGV[6] : GCRA 버스트 용량
+-- ARGV[7] : 요청 개수 (예약할 허용량)
+-- ARGV[8] : 카운터별 샤드 개수 (샤딩을 쓰지 않으면 0)
+-- 반환값  : {전체 허용, 시간당 허용, 일일 허용, 토큰 허용, 시간당 카운트, 일일 카운트, 토큰 카운트, 토큰 TTL(초), 허용된 개수,
+--           재시도 대기(초, 거부한 제한 중 가장 늦게 풀리는 것, 모두 허용이면 0)}
+local hourlyLimit = tonumber(ARGV[1])
+local dailyLimit = tonumber(ARGV[2])
+local tokenLimit = tonumber(ARGV[3])
+local gcra = ARGV[4] == 'gcra'
+local requested = tonumber(ARGV[7])
+local shards = tonumber(ARGV[8])
+
+local time = redis.call('TIME')
+local nowSeconds = tonumber(time[1])
+local nowMicros = nowSeconds * 1000000 + tonumber(time[2])
+
+-- 핫 키 샤딩 중에는 증가분이 샤드 키에 나뉘어 있으므로 기존 Hash 필드에 샤드 합계를 더해서 판단
+-- (이 스크립트의 증가는 기존 Hash 필드에 하고, ShardedCounterService 는 다음 합계를 읽을 때 반영)
+-- 샤딩 중에는 기존 키가 필드 0 과 윈도우 TTL 로 먼저 만들어지므로(shard-window.lua) 첫 증가에서도 TTL 이 없을 때만 설정
+local function shardSum(group)
+    if shards == 0 then
+        return 0
+    end
+    local first = 5 + group * shards
+    local total = 0
+    -- MGET 은 없는 키를 false 로 돌려줌
+    for _, value in ipairs(redis.call('MGET', unpack(KEYS, first, first + shards - 1))) do
+        if value then
+            total = total + tonumber(value)
+        end
+    end
+    return total
+end
+
+local hourlyShards = 0
+if not gcra then
+    hourlyShards = shardSum(0)
+end
+local dailyShards = shardSum(1)
+local tokenShards = shardSum(2)
+
+local hourly = tonumber(redis.call('HGET', KEYS[1], 'hourly') or '0') + hourlyShards
+local daily = tonumber(redis.call('HGET', KEYS[2], 'daily') or '0') + dailyShards
+local tokenCount = tonumber(redis.call('HGET', KEYS[3], 'count') or '0') + tokenShards
+
+-- 1. 제한별 남은 허용량 계산 (쓰기 없음)
+local hourlyRemaining, tat, interval
+if gcra then
+    interval = tonumber(ARGV[5])
+    tat = tonumber(redis.call('GET', KEYS[4]) or '0')
+    if tat < nowMicros then
+        tat = nowMicros
+    end
+    hourlyRemaining = math.floor((interval * tonumber(ARGV[6]) - (tat - nowMicros)) / interval)
+    hourly = math.ceil((tat - nowMicros) / interval)
+else
+    hourlyRemaining = hourlyLimit - hourly
+end
+local dailyRemaining = dailyLimit - daily
+local tokenRemaining = tokenLimit - tokenCount
+local granted = math.max(0, math.min(requested, hourlyRemaining, dailyRemaining, tokenRemaining))
+
+-- 2. 세 제한이 모두 허용하는 만큼만 한 번에 증가
+if granted > 0 then
+    if gcra then
+        tat = tat + interval * granted
+        redis.call('SET', KEYS[4], string.format('%.0f', tat), 'PX', math.ceil((tat - nowMicros) / 1000))
+        hourly = math.ceil((tat - nowMicros) / interval)
+    else
+        hourly = redis.call('HINCRBY', KEYS[1], 'hourly', granted)
+        if hourly == granted and redis.call('TTL', KEYS[1]) < 0 then
+            redis.call('EXPIRE', KEYS[1], 3600)
+        end
+        hourly = hourly + hourlyShards
+    end
+
+    daily = redis.call('HINCRBY', KEYS[2], 'daily', granted)
+    if daily == granted and redis.call('TTL', KEYS[2]) < 0 then
+        redis.call('EXPIRE', KEYS[2], 86400)
+    end
+    daily = daily + dailyShards
+
+    tokenCount = redis.call('HINCRBY', KEYS[3], 'count', granted)
+    if tokenCount == granted then
+        redis.call('HSET', KEYS[3], 'limit', tokenLimit, 'firstUsed', nowSeconds)
+        if redis.call('TTL', KEYS[3]) < 0 then
+            redis.call('EXPIRE', KEYS[3], 3600)
+        end
+    end
+    tokenCount = tokenCount + tokenShards
+    redis.call('HSET', KEYS[3], 'lastUsed', nowSeconds)
+end
+
+-- 3. 거부됐으면 다시 시도할 수 있을 때까지 남은 시간
+local retryAfter = 0
+if granted < requested then
+    if hourlyRemaining < requested then
+        if gcra then
+            -- 남은 요청 수만큼 버스트가 회복될 때까지 (gcra.lua 와 같은 계산)
+            retryAfter = math.ceil((tat + interval * (requested - granted) - nowMicros
+                - interval * tonumber(ARGV[6])) / 1000000)
+        else
+            retryAfter = redis.call('TTL', KEYS[1])
+        end
+    end
+    if dailyRemaining < requested then
+        retryAfter = math.max(retryAfter, redis.call('TTL', KEYS[2]))
+    end
+    if tokenRemaining < requested then
+        retryAfter = math.max(retryAfter, redis.call('TTL', KEYS[3]))
+    end
+end
+
+local function flag(value)
+    if value then
+        return 1
+    end
+    return 0
+end
+
+return {flag(granted == requested),
+        flag(hourlyRemaining >= requested), flag(dailyRemaining >= requested), flag(tokenRemaining >= requested),
+        hourly, daily, tokenCount, redis.call('TTL', KEYS[3]), granted, retryAfter}
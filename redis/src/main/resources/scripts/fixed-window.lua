@@ -0,0 +1,23 @@
+-- 고정 윈도우 Rate Limit (GET → INCR → EXPIRE 를 한 번의 왕복으로 원자 처리)
+-- KEYS[1] : 카운터 키 (ip:rate:{window}:{ip})
+-- ARGV[1] : 최대 요청 수
+-- ARGV[2] : 윈도우 길이 (초)
+-- 반환값  : {허용 여부(1/0), 현재 카운트, 남은 TTL(초)}
+
+local limit = tonumber(ARGV[1])
+local count = tonumber(redis.call('GET', KEYS[1]) or '0')
+
+if count >= limit then
+    return {0, count, redis.call('TTL', KEYS[1])}
+end
+
+count = redis.call('INCR', KEYS[1])
+local ttl = redis.call('TTL', KEYS[1])
+
+-- 첫 요청이거나 TTL 이 빠진 키(-1)면 윈도우 시작
+if ttl < 0 then
+    redis.call('EXPIRE', KEYS[1], ARGV[2])
+    ttl = tonumber(ARGV[2])
+end
+
+return {1, count, ttl}
@@ -0,0 +1,28 @@
+-- GCRA (Generic Cell Rate Algorithm) Rate Limit
+-- 사용자마다 "이론적 도착 시각(TAT)" 하나만 저장하고, 요청마다 방출 간격만큼 뒤로 민다.
+-- 시각은 Redis TIME 을 사용하므로 애플리케이션 노드 간 시계 차이의 영향을 받지 않음
+-- KEYS[1] : TAT 키 (user:gcra:{userId}), 값 = TAT (µs)
+-- ARGV[1] : 방출 간격 (µs) = 주기 / 제한값
+-- ARGV[2] : 버스트 용량 (쉬지 않고 연속으로 허용되는 최대 요청 수)
+-- 반환값  : {허용 여부(1/0), 사용 중인 버스트 수, 재시도까지 남은 시간(ms), 버스트가 모두 회복될 때까지 남은 시간(ms)}
+
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+local interval = tonumber(ARGV[1])
+local capacity = interval * tonumber(ARGV[2])
+
+local tat = tonumber(redis.call('GET', KEYS[1]) or '0')
+if tat < now then
+    tat = now
+end
+local newTat = tat + interval
+
+if newTat - now > capacity then
+    local retryAfter = newTat - now - capacity
+    return {0, math.ceil((tat - now) / interval), math.ceil(retryAfter / 1000), math.ceil((tat - now) / 1000)}
+end
+
+-- TAT 는 µs 단위로 2^53 미만이지만 tostring 은 지수 표기로 자릿수를 잃으므로 %.0f 로 기록
+local resetMillis = math.ceil((newTat - now) / 1000)
+redis.call('SET', KEYS[1], string.format('%.0f', newTat), 'PX', resetMillis)
+return {1, math.ceil((newTat - now) / interval), 0, resetMillis}
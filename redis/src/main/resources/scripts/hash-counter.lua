@@ -0,0 +1,20 @@
+-- Hash 필드 카운터 Rate Limit (HGET → HINCRBY → EXPIRE 를 한 번의 왕복으로 원자 처리)
+-- KEYS[1] : 카운터 Hash (user:rate:{userId}:hour / :day)
+-- ARGV[1] : 필드 (hourly / daily)
+-- ARGV[2] : 최대 요청 수
+-- ARGV[3] : 윈도우 길이 (초), 첫 요청 시 Hash 전체에 TTL 설정
+-- 반환값  : {허용 여부(1/0), 현재 카운트, 남은 TTL(초)}
+
+local limit = tonumber(ARGV[2])
+local count = tonumber(redis.call('HGET', KEYS[1], ARGV[1]) or '0')
+
+if count >= limit then
+    return {0, count, redis.call('TTL', KEYS[1])}
+end
+
+count = redis.call('HINCRBY', KEYS[1], ARGV[1], 1)
+if count == 1 then
+    redis.call('EXPIRE', KEYS[1], ARGV[3])
+end
+
+return {1, count, redis.call('TTL', KEYS[1])}
@@ -0,0 +1,54 @@
+-- Count-Min Sketch + Top-K 헤비 히터 집계 (IP 수와 관계없이 메모리 고정)
+-- KEYS[1] : 스케치 문자열 (u32 카운터 depth × width 개, BITFIELD 로 갱신)
+-- KEYS[2] : Top-K ZSET (IP → 추정 요청 수)
+-- KEYS[3] : 이번 윈도우에 이미 헤비 히터로 판단한 IP SET (스케치와 같이 만료)
+-- ARGV[1] : IP
+-- ARGV[2] : 헤비 히터 기준 (윈도우당 요청 수)
+-- ARGV[3] : Top-K 크기
+-- ARGV[4] : 윈도우 길이 (초), 스케치가 새로 만들어질 때 TTL 설정 (Top-K, 탐지 SET 은 스케치와 같이 만료)
+-- ARGV[5..] : 행마다 증가시킬 카운터 번호 (행 × width + 열)
+-- 반환값  : {추정 요청 수, 이번 윈도우에서 기준을 처음 넘었으면 1}
+local args = {'OVERFLOW', 'SAT'}
+for i = 5, #ARGV do
+    args[#args + 1] = 'INCRBY'
+    args[#args + 1] = 'u32'
+    args[#args + 1] = '#' .. ARGV[i]
+    args[#args + 1] = 1
+end
+
+local counts = redis.call('BITFIELD', KEYS[1], unpack(args))
+local estimate = counts[1]
+for i = 2, #counts do
+    if counts[i] < estimate then
+        estimate = counts[i]
+    end
+end
+
+if redis.call('TTL', KEYS[1]) < 0 then
+    redis.call('EXPIRE', KEYS[1], ARGV[4])
+end
+
+local threshold = tonumber(ARGV[2])
+local k = tonumber(ARGV[3])
+local previous = tonumber(redis.call('ZSCORE', KEYS[2], ARGV[1]) or '0')
+
+-- 이미 들어있거나, 자리가 남았거나, 현재 최솟값보다 크면 Top-K 갱신
+-- (k 가 1 미만이면 Top-K 가 비어 있어 최솟값이 nil 이므로 갱신하지 않음, ZCARD >= k >= 1 이면 최솟값은 항상 있음)
+if k >= 1 and (previous > 0 or redis.call('ZCARD', KEYS[2]) < k
+    or estimate > tonumber(redis.call('ZRANGE', KEYS[2], 0, 0, 'WITHSCORES')[2])) then
+    redis.call('ZADD', KEYS[2], estimate, ARGV[1])
+    redis.call('ZREMRANGEBYRANK', KEYS[2], 0, -(k + 1))
+    if redis.call('TTL', KEYS[2]) < 0 then
+        redis.call('EXPIRE', KEYS[2], redis.call('TTL', KEYS[1]))
+    end
+end
+
+-- Top-K 에 들어가지 못한 IP 도 윈도우당 한 번만 탐지되도록 SET 으로 중복 제거
+local flagged = 0
+if estimate >= threshold and redis.call('SADD', KEYS[3], ARGV[1]) == 1 then
+    flagged = 1
+    if redis.call('TTL', KEYS[3]) < 0 then
+        redis.call('EXPIRE', KEYS[3], redis.call('TTL', KEYS[1]))
+    end
+end
+return {estimate, flagged}
@@ -0,0 +1,14 @@
+-- IP Rate Limit 에 올린 요청 1건 되돌리기 (뒤 단계 제한에서 거부된 요청)
+-- KEYS[1] : 고정 윈도우 카운터 / 슬라이딩 카운터 현재 버킷 / 슬라이딩 로그 ZSET
+-- ARGV[1] : 슬라이딩 로그면 검사 때 추가한 기록 ({요청 시각}:{고유값}), 카운터면 빈 문자열
+-- 반환값  : 되돌린 개수 (윈도우가 이미 끝났으면 0)
+if ARGV[1] ~= '' then
+    return redis.call('ZREM', KEYS[1], ARGV[1])
+end
+
+local count = tonumber(redis.call('GET', KEYS[1]) or '0')
+if count <= 0 then
+    return 0
+end
+redis.call('DECR', KEYS[1])
+return 1
@@ -0,0 +1,9 @@
+-- IP 목록 일괄 변경(가져오기) 후 버전 증가 + 전체 다시 읽기 알림
+-- 변경 1건씩 알리면 수백만 건이 되므로 끝난 뒤 한 번만 알리고, 받은 노드는 스냅샷을 다시 읽는다.
+-- KEYS[1] : 버전 키 (ip:restriction:version)
+-- ARGV[1] : 알림 채널
+-- ARGV[2] : 목록 이름 (whitelist / blacklist)
+-- 반환값  : 변경 후 버전
+local version = redis.call('INCR', KEYS[1])
+redis.call('PUBLISH', ARGV[1], version .. ' reload ' .. ARGV[2])
+return version
@@ -0,0 +1,21 @@
+-- IP 화이트리스트/블랙리스트 변경 + 버전 증가 + 변경 알림
+-- KEYS[1] : 변경할 Set (ip:whitelist / ip:blacklist)
+-- KEYS[2] : 버전 키 (ip:restriction:version)
+-- ARGV[1] : add / remove
+-- ARGV[2] : 목록 이름 (whitelist / blacklist)
+-- ARGV[3] : IP (Set 에 저장되는 직렬화 형태 그대로)
+-- ARGV[4] : 알림 채널
+-- 반환값  : {바뀌었으면 1, 변경 후 버전} (바뀐 게 없으면 버전을 올리지 않고 {0, 현재 버전})
+-- 변경과 버전 증가가 한 스크립트 안에서 일어나므로 버전 N 의 스냅샷에는 N 번째 변경까지 정확히 들어 있다.
+local changed
+if ARGV[1] == 'add' then
+    changed = redis.call('SADD', KEYS[1], ARGV[3])
+else
+    changed = redis.call('SREM', KEYS[1], ARGV[3])
+end
+if changed == 0 then
+    return {0, tonumber(redis.call('GET', KEYS[2]) or '0')}
+end
+local version = redis.call('INCR', KEYS[2])
+redis.call('PUBLISH', ARGV[4], version .. ' ' .. ARGV[1] .. ' ' .. ARGV[2] .. ' ' .. ARGV[3])
+return {1, version}
@@ -0,0 +1,13 @@
+-- 만료된 임시 차단 정리 (한 번에 최대 ARGV[2] 개)
+-- KEYS[1] : 임시 차단 Sorted Set (score = 만료 시각 ms)
+-- ARGV[1] : 현재 시각 (ms)
+-- ARGV[2] : 한 번에 지울 최대 개수
+-- 반환값  : 지운 개수
+-- 만료 시각 순으로 ARGV[2] 번째 항목의 점수까지만 ZREMRANGEBYSCORE 로 지워 한 번의 실행 시간을 제한한다.
+-- (같은 만료 시각이 겹치면 ARGV[2] 보다 조금 더 지워질 수 있음)
+local max = ARGV[1]
+local last = redis.call('ZRANGE', KEYS[1], ARGV[2] - 1, ARGV[2] - 1, 'WITHSCORES')
+if #last > 0 and tonumber(last[2]) < tonumber(ARGV[1]) then
+    max = last[2]
+end
+return redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', max)
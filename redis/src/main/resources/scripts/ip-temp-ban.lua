@@ -0,0 +1,23 @@
+-- IP 임시 차단 등록/해제 + 버전 증가 + 변경 알림
+-- KEYS[1] : 임시 차단 Sorted Set (ip:blacklist:temp, score = 만료 시각 ms)
+-- KEYS[2] : 버전 키 (ip:restriction:version)
+-- ARGV[1] : ban / unban
+-- ARGV[2] : 만료 시각 (ms, unban 은 0)
+-- ARGV[3] : IP (Set 과 같은 직렬화 형태)
+-- ARGV[4] : 알림 채널
+-- 반환값  : {바뀌었으면 1, 변경 후 버전, 적용된 만료 시각 (해제는 0)}
+-- 이미 더 늦게 만료되는 차단이 있으면 줄이지 않음 (ZADD GT), 바뀐 게 없으면 버전을 올리지 않음
+local changed
+local expiresAt = 0
+if ARGV[1] == 'ban' then
+    changed = redis.call('ZADD', KEYS[1], 'GT', 'CH', ARGV[2], ARGV[3])
+    expiresAt = tonumber(redis.call('ZSCORE', KEYS[1], ARGV[3]))
+else
+    changed = redis.call('ZREM', KEYS[1], ARGV[3])
+end
+if changed == 0 then
+    return {0, tonumber(redis.call('GET', KEYS[2]) or '0'), expiresAt}
+end
+local version = redis.call('INCR', KEYS[2])
+redis.call('PUBLISH', ARGV[4], version .. ' ' .. ARGV[1] .. ' ' .. expiresAt .. ' ' .. ARGV[3])
+return {1, version, expiresAt}
@@ -0,0 +1,26 @@
+-- 시간당 카운터에서 허용량 묶음(lease)을 빌려옴
+-- KEYS[1] : 사용자 카운터 Hash (user:rate:{userId}:hour, 필드 hourly / window)
+-- ARGV[1] : 시간당 제한
+-- ARGV[2] : 빌릴 개수
+-- 반환값  : {실제로 빌린 개수 (남은 허용량이 없으면 0), 윈도우 식별자}
+-- 윈도우 식별자는 카운터 Hash 를 처음 빌릴 때 기록한 Redis TIME 이고, 반납 시 같은 윈도우인지 확인하는 데 쓴다.
+
+local limit = tonumber(ARGV[1])
+local hourly = tonumber(redis.call('HGET', KEYS[1], 'hourly') or '0')
+local granted = math.min(tonumber(ARGV[2]), limit - hourly)
+if granted <= 0 then
+    return {0, ''}
+end
+
+hourly = redis.call('HINCRBY', KEYS[1], 'hourly', granted)
+if hourly == granted then
+    redis.call('EXPIRE', KEYS[1], 3600)
+end
+
+local window = redis.call('HGET', KEYS[1], 'window')
+if not window then
+    local time = redis.call('TIME')
+    window = time[1] .. '.' .. time[2]
+    redis.call('HSET', KEYS[1], 'window', window)
+end
+return {granted, window}
@@ -0,0 +1,18 @@
+-- 쓰지 못한 lease 허용량을 시간당 카운터에 반납
+-- 빌린 뒤 윈도우가 바뀌었으면(카운터가 만료돼 새로 생성됨) 새 윈도우에서 빼지 않도록 반납하지 않음
+-- KEYS[1] : 사용자 카운터 Hash (user:rate:{userId}:hour, 필드 hourly / window)
+-- ARGV[1] : 반납할 개수
+-- ARGV[2] : 빌릴 때 받은 윈도우 식별자
+-- 반환값  : 실제로 반납한 개수
+local unused = tonumber(ARGV[1])
+if redis.call('HGET', KEYS[1], 'window') ~= ARGV[2] then
+    return 0
+end
+
+local hourly = tonumber(redis.call('HGET', KEYS[1], 'hourly') or '0')
+if hourly < unused then
+    return 0
+end
+
+redis.call('HINCRBY', KEYS[1], 'hourly', -unused)
+return unused
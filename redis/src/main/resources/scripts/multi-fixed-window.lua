@@ -0,0 +1,22 @@
+-- 여러 고정 윈도우 제한을 한 번에 검사 (@RateLimited 여러 개)
+-- 모두 통과할 때만 전부 증가시키므로, 거부된 요청이 일부 카운터만 올려놓는 일이 없다.
+-- 단일 Redis 기준 (클러스터에서는 키들이 같은 슬롯이어야 함)
+-- KEYS[i]     : i번째 제한의 카운터 키
+-- ARGV[2i-1]  : i번째 제한의 최대 요청 수
+-- ARGV[2i]    : i번째 제한의 윈도우 길이 (초)
+-- 반환값      : {허용 여부(1/0), 초과된 제한 번호(허용 시 0), 초과된 제한의 남은 TTL(초)}
+for i = 1, #KEYS do
+    local count = tonumber(redis.call('GET', KEYS[i]) or '0')
+    if count >= tonumber(ARGV[2 * i - 1]) then
+        return {0, i, redis.call('TTL', KEYS[i])}
+    end
+end
+
+for i = 1, #KEYS do
+    local count = redis.call('INCR', KEYS[i])
+    if count == 1 or redis.call('TTL', KEYS[i]) < 0 then
+        redis.call('EXPIRE', KEYS[i], ARGV[2 * i])
+    end
+end
+
+return {1, 0, 0}
@@ -0,0 +1,16 @@
+-- 로컬 제한기에서 허용한 개수를 Redis 카운터에 반영
+-- KEYS[1] : 카운터 키 (문자열 카운터 또는 Hash)
+-- ARGV[1] : Hash 필드 (빈 문자열이면 문자열 카운터)
+-- ARGV[2] : 더할 개수
+-- ARGV[3] : TTL (초), 키에 TTL 이 없을 때만 설정 (슬라이딩 카운터 버킷은 윈도우 2개 길이)
+-- 반환값  : 반영 후 카운트
+local count
+if ARGV[1] == '' then
+    count = redis.call('INCRBY', KEYS[1], ARGV[2])
+else
+    count = redis.call('HINCRBY', KEYS[1], ARGV[1], ARGV[2])
+end
+if redis.call('TTL', KEYS[1]) < 0 then
+    redis.call('EXPIRE', KEYS[1], ARGV[3])
+end
+return count
@@ -0,0 +1,10 @@
+-- 핫 키 샤드 1개 증가
+-- 샤드는 기존 키와 다른 슬롯일 수 있으므로 기존 키를 읽지 않고, 노드가 읽어 둔 기존 키의 남은 시간을 받아 같은 시각에 만료시킨다.
+-- KEYS[1] : 샤드 키 ({키}:{필드}:shard:{n})
+-- ARGV[1] : 기존 키가 만료될 때까지 남은 시간 (ms), 샤드에 TTL 이 없을 때만 설정
+-- 반환값  : 증가 후 샤드 카운트
+local count = redis.call('INCR', KEYS[1])
+if redis.call('PTTL', KEYS[1]) < 0 then
+    redis.call('PEXPIRE', KEYS[1], ARGV[1])
+end
+return count
@@ -0,0 +1,13 @@
+-- 샤딩 중인 카운터의 윈도우 시작
+-- 샤드에만 증가하는 동안에도 기존 키의 만료 시각이 윈도우 경계가 되도록, 기존 키가 없거나 TTL 이 없으면 만들어 둔다.
+-- KEYS[1] : 기존 카운터 Hash
+-- ARGV[1] : 필드
+-- ARGV[2] : 윈도우 길이 (ms)
+-- 반환값  : 기존 키가 만료될 때까지 남은 시간 (ms)
+local pttl = redis.call('PTTL', KEYS[1])
+if pttl >= 0 then
+    return pttl
+end
+redis.call('HSETNX', KEYS[1], ARGV[1], 0)
+redis.call('PEXPIRE', KEYS[1], ARGV[2])
+return tonumber(ARGV[2])
@@ -0,0 +1,29 @@
+-- 슬라이딩 윈도우 카운터 Rate Limit (이전/현재 버킷 가중 합산)
+-- 이전 윈도우 요청이 고르게 분포했다고 가정하고, 현재 시점 기준 직전 윈도우 길이만큼의 요청 수를 추정
+-- KEYS[1] : 이전 버킷 키 (ip:rate:{window}:{ip}:{epoch-1})
+-- KEYS[2] : 현재 버킷 키 (ip:rate:{window}:{ip}:{epoch})
+-- ARGV[1] : 최대 요청 수
+-- ARGV[2] : 윈도우 길이 (ms)
+-- ARGV[3] : 현재 버킷 시작 후 경과 시간 (ms)
+-- 반환값  : {허용 여부(1/0), 추정 요청 수, 현재 버킷이 끝날 때까지 남은 시간(초)}
+
+local limit = tonumber(ARGV[1])
+local window = tonumber(ARGV[2])
+local elapsed = tonumber(ARGV[3])
+
+local previous = tonumber(redis.call('GET', KEYS[1]) or '0')
+local current = tonumber(redis.call('GET', KEYS[2]) or '0')
+local estimated = previous * ((window - elapsed) / window) + current
+local ttl = math.ceil((window - elapsed) / 1000)
+
+if estimated >= limit then
+    return {0, math.floor(estimated), ttl}
+end
+
+current = redis.call('INCR', KEYS[2])
+-- 다음 윈도우에서 이전 버킷으로 한 번 더 읽히므로 윈도우 2개 길이만큼 유지
+if current == 1 then
+    redis.call('PEXPIRE', KEYS[2], window * 2)
+end
+
+return {1, math.floor(estimated) + 1, ttl}
@@ -0,0 +1,37 @@
+-- 슬라이딩 윈도우 로그 Rate Limit (만료 기록 정리 → 카운트 → 추가를 원자 처리)
+-- KEYS[1] : 요청 기록 ZSET 키 (ip:rate:{window}:{ip}:log), score = 요청 시각(ms)
+-- ARGV[1] : 최대 요청 수
+-- ARGV[2] : 윈도우 길이 (ms)
+-- ARGV[3] : 현재 시각 (ms)
+-- ARGV[4] : 요청 고유값 (같은 ms 에 들어온 요청 구분용)
+-- 반환값  : {허용 여부(1/0), 윈도우 내 요청 수, 가장 오래된 기록이 빠질 때까지 남은 시간(초)}
+
+local limit = tonumber(ARGV[1])
+local window = tonumber(ARGV[2])
+local now = tonumber(ARGV[3])
+
+-- 윈도우 밖으로 밀려난 기록 제거
+redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', now - window)
+local count = redis.call('ZCARD', KEYS[1])
+
+-- 제한값이 줄어든 경우 오래된 기록부터 잘라 키 크기를 제한값 이하로 유지
+if count > limit then
+    redis.call('ZREMRANGEBYRANK', KEYS[1], 0, count - limit - 1)
+    count = limit
+end
+
+local allowed = 0
+if count < limit then
+    redis.call('ZADD', KEYS[1], now, ARGV[3] .. ':' .. ARGV[4])
+    redis.call('PEXPIRE', KEYS[1], window)
+    count = count + 1
+    allowed = 1
+end
+
+local ttl = 0
+local oldest = redis.call('ZRANGE', KEYS[1], 0, 0, 'WITHSCORES')
+if oldest[2] then
+    ttl = math.ceil((tonumber(oldest[2]) + window - now) / 1000)
+end
+
+return {allowed, count, ttl}
@@ -0,0 +1,7 @@
+-- Set 한 페이지 조회 (이전 응답의 커서에서 이어서)
+-- RedisTemplate 의 scan() 은 항상 커서 0 부터 시작하는 Cursor 만 제공하므로 HTTP 페이지 요청 사이에 커서를 넘길 수 없어 스크립트로 호출
+-- KEYS[1] : Set
+-- ARGV[1] : 커서 (처음은 0)
+-- ARGV[2] : COUNT (한 번에 살펴볼 대략적인 개수, 반환 개수는 이보다 많거나 적을 수 있음)
+-- 반환값  : {다음 커서 (0 이면 끝), 멤버 목록}
+return redis.call('SSCAN', KEYS[1], ARGV[1], 'COUNT', ARGV[2])
@@ -0,0 +1,16 @@
+-- 토큰 폐기(블랙리스트) 등록
+-- 조회는 EXISTS 만 하므로 값은 빈 문자열로 두고, 토큰 exp 시각에 맞춰 PXAT 으로 만료시킨다.
+-- 같은 토큰은 exp 도 같으므로 이미 있으면 그대로 둔다 (NX).
+-- KEYS[1] : 폐기 키 (blacklist:{digest} 또는 blacklist:jti:{jti})
+-- ARGV[1] : 만료 시각 (unix ms, 0 이면 만료 없음 - exp 가 없는 토큰)
+-- 반환값  : 1 = 새로 등록, 0 = 이미 등록됨
+local ok
+if ARGV[1] == '0' then
+    ok = redis.call('SET', KEYS[1], '', 'NX')
+else
+    ok = redis.call('SET', KEYS[1], '', 'NX', 'PXAT', ARGV[1])
+end
+if ok then
+    return 1
+end
+return 0
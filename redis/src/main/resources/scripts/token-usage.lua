@@ -0,0 +1,24 @@
+-- 토큰 사용 횟수 제한 (HGET → HINCRBY → 첫 사용 정보 HSET → EXPIRE → lastUsed HSET 을 한 번의 왕복으로 원자 처리)
+-- 검사와 증가 사이에 다른 요청이 끼어들 수 없으므로, 동시에 들어온 첫 요청들이 제한(temp_ 토큰은 1회)을 함께 통과하지 못한다.
+-- KEYS[1] : 토큰 사용 Hash (token:usage:{token}, 필드 count/limit/firstUsed/lastUsed)
+-- ARGV[1] : 토큰 사용 제한 (첫 사용 시 Hash 의 limit 필드에도 기록)
+-- ARGV[2] : TTL (초)
+-- 반환값  : {허용 여부(1/0), 현재 카운트, 제한, 남은 TTL(초)}
+
+local count = tonumber(redis.call('HGET', KEYS[1], 'count') or '0')
+local limit = tonumber(ARGV[1])
+
+if count >= limit then
+    return {0, count, limit, redis.call('TTL', KEYS[1])}
+end
+
+local now = redis.call('TIME')[1]
+count = redis.call('HINCRBY', KEYS[1], 'count', 1)
+if count == 1 then
+    redis.call('HSET', KEYS[1], 'limit', limit, 'firstUsed', now, 'lastUsed', now)
+    redis.call('EXPIRE', KEYS[1], ARGV[2])
+else
+    redis.call('HSET', KEYS[1], 'lastUsed', now)
+end
+
+return {1, count, limit, redis.call('TTL', KEYS[1])}
@@ -0,0 +1,128 @@
+package com.daniel.practice.redis.interceptor;
+
+import static org.assertj.core.api.Assertions.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import com.daniel.practice.redis.controller.JwtTestController;
+import com.daniel.practice.redis.enums.RateLimitKeyType;
+import com.daniel.practice.redis.service.TokenDigest;
+
+@SpringBootTest
+public class RateLimitInterceptorTests {
+
+	@Autowired
+	private RateLimitInterceptor rateLimitInterceptor;
+
+	@Autowired
+	private RateLimitRuleRegistry rateLimitRuleRegistry;
+
+	@Autowired
+	private JwtTestController jwtTestController;
+
+	@Autowired
+	private StringRedisTemplate stringRedisTemplate;
+
+	// POST /jwt/login: IP당 분당 10회
+	private HandlerMethod login;
+	private String keyPrefix;
+
+	@BeforeEach
+	void setUp() throws NoSuchMethodException {
+		login = new HandlerMethod(jwtTestController,
+			JwtTestController.class.getMethod("login", JwtTestController.LoginRequest.class));
+		keyPrefix = rateLimitRuleRegistry.getRules(login).get(0).getKeyPrefix();
+	}
+
+	@AfterEach
+	void tearDown() {
+		stringRedisTemplate.delete(keyPrefix + "203.0.113.50");
+		stringRedisTemplate.delete(keyPrefix + "198.51.100.9");
+	}
+
+	@Test
+	@DisplayName("@RateLimited(IP): 신뢰 프록시가 아닌 접속 주소는 X-Forwarded-For 를 바꿔도 같은 카운터")
+	void spoofedForwardedForIgnored() throws Exception {
+		System.out.println("=== X-Forwarded-For 위조 실험 (분당 10회) ===");
+
+		int allowed = 0;
+		for (int i = 0; i < 20; i++) {
+			MockHttpServletRequest request = new MockHttpServletRequest("POST", "/jwt/login");
+			request.setRemoteAddr("203.0.113.50");
+			request.addHeader("X-Forwarded-For", "192.0.2." + i);
+			if (rateLimitInterceptor.preHandle(request, new MockHttpServletResponse(), login)) {
+				allowed++;
+			}
+		}
+
+		System.out.println("허용된 요청: " + allowed + "/20");
+		assertThat(allowed).isEqualTo(10);
+		assertThat(stringRedisTemplate.opsForValue().get(keyPrefix + "203.0.113.50")).isEqualTo("10");
+	}
+
+	@Test
+	@DisplayName("@RateLimited(IP): 신뢰 프록시를 거친 요청은 프록시가 붙인 주소로 제한")
+	void trustedProxyForwardedFor() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/jwt/login");
+		request.setRemoteAddr("127.0.0.1");
+		// 왼쪽 값은 클라이언트가 보낸 값, 오른쪽 값은 프록시가 붙인 실제 접속 주소
+		request.addHeader("X-Forwarded-For", "192.0.2.1, 198.51.100.9");
+
+		assertThat(rateLimitInterceptor.preHandle(request, new MockHttpServletResponse(), login)).isTrue();
+		assertThat(stringRedisTemplate.hasKey(keyPrefix + "198.51.100.9")).isTrue();
+		assertThat(stringRedisTemplate.hasKey(keyPrefix + "192.0.2.1")).isFalse();
+	}
+
+	@Test
+	@DisplayName("@RateLimited(IP): 제한 초과 시 429 + Retry-After")
+	void tooManyRequests() throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		for (int i = 0; i < 11; i++) {
+			MockHttpServletRequest request = new MockHttpServletRequest("POST", "/jwt/login");
+			request.setRemoteAddr("203.0.113.50");
+			response = new MockHttpServletResponse();
+			rateLimitInterceptor.preHandle(request, response, login);
+		}
+
+		System.out.println("11번째 응답: " + response.getStatus() + " " + response.getContentAsString());
+		assertThat(response.getStatus()).isEqualTo(429);
+		assertThat(response.getHeader("Retry-After")).isNotNull();
+	}
+
+	@Test
+	@DisplayName("@RateLimited(USER/TOKEN): 사용자/토큰이 없으면 건너뛰지 않고 클라이언트 IP 로 제한")
+	void missingUserFallsBackToIp() {
+		RateLimitRule userRule = new RateLimitRule(RateLimitKeyType.USER, "api:rate:test:minute:user:", "10", "60");
+		RateLimitRule tokenRule = new RateLimitRule(RateLimitKeyType.TOKEN, "api:rate:test:minute:token:", "10", "60");
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/test");
+		request.setRemoteAddr("203.0.113.50");
+
+		assertThat(rateLimitInterceptor.resolveKey(userRule, request)).isEqualTo("anonymous:203.0.113.50");
+		assertThat(rateLimitInterceptor.resolveKey(tokenRule, request)).isEqualTo("anonymous:203.0.113.50");
+
+		request.addHeader("X-User-Id", "user-1");
+		assertThat(rateLimitInterceptor.resolveKey(userRule, request)).isEqualTo("user-1");
+	}
+
+	@Test
+	@DisplayName("@RateLimited(TOKEN): Bearer 토큰은 길이와 관계없이 digest 22자로 키에 붙음")
+	void bearerTokenDigest() {
+		RateLimitRule tokenRule = new RateLimitRule(RateLimitKeyType.TOKEN, "api:rate:test:minute:token:", "10", "60");
+		String token = "x".repeat(4096);
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/test");
+		request.addHeader("Authorization", "Bearer " + token);
+
+		String value = rateLimitInterceptor.resolveKey(tokenRule, request);
+		System.out.println("토큰 길이: " + token.length() + ", 키 값: " + value);
+		assertThat(value).isEqualTo(TokenDigest.of(token).toBase64Url()).hasSize(22);
+	}
+}
@@ -1,5 +1,7 @@
 package com.daniel.practice.redis.jwt;
 
+import static org.assertj.core.api.Assertions.*;
+
 import java.time.Duration;
 import java.util.Date;
 
@@ -7,8 +9,11 @@ import javax.crypto.SecretKey;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import com.daniel.practice.redis.service.JwtService;
+
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jws;
 import io.jsonwebtoken.Jwts;
@@ -18,6 +23,9 @@ public class JwtTokenTests {
 
 	String secret = "my-very-secret-key-which-is-long-enough";
 
+	@Autowired
+	private JwtService jwtService;
+
 	@Test
 	@DisplayName("JWT 토큰 생성/파싱")
 	void createAndParsingAndVerifyToken() {
@@ -150,4 +158,29 @@ public class JwtTokenTests {
 			.getSubject();
 		System.out.println("복호화된 subject: " + subject);
 	}
+
+	@Test
+	@DisplayName("검증된 JWT 캐시: 같은 토큰은 한 번만 검증, 변조/만료 토큰은 실패")
+	void verifiedTokenCache() throws InterruptedException {
+		String token = jwtService.generateToken("cache-user", "USER", 60_000);
+
+		// 두 번째부터는 캐시된 검증 결과 (같은 객체)
+		Jws<Claims> first = jwtService.parseToken(token).orElseThrow();
+		Jws<Claims> second = jwtService.parseToken(token).orElseThrow();
+		System.out.println("캐시된 검증 결과: " + jwtService.getVerifiedCacheSize() + "개");
+		assertThat(second).isSameAs(first);
+
+		// 다른 토큰의 클레임 + 이 토큰의 서명 → 검증 실패
+		String other = jwtService.generateToken("other-user", "ADMIN", 60_000);
+		String[] parts = token.split("\\.");
+		String forged = parts[0] + "." + other.split("\\.")[1] + "." + parts[2];
+		assertThat(jwtService.parseToken(forged)).isEmpty();
+
+		// exp 는 초 단위라 1.5초 뒤 만료 토큰은 최소 0.5초 유효, 2초 뒤에는 캐시에서도 제거
+		String shortLived = jwtService.generateToken("cache-user", "USER", 1500);
+		assertThat(jwtService.parseToken(shortLived)).isPresent();
+		Thread.sleep(2000);
+		assertThat(jwtService.parseToken(shortLived)).isEmpty();
+		assertThat(jwtService.isTokenExpired(shortLived)).isTrue();
+	}
 }
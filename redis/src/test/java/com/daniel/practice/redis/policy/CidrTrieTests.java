@@ -0,0 +1,98 @@
+package com.daniel.practice.redis.policy;
+
+import static org.assertj.core.api.Assertions.*;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class CidrTrieTests {
+
+	@Test
+	@DisplayName("/0 은 같은 주소 체계 전체")
+	void zeroLength() {
+		CidrTrie ipv4 = CidrTrie.builder().add("0.0.0.0/0").build();
+		assertThat(ipv4.contains("0.0.0.0")).isTrue();
+		assertThat(ipv4.contains("255.255.255.255")).isTrue();
+		assertThat(ipv4.contains("::ffff:203.0.113.9")).isTrue();
+		assertThat(ipv4.contains("2001:db8::1")).isFalse();
+
+		CidrTrie ipv6 = CidrTrie.builder().add("::/0").build();
+		assertThat(ipv6.contains("2001:db8::1")).isTrue();
+		assertThat(ipv6.contains("ffff:ffff:ffff:ffff:ffff:ffff:ffff:ffff")).isTrue();
+		assertThat(ipv6.contains("203.0.113.9")).isFalse();
+	}
+
+	@Test
+	@DisplayName("/32, /128 과 접두사 길이 없는 항목은 단일 주소")
+	void singleAddress() {
+		CidrTrie trie = CidrTrie.builder()
+			.add("192.0.2.1/32")
+			.add("198.51.100.7")
+			.add("2001:db8::1/128")
+			.add("2001:db8::2")
+			.build();
+
+		assertThat(trie.size()).isEqualTo(4);
+		assertThat(trie.contains("192.0.2.1")).isTrue();
+		assertThat(trie.contains("192.0.2.0")).isFalse();
+		assertThat(trie.contains("192.0.2.2")).isFalse();
+		assertThat(trie.contains("198.51.100.7")).isTrue();
+		assertThat(trie.contains("2001:0db8:0:0:0:0:0:1")).isTrue();
+		assertThat(trie.contains("2001:db8::2")).isTrue();
+		assertThat(trie.contains("2001:db8::3")).isFalse();
+	}
+
+	@Test
+	@DisplayName("IPv4 매핑 대역은 IPv4 대역으로, 매핑 주소는 IPv4 로 조회")
+	void ipv4Mapped() {
+		CidrTrie trie = CidrTrie.builder().add("::ffff:192.0.2.0/120").build();
+		assertThat(trie.contains("192.0.2.77")).isTrue();
+		assertThat(trie.contains("::ffff:192.0.2.5")).isTrue();
+		assertThat(trie.contains("192.0.3.1")).isFalse();
+
+		CidrTrie v4 = CidrTrie.builder().add("10.0.0.0/8").build();
+		assertThat(v4.contains("::ffff:10.20.30.40")).isTrue();
+		assertThat(v4.contains("::ffff:11.0.0.1")).isFalse();
+	}
+
+	@Test
+	@DisplayName("겹치는 대역은 넣는 순서와 관계없이 넓은 쪽 기준, 형제 대역 사이는 불일치")
+	void overlappingPrefixes() {
+		for (CidrTrie trie : new CidrTrie[]{
+			CidrTrie.builder().add("10.0.0.0/8").add("10.1.0.0/16").add("10.1.2.0/24").build(),
+			CidrTrie.builder().add("10.1.2.0/24").add("10.1.0.0/16").add("10.0.0.0/8").build()}) {
+			assertThat(trie.size()).isEqualTo(3);
+			assertThat(trie.contains("10.1.2.3")).isTrue();
+			assertThat(trie.contains("10.1.9.9")).isTrue();
+			assertThat(trie.contains("10.200.0.1")).isTrue();
+			assertThat(trie.contains("11.0.0.1")).isFalse();
+		}
+
+		CidrTrie siblings = CidrTrie.builder().add("10.0.0.0/16").add("10.2.0.0/16")
+			.add("2001:db8:1::/48").add("2001:db8:3::/48").build();
+		assertThat(siblings.contains("10.0.255.255")).isTrue();
+		assertThat(siblings.contains("10.2.0.0")).isTrue();
+		assertThat(siblings.contains("10.1.0.1")).isFalse();
+		assertThat(siblings.contains("2001:db8:1:ffff::1")).isTrue();
+		assertThat(siblings.contains("2001:db8:2::1")).isFalse();
+
+		// 호스트 비트가 있는 대역도 접두사만 사용
+		assertThat(CidrTrie.builder().add("10.1.2.3/8").build().contains("10.9.9.9")).isTrue();
+	}
+
+	@Test
+	@DisplayName("형식이 틀린 대역은 IllegalArgumentException, 틀린 주소 조회는 false")
+	void malformed() {
+		for (String invalid : new String[]{"10.0.0.0/33", "2001:db8::/129", "10.0.0.0/", "10.0.0.0/-1",
+			"10.0.0.0/1a", "10.0.0/8", "2001:db8:::/32", "/8", "10.0.0.0/0008"}) {
+			assertThatThrownBy(() -> CidrTrie.builder().add(invalid)).as(invalid)
+				.isInstanceOf(IllegalArgumentException.class);
+		}
+
+		CidrTrie trie = CidrTrie.builder().add("0.0.0.0/0").add("::/0").build();
+		assertThat(trie.contains("garbage")).isFalse();
+		assertThat(trie.contains("1.2.3")).isFalse();
+		assertThat(trie.contains("1::2::3")).isFalse();
+		assertThat(CidrTrie.empty().contains("1.2.3.4")).isFalse();
+	}
+}
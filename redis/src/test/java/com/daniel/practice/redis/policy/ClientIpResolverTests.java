@@ -0,0 +1,44 @@
+package com.daniel.practice.redis.policy;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.daniel.practice.redis.config.RateLimitProperties;
+
+public class ClientIpResolverTests {
+
+	private final ClientIpResolver resolver = resolver(List.of("127.0.0.1/32", "::1/128", "10.0.0.0/8"));
+
+	@Test
+	@DisplayName("신뢰 프록시가 아닌 접속 주소는 X-Forwarded-For 무시")
+	void untrustedRemote() {
+		assertThat(resolver.resolve("203.0.113.5", "1.2.3.4")).isEqualTo("203.0.113.5");
+		assertThat(resolver.resolve("203.0.113.5", null)).isEqualTo("203.0.113.5");
+	}
+
+	@Test
+	@DisplayName("오른쪽부터 신뢰 프록시를 건너뛰고 첫 번째 다른 주소")
+	void rightmostUntrusted() {
+		assertThat(resolver.resolve("127.0.0.1", "1.2.3.4, 198.51.100.9")).isEqualTo("198.51.100.9");
+		assertThat(resolver.resolve("127.0.0.1", "1.2.3.4, 198.51.100.9, 10.1.1.1")).isEqualTo("198.51.100.9");
+		assertThat(resolver.resolve("0:0:0:0:0:0:0:1", "2001:db8::7")).isEqualTo("2001:db8::7");
+	}
+
+	@Test
+	@DisplayName("전부 신뢰 프록시면 가장 먼 프록시, 형식이 틀린 값에서는 멈춤")
+	void allTrustedOrMalformed() {
+		assertThat(resolver.resolve("127.0.0.1", "10.2.2.2, 10.1.1.1")).isEqualTo("10.2.2.2");
+		assertThat(resolver.resolve("127.0.0.1", "garbage, 10.1.1.1")).isEqualTo("10.1.1.1");
+		assertThat(resolver.resolve("127.0.0.1", " , ")).isEqualTo("127.0.0.1");
+	}
+
+	private static ClientIpResolver resolver(List<String> trustedProxies) {
+		RateLimitProperties properties = new RateLimitProperties();
+		properties.getIp().setTrustedProxies(trustedProxies);
+		return new ClientIpResolver(properties);
+	}
+}
@@ -0,0 +1,68 @@
+package com.daniel.practice.redis.policy;
+
+import static org.assertj.core.api.Assertions.*;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class IpAddressTests {
+
+	@Test
+	@DisplayName("IPv4 → 32비트 정수, 형식이 틀리면 INVALID")
+	void parseIpv4() {
+		assertThat(IpAddress.parseIpv4("0.0.0.0")).isZero();
+		assertThat(IpAddress.parseIpv4("192.168.1.1")).isEqualTo(0xC0A80101L);
+		assertThat(IpAddress.parseIpv4("255.255.255.255")).isEqualTo(0xFFFFFFFFL);
+
+		for (String invalid : new String[]{"", "1.2.3", "1.2.3.4.5", "256.0.0.1", "1..2.3", "1234.1.1.1",
+			"a.b.c.d", " 1.2.3.4", "1.2.3.4/32"}) {
+			assertThat(IpAddress.parseIpv4(invalid)).as(invalid).isEqualTo(IpAddress.INVALID);
+		}
+	}
+
+	@Test
+	@DisplayName("IPv6 → 상위/하위 64비트, :: 생략과 표기 차이는 같은 값")
+	void parseIpv6() {
+		assertThat(IpAddress.parseIpv6("::", true)).isZero();
+		assertThat(IpAddress.parseIpv6("::", false)).isZero();
+		assertThat(IpAddress.parseIpv6("::1", true)).isZero();
+		assertThat(IpAddress.parseIpv6("::1", false)).isEqualTo(1L);
+		assertThat(IpAddress.parseIpv6("2001:db8::", true)).isEqualTo(0x20010DB800000000L);
+		assertThat(IpAddress.parseIpv6("2001:db8::", false)).isZero();
+
+		String compact = "2001:db8::ff00:42:8329";
+		String full = "2001:0DB8:0000:0000:0000:FF00:0042:8329";
+		assertThat(IpAddress.parseIpv6(full, true)).isEqualTo(IpAddress.parseIpv6(compact, true));
+		assertThat(IpAddress.parseIpv6(full, false)).isEqualTo(IpAddress.parseIpv6(compact, false))
+			.isEqualTo(0x0000FF0000428329L);
+	}
+
+	@Test
+	@DisplayName("IPv4 매핑 주소 (::ffff:a.b.c.d)")
+	void ipv4Mapped() {
+		long high = IpAddress.parseIpv6("::ffff:192.0.2.128", true);
+		long low = IpAddress.parseIpv6("::ffff:192.0.2.128", false);
+		assertThat(IpAddress.isIpv4Mapped(high, low)).isTrue();
+		assertThat(low & 0xFFFFFFFFL).isEqualTo(IpAddress.parseIpv4("192.0.2.128"));
+
+		assertThat(IpAddress.isIpv4Mapped(0, 1)).isFalse();
+		assertThat(IpAddress.isIpv4Mapped(IpAddress.parseIpv6("64:ff9b::192.0.2.128", true),
+			IpAddress.parseIpv6("64:ff9b::192.0.2.128", false))).isFalse();
+	}
+
+	@Test
+	@DisplayName("형식이 틀린 IPv6 는 IllegalArgumentException, isValid 는 false")
+	void malformed() {
+		for (String invalid : new String[]{":", ":1", "1:", "1::2::3", "1:2:3:4:5:6:7", "1:2:3:4:5:6:7:8:9",
+			"12345::", "::g", "1:2:3:4:5:6:7::8:9", "::1.2.3.4:5", "::256.1.1.1", "1.2.3.4:80"}) {
+			assertThatThrownBy(() -> IpAddress.parseIpv6(invalid, true)).as(invalid)
+				.isInstanceOf(IllegalArgumentException.class);
+			assertThat(IpAddress.isValid(invalid)).as(invalid).isFalse();
+		}
+
+		assertThat(IpAddress.isValid("1.2.3.4")).isTrue();
+		assertThat(IpAddress.isValid("::1")).isTrue();
+		assertThat(IpAddress.isValid("::ffff:1.2.3.4")).isTrue();
+		assertThat(IpAddress.isValid("unknown")).isFalse();
+	}
+}
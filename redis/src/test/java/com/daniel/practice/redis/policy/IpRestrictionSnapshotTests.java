@@ -0,0 +1,50 @@
+package com.daniel.practice.redis.policy;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class IpRestrictionSnapshotTests {
+
+	@Test
+	@DisplayName("변경 1건 반영: 단일 IPv4 는 Set 만, CIDR / IPv6 는 바뀐 목록의 대역 트리만 다시 만듦")
+	void applyChange() {
+		IpRestrictionSnapshot snapshot = new IpRestrictionSnapshot(1,
+			List.of("192.0.2.0/24"), List.of("198.51.100.0/24", "203.0.113.1"), Map.of());
+		assertThat(snapshot.getRangeCount()).isEqualTo(2);
+
+		// 단일 IPv4 추가 → 대역은 그대로 조회됨
+		IpRestrictionSnapshot v2 = snapshot.apply(2, IpRestrictionSnapshot.ADD, IpRestrictionSnapshot.BLACKLIST,
+			"203.0.113.2");
+		assertThat(v2.getVersion()).isEqualTo(2);
+		assertThat(v2.isBlacklisted("203.0.113.2")).isTrue();
+		assertThat(v2.isBlacklisted("198.51.100.9")).isTrue();
+		assertThat(v2.isWhitelisted("192.0.2.9")).isTrue();
+		assertThat(v2.getRangeCount()).isEqualTo(2);
+
+		// 대역 추가/제거
+		IpRestrictionSnapshot v3 = v2.apply(3, IpRestrictionSnapshot.ADD, IpRestrictionSnapshot.BLACKLIST,
+			"10.0.0.0/8");
+		assertThat(v3.isBlacklisted("10.1.2.3")).isTrue();
+		assertThat(v3.getRangeCount()).isEqualTo(3);
+		IpRestrictionSnapshot v4 = v3.apply(4, IpRestrictionSnapshot.REMOVE, IpRestrictionSnapshot.BLACKLIST,
+			"198.51.100.0/24");
+		assertThat(v4.isBlacklisted("198.51.100.9")).isFalse();
+		assertThat(v4.isBlacklisted("10.1.2.3")).isTrue();
+		assertThat(v4.isWhitelisted("192.0.2.9")).isTrue();
+
+		// 단일 IPv6 는 표기가 달라도 일치
+		IpRestrictionSnapshot v5 = v4.apply(5, IpRestrictionSnapshot.ADD, IpRestrictionSnapshot.WHITELIST,
+			"2001:db8::1");
+		assertThat(v5.isWhitelisted("2001:0db8:0:0:0:0:0:1")).isTrue();
+		assertThat(v5.isWhitelisted("192.0.2.9")).isTrue();
+
+		// 이전 스냅샷은 바뀌지 않음
+		assertThat(snapshot.isBlacklisted("203.0.113.2")).isFalse();
+		assertThat(v2.isBlacklisted("10.1.2.3")).isFalse();
+	}
+}
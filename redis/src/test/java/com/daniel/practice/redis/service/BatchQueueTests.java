@@ -0,0 +1,62 @@
+package com.daniel.practice.redis.service;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+public class BatchQueueTests {
+
+	@Test
+	@DisplayName("drain 한 번은 최대 maxBatches 묶음까지만 기록하고 나머지는 다음 실행으로")
+	void boundedDrain() {
+		BatchQueue<Integer> queue = new BatchQueue<>("테스트", 100);
+		for (int i = 0; i < 50; i++) {
+			queue.offer(i);
+		}
+
+		List<Integer> sizes = new ArrayList<>();
+		queue.drain(10, 2, batch -> sizes.add(batch.size()));
+		assertThat(sizes).containsExactly(10, 10);
+
+		queue.drain(10, Integer.MAX_VALUE, batch -> sizes.add(batch.size()));
+		assertThat(sizes).containsExactly(10, 10, 10, 10, 10);
+	}
+
+	@Test
+	@DisplayName("기록에 실패하면 그 실행은 멈추고 남은 묶음은 대기열에 남김")
+	void stopOnFailure() {
+		BatchQueue<Integer> queue = new BatchQueue<>("테스트", 100);
+		for (int i = 0; i < 30; i++) {
+			queue.offer(i);
+		}
+
+		List<Integer> attempts = new ArrayList<>();
+		queue.drain(10, Integer.MAX_VALUE, batch -> {
+			attempts.add(batch.size());
+			throw new QueryTimeoutException("Redis 지연");
+		});
+		assertThat(attempts).containsExactly(10);
+
+		List<Integer> written = new ArrayList<>();
+		queue.drain(10, Integer.MAX_VALUE, written::addAll);
+		assertThat(written).hasSize(20).startsWith(10);
+	}
+
+	@Test
+	@DisplayName("가득 찬 대기열은 새 항목을 버림")
+	void dropWhenFull() {
+		BatchQueue<Integer> queue = new BatchQueue<>("테스트", 3);
+		for (int i = 0; i < 5; i++) {
+			queue.offer(i);
+		}
+
+		List<Integer> written = new ArrayList<>();
+		queue.drain(10, 1, written::addAll);
+		assertThat(written).containsExactly(0, 1, 2);
+	}
+}
@@ -0,0 +1,84 @@
+package com.daniel.practice.redis.service;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+@SpringBootTest
+public class BlackListTests {
+
+	@Autowired
+	private BlackListService blackListService;
+
+	@Autowired
+	private JwtService jwtService;
+
+	@Autowired
+	private StringRedisTemplate stringRedisTemplate;
+
+	@Test
+	@DisplayName("JWT 블랙리스트: jti 키, 빈 값, 토큰 exp 에 만료")
+	void revokeTest() {
+		String token = jwtService.generateToken("blacklist-user", "USER", TimeUnit.MINUTES.toMillis(10));
+		String other = jwtService.generateToken("blacklist-other", "USER", TimeUnit.MINUTES.toMillis(10));
+		String key = BlackListService.createKey(token, jwtService.parseToken(token));
+
+		try {
+			System.out.println("=== JWT 블랙리스트 실험 ===");
+			assertThat(blackListService.isBlackListed(token)).isFalse();
+
+			blackListService.addToBlackList(token);
+			assertThat(blackListService.isBlackListed(token)).isTrue();
+			assertThat(blackListService.isBlackListed(other)).isFalse();
+
+			// 토큰 길이와 관계없는 짧은 키(jti), 값 없음, TTL 은 토큰 남은 시간 이하
+			Long ttl = stringRedisTemplate.getExpire(key, TimeUnit.MILLISECONDS);
+			System.out.println("토큰 길이: " + token.length() + ", 키: " + key + ", TTL: " + ttl + "ms");
+			String jti = jwtService.parseToken(token).orElseThrow().getPayload().getId();
+			assertThat(key).isEqualTo("blacklist:jti:" + jti);
+			assertThat(stringRedisTemplate.opsForValue().get(key)).isEmpty();
+			assertThat(ttl).isPositive().isLessThanOrEqualTo(TimeUnit.MINUTES.toMillis(10));
+
+			// 다시 등록해도 그대로
+			blackListService.addToBlackList(token);
+			assertThat(blackListService.isBlackListed(token)).isTrue();
+		} finally {
+			stringRedisTemplate.delete(key);
+		}
+	}
+
+	@Test
+	@DisplayName("JWT 블랙리스트: jti 없는 토큰은 digest 키")
+	void digestKeyTest() {
+		String token = jwtService.generateToken("blacklist-digest", "USER", TimeUnit.MINUTES.toMillis(10));
+
+		// 검증에 실패한 토큰(클레임 없음)은 jti 를 믿을 수 없으므로 digest 키
+		String key = BlackListService.createKey(token, Optional.empty());
+		System.out.println("digest 키: " + key);
+		assertThat(key).hasSize("blacklist:".length() + 22).doesNotStartWith("blacklist:jti:");
+	}
+
+	@Test
+	@DisplayName("JWT 블랙리스트: 이전 형식(blacklist:<토큰>) 키도 차단")
+	void legacyKeyTest() {
+		String token = jwtService.generateToken("blacklist-legacy", "USER", TimeUnit.MINUTES.toMillis(10));
+		String legacyKey = BlackListService.legacyKey(token);
+
+		try {
+			assertThat(blackListService.isBlackListed(token)).isFalse();
+
+			// 배포 전 형식으로 등록된 키
+			stringRedisTemplate.opsForValue().set(legacyKey, token, 10, TimeUnit.MINUTES);
+			assertThat(blackListService.isBlackListed(token)).isTrue();
+		} finally {
+			stringRedisTemplate.delete(legacyKey);
+		}
+	}
+}
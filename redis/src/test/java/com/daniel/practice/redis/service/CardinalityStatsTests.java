@@ -0,0 +1,67 @@
+package com.daniel.practice.redis.service;
+
+import static org.assertj.core.api.Assertions.*;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.daniel.practice.redis.dto.CardinalityStats;
+import com.daniel.practice.redis.enums.RateLimitKeyType;
+import com.daniel.practice.redis.enums.RateLimitWindow;
+
+@SpringBootTest
+public class CardinalityStatsTests {
+
+	@Autowired
+	private CardinalityStatsService cardinalityStatsService;
+
+	@Autowired
+	private IpRateLimitService ipRateLimitService;
+
+	@Autowired
+	private TokenUsageLimitService tokenUsageLimitService;
+
+	@Test
+	@DisplayName("Rate Limit 확인 시 고유 IP/토큰 HyperLogLog 집계 (대기열 → 파이프라인 PFADD)")
+	void uniqueVisitorTest() {
+		// 다른 테스트도 같은 버킷에 기록하므로 증가분으로 확인 (일 버킷은 실행 중 바뀔 가능성이 가장 낮음)
+		cardinalityStatsService.flush();
+		long ipsBefore = cardinalityStatsService.count(RateLimitKeyType.IP, RateLimitWindow.DAY, 1).getUnique();
+		long tokensBefore = cardinalityStatsService.count(RateLimitKeyType.TOKEN, RateLimitWindow.DAY, 1).getUnique();
+
+		System.out.println("=== 고유 IP/토큰 집계 실험 ===");
+
+		// 서로 다른 IP 100개 x 3회 (같은 IP 는 한 번만 세어짐)
+		String prefix = "stats-" + System.nanoTime() + "-";
+		for (int i = 0; i < 100; i++) {
+			for (int r = 0; r < 3; r++) {
+				ipRateLimitService.isAllowedPerMinute(prefix + i, 10);
+			}
+		}
+		// 서로 다른 토큰 10개 (제한 초과로 거부된 요청도 집계)
+		for (int i = 0; i < 10; i++) {
+			tokenUsageLimitService.check("temp_" + prefix + i);
+			tokenUsageLimitService.check("temp_" + prefix + i);
+		}
+
+		// 기록은 백그라운드에서 모아서 처리되므로 바로 반영
+		cardinalityStatsService.flush();
+		CardinalityStats ips = cardinalityStatsService.count(RateLimitKeyType.IP, RateLimitWindow.DAY, 1);
+		CardinalityStats tokens = cardinalityStatsService.count(RateLimitKeyType.TOKEN, RateLimitWindow.DAY, 1);
+		System.out.println("고유 IP: " + ips);
+		System.out.println("고유 토큰: " + tokens);
+
+		// HyperLogLog 는 추정값 (작은 집합은 희소 표현이라 거의 정확)
+		assertThat(ips.getUnique() - ipsBefore).isBetween(95L, 105L);
+		assertThat(tokens.getUnique() - tokensBefore).isBetween(9L, 11L);
+
+		// 최근 60분: 완료된 59개 버킷은 PFMERGE 로 합치고 현재 버킷과 함께 PFCOUNT
+		CardinalityStats lastHour = cardinalityStatsService.count(RateLimitKeyType.IP, RateLimitWindow.MINUTE, 60);
+		System.out.println("최근 60분 고유 IP: " + lastHour.getUnique() + ", 분별: " + lastHour.getSeries());
+		assertThat(lastHour.getSeries()).hasSize(60);
+		assertThat(lastHour.getUnique()).isGreaterThanOrEqualTo(lastHour.getSeries().get(59));
+		assertThat(lastHour.getUnique()).isGreaterThanOrEqualTo(95L);
+	}
+}
@@ -0,0 +1,167 @@
+package com.daniel.practice.redis.service;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import com.daniel.practice.redis.config.RateLimitProperties;
+import com.daniel.practice.redis.dto.QuotaDecision;
+import com.daniel.practice.redis.metrics.RedisOperationMetrics;
+import com.daniel.practice.redis.resilience.LocalRateLimiter;
+import com.daniel.practice.redis.resilience.RedisCircuitBreaker;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@SpringBootTest
+public class CombinedQuotaTests {
+
+	@Autowired
+	private CombinedQuotaService combinedQuotaService;
+
+	@Autowired
+	private ReactiveCombinedQuotaService reactiveCombinedQuotaService;
+
+	@Autowired
+	private StringRedisTemplate stringRedisTemplate;
+
+	@Autowired
+	private UserRateLimitService userRateLimitService;
+
+	@Autowired
+	private TokenUsageLimitService tokenUsageLimitService;
+
+	@Autowired
+	private RedisCircuitBreaker redisCircuitBreaker;
+
+	@Autowired
+	private LocalRateLimiter localRateLimiter;
+
+	@Test
+	@DisplayName("통합 제한: 하나라도 거부되면 어떤 카운터도 증가하지 않음")
+	void deniedRequestDoesNotIncrement() {
+		String suffix = String.valueOf(System.nanoTime());
+		String userId = "combined_" + suffix;
+		String token = "temp_" + suffix; // 1회용 토큰
+
+		System.out.println("=== 통합 제한 실험 (temp_ 토큰 1회) ===");
+
+		QuotaDecision first = combinedQuotaService.check(userId, token);
+		System.out.println("1회차: " + first);
+		assertThat(first.isAllowed()).isTrue();
+		assertThat(first.getUserDailyCount()).isEqualTo(1);
+		assertThat(first.getTokenCount()).isEqualTo(1);
+
+		// 토큰 제한으로 거부 → 사용자 카운터도 그대로
+		QuotaDecision second = combinedQuotaService.check(userId, token);
+		System.out.println("2회차: " + second);
+		assertThat(second.isAllowed()).isFalse();
+		assertThat(second.isTokenAllowed()).isFalse();
+		assertThat(second.getUserDailyCount()).isEqualTo(1);
+		assertThat(second.getTokenCount()).isEqualTo(1);
+	}
+
+	@Test
+	@DisplayName("리액티브 통합 제한: 토큰에서 거부돼도 사용자 시간당 카운터가 올라가지 않고 재시도 대기를 돌려줌")
+	void reactiveDeniedRequestDoesNotIncrement() {
+		String suffix = String.valueOf(System.nanoTime());
+		String userId = "reactive_combined_" + suffix;
+		String token = "temp_" + suffix; // 1회용 토큰
+
+		QuotaDecision first = reactiveCombinedQuotaService.check(userId, token).block();
+		assertThat(first.isAllowed()).isTrue();
+		assertThat(first.getRetryAfter()).isZero();
+
+		QuotaDecision second = reactiveCombinedQuotaService.check(userId, token).block();
+		System.out.println("2회차: " + second);
+		assertThat(second.isAllowed()).isFalse();
+		assertThat(second.isTokenAllowed()).isFalse();
+		assertThat(second.getUserHourlyCount()).isEqualTo(1);
+		assertThat(second.getRetryAfter()).isPositive().isLessThanOrEqualTo(3600);
+	}
+
+	@Test
+	@DisplayName("대량 예약: 남은 허용량만큼만 한 번에 예약")
+	void tryAcquirePartialGrant() {
+		String suffix = String.valueOf(System.nanoTime());
+		String userId = "bulk_" + suffix;
+		String token = "pay_" + suffix; // 결제 토큰 10회
+
+		System.out.println("=== 대량 예약 실험 (25개 요청, 토큰 제한 10회) ===");
+
+		QuotaDecision decision = combinedQuotaService.tryAcquire(userId, token, 25);
+		System.out.println("결과: " + decision);
+		assertThat(decision.getGranted()).isEqualTo(10);
+		assertThat(decision.isAllowed()).isFalse();
+		assertThat(decision.getUserHourlyCount()).isEqualTo(10);
+		assertThat(decision.getUserDailyCount()).isEqualTo(10);
+
+		// 토큰 허용량을 모두 써서 더 이상 예약되지 않음
+		QuotaDecision next = combinedQuotaService.tryAcquire(userId, token, 5);
+		assertThat(next.getGranted()).isZero();
+	}
+
+	@Test
+	@DisplayName("대량 예약: 1 미만 개수는 스크립트를 호출하지 않고 거부")
+	void tryAcquireRejectsNonPositiveCount() {
+		assertThatThrownBy(() -> combinedQuotaService.tryAcquire("bulk_invalid", "pay_invalid", 0))
+			.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> combinedQuotaService.tryAcquire("bulk_invalid", "pay_invalid", -3))
+			.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	@DisplayName("통합 제한: 시간당/일일 카운터는 키가 달라 각자의 TTL 을 유지")
+	void hourlyAndDailyKeepOwnTtl() {
+		String suffix = String.valueOf(System.nanoTime());
+		String userId = "combined_ttl_" + suffix;
+
+		QuotaDecision decision = combinedQuotaService.check(userId, "pay_" + suffix);
+		assertThat(decision.isAllowed()).isTrue();
+
+		Long hourlyTtl = stringRedisTemplate.getExpire(UserRateLimitService.createHourlyKey(userId), TimeUnit.SECONDS);
+		Long dailyTtl = stringRedisTemplate.getExpire(UserRateLimitService.createDailyKey(userId), TimeUnit.SECONDS);
+		System.out.println("시간당 TTL: " + hourlyTtl + "초, 일일 TTL: " + dailyTtl + "초");
+		assertThat(hourlyTtl).isPositive().isLessThanOrEqualTo(3600);
+		assertThat(dailyTtl).isGreaterThan(3600).isLessThanOrEqualTo(86400);
+	}
+
+	@Test
+	@DisplayName("통합 제한: 샤딩 중인 카운터는 샤드 합계까지 더해 판단하고 윈도우 TTL 을 늘리지 않음")
+	void shardedCountersAreIncluded() {
+		// 샤딩을 켠 별도 인스턴스 (애플리케이션 설정은 샤딩 꺼짐)
+		RateLimitProperties properties = new RateLimitProperties();
+		properties.getSharding().setEnabled(true);
+		properties.getSharding().setShards(4);
+		ShardedCounterService shardedCounterService = new ShardedCounterService(stringRedisTemplate, properties,
+			new RedisOperationMetrics(new SimpleMeterRegistry()), new SimpleMeterRegistry());
+		CombinedQuotaService service = new CombinedQuotaService(stringRedisTemplate, userRateLimitService,
+			tokenUsageLimitService, redisCircuitBreaker, localRateLimiter, shardedCounterService);
+
+		String suffix = String.valueOf(System.nanoTime());
+		String userId = "combined_sharded_" + suffix;
+		String token = "pay_" + suffix; // 결제 토큰 10회
+		String tokenKey = TokenUsageLimitService.createTokenUsageKey(token);
+
+		// 다른 노드가 샤딩 중: 기존 키는 필드 0 + 윈도우 TTL, 증가분 9 는 샤드에 있음 (shard-window.lua / shard-incr.lua)
+		stringRedisTemplate.opsForHash().put(tokenKey, "count", "0");
+		stringRedisTemplate.expire(tokenKey, 60, TimeUnit.SECONDS);
+		stringRedisTemplate.opsForValue().set(ShardedCounterService.createShardKey(tokenKey, "count", 2), "9",
+			60, TimeUnit.SECONDS);
+
+		QuotaDecision decision = service.tryAcquire(userId, token, 5);
+		System.out.println("결과: " + decision);
+		assertThat(decision.getGranted()).isEqualTo(1);
+		assertThat(decision.getTokenCount()).isEqualTo(10);
+		assertThat(decision.getTokenTtl()).isPositive().isLessThanOrEqualTo(60);
+
+		QuotaDecision next = service.check(userId, token);
+		assertThat(next.isAllowed()).isFalse();
+		assertThat(next.isTokenAllowed()).isFalse();
+	}
+}
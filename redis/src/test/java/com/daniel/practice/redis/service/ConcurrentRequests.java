@@ -0,0 +1,46 @@
+package com.daniel.practice.redis.service;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+// 동시성 실험 공통 코드: threadCount 개 스레드가 동시에 출발해 각자 requestsPerThread 번 요청
+final class ConcurrentRequests {
+
+	private ConcurrentRequests() {
+	}
+
+	// 허용된 요청 수 반환
+	static int run(int threadCount, int requestsPerThread, BooleanSupplier request) throws InterruptedException {
+		ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+		CountDownLatch start = new CountDownLatch(1);
+		CountDownLatch done = new CountDownLatch(threadCount);
+		AtomicInteger allowedCount = new AtomicInteger();
+
+		for (int t = 0; t < threadCount; t++) {
+			executor.submit(() -> {
+				try {
+					start.await();
+					for (int i = 0; i < requestsPerThread; i++) {
+						if (request.getAsBoolean()) {
+							allowedCount.incrementAndGet();
+						}
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				} finally {
+					done.countDown();
+				}
+			});
+		}
+
+		// 모든 스레드가 동시에 출발
+		start.countDown();
+		done.await(30, TimeUnit.SECONDS);
+		executor.shutdown();
+		return allowedCount.get();
+	}
+}
@@ -0,0 +1,138 @@
+package com.daniel.practice.redis.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Properties;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import com.daniel.practice.redis.config.RedisScripts;
+import com.daniel.practice.redis.enums.RateLimitWindow;
+
+// IP 별 카운터 키 vs Count-Min Sketch 메모리/처리량 비교 (서로 다른 IP 100만 / 1000만)
+// 실행: REDIS_BENCHMARK=true ./gradlew :redis:test --tests '*HeavyHitterBenchmarkTests'
+// 전용 Redis 인스턴스에서 실행할 것 (1000만 키는 used_memory 가 1GB 가까이 늘어남)
+// 두 방식 모두 IP 당 1회, 1만 건씩 파이프라인으로 보내 네트워크 왕복 대신 Redis 처리 비용을 비교
+@SpringBootTest
+@EnabledIfEnvironmentVariable(named = "REDIS_BENCHMARK", matches = "true")
+public class HeavyHitterBenchmarkTests {
+
+	private static final int[] DISTINCT_IPS = {1_000_000, 10_000_000};
+	private static final int BATCH_SIZE = 10_000;
+	private static final int WINDOW_SECONDS = 60;
+
+	@Autowired
+	private HeavyHitterService heavyHitterService;
+
+	@Autowired
+	private StringRedisTemplate stringRedisTemplate;
+
+	@Test
+	@DisplayName("IP 별 키 vs Count-Min Sketch 메모리/처리량 비교")
+	void comparePerIpKeysAndSketch() {
+		System.out.println("=== IP 별 키 vs Count-Min Sketch ===");
+		System.out.printf("%-10s %12s %14s %14s%n", "mode", "ips", "ops/sec", "memory(MB)");
+
+		// 스크립트 캐시 준비
+		heavyHitterService.record("203.0.113.1");
+		deleteSketch();
+
+		for (int ipCount : DISTINCT_IPS) {
+			runPerIpKeys(ipCount);
+			runSketch(ipCount);
+		}
+	}
+
+	// 기존 방식: ip:rate:minute:{IP 압축 표현} 고정 윈도우 카운터 (INCR + EXPIRE)
+	private void runPerIpKeys(int ipCount) {
+		long memoryBefore = usedMemory();
+		long start = System.nanoTime();
+		for (int from = 0; from < ipCount; from += BATCH_SIZE) {
+			int end = Math.min(ipCount, from + BATCH_SIZE);
+			int batchStart = from;
+			stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+				for (int i = batchStart; i < end; i++) {
+					byte[] key = perIpKey(i);
+					connection.stringCommands().incr(key);
+					connection.keyCommands().expire(key, WINDOW_SECONDS);
+				}
+				return null;
+			});
+		}
+		print("per-ip", ipCount, System.nanoTime() - start, usedMemory() - memoryBefore);
+		deletePerIpKeys(ipCount);
+	}
+
+	// 스케치 방식: 요청마다 heavy-hitter 스크립트 1회 (EVALSHA)
+	private void runSketch(int ipCount) {
+		String sha = RedisScripts.HEAVY_HITTER.getSha1();
+		List<String> keys = heavyHitterService.keys();
+
+		long memoryBefore = usedMemory();
+		long start = System.nanoTime();
+		for (int from = 0; from < ipCount; from += BATCH_SIZE) {
+			int end = Math.min(ipCount, from + BATCH_SIZE);
+			int batchStart = from;
+			stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+				for (int i = batchStart; i < end; i++) {
+					String[] args = heavyHitterService.args(ipOf(i));
+					byte[][] keysAndArgs = new byte[keys.size() + args.length][];
+					for (int k = 0; k < keys.size(); k++) {
+						keysAndArgs[k] = keys.get(k).getBytes(StandardCharsets.UTF_8);
+					}
+					for (int a = 0; a < args.length; a++) {
+						keysAndArgs[keys.size() + a] = args[a].getBytes(StandardCharsets.UTF_8);
+					}
+					connection.scriptingCommands().evalSha(sha, ReturnType.MULTI, keys.size(), keysAndArgs);
+				}
+				return null;
+			});
+		}
+		print("sketch", ipCount, System.nanoTime() - start, usedMemory() - memoryBefore);
+		deleteSketch();
+	}
+
+	private static void print(String mode, int ipCount, long elapsedNanos, long memoryBytes) {
+		double opsPerSec = ipCount / (elapsedNanos / 1_000_000_000.0);
+		System.out.printf("%-10s %12d %14.0f %14.1f%n", mode, ipCount, opsPerSec, memoryBytes / 1024.0 / 1024.0);
+	}
+
+	// 10.x.y.z 형태로 IP 생성 (최대 16,777,216개)
+	private static String ipOf(int i) {
+		return "10." + ((i >> 16) & 0xFF) + "." + ((i >> 8) & 0xFF) + "." + (i & 0xFF);
+	}
+
+	private static byte[] perIpKey(int i) {
+		return IpRateLimitService.createRateLimitKey(ipOf(i), RateLimitWindow.MINUTE.getKey()).getBytes(StandardCharsets.UTF_8);
+	}
+
+	private long usedMemory() {
+		Properties info = stringRedisTemplate.execute(
+			(RedisCallback<Properties>) connection -> connection.serverCommands().info("memory"));
+		return Long.parseLong(info.getProperty("used_memory"));
+	}
+
+	private void deletePerIpKeys(int ipCount) {
+		for (int from = 0; from < ipCount; from += BATCH_SIZE) {
+			int end = Math.min(ipCount, from + BATCH_SIZE);
+			int batchStart = from;
+			stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+				for (int i = batchStart; i < end; i++) {
+					connection.keyCommands().del(perIpKey(i));
+				}
+				return null;
+			});
+		}
+	}
+
+	private void deleteSketch() {
+		stringRedisTemplate.delete(List.of(HeavyHitterService.SKETCH_KEY, HeavyHitterService.TOP_KEY));
+	}
+}
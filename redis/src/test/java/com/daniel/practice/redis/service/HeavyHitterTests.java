@@ -0,0 +1,142 @@
+package com.daniel.practice.redis.service;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import com.daniel.practice.redis.config.RateLimitProperties;
+import com.daniel.practice.redis.dto.HeavyHitter;
+import com.daniel.practice.redis.dto.RateLimitDecision;
+import com.daniel.practice.redis.metrics.RedisOperationMetrics;
+import com.daniel.practice.redis.resilience.RedisCircuitBreaker;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@SpringBootTest
+public class HeavyHitterTests {
+
+	@Autowired
+	private StringRedisTemplate stringRedisTemplate;
+
+	@Autowired
+	private IpRestrictionService ipRestrictionService;
+
+	@Test
+	@DisplayName("Count-Min Sketch 헤비 히터 탐지 → 자동 일시 차단")
+	void heavyHitterTest() {
+		// 기준/크기를 작게 잡은 별도 인스턴스 사용
+		RateLimitProperties properties = new RateLimitProperties();
+		RateLimitProperties.HeavyHitter heavyHitter = properties.getIp().getHeavyHitter();
+		heavyHitter.setDepth(4);
+		heavyHitter.setWidth(1024);
+		heavyHitter.setThreshold(20);
+		heavyHitter.setTopK(3);
+		HeavyHitterService service = new HeavyHitterService(stringRedisTemplate, ipRestrictionService,
+			new RedisCircuitBreaker(properties, new SimpleMeterRegistry()),
+			new RedisOperationMetrics(new SimpleMeterRegistry()), properties, new SimpleMeterRegistry());
+
+		String attacker = "198.51.100.7";
+		deleteKeys();
+		ipRestrictionService.unban(attacker);
+
+		System.out.println("=== 헤비 히터 탐지 실험 (윈도우당 20회 이상) ===");
+
+		// 1. 일반 IP 50개 x 2회
+		for (int i = 0; i < 50; i++) {
+			for (int r = 0; r < 2; r++) {
+				assertThat(service.record("203.0.113." + i).isAllowed()).isTrue();
+			}
+		}
+
+		// 2. 공격 IP 25회 → 20번째 요청부터 거부
+		int allowed = 0;
+		for (int i = 0; i < 25; i++) {
+			RateLimitDecision decision = service.record(attacker);
+			if (decision.isAllowed()) {
+				allowed++;
+			}
+		}
+		System.out.println("공격 IP 허용: " + allowed);
+		assertThat(allowed).isEqualTo(19);
+		// 영구 블랙리스트가 아니라 banDuration 뒤 풀리는 일시 차단
+		assertThat(ipRestrictionService.isBlacklisted(attacker)).isFalse();
+		Long banExpiry = ipRestrictionService.getTempBanExpiry(attacker);
+		System.out.println("일시 차단 만료: " + banExpiry);
+		assertThat(banExpiry).isNotNull()
+			.isLessThanOrEqualTo(System.currentTimeMillis() + heavyHitter.getBanDuration().toMillis());
+
+		// 3. Top-K 1위는 공격 IP, 추정값은 실제 요청 수 이상
+		List<HeavyHitter> topK = service.getTopK();
+		System.out.println("Top-K: " + topK);
+		assertThat(topK).hasSizeLessThanOrEqualTo(3);
+		assertThat(topK.get(0).getIp()).isEqualTo(attacker);
+		assertThat(topK.get(0).getEstimate()).isGreaterThanOrEqualTo(25);
+
+		// 4. 스케치 크기는 IP 수와 관계없이 depth x width x 4바이트 이하
+		Long sketchBytes = stringRedisTemplate.opsForValue().size(HeavyHitterService.SKETCH_KEY);
+		System.out.println("스케치 크기: " + sketchBytes + " bytes");
+		assertThat(sketchBytes).isLessThanOrEqualTo(4L * 1024 * 4);
+
+		deleteKeys();
+		ipRestrictionService.unban(attacker);
+	}
+
+	@Test
+	@DisplayName("Top-K 에 들지 못한 헤비 히터도 윈도우당 한 번만 탐지")
+	void flaggedOnceOutsideTopKTest() {
+		// K = 1 이라 Top-K 를 먼저 차지한 IP 보다 적은 IP 는 ZSET 에 남지 않음
+		RateLimitProperties properties = new RateLimitProperties();
+		RateLimitProperties.HeavyHitter heavyHitter = properties.getIp().getHeavyHitter();
+		heavyHitter.setDepth(4);
+		heavyHitter.setWidth(1024);
+		heavyHitter.setThreshold(5);
+		heavyHitter.setTopK(1);
+		heavyHitter.setAutoBan(false);
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		HeavyHitterService service = new HeavyHitterService(stringRedisTemplate, ipRestrictionService,
+			new RedisCircuitBreaker(properties, new SimpleMeterRegistry()),
+			new RedisOperationMetrics(new SimpleMeterRegistry()), properties, meterRegistry);
+
+		String top = "198.51.100.8";
+		String second = "198.51.100.9";
+		deleteKeys();
+
+		for (int i = 0; i < 20; i++) {
+			service.record(top);
+		}
+		for (int i = 0; i < 10; i++) {
+			service.record(second);
+		}
+
+		double flagged = meterRegistry.get("rate_limit.heavy_hitter.flagged").counter().count();
+		System.out.println("탐지 횟수: " + flagged + ", Top-K: " + service.getTopK());
+		assertThat(service.getTopK()).extracting(HeavyHitter::getIp).containsExactly(top);
+		assertThat(flagged).isEqualTo(2);
+
+		// 탐지 SET 도 스케치와 같이 만료
+		assertThat(stringRedisTemplate.getExpire(HeavyHitterService.FLAGGED_KEY)).isPositive();
+
+		deleteKeys();
+	}
+
+	@Test
+	@DisplayName("Top-K 크기는 1 이상만 허용 (0 이면 스크립트가 빈 Top-K 의 최솟값을 읽음)")
+	void topKMustBePositive() {
+		RateLimitProperties.HeavyHitter heavyHitter = new RateLimitProperties().getHeavyHitter();
+		assertThatThrownBy(() -> heavyHitter.setTopK(0)).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> heavyHitter.setTopK(-1)).isInstanceOf(IllegalArgumentException.class);
+		heavyHitter.setTopK(1);
+		assertThat(heavyHitter.getTopK()).isEqualTo(1);
+	}
+
+	private void deleteKeys() {
+		stringRedisTemplate.delete(List.of(HeavyHitterService.SKETCH_KEY, HeavyHitterService.TOP_KEY,
+			HeavyHitterService.FLAGGED_KEY));
+	}
+}
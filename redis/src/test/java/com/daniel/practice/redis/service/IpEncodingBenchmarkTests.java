@@ -0,0 +1,123 @@
+package com.daniel.practice.redis.service;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+import java.util.function.IntFunction;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import com.daniel.practice.redis.enums.RateLimitWindow;
+import com.daniel.practice.redis.policy.IpCodec;
+
+// IP 100만 개 Set 메모리 비교: 이전 JSON 문자열 멤버 vs IpCodec 압축 표현
+// 실행: REDIS_BENCHMARK=true ./gradlew :redis:test --tests '*IpEncodingBenchmarkTests'
+// 전용 Redis 인스턴스에서 실행할 것 (set-max-intset-entries 를 잠시 100만으로 올렸다가 되돌림)
+// 기본 설정(512)에서는 100만 개 Set 은 intset 이 아니라 hashtable 이라 멤버 문자열 길이만 줄고,
+// set-max-intset-entries 를 목록 크기 이상으로 올려야 IPv4 Set 이 멤버당 4바이트 intset 이 된다.
+@SpringBootTest
+@EnabledIfEnvironmentVariable(named = "REDIS_BENCHMARK", matches = "true")
+public class IpEncodingBenchmarkTests {
+
+	private static final int IPS = 1_000_000;
+	private static final int BATCH_SIZE = 10_000;
+	private static final String KEY = "benchmark:ip-encoding";
+	private static final String INTSET_ENTRIES = "set-max-intset-entries";
+
+	@Autowired
+	private StringRedisTemplate stringRedisTemplate;
+
+	@Test
+	@DisplayName("IP 100만 개 Set 메모리: JSON 문자열 vs 압축 표현 (IPv4 intset, IPv6 16바이트)")
+	void compareSetMemory() {
+		System.out.println("=== IP 100만 개 Set 메모리 ===");
+		System.out.printf("%-22s %-12s %14s %12s%n", "mode", "encoding", "memory(MB)", "bytes/ip");
+
+		String original = intsetEntries();
+		try {
+			long v4Json = measure("ipv4 json", i -> "\"" + ipv4Of(i) + "\"");
+			long v4Codec = measure("ipv4 codec", i -> IpCodec.encode(ipv4Of(i)));
+			setIntsetEntries(String.valueOf(IPS));
+			long v4Intset = measure("ipv4 codec (intset)", i -> IpCodec.encode(ipv4Of(i)));
+			setIntsetEntries(original);
+			long v6Json = measure("ipv6 json", i -> "\"" + ipv6Of(i) + "\"");
+			long v6Codec = measure("ipv6 codec", i -> IpCodec.encode(ipv6Of(i)));
+
+			System.out.printf("IPv4 절감: %.1f MB (hashtable), %.1f MB (intset)%n",
+				(v4Json - v4Codec) / 1024.0 / 1024.0, (v4Json - v4Intset) / 1024.0 / 1024.0);
+			System.out.printf("IPv6 절감: %.1f MB%n", (v6Json - v6Codec) / 1024.0 / 1024.0);
+			assertThat(v4Intset).isLessThan(v4Codec).isLessThan(v4Json);
+			assertThat(v6Codec).isLessThan(v6Json);
+		} finally {
+			setIntsetEntries(original);
+			stringRedisTemplate.delete(KEY);
+		}
+	}
+
+	@Test
+	@DisplayName("IP 제한 키 길이: IP 문자열 vs 압축 표현")
+	void compareKeyLength() {
+		long text = 0;
+		long packed = 0;
+		for (int i = 0; i < IPS; i++) {
+			String ip = i % 2 == 0 ? ipv4Of(i) : ipv6Of(i);
+			text += ("ip:rate:minute:" + ip).length();
+			packed += IpRateLimitService.createRateLimitKey(ip, RateLimitWindow.MINUTE.getKey()).length();
+		}
+		System.out.println("=== IP 제한 키 길이 (IPv4/IPv6 절반씩) ===");
+		System.out.printf("평균 키 길이: %.1f → %.1f 바이트 (키 100만 개당 %.1f MB 절감)%n",
+			(double) text / IPS, (double) packed / IPS, (text - packed) / 1024.0 / 1024.0);
+		assertThat(packed).isLessThan(text);
+	}
+
+	// SADD 를 1만 개씩 파이프라인으로 보내고 MEMORY USAGE (SAMPLES 0 = 전체 계산)
+	private long measure(String mode, IntFunction<String> member) {
+		stringRedisTemplate.delete(KEY);
+		byte[] rawKey = KEY.getBytes(StandardCharsets.UTF_8);
+		for (int from = 0; from < IPS; from += BATCH_SIZE) {
+			int end = Math.min(IPS, from + BATCH_SIZE);
+			byte[][] members = new byte[end - from][];
+			for (int i = from; i < end; i++) {
+				members[i - from] = member.apply(i).getBytes(StandardCharsets.UTF_8);
+			}
+			stringRedisTemplate.execute((RedisCallback<Long>) connection -> connection.setCommands().sAdd(rawKey, members));
+		}
+		Long memory = stringRedisTemplate.execute((RedisCallback<Long>) connection -> (Long) connection.execute(
+			"MEMORY", "USAGE".getBytes(StandardCharsets.UTF_8), rawKey,
+			"SAMPLES".getBytes(StandardCharsets.UTF_8), "0".getBytes(StandardCharsets.UTF_8)));
+		String encoding = stringRedisTemplate.execute(
+			(RedisCallback<String>) connection -> connection.keyCommands().encodingOf(rawKey).raw());
+		System.out.printf("%-22s %-12s %14.1f %12.1f%n", mode, encoding, memory / 1024.0 / 1024.0, (double) memory / IPS);
+		return memory;
+	}
+
+	private String intsetEntries() {
+		Properties config = stringRedisTemplate.execute(
+			(RedisCallback<Properties>) connection -> connection.serverCommands().getConfig(INTSET_ENTRIES));
+		return config.getProperty(INTSET_ENTRIES);
+	}
+
+	private void setIntsetEntries(String value) {
+		stringRedisTemplate.execute((RedisCallback<Object>) connection -> {
+			connection.serverCommands().setConfig(INTSET_ENTRIES, value);
+			return null;
+		});
+	}
+
+	// 서로 다른 IPv4 를 0.0.0.0 ~ 255.255.255.255 전체에 고르게 (절반은 int32 음수 구간)
+	private static String ipv4Of(int i) {
+		return IpCodec.formatIpv4((i * 4_294_967L / 1000) & 0xFFFFFFFFL);
+	}
+
+	// 2001:db8::/32 아래 서로 다른 IPv6
+	private static String ipv6Of(int i) {
+		return IpCodec.formatIpv6(0x20010DB800000000L | i, 0x1000000000000000L | (long) i * 0x9E3779B1L);
+	}
+}
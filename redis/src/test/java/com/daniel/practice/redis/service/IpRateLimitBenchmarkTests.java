@@ -0,0 +1,116 @@
+package com.daniel.practice.redis.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import com.daniel.practice.redis.enums.RateLimitStrategy;
+import com.daniel.practice.redis.enums.RateLimitWindow;
+
+// IP Rate Limit 전략별 처리량/키당 메모리 비교
+// 실행: REDIS_BENCHMARK=true ./gradlew :redis:test --tests '*IpRateLimitBenchmarkTests'
+// 전용 Redis 인스턴스에서 실행할 것 (used_memory 차이로 메모리를 계산하므로 다른 쓰기가 섞이면 오차가 커짐)
+@SpringBootTest
+@EnabledIfEnvironmentVariable(named = "REDIS_BENCHMARK", matches = "true")
+public class IpRateLimitBenchmarkTests {
+
+	private static final int[] DISTINCT_IPS = {10_000, 100_000, 1_000_000};
+	private static final int REQUESTS_PER_IP = 5;
+	private static final int MAX_REQUESTS = 10;
+	private static final int THREADS = 16;
+
+	@Autowired
+	private IpRateLimitService ipRateLimitService;
+
+	@Autowired
+	private StringRedisTemplate stringRedisTemplate;
+
+	@Test
+	@DisplayName("고정 윈도우 vs 슬라이딩 로그 vs 슬라이딩 카운터 처리량/메모리 비교")
+	void compareStrategies() throws Exception {
+		System.out.println("=== IP Rate Limit 전략 벤치마크 (IP당 " + REQUESTS_PER_IP + "회 요청) ===");
+		System.out.printf("%-16s %10s %14s %16s%n", "strategy", "ips", "ops/sec", "bytes/key");
+
+		for (int ipCount : DISTINCT_IPS) {
+			for (RateLimitStrategy strategy : RateLimitStrategy.values()) {
+				run(strategy, ipCount);
+			}
+		}
+	}
+
+	private void run(RateLimitStrategy strategy, int ipCount) throws Exception {
+		deleteKeys(ipCount);
+		long memoryBefore = usedMemory();
+
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		List<Future<?>> futures = new ArrayList<>();
+		long start = System.nanoTime();
+		for (int t = 0; t < THREADS; t++) {
+			int offset = t;
+			futures.add(executor.submit(() -> {
+				for (int i = offset; i < ipCount; i += THREADS) {
+					String ip = ipOf(i);
+					for (int r = 0; r < REQUESTS_PER_IP; r++) {
+						ipRateLimitService.check(ip, RateLimitWindow.MINUTE, MAX_REQUESTS, strategy);
+					}
+				}
+			}));
+		}
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		long elapsedNanos = System.nanoTime() - start;
+		executor.shutdown();
+
+		long memoryAfter = usedMemory();
+		double opsPerSec = (double) ipCount * REQUESTS_PER_IP / (elapsedNanos / 1_000_000_000.0);
+		double bytesPerKey = (double) (memoryAfter - memoryBefore) / ipCount;
+		System.out.printf("%-16s %10d %14.0f %16.1f%n", strategy, ipCount, opsPerSec, bytesPerKey);
+
+		deleteKeys(ipCount);
+	}
+
+	// 10.x.y.z 형태로 IP 생성 (최대 16,777,216개)
+	private static String ipOf(int i) {
+		return "10." + ((i >> 16) & 0xFF) + "." + ((i >> 8) & 0xFF) + "." + (i & 0xFF);
+	}
+
+	private long usedMemory() {
+		Properties info = stringRedisTemplate.execute(
+			(RedisCallback<Properties>) connection -> connection.serverCommands().info("memory"));
+		return Long.parseLong(info.getProperty("used_memory"));
+	}
+
+	// 벤치마크 키 정리 (파이프라인으로 1만 개씩 삭제)
+	private void deleteKeys(int ipCount) {
+		int batchSize = 10_000;
+		long epoch = System.currentTimeMillis() / (RateLimitWindow.MINUTE.getSeconds() * 1000);
+		for (int from = 0; from < ipCount; from += batchSize) {
+			int start = from;
+			int end = Math.min(ipCount, from + batchSize);
+			stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+				for (int i = start; i < end; i++) {
+					String key = IpRateLimitService.createRateLimitKey(ipOf(i), RateLimitWindow.MINUTE.getKey());
+					connection.keyCommands().del(
+						key.getBytes(StandardCharsets.UTF_8),
+						(key + ":log").getBytes(StandardCharsets.UTF_8),
+						(key + ":" + (epoch - 1)).getBytes(StandardCharsets.UTF_8),
+						(key + ":" + epoch).getBytes(StandardCharsets.UTF_8));
+				}
+				return null;
+			});
+		}
+	}
+}
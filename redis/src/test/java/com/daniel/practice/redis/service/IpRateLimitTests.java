@@ -1,16 +1,30 @@
 package com.daniel.practice.redis.service;
 
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import com.daniel.practice.redis.dto.RateLimitDecision;
+import com.daniel.practice.redis.enums.RateLimitStrategy;
+import com.daniel.practice.redis.enums.RateLimitWindow;
+
+import reactor.core.publisher.Mono;
+
 @SpringBootTest
 public class IpRateLimitTests {
 
 	@Autowired
 	private IpRateLimitService ipRateLimitService;
 
+	@Autowired
+	private ReactiveIpRateLimitService reactiveIpRateLimitService;
+
 	@Test
 	@DisplayName("IP별 분당 요청 제한 실험")
 	void minuteRateLimitTest() {
@@ -78,4 +92,139 @@ public class IpRateLimitTests {
 		System.out.println("시간당 카운트: " + ipRateLimitService.getCurrentCount(ip, "hour"));
 		System.out.println("일일 카운트: " + ipRateLimitService.getCurrentCount(ip, "day"));
 	}
+
+	@Test
+	@DisplayName("슬라이딩 로그 전략 실험")
+	void slidingLogTest() {
+		String ip = "192.0.2.10";
+
+		System.out.println("=== 슬라이딩 로그 실험 (최대 3회) ===");
+
+		// 초기화
+		ipRateLimitService.resetRateLimit(ip, "minute");
+
+		for (int i = 1; i <= 4; i++) {
+			RateLimitDecision decision = ipRateLimitService.check(ip, RateLimitWindow.MINUTE, 3,
+				RateLimitStrategy.SLIDING_LOG);
+			System.out.println("요청 " + i + ": " + (decision.isAllowed() ? "허용" : "차단")
+				+ ", 윈도우 내 요청: " + decision.getCount() + ", TTL: " + decision.getTtl() + "초");
+			assertThat(decision.isAllowed()).isEqualTo(i <= 3);
+		}
+	}
+
+	@Test
+	@DisplayName("슬라이딩 카운터 정확도 실험 (슬라이딩 로그 대비)")
+	void slidingCounterAccuracyTest() {
+		int maxRequests = 100;
+		int windows = 10;
+		int requestCount = maxRequests * windows * 3 / 2; // 제한의 1.5배 부하
+		long windowMillis = RateLimitWindow.MINUTE.getSeconds() * 1000;
+
+		// 이전 실행 키와 겹치지 않도록 벤치마크 대역(198.18.0.0/15)에서 임의 IP 사용
+		Random random = new Random(42);
+		String suffix = System.nanoTime() % 256 + "." + (System.nanoTime() / 256) % 256;
+		String logIp = "198.18." + suffix;
+		String counterIp = "198.19." + suffix;
+
+		System.out.println("=== 슬라이딩 카운터 정확도 실험 (" + windows + "개 윈도우, 요청 " + requestCount + "회, 최대 "
+			+ maxRequests + "회/분) ===");
+
+		// 시뮬레이션 시간 축에 요청 시각을 고르게 흩뿌림
+		long base = (System.currentTimeMillis() / windowMillis) * windowMillis;
+		long[] times = new long[requestCount];
+		for (int i = 0; i < requestCount; i++) {
+			times[i] = base + (long) (random.nextDouble() * windowMillis * windows);
+		}
+		Arrays.sort(times);
+
+		int logAllowed = 0;
+		int counterAllowed = 0;
+		int disagreements = 0;
+		for (long now : times) {
+			RateLimitDecision log = ipRateLimitService.check(logIp, RateLimitWindow.MINUTE, maxRequests,
+				RateLimitStrategy.SLIDING_LOG, now);
+			RateLimitDecision counter = ipRateLimitService.check(counterIp, RateLimitWindow.MINUTE, maxRequests,
+				RateLimitStrategy.SLIDING_COUNTER, now);
+			logAllowed += log.isAllowed() ? 1 : 0;
+			counterAllowed += counter.isAllowed() ? 1 : 0;
+			disagreements += log.isAllowed() != counter.isAllowed() ? 1 : 0;
+		}
+
+		double allowedError = Math.abs(counterAllowed - logAllowed) / (double) logAllowed;
+		double disagreementRate = disagreements / (double) requestCount;
+		System.out.println("슬라이딩 로그 허용: " + logAllowed + ", 슬라이딩 카운터 허용: " + counterAllowed);
+		System.out.printf("허용 수 오차: %.2f%%, 판정 불일치: %d건 (%.2f%%)%n",
+			allowedError * 100, disagreements, disagreementRate * 100);
+
+		assertThat(allowedError).isLessThan(0.1);
+	}
+
+	@Test
+	@DisplayName("동시 요청에서도 제한 횟수를 넘지 않는지 실험")
+	void concurrentRateLimitTest() throws InterruptedException {
+		String ip = "198.51.100.7";
+		int maxRequests = 100;
+		int threadCount = 32;
+		int requestsPerThread = 50;
+
+		System.out.println("=== 동시성 실험 (" + threadCount + " 스레드 x " + requestsPerThread + "회, 최대 " + maxRequests + "회) ===");
+
+		// 초기화
+		ipRateLimitService.resetRateLimit(ip, "minute");
+
+		int allowed = ConcurrentRequests.run(threadCount, requestsPerThread,
+			() -> ipRateLimitService.isAllowedPerMinute(ip, maxRequests));
+
+		int count = ipRateLimitService.getCurrentCount(ip, "minute");
+		System.out.println("허용된 요청: " + allowed + ", Redis 카운트: " + count);
+
+		assertThat(allowed).isEqualTo(maxRequests);
+		assertThat(count).isEqualTo(maxRequests);
+	}
+
+	@Test
+	@DisplayName("리액티브 버전이 블로킹 버전과 같은 카운터를 사용하는지 확인")
+	void reactiveRateLimitTest() {
+		String ip = "198.51.100.8";
+
+		ipRateLimitService.resetRateLimit(ip, "minute");
+
+		// 블로킹 2회 + 리액티브 1회 → 3회째에서 제한 도달
+		ipRateLimitService.check(ip, RateLimitWindow.MINUTE, 3, RateLimitStrategy.FIXED_WINDOW);
+		ipRateLimitService.check(ip, RateLimitWindow.MINUTE, 3, RateLimitStrategy.FIXED_WINDOW);
+		RateLimitDecision third = reactiveIpRateLimitService
+			.check(ip, RateLimitWindow.MINUTE, 3, RateLimitStrategy.FIXED_WINDOW).block();
+		RateLimitDecision fourth = reactiveIpRateLimitService
+			.check(ip, RateLimitWindow.MINUTE, 3, RateLimitStrategy.FIXED_WINDOW).block();
+
+		System.out.println("리액티브 3회째: " + third + ", 4회째: " + fourth);
+		assertThat(third.isAllowed()).isTrue();
+		assertThat(third.getCount()).isEqualTo(3);
+		assertThat(fourth.isAllowed()).isFalse();
+		assertThat(fourth.getTtl()).isBetween(1L, 60L);
+	}
+
+	@Test
+	@DisplayName("리액티브 필터 체인: 뒤 단계에서 거부된 요청은 IP 카운터에 남지 않음")
+	void reactiveRefundOnLaterDenialTest() {
+		String ip = "198.51.100.10";
+		RateLimitDecision denied = RateLimitDecision.builder().allowed(false).count(1).limit(1).ttl(60).build();
+
+		ipRateLimitService.resetRateLimit(ip, "minute");
+
+		// 사용자/토큰 제한에 걸린 요청 3건 → IP 카운터는 그대로
+		for (int i = 0; i < 3; i++) {
+			RateLimitDecision decision = reactiveIpRateLimitService
+				.check(ip, RateLimitWindow.MINUTE, 5, ipDecision -> Mono.just(denied)).block();
+			assertThat(decision.isAllowed()).isFalse();
+		}
+		assertThat(ipRateLimitService.getCurrentCount(ip, "minute")).isZero();
+
+		// 모두 통과한 요청만 집계
+		RateLimitDecision allowed = reactiveIpRateLimitService
+			.check(ip, RateLimitWindow.MINUTE, 5, Mono::just).block();
+		System.out.println("통과한 요청: " + allowed + ", IP 카운트: " + ipRateLimitService.getCurrentCount(ip, "minute"));
+		assertThat(allowed.isAllowed()).isTrue();
+		assertThat(ipRateLimitService.getCurrentCount(ip, "minute")).isEqualTo(1);
+	}
 }
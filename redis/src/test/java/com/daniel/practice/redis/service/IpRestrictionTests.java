@@ -1,9 +1,30 @@
 package com.daniel.practice.redis.service;
 
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import com.daniel.practice.redis.config.RateLimitProperties;
+import com.daniel.practice.redis.dto.IpImportResult;
+import com.daniel.practice.redis.dto.IpListPage;
+import com.daniel.practice.redis.metrics.RedisOperationMetrics;
+import com.daniel.practice.redis.policy.IpCodec;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 @SpringBootTest
 public class IpRestrictionTests {
@@ -11,6 +32,21 @@ public class IpRestrictionTests {
 	@Autowired
 	private IpRestrictionService ipRestrictionService;
 
+	@Autowired
+	private RedisTemplate<String, Object> redisTemplate;
+
+	@Autowired
+	private StringRedisTemplate stringRedisTemplate;
+
+	@Autowired
+	private RedisOperationMetrics redisOperationMetrics;
+
+	@Autowired
+	private RedisMessageListenerContainer redisMessageListenerContainer;
+
+	@Autowired
+	private RateLimitProperties rateLimitProperties;
+
 	@Test
 	@DisplayName("IP 화이트리스트/블랙리스트 기본 실험")
 	void basicIpRestrictionTest() {
@@ -47,4 +83,310 @@ public class IpRestrictionTests {
 		System.out.println("192.168.1.1 접근 허용: " + ipRestrictionService.isAllowed("192.168.1.1"));
 		System.out.println("203.0.113.1 접근 허용: " + ipRestrictionService.isAllowed("203.0.113.1"));
 	}
+
+	@Test
+	@DisplayName("다른 노드의 스냅샷: 변경 알림 반영 / 알림 누락 시 버전 확인으로 재동기화")
+	void snapshotReplicationTest() throws InterruptedException {
+		// 같은 Redis 를 보는 두 번째 노드
+		IpRestrictionService otherNode = new IpRestrictionService(stringRedisTemplate,
+			redisOperationMetrics, redisMessageListenerContainer, rateLimitProperties, new SimpleMeterRegistry());
+		otherNode.afterPropertiesSet();
+		String ip = "198.51.100." + (System.nanoTime() % 250 + 1);
+
+		try {
+			System.out.println("=== 스냅샷 복제 실험 ===");
+
+			// 1. 이 노드에서 변경 → 이 노드는 바로, 다른 노드는 알림으로 반영
+			ipRestrictionService.addToBlackList(ip);
+			assertThat(ipRestrictionService.isBlacklisted(ip)).isTrue();
+			assertThat(ipRestrictionService.isAllowed(ip)).isFalse();
+			long version = ipRestrictionService.getSnapshotVersion();
+			waitForVersion(otherNode, version);
+			System.out.println("알림 반영 후 버전: " + otherNode.getSnapshotVersion());
+			assertThat(otherNode.isAllowed(ip)).isFalse();
+
+			// 2. 알림 없이 Redis 만 바뀐 경우(알림 누락) → 버전 확인에서 전체를 다시 읽음
+			stringRedisTemplate.opsForSet().remove("ip:blacklist", IpCodec.encode(ip));
+			stringRedisTemplate.opsForValue().increment("ip:restriction:version");
+			assertThat(otherNode.isBlacklisted(ip)).isTrue();
+			otherNode.verify();
+			System.out.println("재동기화 후 버전: " + otherNode.getSnapshotVersion());
+			assertThat(otherNode.getSnapshotVersion()).isEqualTo(version + 1);
+			assertThat(otherNode.isBlacklisted(ip)).isFalse();
+
+			// 3. 건너뛴 버전 다음 알림도 전체를 다시 읽어 반영
+			ipRestrictionService.addToBlackList(ip);
+			waitForVersion(otherNode, ipRestrictionService.getSnapshotVersion());
+			assertThat(otherNode.isBlacklisted(ip)).isTrue();
+		} finally {
+			redisMessageListenerContainer.removeMessageListener(otherNode);
+			ipRestrictionService.removeFromBlacklist(ip);
+		}
+	}
+
+	@Test
+	@DisplayName("스냅샷 다시 읽기: SSCAN / ZSCAN 페이지로 나눠 읽어도 목록 전체와 임시 차단 반영")
+	void pagedResyncTest() {
+		// 페이지 크기를 작게 잡은 별도 노드 (기동 시 다시 읽기)
+		RateLimitProperties properties = new RateLimitProperties();
+		properties.getIp().getRestriction().setBatchSize(2);
+		String prefix = "198.18." + (System.nanoTime() % 250 + 1) + ".";
+		String banned = prefix + "100";
+		for (int i = 1; i <= 7; i++) {
+			ipRestrictionService.addToBlackList(prefix + i);
+		}
+		ipRestrictionService.banTemporarily(banned, Duration.ofMinutes(1));
+
+		IpRestrictionService otherNode = new IpRestrictionService(stringRedisTemplate,
+			redisOperationMetrics, redisMessageListenerContainer, properties, new SimpleMeterRegistry());
+		try {
+			otherNode.afterPropertiesSet();
+			System.out.println("=== 페이지 다시 읽기 실험 (batch-size 2) ===");
+			System.out.println("스냅샷 버전: " + otherNode.getSnapshotVersion());
+			assertThat(otherNode.getSnapshotVersion()).isEqualTo(ipRestrictionService.getSnapshotVersion());
+			for (int i = 1; i <= 7; i++) {
+				assertThat(otherNode.isBlacklisted(prefix + i)).isTrue();
+			}
+			assertThat(otherNode.isBlacklisted(banned)).isTrue();
+			assertThat(otherNode.isBlacklisted(prefix + "8")).isFalse();
+		} finally {
+			redisMessageListenerContainer.removeMessageListener(otherNode);
+			for (int i = 1; i <= 7; i++) {
+				ipRestrictionService.removeFromBlacklist(prefix + i);
+			}
+			ipRestrictionService.unban(banned);
+		}
+	}
+
+	@Test
+	@DisplayName("바뀐 게 없는 변경은 돌려받은 버전으로 스냅샷에 반영하지 않고 버전만 확인")
+	void noOpUpdateTest() {
+		String ip = "198.51.100." + (System.nanoTime() % 250 + 1);
+		String missed = "192.0.2." + (System.nanoTime() % 250 + 1);
+
+		try {
+			System.out.println("=== 바뀐 게 없는 변경 실험 ===");
+			ipRestrictionService.addToBlackList(ip);
+
+			// 알림 없이 Redis 만 바뀐 상태 (이 노드 스냅샷은 한 버전 뒤처짐)
+			stringRedisTemplate.opsForSet().add("ip:blacklist", IpCodec.encode(missed));
+			Long redisVersion = stringRedisTemplate.opsForValue().increment("ip:restriction:version");
+
+			// 이미 있는 IP 추가 → 스크립트는 현재 버전을 돌려주지만 그 버전의 변경은 이 추가가 아님
+			ipRestrictionService.addToBlackList(ip);
+			System.out.println("Redis 버전: " + redisVersion + ", 스냅샷 버전: " + ipRestrictionService.getSnapshotVersion());
+			assertThat(ipRestrictionService.getSnapshotVersion()).isEqualTo(redisVersion);
+			assertThat(ipRestrictionService.isBlacklisted(missed)).isTrue();
+		} finally {
+			ipRestrictionService.removeFromBlacklist(ip);
+			ipRestrictionService.removeFromBlacklist(missed);
+		}
+	}
+
+	@Test
+	@DisplayName("CIDR 대역 블랙리스트 (IPv4 / IPv6 / IPv4 매핑 주소)")
+	void cidrBlacklistTest() {
+		String v4Range = "198.18.0.0/15";
+		String v6Range = "2001:db8:abcd::/48";
+
+		try {
+			System.out.println("=== CIDR 대역 블랙리스트 실험 ===");
+			ipRestrictionService.addToBlackList(v4Range);
+			ipRestrictionService.addToBlackList(v6Range);
+
+			assertThat(ipRestrictionService.isAllowed("198.18.0.1")).isFalse();
+			assertThat(ipRestrictionService.isAllowed("198.19.255.254")).isFalse();
+			assertThat(ipRestrictionService.isBlacklisted("198.20.0.1")).isFalse();
+			assertThat(ipRestrictionService.isAllowed("2001:db8:abcd:12::1")).isFalse();
+			assertThat(ipRestrictionService.isBlacklisted("2001:db8:abce::1")).isFalse();
+			// IPv4 매핑 IPv6 주소도 IPv4 대역으로 판단
+			assertThat(ipRestrictionService.isAllowed("::ffff:198.18.7.7")).isFalse();
+			System.out.println("블랙리스트: " + ipRestrictionService.getBlacklist());
+
+			// 형식이 틀린 대역은 저장하지 않음
+			assertThatThrownBy(() -> ipRestrictionService.addToBlackList("198.18.0.0/33"))
+				.isInstanceOf(IllegalArgumentException.class);
+			assertThatThrownBy(() -> ipRestrictionService.addToBlackList("2001:db8::zz/48"))
+				.isInstanceOf(IllegalArgumentException.class);
+		} finally {
+			ipRestrictionService.removeFromBlacklist(v4Range);
+			ipRestrictionService.removeFromBlacklist(v6Range);
+		}
+		assertThat(ipRestrictionService.isBlacklisted("198.18.0.1")).isFalse();
+	}
+
+	@Test
+	@DisplayName("블랙리스트 가져오기(파이프라인 SADD) / SSCAN 페이지 조회 / NDJSON 내보내기")
+	void bulkImportExportTest() throws IOException {
+		int count = 2500;
+		String prefix = "100.6" + (System.nanoTime() % 4 + 4) + ".";
+		Set<String> ips = new HashSet<>();
+		StringBuilder file = new StringBuilder("# 위협 정보 피드\n\n");
+		for (int i = 0; i < count; i++) {
+			String ip = prefix + (i / 250) + "." + (i % 250);
+			ips.add(ip);
+			file.append(ip).append('\n');
+		}
+		// 중복 1건, 형식 오류 2건
+		file.append(prefix).append("0.0\nnot-an-ip\n300.1.1.1\n");
+
+		try {
+			System.out.println("=== IP 목록 가져오기/내보내기 실험 (" + count + "개) ===");
+			long before = ipRestrictionService.getSnapshotVersion();
+			IpImportResult result = ipRestrictionService.importList("blacklist",
+				new ByteArrayInputStream(file.toString().getBytes(StandardCharsets.UTF_8)));
+			System.out.println("가져오기 결과: " + result);
+			assertThat(result.getRead()).isEqualTo(count + 3);
+			assertThat(result.getInvalid()).isEqualTo(2);
+			assertThat(result.getAdded()).isEqualTo(count);
+			// 버전은 가져오기 전체에 한 번만 증가, 이 노드는 바로 다시 읽음
+			assertThat(result.getVersion()).isGreaterThan(before);
+			assertThat(ipRestrictionService.isBlacklisted(prefix + "9.249")).isTrue();
+
+			// 커서를 따라 끝까지 페이지 조회
+			Set<String> paged = new HashSet<>();
+			String cursor = "0";
+			int pages = 0;
+			do {
+				IpListPage page = ipRestrictionService.getPage("blacklist", cursor, 500);
+				paged.addAll(page.getIps());
+				cursor = page.getCursor();
+				pages++;
+			} while (!"0".equals(cursor));
+			System.out.println("페이지 수: " + pages + ", 조회된 IP: " + paged.size());
+			assertThat(paged).containsAll(ips);
+
+			// NDJSON: 한 줄에 JSON 문자열 하나
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			long exported = ipRestrictionService.export("blacklist", out);
+			String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+			assertThat(lines).hasSize((int) exported);
+			assertThat(lines).contains("\"" + prefix + "0.0\"");
+		} finally {
+			// 정리는 알림 없이 지우고 버전만 올려 각 노드가 다시 읽게 함
+			stringRedisTemplate.opsForSet().remove("ip:blacklist", ips.stream().map(IpCodec::encode).toArray());
+			stringRedisTemplate.opsForValue().increment("ip:restriction:version");
+			ipRestrictionService.verify();
+		}
+		assertThat(ipRestrictionService.isBlacklisted(prefix + "0.0")).isFalse();
+	}
+
+	@Test
+	@DisplayName("IP 임시 차단: 만료 시각 ZSET, 스냅샷은 다시 읽지 않아도 만료 반영, 만료 항목 정리")
+	void temporaryBanTest() throws InterruptedException {
+		String suffix = String.valueOf(System.nanoTime() % 250 + 1);
+		String shortBan = "192.0.2." + suffix;
+		String longBan = "2001:db8:ba::" + suffix;
+
+		try {
+			System.out.println("=== IP 임시 차단 실험 ===");
+			ipRestrictionService.banTemporarily(shortBan, Duration.ofMillis(500));
+			long longExpiry = ipRestrictionService.banTemporarily(longBan, Duration.ofMinutes(10));
+			assertThat(ipRestrictionService.isAllowed(shortBan)).isFalse();
+			assertThat(ipRestrictionService.isAllowed(longBan)).isFalse();
+			assertThat(ipRestrictionService.getTempBanExpiry(shortBan)).isNotNull();
+
+			// 더 짧은 차단으로 덮어써도 기존 만료 시각 유지 (바뀐 게 없으므로 스냅샷 버전도 그대로)
+			long beforeNoOp = ipRestrictionService.getSnapshotVersion();
+			assertThat(ipRestrictionService.banTemporarily(longBan, Duration.ofSeconds(1))).isEqualTo(longExpiry);
+			assertThat(ipRestrictionService.getSnapshotVersion()).isEqualTo(beforeNoOp);
+			assertThat(ipRestrictionService.isAllowed(longBan)).isFalse();
+
+			// 만료되면 스냅샷을 다시 읽지 않아도(버전 그대로) 바로 허용
+			long version = ipRestrictionService.getSnapshotVersion();
+			Thread.sleep(600);
+			assertThat(ipRestrictionService.isAllowed(shortBan)).isTrue();
+			assertThat(ipRestrictionService.getTempBanExpiry(shortBan)).isNull();
+			assertThat(ipRestrictionService.getSnapshotVersion()).isEqualTo(version);
+
+			// 정리 후 Sorted Set 에서도 제거
+			ipRestrictionService.sweep();
+			Double score = stringRedisTemplate.opsForZSet().score("ip:blacklist:temp", IpCodec.encode(shortBan));
+			System.out.println("정리 후 점수: " + score);
+			assertThat(score).isNull();
+			assertThat(stringRedisTemplate.opsForZSet().score("ip:blacklist:temp", IpCodec.encode(longBan))).isNotNull();
+
+			// 해제
+			ipRestrictionService.unban(longBan);
+			assertThat(ipRestrictionService.isAllowed(longBan)).isTrue();
+
+			assertThatThrownBy(() -> ipRestrictionService.banTemporarily("not-an-ip", Duration.ofMinutes(1)))
+				.isInstanceOf(IllegalArgumentException.class);
+		} finally {
+			ipRestrictionService.unban(longBan);
+		}
+	}
+
+	@Test
+	@DisplayName("IP 압축 저장: IPv4 는 정수, IPv6 는 16바이트, 이전 JSON 멤버 읽기 및 변환")
+	void compactEncodingTest() {
+		String suffix = String.valueOf(System.nanoTime() % 250 + 1);
+		String v4 = "198.51.100." + suffix;
+		String v6 = "2001:DB8:0:0:0:0:C0:" + suffix;
+		String legacy = "192.0.2." + suffix;
+
+		try {
+			System.out.println("=== IP 압축 저장 실험 ===");
+			ipRestrictionService.addToBlackList(v4);
+			ipRestrictionService.addToBlackList(v6);
+			System.out.println(v4 + " → " + IpCodec.encode(v4));
+			System.out.println(v6 + " → " + IpCodec.encode(v6));
+			assertThat(stringRedisTemplate.opsForSet().isMember("ip:blacklist", IpCodec.encode(v4))).isTrue();
+			assertThat(IpCodec.encode(v4)).matches("-?\\d+");
+			assertThat(IpCodec.encode(v6)).hasSize(22);
+			// 표기가 달라도 같은 IPv6 주소면 일치
+			assertThat(ipRestrictionService.isBlacklisted("2001:db8::c0:" + suffix)).isTrue();
+
+			// 이전 버전처럼 JSON 문자열로 저장된 멤버 (알림 없이 넣고 버전만 올림)
+			redisTemplate.opsForSet().add("ip:blacklist", legacy);
+			stringRedisTemplate.opsForValue().increment("ip:restriction:version");
+			ipRestrictionService.verify();
+			assertThat(ipRestrictionService.isBlacklisted(legacy)).isTrue();
+
+			long migrated = ipRestrictionService.migrate();
+			System.out.println("변환된 멤버: " + migrated);
+			assertThat(migrated).isGreaterThanOrEqualTo(1);
+			assertThat(stringRedisTemplate.opsForSet().isMember("ip:blacklist", "\"" + legacy + "\"")).isFalse();
+			assertThat(stringRedisTemplate.opsForSet().isMember("ip:blacklist", IpCodec.encode(legacy))).isTrue();
+			assertThat(ipRestrictionService.isBlacklisted(legacy)).isTrue();
+			assertThat(ipRestrictionService.migrate()).isZero();
+		} finally {
+			ipRestrictionService.removeFromBlacklist(v4);
+			ipRestrictionService.removeFromBlacklist(v6);
+			ipRestrictionService.removeFromBlacklist(legacy);
+		}
+	}
+
+	@Test
+	@DisplayName("기동 시 이전 JSON 멤버 자동 변환 → 제거도 바로 적용")
+	void migrateOnStartupTest() {
+		String legacy = "192.0.2." + (System.nanoTime() % 250 + 1);
+		redisTemplate.opsForSet().add("ip:blacklist", legacy);
+
+		// 새로 기동하는 노드
+		IpRestrictionService otherNode = new IpRestrictionService(stringRedisTemplate,
+			redisOperationMetrics, redisMessageListenerContainer, rateLimitProperties, new SimpleMeterRegistry());
+		try {
+			otherNode.afterPropertiesSet();
+			System.out.println("=== 기동 시 변환 실험 ===");
+			assertThat(stringRedisTemplate.opsForSet().isMember("ip:blacklist", "\"" + legacy + "\"")).isFalse();
+			assertThat(stringRedisTemplate.opsForSet().isMember("ip:blacklist", IpCodec.encode(legacy))).isTrue();
+
+			// 압축 표현으로 바뀌었으므로 제거(SREM 압축 표현)가 그대로 적용됨
+			ipRestrictionService.removeFromBlacklist(legacy);
+			assertThat(stringRedisTemplate.opsForSet().isMember("ip:blacklist", IpCodec.encode(legacy))).isFalse();
+			assertThat(ipRestrictionService.isBlacklisted(legacy)).isFalse();
+		} finally {
+			redisMessageListenerContainer.removeMessageListener(otherNode);
+			ipRestrictionService.removeFromBlacklist(legacy);
+			redisTemplate.opsForSet().remove("ip:blacklist", legacy);
+		}
+	}
+
+	private static void waitForVersion(IpRestrictionService node, long version) throws InterruptedException {
+		for (int i = 0; i < 50 && node.getSnapshotVersion() < version; i++) {
+			Thread.sleep(20);
+		}
+		assertThat(node.getSnapshotVersion()).isGreaterThanOrEqualTo(version);
+	}
 }
@@ -0,0 +1,147 @@
+package com.daniel.practice.redis.service;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import com.daniel.practice.redis.enums.RateLimitWindow;
+
+import reactor.core.publisher.Flux;
+
+// 블로킹 vs 리액티브 Rate Limit 처리량/스레드/커넥션 비교 (동시 클라이언트 10,000)
+// 실행: REDIS_BENCHMARK=true ./gradlew :redis:test --tests '*ReactiveRateLimitBenchmarkTests'
+// 블로킹은 Tomcat 기본 최대 스레드(200)와 같은 크기의 스레드 풀로 요청을 처리하므로 나머지 클라이언트는 대기열에서 기다리고,
+// 리액티브는 10,000건을 한꺼번에 구독해 Lettuce 커넥션 위에서 파이프라이닝된다.
+@SpringBootTest
+@EnabledIfEnvironmentVariable(named = "REDIS_BENCHMARK", matches = "true")
+public class ReactiveRateLimitBenchmarkTests {
+
+	private static final int CLIENTS = 10_000;
+	private static final int REQUESTS_PER_CLIENT = 10;
+	private static final int MAX_REQUESTS = 1_000;
+	private static final int SERVLET_THREADS = 200;
+
+	@Autowired
+	private IpRateLimitService ipRateLimitService;
+
+	@Autowired
+	private ReactiveIpRateLimitService reactiveIpRateLimitService;
+
+	@Autowired
+	private StringRedisTemplate stringRedisTemplate;
+
+	@Test
+	@DisplayName("블로킹 vs 리액티브 처리량/스레드/커넥션 비교")
+	void compareBlockingAndReactive() throws Exception {
+		System.out.println("=== 블로킹 vs 리액티브 (클라이언트 " + CLIENTS + " x " + REQUESTS_PER_CLIENT + "회) ===");
+		System.out.printf("%-10s %14s %14s %16s%n", "mode", "ops/sec", "peak threads", "redis clients");
+
+		// 스크립트 캐시/커넥션 준비
+		ipRateLimitService.check("203.0.113.1", RateLimitWindow.MINUTE, MAX_REQUESTS);
+		reactiveIpRateLimitService.check("203.0.113.1", RateLimitWindow.MINUTE, MAX_REQUESTS).block();
+
+		runBlocking();
+		runReactive();
+	}
+
+	private void runBlocking() throws Exception {
+		Sampler sampler = new Sampler();
+		ExecutorService executor = Executors.newFixedThreadPool(SERVLET_THREADS);
+		List<Future<?>> futures = new ArrayList<>(CLIENTS);
+
+		long start = System.nanoTime();
+		for (int c = 0; c < CLIENTS; c++) {
+			String ip = ipOf(c);
+			futures.add(executor.submit(() -> {
+				for (int r = 0; r < REQUESTS_PER_CLIENT; r++) {
+					ipRateLimitService.check(ip, RateLimitWindow.MINUTE, MAX_REQUESTS);
+				}
+			}));
+		}
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		long elapsedNanos = System.nanoTime() - start;
+		executor.shutdown();
+
+		print("blocking", elapsedNanos, sampler.stop());
+		deleteKeys();
+	}
+
+	private void runReactive() throws InterruptedException {
+		Sampler sampler = new Sampler();
+
+		long start = System.nanoTime();
+		Flux.range(0, CLIENTS)
+			.flatMap(c -> Flux.range(0, REQUESTS_PER_CLIENT)
+				.concatMap(r -> reactiveIpRateLimitService.check(ipOf(c), RateLimitWindow.MINUTE, MAX_REQUESTS)),
+				CLIENTS)
+			.blockLast();
+		long elapsedNanos = System.nanoTime() - start;
+
+		print("reactive", elapsedNanos, sampler.stop());
+		deleteKeys();
+	}
+
+	private void print(String mode, long elapsedNanos, Sampler sampler) {
+		double opsPerSec = (double) CLIENTS * REQUESTS_PER_CLIENT / (elapsedNanos / 1_000_000_000.0);
+		System.out.printf("%-10s %14.0f %14d %16d%n", mode, opsPerSec, sampler.peakThreads.get(),
+			sampler.peakClients.get());
+	}
+
+	// 10.x.y.z 형태로 IP 생성
+	private static String ipOf(int i) {
+		return "10." + ((i >> 16) & 0xFF) + "." + ((i >> 8) & 0xFF) + "." + (i & 0xFF);
+	}
+
+	private void deleteKeys() {
+		List<String> keys = new ArrayList<>(CLIENTS);
+		for (int c = 0; c < CLIENTS; c++) {
+			keys.add(IpRateLimitService.createRateLimitKey(ipOf(c), RateLimitWindow.MINUTE.getKey()));
+		}
+		stringRedisTemplate.delete(keys);
+	}
+
+	private long connectedClients() {
+		Properties info = stringRedisTemplate.execute(
+			(RedisCallback<Properties>) connection -> connection.serverCommands().info("clients"));
+		return Long.parseLong(info.getProperty("connected_clients"));
+	}
+
+	// 실행 중 JVM 스레드 수 / Redis 접속 클라이언트 수 최대값을 100ms 마다 기록
+	private class Sampler {
+		private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		private final AtomicLong peakThreads = new AtomicLong();
+		private final AtomicLong peakClients = new AtomicLong();
+		private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+		Sampler() {
+			threads.resetPeakThreadCount();
+			scheduler.scheduleAtFixedRate(
+				() -> peakClients.accumulateAndGet(connectedClients(), Math::max), 0, 100, TimeUnit.MILLISECONDS);
+		}
+
+		Sampler stop() throws InterruptedException {
+			scheduler.shutdown();
+			scheduler.awaitTermination(1, TimeUnit.SECONDS);
+			peakThreads.set(threads.getPeakThreadCount());
+			return this;
+		}
+	}
+}
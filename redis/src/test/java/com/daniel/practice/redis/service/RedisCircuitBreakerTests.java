@@ -0,0 +1,163 @@
+package com.daniel.practice.redis.service;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import com.daniel.practice.redis.config.RateLimitProperties;
+import com.daniel.practice.redis.dto.RateLimitDecision;
+import com.daniel.practice.redis.enums.CircuitState;
+import com.daniel.practice.redis.resilience.LocalRateLimiter;
+import com.daniel.practice.redis.resilience.RedisCircuitBreaker;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+@SpringBootTest
+public class RedisCircuitBreakerTests {
+
+	@Autowired
+	private StringRedisTemplate stringRedisTemplate;
+
+	@Test
+	@DisplayName("Redis 장애 시 차단 → 로컬 제한기 → 회복 후 카운트 반영")
+	void degradedModeTest() throws InterruptedException {
+		// 애플리케이션 빈과 상태를 공유하지 않도록 별도 인스턴스 사용
+		RateLimitProperties properties = new RateLimitProperties();
+		properties.getDegraded().setFailureThreshold(3);
+		properties.getDegraded().setOpenDuration(Duration.ofMillis(200));
+		RedisCircuitBreaker breaker = new RedisCircuitBreaker(properties, new SimpleMeterRegistry());
+		LocalRateLimiter localRateLimiter =
+			new LocalRateLimiter(stringRedisTemplate, breaker, properties, new SimpleMeterRegistry());
+
+		String key = "degraded:test:" + System.nanoTime();
+		AtomicInteger redisCalls = new AtomicInteger();
+
+		System.out.println("=== Redis 장애 시뮬레이션 (연속 실패 3회에서 차단) ===");
+
+		// 1. 연속 실패 3회 → 차단
+		for (int i = 0; i < 3; i++) {
+			RateLimitDecision decision = breaker.execute(() -> {
+				redisCalls.incrementAndGet();
+				throw new QueryTimeoutException("timeout");
+			}, () -> localRateLimiter.tryAcquire(key, null, 5, 60, 60));
+			assertThat(decision.isAllowed()).isTrue();
+		}
+		assertThat(breaker.getState()).isEqualTo(CircuitState.OPEN);
+
+		// 2. 차단 중에는 Redis 를 호출하지 않고 로컬 제한(5회)만 적용
+		int allowed = 3;
+		for (int i = 0; i < 5; i++) {
+			RateLimitDecision decision = breaker.execute(() -> {
+				redisCalls.incrementAndGet();
+				return null;
+			}, () -> localRateLimiter.tryAcquire(key, null, 5, 60, 60));
+			if (decision.isAllowed()) {
+				allowed++;
+			}
+		}
+		System.out.println("Redis 호출: " + redisCalls.get() + ", 로컬 허용: " + allowed);
+		assertThat(redisCalls.get()).isEqualTo(3);
+		assertThat(allowed).isEqualTo(5);
+
+		// 3. 차단 시간이 지나면 시험 호출 1건 성공 → 해제
+		Thread.sleep(250);
+		breaker.execute(() -> "ok", () -> "fallback");
+		assertThat(breaker.getState()).isEqualTo(CircuitState.CLOSED);
+
+		// 4. 로컬에서 허용한 5회를 Redis 카운터에 반영
+		localRateLimiter.reconcile();
+		String count = stringRedisTemplate.opsForValue().get(key);
+		System.out.println("반영된 카운트: " + count + ", TTL: " + stringRedisTemplate.getExpire(key));
+		assertThat(count).isEqualTo("5");
+		assertThat(stringRedisTemplate.getExpire(key)).isBetween(1L, 60L);
+
+		stringRedisTemplate.delete(key);
+	}
+
+	@Test
+	@DisplayName("시험 호출(HALF_OPEN)이 Redis 예외가 아닌 예외로 끝나도 차단기가 멈추지 않음")
+	void probeRuntimeExceptionTest() throws InterruptedException {
+		RateLimitProperties properties = new RateLimitProperties();
+		properties.getDegraded().setFailureThreshold(1);
+		properties.getDegraded().setOpenDuration(Duration.ofMillis(100));
+		RedisCircuitBreaker breaker = new RedisCircuitBreaker(properties, new SimpleMeterRegistry());
+
+		breaker.execute(() -> {
+			throw new QueryTimeoutException("timeout");
+		}, () -> "fallback");
+		assertThat(breaker.getState()).isEqualTo(CircuitState.OPEN);
+
+		// 시험 호출이 다른 예외로 끝나면 예외는 그대로 전달하고 다시 OPEN
+		Thread.sleep(150);
+		assertThatThrownBy(() -> breaker.execute(() -> {
+			throw new IllegalStateException("bug");
+		}, () -> "fallback")).isInstanceOf(IllegalStateException.class);
+		assertThat(breaker.getState()).isEqualTo(CircuitState.OPEN);
+
+		// 다음 시험 호출은 다시 통과해 회복
+		Thread.sleep(150);
+		assertThat(breaker.execute(() -> "ok", () -> "fallback")).isEqualTo("ok");
+		assertThat(breaker.getState()).isEqualTo(CircuitState.CLOSED);
+	}
+
+	@Test
+	@DisplayName("로컬 카운트 반영: 슬라이딩 카운터 버킷은 윈도우 2개 길이 TTL")
+	void reconcileTtlTest() {
+		RateLimitProperties properties = new RateLimitProperties();
+		RedisCircuitBreaker breaker = new RedisCircuitBreaker(properties, new SimpleMeterRegistry());
+		LocalRateLimiter localRateLimiter =
+			new LocalRateLimiter(stringRedisTemplate, breaker, properties, new SimpleMeterRegistry());
+		String key = "degraded:bucket:" + System.nanoTime();
+
+		localRateLimiter.tryAcquire(key, null, 5, 60, 120);
+		localRateLimiter.reconcile();
+
+		System.out.println("반영된 버킷 TTL: " + stringRedisTemplate.getExpire(key));
+		assertThat(stringRedisTemplate.opsForValue().get(key)).isEqualTo("1");
+		assertThat(stringRedisTemplate.getExpire(key)).isGreaterThan(60L);
+
+		// 반영한 뒤 새로 허용한 개수도 다음 주기에 빠짐없이 반영
+		localRateLimiter.tryAcquire(key, null, 5, 60, 120);
+		localRateLimiter.reconcile();
+		assertThat(stringRedisTemplate.opsForValue().get(key)).isEqualTo("2");
+
+		stringRedisTemplate.delete(key);
+	}
+
+	@Test
+	@DisplayName("리액티브 호출: 응답이 timeout 을 넘으면 실패로 세고 fallback, 차단 중에는 구독하지 않음")
+	void reactiveTimeoutTest() {
+		RateLimitProperties properties = new RateLimitProperties();
+		properties.getDegraded().setFailureThreshold(2);
+		properties.getDegraded().setOpenDuration(Duration.ofSeconds(10));
+		properties.getDegraded().setTimeout(Duration.ofMillis(50));
+		RedisCircuitBreaker breaker = new RedisCircuitBreaker(properties, new SimpleMeterRegistry());
+		AtomicInteger subscribed = new AtomicInteger();
+		Mono<String> hanging = Mono.defer(() -> {
+			subscribed.incrementAndGet();
+			return Mono.<String>never();
+		});
+
+		// 응답 없는 호출 2회 → timeout 마다 fallback, 연속 실패로 차단
+		for (int i = 0; i < 2; i++) {
+			assertThat(breaker.executeReactive(() -> hanging, () -> "fallback").block(Duration.ofSeconds(1)))
+				.isEqualTo("fallback");
+		}
+		assertThat(breaker.getState()).isEqualTo(CircuitState.OPEN);
+
+		// 차단 중에는 Redis 호출을 구독하지 않고 바로 fallback
+		assertThat(breaker.executeReactive(() -> hanging, () -> "fallback").block(Duration.ofSeconds(1)))
+			.isEqualTo("fallback");
+		System.out.println("구독 횟수: " + subscribed.get());
+		assertThat(subscribed.get()).isEqualTo(2);
+	}
+}
@@ -0,0 +1,124 @@
+package com.daniel.practice.redis.service;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import com.daniel.practice.redis.config.RateLimitProperties;
+import com.daniel.practice.redis.dto.RateLimitDecision;
+import com.daniel.practice.redis.enums.ShardSelection;
+import com.daniel.practice.redis.metrics.RedisOperationMetrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@SpringBootTest
+public class ShardedCounterTests {
+
+	@Autowired
+	private StringRedisTemplate stringRedisTemplate;
+
+	@Test
+	@DisplayName("핫 키 감지 → 샤드로 나눠 증가 → 기존 카운트 + 샤드 합계로 제한")
+	void hotKeyShardingTest() {
+		// 애플리케이션 빈과 상태를 공유하지 않도록 별도 인스턴스 사용
+		RateLimitProperties properties = new RateLimitProperties();
+		properties.getSharding().setEnabled(true);
+		properties.getSharding().setShards(4);
+		properties.getSharding().setSelection(ShardSelection.THREAD);
+		properties.getSharding().setHotKeyQps(10);
+		// 매 요청 합계를 다시 읽어 결과가 정확히 맞도록
+		properties.getSharding().setRefreshInterval(Duration.ZERO);
+		ShardedCounterService service = new ShardedCounterService(stringRedisTemplate, properties,
+			new RedisOperationMetrics(new SimpleMeterRegistry()), new SimpleMeterRegistry());
+
+		String key = "sharded:test:" + System.nanoTime();
+		// 샤딩 전에 기존 Hash 에 쌓인 카운트
+		stringRedisTemplate.opsForHash().put(key, "hourly", "5");
+
+		System.out.println("=== 핫 키 샤딩 실험 (초당 10회 이상이면 샤딩) ===");
+
+		// 1. 초당 10회 관측 → 다음 감지 주기에 샤딩 시작
+		for (int i = 0; i < 10; i++) {
+			assertThat(service.isSharded(key, "hourly", 60)).isFalse();
+		}
+		service.detect();
+		assertThat(service.isSharded(key, "hourly", 60)).isTrue();
+
+		// 2. 제한 20 = 기존 5 + 샤드 15
+		int allowed = 0;
+		for (int i = 0; i < 20; i++) {
+			RateLimitDecision decision = service.tryAcquire(key, "hourly", 20, 60);
+			if (decision.isAllowed()) {
+				allowed++;
+			}
+		}
+		long total = service.count(key, "hourly");
+		System.out.println("허용: " + allowed + ", 합계: " + total);
+		assertThat(allowed).isEqualTo(15);
+		assertThat(total).isEqualTo(20);
+
+		// 3. TTL 이 없던 기존 키에 윈도우가 시작되고, 샤드는 기존 키보다 오래 남지 않음
+		Long baseTtl = stringRedisTemplate.getExpire(key, TimeUnit.MILLISECONDS);
+		assertThat(baseTtl).isBetween(1L, 60_000L);
+		List<String> keys = new ArrayList<>(List.of(key));
+		for (int i = 0; i < 4; i++) {
+			String shardKey = ShardedCounterService.createShardKey(key, "hourly", i);
+			Long ttl = stringRedisTemplate.getExpire(shardKey, TimeUnit.MILLISECONDS);
+			if (ttl != null && ttl != -2) {
+				assertThat(ttl).isBetween(1L, baseTtl);
+			}
+			keys.add(shardKey);
+		}
+
+		stringRedisTemplate.delete(keys);
+	}
+
+	@Test
+	@DisplayName("샤드는 기존 키와 함께 만료되어 다음 윈도우 카운트에 남지 않음")
+	void shardsExpireWithBaseKeyTest() throws InterruptedException {
+		RateLimitProperties properties = new RateLimitProperties();
+		properties.getSharding().setEnabled(true);
+		properties.getSharding().setShards(4);
+		properties.getSharding().setSelection(ShardSelection.THREAD);
+		properties.getSharding().setHotKeyQps(1);
+		properties.getSharding().setRefreshInterval(Duration.ZERO);
+		ShardedCounterService service = new ShardedCounterService(stringRedisTemplate, properties,
+			new RedisOperationMetrics(new SimpleMeterRegistry()), new SimpleMeterRegistry());
+
+		String key = "sharded:window:" + System.nanoTime();
+		// 1초 남은 윈도우
+		stringRedisTemplate.opsForHash().put(key, "hourly", "1");
+		stringRedisTemplate.expire(key, 1, TimeUnit.SECONDS);
+
+		service.isSharded(key, "hourly", 60);
+		service.detect();
+		for (int i = 0; i < 3; i++) {
+			assertThat(service.tryAcquire(key, "hourly", 10, 60).isAllowed()).isTrue();
+		}
+		assertThat(service.count(key, "hourly")).isEqualTo(4);
+
+		// 기존 키가 만료되면 샤드도 함께 만료 → 새 윈도우는 0부터
+		Thread.sleep(1200);
+		System.out.println("윈도우가 끝난 뒤 합계: " + service.count(key, "hourly"));
+		assertThat(service.count(key, "hourly")).isZero();
+
+		RateLimitDecision decision = service.tryAcquire(key, "hourly", 10, 60);
+		assertThat(decision.isAllowed()).isTrue();
+		assertThat(decision.getCount()).isEqualTo(1);
+
+		List<String> keys = new ArrayList<>(List.of(key));
+		for (int i = 0; i < 4; i++) {
+			keys.add(ShardedCounterService.createShardKey(key, "hourly", i));
+		}
+		stringRedisTemplate.delete(keys);
+	}
+}
@@ -0,0 +1,119 @@
+package com.daniel.practice.redis.service;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.daniel.practice.redis.dto.RateLimitDecision;
+import com.daniel.practice.redis.dto.TokenUsageEvent;
+import com.daniel.practice.redis.dto.TokenUsageInfo;
+
+@SpringBootTest
+public class TokenUsageLimitTests {
+
+	@Autowired
+	private TokenUsageLimitService tokenUsageLimitService;
+
+	@Autowired
+	private TokenUsageHistoryService tokenUsageHistoryService;
+
+	@Test
+	@DisplayName("결제 토큰 사용 횟수 제한 실험 (최대 10회)")
+	void paymentTokenTest() {
+		String token = "pay_" + System.nanoTime();
+
+		System.out.println("=== 결제 토큰 사용 횟수 제한 실험 ===");
+
+		for (int i = 1; i <= 10; i++) {
+			RateLimitDecision decision = tokenUsageLimitService.check(token);
+			assertThat(decision.isAllowed()).isTrue();
+			assertThat(decision.getCount()).isEqualTo(i);
+			assertThat(decision.getLimit()).isEqualTo(10);
+			assertThat(decision.getTtl()).isBetween(1L, 3600L);
+		}
+
+		RateLimitDecision decision = tokenUsageLimitService.check(token);
+		System.out.println("11번째 요청: " + decision);
+		assertThat(decision.isAllowed()).isFalse();
+		assertThat(decision.getCount()).isEqualTo(10);
+
+		// 스크립트가 기록한 Hash 필드를 기존 조회 메서드로 읽을 수 있는지 확인
+		TokenUsageInfo info = tokenUsageLimitService.getTokenUsageInfo(token);
+		System.out.println("토큰 정보: " + info);
+		assertThat(info.getCount()).isEqualTo(10);
+		assertThat(info.getLimit()).isEqualTo(10);
+		assertThat(info.getFirstUsed()).isPositive();
+		assertThat(info.getLastUsed()).isGreaterThanOrEqualTo(info.getFirstUsed());
+	}
+
+	@Test
+	@DisplayName("임시 토큰 동시 첫 사용 실험 (최대 1회)")
+	void concurrentFirstUseTest() throws InterruptedException {
+		String token = "temp_" + System.nanoTime();
+		int threadCount = 32;
+
+		System.out.println("=== 임시 토큰 동시 첫 사용 실험 (" + threadCount + " 스레드) ===");
+
+		int allowed = ConcurrentRequests.run(threadCount, 1, () -> tokenUsageLimitService.isAllowed(token));
+
+		System.out.println("허용된 요청: " + allowed);
+		assertThat(allowed).isEqualTo(1);
+		assertThat(tokenUsageLimitService.getCurrentUsage(token)).isEqualTo(1);
+	}
+
+	@Test
+	@DisplayName("여러 토큰 사용 정보 일괄 조회 (파이프라인 1회)")
+	void tokenUsageInfosTest() {
+		String suffix = String.valueOf(System.nanoTime());
+		String used = "api_" + suffix;
+		String unused = "pay_" + suffix;
+
+		tokenUsageLimitService.check(used);
+		tokenUsageLimitService.check(used);
+
+		List<TokenUsageInfo> infos = tokenUsageLimitService.getTokenUsageInfos(List.of(used, unused));
+		infos.forEach(info -> System.out.println("토큰 정보: " + info));
+
+		assertThat(infos).hasSize(2);
+		assertThat(infos.get(0).getCount()).isEqualTo(2);
+		assertThat(infos.get(0).getLimit()).isEqualTo(1000);
+		assertThat(infos.get(0).getTtl()).isBetween(1L, 3600L);
+
+		// 사용 전 토큰은 카운트 0, 제한은 등급 기본값, 키 없음(-2)
+		assertThat(infos.get(1).getCount()).isZero();
+		assertThat(infos.get(1).getLimit()).isEqualTo(10);
+		assertThat(infos.get(1).getTtl()).isEqualTo(-2);
+	}
+
+	@Test
+	@DisplayName("토큰 사용 이력 Stream 기록/기간 조회")
+	void usageHistoryTest() {
+		String token = "temp_" + System.nanoTime();
+		long from = System.currentTimeMillis();
+
+		// 1회 허용 + 1회 차단
+		tokenUsageLimitService.check(token);
+		tokenUsageLimitService.check(token);
+
+		// 백그라운드 기록을 기다리지 않고 바로 반영
+		tokenUsageHistoryService.flush();
+
+		List<TokenUsageEvent> history = tokenUsageHistoryService.getHistory(token, from, System.currentTimeMillis(), 10);
+		history.forEach(event -> System.out.println("이력: " + event));
+
+		assertThat(history).hasSize(2);
+		assertThat(history.get(0).isAllowed()).isTrue();
+		assertThat(history.get(0).getCount()).isEqualTo(1);
+		assertThat(history.get(0).getTimestamp()).isGreaterThanOrEqualTo(from);
+		assertThat(history.get(1).isAllowed()).isFalse();
+		assertThat(history.get(1).getLimit()).isEqualTo(1);
+
+		// 범위 밖은 조회되지 않음
+		assertThat(tokenUsageHistoryService.getHistory(token, 0, from - 1, 10)).isEmpty();
+	}
+}
@@ -0,0 +1,102 @@
+package com.daniel.practice.redis.service;
+
+import static org.assertj.core.api.Assertions.*;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest(properties = {
+	"rate-limit.user.lease.enabled=true",
+	"rate-limit.user.lease.ratio=0.05",
+	"rate-limit.user.lease.ttl=1m"
+})
+public class UserQuotaLeaseTests {
+
+	@Autowired
+	private UserRateLimitService userRateLimitService;
+
+	@Autowired
+	private UserQuotaLeaseService userQuotaLeaseService;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private StringRedisTemplate stringRedisTemplate;
+
+	@Test
+	@DisplayName("lease 실험 (enterprise: 시간당 10000회, 묶음 500개)")
+	void enterpriseLeaseTest() {
+		String userId = "enterprise_" + System.nanoTime();
+		int requests = 1000;
+
+		System.out.println("=== lease 실험 (" + requests + "회 요청) ===");
+
+		for (int i = 0; i < requests; i++) {
+			assertThat(userRateLimitService.isAllowedPerHour(userId)).isTrue();
+		}
+
+		// 500개 묶음 2번만 빌렸으므로 Redis 카운터는 정확히 요청 수와 같음
+		int hourlyCount = userRateLimitService.getCurrentHourlyCount(userId);
+		System.out.println("Redis 시간당 카운트: " + hourlyCount);
+		System.out.printf("lease 적중률: %.2f%%%n", userQuotaLeaseService.getHitRatio() * 100);
+
+		assertThat(hourlyCount).isEqualTo(requests);
+		assertThat(userQuotaLeaseService.getHitRatio()).isGreaterThan(0.9);
+	}
+
+	@Test
+	@DisplayName("lease 동시 대여 실험 (lease 가 비어 있을 때 몰린 요청은 한 번만 빌림)")
+	void concurrentBorrowTest() throws InterruptedException {
+		String userId = "enterprise_" + System.nanoTime();
+		int threadCount = 32;
+		int requestsPerThread = 10;
+		double missesBefore = missCount();
+
+		System.out.println("=== lease 동시 대여 실험 (" + threadCount + " 스레드 x " + requestsPerThread + "회) ===");
+
+		int allowed = ConcurrentRequests.run(threadCount, requestsPerThread,
+			() -> userRateLimitService.isAllowedPerHour(userId));
+
+		// 320회 요청은 500개 묶음 하나로 충분하므로 Redis 에서는 한 번만 빌림
+		double misses = missCount() - missesBefore;
+		int hourlyCount = userRateLimitService.getCurrentHourlyCount(userId);
+		System.out.println("허용된 요청: " + allowed + ", Redis 대여: " + (long) misses + "회, Redis 시간당 카운트: " + hourlyCount);
+
+		assertThat(allowed).isEqualTo(threadCount * requestsPerThread);
+		assertThat(misses).isEqualTo(1);
+		assertThat(hourlyCount).isEqualTo(500);
+	}
+
+	@Test
+	@DisplayName("lease 반납: 빌린 뒤 윈도우가 바뀌었으면 새 윈도우 카운터에서 빼지 않음")
+	void staleWindowReturnIgnored() {
+		String userId = "enterprise_" + System.nanoTime();
+		String key = UserRateLimitService.createHourlyKey(userId);
+
+		// 500개 묶음을 빌리고 1개 사용
+		assertThat(userRateLimitService.isAllowedPerHour(userId)).isTrue();
+		assertThat(stringRedisTemplate.opsForHash().get(key, "hourly")).isEqualTo("500");
+
+		// 윈도우 만료 후 새 윈도우에서 3회 요청된 상태
+		stringRedisTemplate.delete(key);
+		stringRedisTemplate.opsForHash().put(key, "hourly", "3");
+
+		// 남은 499개는 이전 윈도우 몫이므로 반납되지 않음
+		userQuotaLeaseService.releaseAll();
+		Object hourly = stringRedisTemplate.opsForHash().get(key, "hourly");
+		System.out.println("반납 후 새 윈도우 카운트: " + hourly);
+		assertThat(hourly).isEqualTo("3");
+
+		stringRedisTemplate.delete(key);
+	}
+
+	private double missCount() {
+		return meterRegistry.get("rate_limit.lease.requests").tag("result", "miss").counter().count();
+	}
+}
@@ -0,0 +1,122 @@
+package com.daniel.practice.redis.service;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import com.daniel.practice.redis.dto.RateLimitDecision;
+import com.daniel.practice.redis.policy.TierPolicyRegistry;
+
+@SpringBootTest
+public class UserRateLimitTests {
+
+	@Autowired
+	private UserRateLimitService userRateLimitService;
+
+	@Autowired
+	private TierPolicyRegistry tierPolicyRegistry;
+
+	@Autowired
+	private StringRedisTemplate stringRedisTemplate;
+
+	@Test
+	@DisplayName("GCRA 버스트 실험 (일반 사용자: 시간당 100회, 버스트 10회)")
+	void gcraBurstTest() {
+		// 이전 실행의 TAT 가 남아있지 않도록 매번 새 사용자 사용
+		String userId = "gcra_" + System.nanoTime();
+
+		System.out.println("=== GCRA 버스트 실험 ===");
+
+		// 버스트 용량(10회)까지는 연속 허용
+		for (int i = 1; i <= 10; i++) {
+			RateLimitDecision decision = userRateLimitService.checkGcra(userId);
+			System.out.println("요청 " + i + ": " + (decision.isAllowed() ? "허용" : "차단")
+				+ ", 사용 중인 버스트: " + decision.getCount() + "/" + decision.getLimit());
+			assertThat(decision.isAllowed()).isTrue();
+		}
+
+		// 11번째 요청은 방출 간격(36초)이 지나야 허용
+		RateLimitDecision decision = userRateLimitService.checkGcra(userId);
+		System.out.println("요청 11: " + (decision.isAllowed() ? "허용" : "차단")
+			+ ", 재시도까지: " + decision.getRetryAfterMillis() + "ms");
+		assertThat(decision.isAllowed()).isFalse();
+		assertThat(decision.getRetryAfterMillis()).isBetween(1L, 36_000L);
+	}
+
+	@Test
+	@DisplayName("등급 정책 변경이 Pub/Sub 으로 반영되는지 확인")
+	void tierPolicyUpdateTest() throws InterruptedException {
+		String prefix = "tier_" + System.nanoTime() + "_";
+		String userId = prefix + "user";
+
+		// 처음에는 기본 등급(시간당 100회)
+		assertThat(userRateLimitService.getUserHourlyLimit(userId)).isEqualTo(100);
+		assertThat(userRateLimitService.getUserHourlyLimit("premium_user")).isEqualTo(1000);
+
+		try {
+			tierPolicyRegistry.putUserPolicy(prefix, 500, 5000);
+
+			// 변경 알림은 비동기로 도착하므로 최대 2초 대기
+			long deadline = System.currentTimeMillis() + 2000;
+			while (userRateLimitService.getUserHourlyLimit(userId) != 500 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(20);
+			}
+			System.out.println("변경 후 등급: " + tierPolicyRegistry.getUserPolicy(userId));
+			assertThat(userRateLimitService.getUserHourlyLimit(userId)).isEqualTo(500);
+			assertThat(userRateLimitService.getUserDailyLimit(userId)).isEqualTo(5000);
+		} finally {
+			tierPolicyRegistry.removeUserPolicy(prefix);
+		}
+	}
+
+	@Test
+	@DisplayName("등급 정책 변경 알림을 놓쳐도 버전 확인(1초)으로 반영되는지 확인")
+	void tierPolicyMissedNotificationTest() throws InterruptedException {
+		String prefix = "tier_missed_" + System.nanoTime() + "_";
+		String userId = prefix + "user";
+
+		try {
+			// 알림 없이 Hash 수정 + 버전 증가 (다른 노드의 알림이 유실된 상황)
+			stringRedisTemplate.opsForHash().put("rate-limit:policy", "user:" + prefix, "300:3000");
+			stringRedisTemplate.opsForValue().increment("rate-limit:policy:version");
+
+			long deadline = System.currentTimeMillis() + 3000;
+			while (userRateLimitService.getUserHourlyLimit(userId) != 300 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(50);
+			}
+			System.out.println("버전 확인 후 등급: " + tierPolicyRegistry.getUserPolicy(userId)
+				+ ", 버전: " + tierPolicyRegistry.getVersion());
+			assertThat(userRateLimitService.getUserHourlyLimit(userId)).isEqualTo(300);
+		} finally {
+			tierPolicyRegistry.removeUserPolicy(prefix);
+		}
+	}
+
+	@Test
+	@DisplayName("일일 제한 동시성 실험 (일반 사용자: 일 1000회, 20스레드 × 100회)")
+	void dailyLimitConcurrencyTest() throws InterruptedException {
+		String userId = "daily_" + System.nanoTime();
+		String key = UserRateLimitService.createDailyKey(userId);
+
+		try {
+			System.out.println("=== 일일 제한 동시성 실험 ===");
+			int allowed = ConcurrentRequests.run(20, 100, () -> userRateLimitService.isAllowedPerDay(userId));
+			Long ttl = stringRedisTemplate.getExpire(key, TimeUnit.SECONDS);
+			System.out.println("허용: " + allowed + ", 카운트: " + userRateLimitService.getCurrentDailyCount(userId)
+				+ ", TTL: " + ttl + "초");
+
+			// 조회/증가/TTL 이 한 스크립트라 제한을 넘겨 허용하지 않고 키에는 항상 TTL 이 있음
+			assertThat(allowed).isEqualTo(1000);
+			assertThat(userRateLimitService.getCurrentDailyCount(userId)).isEqualTo(1000);
+			assertThat(ttl).isPositive().isLessThanOrEqualTo(86400);
+		} finally {
+			stringRedisTemplate.delete(key);
+		}
+	}
+}